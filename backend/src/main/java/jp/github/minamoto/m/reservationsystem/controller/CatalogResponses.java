@@ -0,0 +1,68 @@
+package jp.github.minamoto.m.reservationsystem.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import jp.github.minamoto.m.reservationsystem.service.catalog.CatalogCache.CatalogBody;
+
+/**
+ * シリアライズ済みのカタログ（診療科・医師一覧）のレスポンスを作る。
+ */
+final class CatalogResponses {
+
+	private CatalogResponses() {
+	}
+
+	/**
+	 * Accept-Encoding が gzip を受け付ける場合は gzip 版を Content-Encoding: gzip で返す。
+	 * If-None-Match が返す表現の ETag と一致する場合は 304 を返す。
+	 */
+	static ResponseEntity<byte[]> of(CatalogBody body, CacheControl cacheControl, WebRequest request) {
+		boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+		String etag = gzip ? body.gzipEtag() : body.etag();
+		if (request.checkNotModified(etag)) {
+			// ETag は checkNotModified で設定済み
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+				.cacheControl(cacheControl)
+				.varyBy(HttpHeaders.ACCEPT_ENCODING)
+				.build();
+		}
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+			.eTag(etag)
+			.cacheControl(cacheControl)
+			.varyBy(HttpHeaders.ACCEPT_ENCODING)
+			.contentType(MediaType.APPLICATION_JSON);
+		if (gzip) {
+			return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+		}
+		return builder.body(body.json());
+	}
+
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+				continue;
+			}
+			for (int i = 1; i < parts.length; i++) {
+				String parameter = parts[i].trim();
+				if (parameter.startsWith("q=")) {
+					try {
+						return Double.parseDouble(parameter.substring(2)) > 0;
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+}
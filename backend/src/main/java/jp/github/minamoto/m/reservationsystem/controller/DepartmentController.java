@@ -1,30 +1,31 @@
 package jp.github.minamoto.m.reservationsystem.controller;
 
-import java.util.List;
-
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import jp.github.minamoto.m.reservationsystem.dto.DepartmentResponseDTO;
-import jp.github.minamoto.m.reservationsystem.service.DepartmentService;
+import jp.github.minamoto.m.reservationsystem.service.catalog.CatalogCache;
 
 @RestController
 @RequestMapping("/v1/departments")
 public class DepartmentController {
-	private final DepartmentService departmentService;
+	private final CatalogCache catalogCache;
 	
-	public DepartmentController(DepartmentService departmentService) { 
-		this.departmentService = departmentService;
+	public DepartmentController(CatalogCache catalogCache) { 
+		this.catalogCache = catalogCache;
 	}
 	
 	/*
 	 * 診療科目一覧を取得する。
+	 * シリアライズ済みの一覧をメモリから返す（DBにはアクセスしない）。
+	 * If-None-Match が現在の ETag と一致する場合は 304 を返す。
 	 * 
-	 * @return 診療科目レスポンス
+	 * @return 診療科目レスポンス（JSON）
 	 */
 	@GetMapping
-	public List<DepartmentResponseDTO> findAll() {
-		return departmentService.findAll();
+	public ResponseEntity<byte[]> findAll(WebRequest request) {
+		return CatalogResponses.of(catalogCache.departments(), catalogCache.cacheControl(), request);
 	}
 }
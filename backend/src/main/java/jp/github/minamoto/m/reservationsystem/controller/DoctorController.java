@@ -1,42 +1,43 @@
 package jp.github.minamoto.m.reservationsystem.controller;
 
-import java.util.List;
-
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import jp.github.minamoto.m.reservationsystem.dto.DoctorResponseDTO;
-import jp.github.minamoto.m.reservationsystem.service.DoctorService;
+import jp.github.minamoto.m.reservationsystem.service.catalog.CatalogCache;
 
 @RestController
 @RequestMapping("/v1/doctors")
 public class DoctorController {
-	private final DoctorService doctorService;
+	private final CatalogCache catalogCache;
 	
-	public DoctorController(DoctorService doctorService) {
-		this.doctorService = doctorService;
+	public DoctorController(CatalogCache catalogCache) {
+		this.catalogCache = catalogCache;
 	}
 	
 	/*
 	 * 医師一覧を取得する。
+	 * シリアライズ済みの一覧をメモリから返す（DBにはアクセスしない）。
+	 * If-None-Match が現在の ETag と一致する場合は 304 を返す。
 	 * 
-	 * @return 医師一覧レスポンス
+	 * @return 医師一覧レスポンス（JSON）
 	 */
 	@GetMapping
-	public List<DoctorResponseDTO> findAll() {
-		return doctorService.findAll();
+	public ResponseEntity<byte[]> findAll(WebRequest request) {
+		return CatalogResponses.of(catalogCache.doctors(), catalogCache.cacheControl(), request);
 	}
 
 	/*
 	 * 診療科目IDを指定して医師情報を取得する。
 	 * 
 	 * @param departmentId 診療科目ID
-	 * @return 医師情報レスポンス
+	 * @return 医師情報レスポンス（JSON）
 	 */
 	@GetMapping("/{departmentId}")
-	public List<DoctorResponseDTO> findByDepartmentId(@PathVariable Long departmentId) {
-		return doctorService.findByDepartmentId(departmentId);
+	public ResponseEntity<byte[]> findByDepartmentId(@PathVariable Long departmentId, WebRequest request) {
+		return CatalogResponses.of(catalogCache.doctors(departmentId), catalogCache.cacheControl(), request);
 	}
 }
@@ -0,0 +1,71 @@
+package jp.github.minamoto.m.reservationsystem.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jp.github.minamoto.m.reservationsystem.dto.DoctorScheduleDTO;
+import jp.github.minamoto.m.reservationsystem.dto.SlotGenerationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.schedule.DoctorScheduleService;
+import jp.github.minamoto.m.reservationsystem.service.schedule.SlotGenerator;
+
+@RestController
+public class DoctorScheduleController {
+	private final DoctorScheduleService doctorScheduleService;
+	private final SlotGenerator slotGenerator;
+
+	public DoctorScheduleController(DoctorScheduleService doctorScheduleService, SlotGenerator slotGenerator) {
+		this.doctorScheduleService = doctorScheduleService;
+		this.slotGenerator = slotGenerator;
+	}
+
+	/*
+	 * 医師の勤務時間を取得する（管理者のみ）。
+	 *
+	 * @param doctorId 医師ID
+	 * @return 勤務時間
+	 */
+	@GetMapping("/v1/admin/doctors/{doctorId}/schedule")
+	public ResponseEntity<DoctorScheduleDTO> find(@PathVariable Long doctorId) {
+		return ResponseEntity.ok(doctorScheduleService.find(doctorId));
+	}
+
+	/*
+	 * 医師の勤務時間を置き換え、生成期間の予約枠に反映する（管理者のみ）。
+	 *
+	 * <p>勤務時間が変わった日の予約枠だけを作り直す。</p>
+	 *
+	 * @param doctorId 医師ID
+	 * @param dto 勤務時間
+	 * @return 反映結果
+	 */
+	@PutMapping("/v1/admin/doctors/{doctorId}/schedule")
+	public ResponseEntity<SlotGenerationResponseDTO> replace(@PathVariable Long doctorId,
+			@RequestBody DoctorScheduleDTO dto) {
+		doctorScheduleService.replace(doctorId, dto);
+		return ResponseEntity.ok(slotGenerator.generateHorizon(doctorId));
+	}
+
+	/*
+	 * 期間内の予約枠を勤務時間に合わせて作る（管理者のみ）。
+	 *
+	 * @param doctorId 医師ID（省略時は全医師）
+	 * @param from 開始日
+	 * @param to 終了日
+	 * @return 反映結果
+	 */
+	@PostMapping("/v1/admin/schedules/generate")
+	public ResponseEntity<SlotGenerationResponseDTO> generate(@RequestParam(required = false) Long doctorId,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return ResponseEntity.ok(slotGenerator.generate(doctorId, from, to));
+	}
+}
@@ -0,0 +1,55 @@
+package jp.github.minamoto.m.reservationsystem.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jp.github.minamoto.m.reservationsystem.dto.OpenSlotCounterMismatchDTO;
+import jp.github.minamoto.m.reservationsystem.dto.OpenSlotCounterRebuildResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.calendar.OpenSlotCounterService;
+
+@RestController
+@RequestMapping("/v1/admin/calendar/counters")
+public class OpenSlotCounterController {
+	private final OpenSlotCounterService openSlotCounterService;
+
+	public OpenSlotCounterController(OpenSlotCounterService openSlotCounterService) {
+		this.openSlotCounterService = openSlotCounterService;
+	}
+
+	/*
+	 * 期間内の空き枠カウンタを time_slot と突き合わせる（管理者のみ）。
+	 *
+	 * @param from 開始日
+	 * @param to 終了日
+	 * @return 食い違いのある医師×日（なければ空）
+	 */
+	@GetMapping("/verify")
+	public ResponseEntity<List<OpenSlotCounterMismatchDTO>> verify(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return ResponseEntity.ok(openSlotCounterService.verify(from, to));
+	}
+
+	/*
+	 * 期間内の空き枠カウンタを time_slot から作り直す（管理者のみ）。
+	 *
+	 * @param from 開始日
+	 * @param to 終了日
+	 * @return 作り直した医師×日の数
+	 */
+	@PostMapping("/rebuild")
+	public ResponseEntity<OpenSlotCounterRebuildResponseDTO> rebuild(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		int days = openSlotCounterService.rebuild(from, to);
+		return ResponseEntity.ok(new OpenSlotCounterRebuildResponseDTO(from, to, days));
+	}
+}
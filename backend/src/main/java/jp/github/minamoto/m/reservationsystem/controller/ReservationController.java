@@ -1,42 +1,124 @@
 package jp.github.minamoto.m.reservationsystem.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import jp.github.minamoto.m.reservationsystem.domain.ReservationBatchMode;
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationBatchRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationBatchResponseDTO;
 import jp.github.minamoto.m.reservationsystem.dto.ReservationCancelResponseDTO;
 import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
 import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.ReservationBatchService;
+import jp.github.minamoto.m.reservationsystem.service.ReservationSearchService;
+import jp.github.minamoto.m.reservationsystem.service.ReservationSearchService.ReservationPage;
 import jp.github.minamoto.m.reservationsystem.service.ReservationService;
+import jp.github.minamoto.m.reservationsystem.service.admission.AdmissionService;
+import jp.github.minamoto.m.reservationsystem.service.idempotency.IdempotencyService;
+import jp.github.minamoto.m.reservationsystem.service.idempotency.IdempotencyService.IdempotentResult;
+import jp.github.minamoto.m.reservationsystem.service.pipeline.BookingPipeline;
 
 @RestController
 @RequestMapping("/v1/reservations")
 public class ReservationController {
+	private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
 	private final ReservationService reservationService;
+	private final ReservationSearchService reservationSearchService;
+	private final ReservationBatchService reservationBatchService;
+	private final BookingPipeline bookingPipeline;
+	private final IdempotencyService idempotencyService;
+	private final AdmissionService admissionService;
 	
-	public ReservationController(ReservationService reservationService) {
+	public ReservationController(ReservationService reservationService,
+			ReservationSearchService reservationSearchService,
+			ReservationBatchService reservationBatchService, BookingPipeline bookingPipeline,
+			IdempotencyService idempotencyService, AdmissionService admissionService) {
 		this.reservationService = reservationService;
+		this.reservationSearchService = reservationSearchService;
+		this.reservationBatchService = reservationBatchService;
+		this.bookingPipeline = bookingPipeline;
+		this.idempotencyService = idempotencyService;
+		this.admissionService = admissionService;
 	}
 	
 	/*
 	 * 予約を作成する。
 	 * 
+	 * <p>パイプラインが有効な場合は医師ごとのシャードに振り分け、グループコミット後に結果を返す。</p>
+	 * 
+	 * <p>Idempotency-Key ヘッダーが指定され、同じキーの結果が保存済みの場合は予約処理を行わずに
+	 * 保存済みのレスポンスを Idempotent-Replayed ヘッダー付きで返す。</p>
+	 * 
+	 * <p>入場制御が有効な場合、順番が来ていなければ 429 と待ち番号チケットを返す。
+	 * 仮押さえ済み（holdToken 指定）の予約は仮押さえの時点で入場済みとみなす。</p>
+	 * 
+	 * @param idempotencyKey Idempotency-Key（任意）
+	 * @param queueTicket 待ち番号チケット（任意）
 	 * @param 予約作成リクエストDTO
 	 * @return 作成された予約情報
 	 */
 	@PostMapping
-	public ReservationResponseDTO create(@RequestBody ReservationCreateRequestDTO dto) {
+	public ResponseEntity<?> create(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+			@RequestHeader(value = "Queue-Ticket", required = false) String queueTicket,
+			@RequestBody ReservationCreateRequestDTO dto) {
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return ResponseEntity.ok(doCreate(dto, queueTicket));
+		}
+		
+		IdempotentResult<ReservationResponseDTO> result = idempotencyService.execute(idempotencyKey, dto,
+				() -> doCreate(dto, queueTicket));
+		if (result.isReplayed()) {
+			return ResponseEntity.status(result.replay().status())
+				.header("Idempotent-Replayed", "true")
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(result.replay().body());
+		}
+		return ResponseEntity.ok(result.value());
+	}
+	
+	private ReservationResponseDTO doCreate(ReservationCreateRequestDTO dto, String queueTicket) {
+		if (dto.getHoldToken() == null) {
+			admissionService.admit(dto.getTimeSlotId(), queueTicket);
+		}
+		if (bookingPipeline.isEnabled()) {
+			return bookingPipeline.create(dto);
+		}
 		return reservationService.create(dto);
 	}
 	
+	/*
+	 * 複数の予約枠をまとめて予約する。
+	 * 
+	 * <p>ALL_OR_NOTHING で予約できない明細があった場合は何も登録せず 409 を返す。</p>
+	 * 
+	 * @param dto 一括予約リクエストDTO
+	 * @return 明細ごとの結果
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<ReservationBatchResponseDTO> createBatch(@RequestBody ReservationBatchRequestDTO dto) {
+		ReservationBatchResponseDTO result = reservationBatchService.createBatch(dto);
+		boolean rejected = ReservationBatchMode.ALL_OR_NOTHING.name().equals(result.getMode()) && result.getFailed() > 0;
+
+		return ResponseEntity.status(rejected ? HttpStatus.CONFLICT : HttpStatus.OK).body(result);
+	}
+	
 	/*
 	 * 予約IDを指定して予約をキャンセルする。
 	 * 
@@ -46,17 +128,43 @@ public class ReservationController {
 	@PatchMapping("/{reservationId}/cancel")
 	@ResponseStatus(HttpStatus.OK)
 	public ReservationCancelResponseDTO cancel(@PathVariable Long reservationId) {
+		if (bookingPipeline.isEnabled()) {
+			return bookingPipeline.cancel(reservationId);
+		}
 		return reservationService.cancel(reservationId);
 	}
 	
 	/*
-	 * 予約済みの予約一覧を取得する。
+	 * 予約一覧を1ページ分取得する。
+	 * 
+	 * <p>予約枠の日付・開始時刻・予約ID順。次のページがある場合は X-Next-Cursor ヘッダーにカーソルを返し、
+	 * 次のリクエストの cursor に同じ条件と合わせて指定する。本文は従来どおり予約の配列。</p>
 	 * 
+	 * @param status 予約のステータス（省略時は CONFIRMED）
+	 * @param from 開始日（任意）
+	 * @param to 終了日（任意）
+	 * @param doctorId 医師ID（任意）
+	 * @param departmentId 診療科ID（任意）
+	 * @param cursor 前のページの X-Next-Cursor（任意）
+	 * @param limit 1ページの件数（任意）
 	 * @return 予約レスポンスDTOのリスト
 	 */
 	@GetMapping
-	public List<ReservationResponseDTO> findAllConfirmed() {
-		return reservationService.findAllConfirmed();
+	public ResponseEntity<List<ReservationResponseDTO>> findPage(
+			@RequestParam(required = false) ReservationStatus status,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(required = false) Long doctorId,
+			@RequestParam(required = false) Long departmentId,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer limit) {
+		ReservationPage page = reservationSearchService.findPage(status, from, to, doctorId, departmentId, cursor, limit);
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (page.nextCursor() != null) {
+			response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+		}
+		return response.body(page.reservations());
 	}
 	
 	/*
@@ -0,0 +1,63 @@
+package jp.github.minamoto.m.reservationsystem.controller;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationSearch;
+import jp.github.minamoto.m.reservationsystem.service.export.ExportFormat;
+import jp.github.minamoto.m.reservationsystem.service.export.ReservationExportService;
+
+@RestController
+@RequestMapping("/v1/admin/reservations")
+public class ReservationExportController {
+	private final ReservationExportService reservationExportService;
+
+	public ReservationExportController(ReservationExportService reservationExportService) {
+		this.reservationExportService = reservationExportService;
+	}
+
+	/*
+	 * 予約を CSV または NDJSON でダウンロードする（管理者のみ）。
+	 *
+	 * <p>DBから読んだ行をそのままレスポンスに書き出す。件数が多くても全件をメモリに溜めない。
+	 * 非同期リクエストのタイムアウトで途中で切れないよう、リクエストのスレッドで書き出す。</p>
+	 *
+	 * @param format 出力形式（csv / ndjson、省略時は csv）
+	 * @param status 予約のステータス（省略時はすべて）
+	 * @param from 開始日（任意）
+	 * @param to 終了日（任意）
+	 * @param doctorId 医師ID（任意）
+	 * @param departmentId 診療科ID（任意）
+	 */
+	@GetMapping("/export")
+	public void export(@RequestParam(defaultValue = "csv") String format,
+			@RequestParam(required = false) ReservationStatus status,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(required = false) Long doctorId,
+			@RequestParam(required = false) Long departmentId,
+			HttpServletResponse response) throws IOException {
+		ExportFormat exportFormat = ExportFormat.of(format);
+		ReservationSearch search = new ReservationSearch(status, from, to, doctorId, departmentId);
+		// 条件の誤りはヘッダーを設定する前に通常のエラーレスポンスとして返す
+		reservationExportService.validate(search);
+
+		response.setContentType(exportFormat.contentType());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+				.filename("reservations." + exportFormat.extension())
+				.build().toString());
+		// nginx にバッファさせず、書き出した分からクライアントへ送らせる
+		response.setHeader("X-Accel-Buffering", "no");
+		reservationExportService.export(search, exportFormat, response.getOutputStream());
+	}
+}
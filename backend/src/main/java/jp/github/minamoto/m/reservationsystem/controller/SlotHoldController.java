@@ -0,0 +1,58 @@
+package jp.github.minamoto.m.reservationsystem.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import jp.github.minamoto.m.reservationsystem.dto.SlotHoldRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.SlotHoldResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.admission.AdmissionService;
+import jp.github.minamoto.m.reservationsystem.service.hold.SlotHoldService;
+
+@RestController
+@RequestMapping("/v1/holds")
+public class SlotHoldController {
+	private final SlotHoldService slotHoldService;
+	private final AdmissionService admissionService;
+
+	public SlotHoldController(SlotHoldService slotHoldService, AdmissionService admissionService) {
+		this.slotHoldService = slotHoldService;
+		this.admissionService = admissionService;
+	}
+
+	/*
+	 * 予約枠を仮押さえする。
+	 * 
+	 * <p>返却した holdToken を予約作成リクエストに指定すると、期限内であれば予約が確定する。</p>
+	 * 
+	 * <p>入場制御が有効な場合、順番が来ていなければ 429 と待ち番号チケットを返す。</p>
+	 * 
+	 * @param queueTicket 待ち番号チケット（任意）
+	 * @param dto 仮押さえリクエストDTO
+	 * @return 仮押さえトークンと期限
+	 */
+	@PostMapping
+	@ResponseStatus(HttpStatus.CREATED)
+	public SlotHoldResponseDTO hold(@RequestHeader(value = "Queue-Ticket", required = false) String queueTicket,
+			@RequestBody SlotHoldRequestDTO dto) {
+		admissionService.admit(dto.getTimeSlotId(), queueTicket);
+		return slotHoldService.hold(dto.getTimeSlotId());
+	}
+
+	/*
+	 * 仮押さえを取り消す。
+	 * 
+	 * @param holdToken 仮押さえトークン
+	 */
+	@DeleteMapping("/{holdToken}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void release(@PathVariable String holdToken) {
+		slotHoldService.release(holdToken);
+	}
+}
@@ -1,27 +1,57 @@
 package jp.github.minamoto.m.reservationsystem.controller;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jp.github.minamoto.m.reservationsystem.dto.CalendarDayResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.DoctorAvailabilityResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.NextAvailableSlotResponseDTO;
 import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotBulkStatusRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotBulkStatusResponseDTO;
 import jp.github.minamoto.m.reservationsystem.dto.TimeSlotStatusResponseDTO;
 import jp.github.minamoto.m.reservationsystem.service.TimeSlotService;
+import jp.github.minamoto.m.reservationsystem.service.availability.AvailabilityService;
+import jp.github.minamoto.m.reservationsystem.service.calendar.CalendarService;
+import jp.github.minamoto.m.reservationsystem.service.stream.SlotChangeHub;
+import jp.github.minamoto.m.reservationsystem.service.timeslot.TimeSlotBulkService;
+import jp.github.minamoto.m.reservationsystem.service.version.SlotVersionService;
 
 @RestController
 public class TimeSlotController {
 
     private final TimeSlotService timeSlotService;
+    private final AvailabilityService availabilityService;
+    private final SlotVersionService slotVersionService;
+    private final SlotChangeHub slotChangeHub;
+    private final CalendarService calendarService;
+    private final TimeSlotBulkService timeSlotBulkService;
 
-    public TimeSlotController(TimeSlotService timeSlotService) {
+    public TimeSlotController(TimeSlotService timeSlotService, AvailabilityService availabilityService,
+            SlotVersionService slotVersionService, SlotChangeHub slotChangeHub, CalendarService calendarService,
+            TimeSlotBulkService timeSlotBulkService) {
         this.timeSlotService = timeSlotService;
+        this.availabilityService = availabilityService;
+        this.slotVersionService = slotVersionService;
+        this.slotChangeHub = slotChangeHub;
+        this.calendarService = calendarService;
+        this.timeSlotBulkService = timeSlotBulkService;
     }
     
     /**
@@ -46,10 +76,34 @@ public class TimeSlotController {
         return ResponseEntity.ok(timeSlotService.open(timeSlotId));
     }
 
+    /**
+     * 医師・期間（・時間帯）を指定して予約枠をまとめて閉じる（管理者のみ）。
+     *
+     * @param dto 医師ID, from, to（yyyy-MM-dd、両端を含む）, startTime, endTime（任意）
+     * @return 閉じた予約枠のIDと件数
+     */
+    @PutMapping("/v1/admin/timeslots/close")
+    public ResponseEntity<TimeSlotBulkStatusResponseDTO> closeRange(@RequestBody TimeSlotBulkStatusRequestDTO dto) {
+        return ResponseEntity.ok(timeSlotBulkService.close(dto));
+    }
+
+    /**
+     * 医師・期間（・時間帯）を指定して予約枠をまとめて開く（管理者のみ）。予約がある枠は開かない。
+     *
+     * @param dto 医師ID, from, to（yyyy-MM-dd、両端を含む）, startTime, endTime（任意）
+     * @return 開いた予約枠・予約があるため開けなかった予約枠のIDと件数
+     */
+    @PutMapping("/v1/admin/timeslots/open")
+    public ResponseEntity<TimeSlotBulkStatusResponseDTO> openRange(@RequestBody TimeSlotBulkStatusRequestDTO dto) {
+        return ResponseEntity.ok(timeSlotBulkService.open(dto));
+    }
+
 
     /**
      * 日付と医師IDを指定して空き予約枠（OPEN）を取得する。
      * クエリパラメータ: doctorId, date（yyyy-MM-dd）
+     * If-None-Match が医師×日の現在の ETag と一致する場合は枠を取得せずに 304 を返す。
+     * 200 で返す一覧には、一覧と同じ読み取り元から作った ETag を付ける。
      *
      * @param doctorId 医師ID（前ステップで選択した医師）
      * @param date 予約希望日（カレンダーで選択した日付）
@@ -57,8 +111,101 @@ public class TimeSlotController {
      */
     @GetMapping("/v1/timeslots")
     public ResponseEntity<List<TimeSlotAvailableResponseDTO>> findAvailable(
+            @RequestParam Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest request) {
+        String current = slotVersionService.etag(doctorId, date);
+        if (request.checkNotModified(current)) {
+            return notModified(current);
+        }
+        TimeSlotService.AvailableSlots available = timeSlotService.findAvailableWithEtag(date, doctorId);
+        if (request.checkNotModified(available.etag())) {
+            return notModified(available.etag());
+        }
+        return ResponseEntity.ok()
+                .eTag(available.etag())
+                .cacheControl(slotVersionService.cacheControl())
+                .body(available.slots());
+    }
+
+    private ResponseEntity<List<TimeSlotAvailableResponseDTO>> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(slotVersionService.cacheControl())
+                .build();
+    }
+
+    /**
+     * 医師×日の予約枠のステータス変更を SSE で購読する。
+     * 接続直後に ready、以降は変更があるたびに slots イベント（変更された枠の ID・開始時刻・ステータス）を送る。
+     * クライアントは ready を受け取ったら GET /v1/timeslots で現在の状態を取得し、以降は差分を反映する。
+     * 変更を配信しきれなかった場合は resync を送るので、ready と同様に現在の状態を取得し直す。
+     *
+     * @param doctorId 医師ID
+     * @param date 日付
+     * @return SSE ストリーム
+     */
+    @GetMapping(value = "/v1/timeslots/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
             @RequestParam Long doctorId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return ResponseEntity.ok(timeSlotService.findAvailable(date, doctorId));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                // nginx にバッファリングさせない
+                .header("X-Accel-Buffering", "no")
+                .body(slotChangeHub.subscribe(doctorId, date));
+    }
+
+    /**
+     * 診療科または複数の医師について、期間内の空き予約枠（OPEN）を医師・日付ごとにまとめて取得する。
+     * クエリパラメータ: departmentId または doctorIds（カンマ区切り）, from, to（yyyy-MM-dd、両端を含む）
+     *
+     * @param departmentId 診療科ID
+     * @param doctorIds 医師IDのリスト
+     * @param from 開始日
+     * @param to 終了日
+     * @return 医師ごとの空き予約枠
+     */
+    @GetMapping("/v1/timeslots/range")
+    public ResponseEntity<List<DoctorAvailabilityResponseDTO>> findAvailableInRange(
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) List<Long> doctorIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(availabilityService.findAvailableInRange(departmentId, doctorIds, from, to));
+    }
+
+    /**
+     * 診療科で最も早い空き予約枠（OPEN）を開始日時順に取得する。
+     * クエリパラメータ: departmentId, after（yyyy-MM-ddTHH:mm、任意）, limit（任意、デフォルト5）
+     *
+     * @param departmentId 診療科ID
+     * @param after この日時以降に始まる枠を対象にする
+     * @param limit 取得件数
+     * @return 空き予約枠のDTOリスト
+     */
+    @GetMapping("/v1/timeslots/earliest")
+    public ResponseEntity<List<NextAvailableSlotResponseDTO>> findEarliest(
+            @RequestParam Long departmentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(availabilityService.findEarliest(departmentId, after, limit));
+    }
+
+    /**
+     * 医師または診療科について、月の各日の空き予約枠（OPEN）の件数を取得する（月カレンダー用）。
+     * クエリパラメータ: doctorId または departmentId, month（yyyy-MM）
+     *
+     * @param doctorId 医師ID
+     * @param departmentId 診療科ID
+     * @param month 月
+     * @return 日ごとの空き枠の件数（月のすべての日）
+     */
+    @GetMapping("/v1/timeslots/calendar")
+    public ResponseEntity<List<CalendarDayResponseDTO>> findCalendar(
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        return ResponseEntity.ok(calendarService.findMonth(doctorId, departmentId, month));
     }
 }
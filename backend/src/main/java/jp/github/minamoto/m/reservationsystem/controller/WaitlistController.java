@@ -0,0 +1,61 @@
+package jp.github.minamoto.m.reservationsystem.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import jp.github.minamoto.m.reservationsystem.dto.WaitlistEntryRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.WaitlistEntryResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.WaitlistService;
+
+@RestController
+@RequestMapping("/v1/waitlist")
+public class WaitlistController {
+	private final WaitlistService waitlistService;
+
+	public WaitlistController(WaitlistService waitlistService) {
+		this.waitlistService = waitlistService;
+	}
+
+	/*
+	 * 順番待ちに登録する。
+	 * 
+	 * <p>キャンセルが出た時点で先頭から自動的に予約が作成されるため、空き状況をポーリングする必要はない。</p>
+	 * 
+	 * @param dto 順番待ち登録リクエストDTO
+	 * @return 登録された順番待ち
+	 */
+	@PostMapping
+	@ResponseStatus(HttpStatus.CREATED)
+	public WaitlistEntryResponseDTO enqueue(@RequestBody WaitlistEntryRequestDTO dto) {
+		return waitlistService.enqueue(dto);
+	}
+
+	/*
+	 * 順番待ちの状態を取得する。
+	 * 
+	 * @param waitlistEntryId 順番待ちID
+	 * @return 順番待ちレスポンスDTO
+	 */
+	@GetMapping("/{waitlistEntryId}")
+	public WaitlistEntryResponseDTO findById(@PathVariable Long waitlistEntryId) {
+		return waitlistService.findById(waitlistEntryId);
+	}
+
+	/*
+	 * 順番待ちを取り消す。
+	 * 
+	 * @param waitlistEntryId 順番待ちID
+	 * @return 取り消された順番待ち
+	 */
+	@PatchMapping("/{waitlistEntryId}/cancel")
+	public WaitlistEntryResponseDTO cancel(@PathVariable Long waitlistEntryId) {
+		return waitlistService.cancel(waitlistEntryId);
+	}
+}
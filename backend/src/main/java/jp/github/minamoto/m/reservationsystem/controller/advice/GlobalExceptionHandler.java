@@ -4,14 +4,29 @@ import java.util.Map;
 
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import jp.github.minamoto.m.reservationsystem.service.exception.BookingOverloadedException;
+import jp.github.minamoto.m.reservationsystem.service.exception.BookingQueuedException;
 import jp.github.minamoto.m.reservationsystem.service.exception.EmailAlreadyRegisteredException;
+import jp.github.minamoto.m.reservationsystem.service.exception.IdempotencyKeyInProgressException;
+import jp.github.minamoto.m.reservationsystem.service.exception.IdempotencyKeyReusedException;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidAvailabilityQueryException;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidReservationQueryException;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidScheduleException;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidTimeSlotRangeException;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidWaitlistRequestException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
 import jp.github.minamoto.m.reservationsystem.service.exception.ReservationNotFoundException;
+import jp.github.minamoto.m.reservationsystem.service.exception.SlotHoldExpiredException;
+import jp.github.minamoto.m.reservationsystem.service.exception.SubscriberLimitExceededException;
 import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotAlreadyTakenException;
+import jp.github.minamoto.m.reservationsystem.service.exception.WaitlistEntryNotFoundException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -54,4 +69,134 @@ public class GlobalExceptionHandler {
             "message", ex.getMessage()
         );
     }
+
+    @ExceptionHandler(BookingOverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleBookingOverloaded(BookingOverloadedException ex) {
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(Map.of(
+                "error", "BOOKING_OVERLOADED",
+                "message", ex.getMessage()
+            ));
+    }
+
+    @ExceptionHandler(BookingQueuedException.class)
+    public ResponseEntity<Map<String, Object>> handleBookingQueued(BookingQueuedException ex) {
+        return ResponseEntity
+            .status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .header("Queue-Ticket", ex.getTicket())
+            .body(Map.of(
+                "error", "BOOKING_QUEUED",
+                "message", ex.getMessage(),
+                "ticket", ex.getTicket(),
+                "position", ex.getPosition()
+            ));
+    }
+
+    @ExceptionHandler(RequestLimitExceededException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleRequestLimitExceeded(RequestLimitExceededException ex) {
+        return Map.of(
+            "error", "REQUEST_LIMIT_EXCEEDED",
+            "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException ex) {
+        return Map.of(
+            "error", "IDEMPOTENCY_KEY_IN_PROGRESS",
+            "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_CONTENT)
+    public Map<String, String> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        return Map.of(
+            "error", "IDEMPOTENCY_KEY_REUSED",
+            "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(SlotHoldExpiredException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public Map<String, String> handleSlotHoldExpired(SlotHoldExpiredException ex) {
+        return Map.of(
+            "error", "SLOT_HOLD_EXPIRED",
+            "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(WaitlistEntryNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public Map<String, String> handleWaitlistEntryNotFound(WaitlistEntryNotFoundException ex) {
+        return Map.of(
+            "error", "WAITLIST_ENTRY_NOT_FOUND",
+            "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(InvalidWaitlistRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleInvalidWaitlistRequest(InvalidWaitlistRequestException ex) {
+        return Map.of(
+            "error", "INVALID_WAITLIST_REQUEST",
+            "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(InvalidAvailabilityQueryException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleInvalidAvailabilityQuery(InvalidAvailabilityQueryException ex) {
+        return Map.of(
+            "error", "INVALID_AVAILABILITY_QUERY",
+            "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(InvalidReservationQueryException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleInvalidReservationQuery(InvalidReservationQueryException ex) {
+        return Map.of(
+            "error", "INVALID_RESERVATION_QUERY",
+            "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(InvalidScheduleException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleInvalidSchedule(InvalidScheduleException ex) {
+        return Map.of(
+            "error", "INVALID_SCHEDULE",
+            "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(InvalidTimeSlotRangeException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleInvalidTimeSlotRange(InvalidTimeSlotRangeException ex) {
+        return Map.of(
+            "error", "INVALID_TIME_SLOT_RANGE",
+            "message", ex.getMessage()
+        );
+    }
+
+    /*
+     * SSE のリクエスト（Accept: text/event-stream）でもエラーを返せるよう Content-Type を明示する。
+     */
+    @ExceptionHandler(SubscriberLimitExceededException.class)
+    public ResponseEntity<Map<String, String>> handleSubscriberLimitExceeded(SubscriberLimitExceededException ex) {
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of(
+                "error", "SUBSCRIBER_LIMIT_EXCEEDED",
+                "message", ex.getMessage()
+            ));
+    }
 }
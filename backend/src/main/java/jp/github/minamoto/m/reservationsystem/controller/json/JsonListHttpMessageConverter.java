@@ -0,0 +1,72 @@
+package jp.github.minamoto.m.reservationsystem.controller.json;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractSmartHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+
+/**
+ * {@code List<TimeSlotAvailableResponseDTO>}・{@code List<ReservationResponseDTO>} のレスポンスを
+ * {@link JsonListWriter} で書き出す。それ以外の型は Jackson のコンバーターに任せる。
+ *
+ * <p>HttpMessageConverter の Bean は Spring Boot が標準のコンバーターより前に登録するため、
+ * コントローラーの戻り値の型を変えずに対象の一覧だけがこの経路になる。</p>
+ */
+@Component
+public class JsonListHttpMessageConverter extends AbstractSmartHttpMessageConverter<List<?>> {
+
+	public JsonListHttpMessageConverter() {
+		super(MediaType.APPLICATION_JSON);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return List.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canRead(ResolvableType type, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	public boolean canWrite(ResolvableType targetType, Class<?> valueClass, MediaType mediaType) {
+		return supports(valueClass) && elementType(targetType) != null && canWrite(mediaType);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(List<?> list, ResolvableType type, HttpOutputMessage outputMessage,
+			Map<String, Object> hints) throws IOException {
+		if (elementType(type) == TimeSlotAvailableResponseDTO.class) {
+			JsonListWriter.writeTimeSlots((List<TimeSlotAvailableResponseDTO>) list, outputMessage.getBody());
+		} else {
+			JsonListWriter.writeReservations((List<ReservationResponseDTO>) list, outputMessage.getBody());
+		}
+	}
+
+	@Override
+	public List<?> read(ResolvableType type, HttpInputMessage inputMessage, Map<String, Object> hints)
+			throws HttpMessageNotReadableException {
+		throw new HttpMessageNotReadableException("Reading is not supported", inputMessage);
+	}
+
+	/**
+	 * 対象の一覧であれば要素の型、それ以外は null を返す。
+	 */
+	private static Class<?> elementType(ResolvableType type) {
+		Class<?> element = type.asCollection().resolveGeneric(0);
+		return element == TimeSlotAvailableResponseDTO.class || element == ReservationResponseDTO.class
+				? element : null;
+	}
+}
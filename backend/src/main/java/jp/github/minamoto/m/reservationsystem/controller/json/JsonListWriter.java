@@ -0,0 +1,316 @@
+package jp.github.minamoto.m.reservationsystem.controller.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import jp.github.minamoto.m.reservationsystem.json.JsonEscapes;
+
+/**
+ * 予約枠・予約の一覧を、Jackson を介さずに JSON としてそのまま出力ストリームへ書き出す。
+ *
+ * <p>フィールド名などの固定部分、1日分の "HH:mm"／"HH:mm:ss" の時刻文字列、ステータス名は起動時に
+ * UTF-8 のバイト列にしておき、行ごとにはコピーするだけにする。数値・日付もバッファへ直接書くため、
+ * 1行あたりの割り当てはほぼない（1レスポンスにつき、一覧の大きさに合わせた最大 8KB のバッファ1つ）。</p>
+ *
+ * <p>出力は Jackson（Spring Boot の設定）と同じバイト列になる。フィールドの順序は Jackson 3 の規則
+ * （コンストラクタの引数を先頭、それ以外はアルファベット順）に合わせている。DTO にフィールドを追加した場合は
+ * ここも変更すること（JsonListWriterTest で Jackson の出力と比較している）。</p>
+ */
+public final class JsonListWriter {
+	private static final int MAX_BUFFER_SIZE = 8192;
+	private static final int MIN_BUFFER_SIZE = 64;
+	// 1行あたりのおおよそのバイト数（バッファの大きさの見積もりに使う）
+	private static final int SLOT_ROW_BYTES = 40;
+	private static final int RESERVATION_ROW_BYTES = 160;
+	private static final int MINUTES_PER_DAY = 24 * 60;
+
+	private static final byte[] SLOT_TIME_SLOT_ID = utf8("{\"timeSlotId\":");
+	private static final byte[] SLOT_START_TIME = utf8(",\"startTime\":");
+
+	private static final byte[] RESERVATION_DATE = utf8("{\"date\":");
+	private static final byte[] RESERVATION_END_TIME = utf8(",\"endTime\":");
+	private static final byte[] RESERVATION_NAME = utf8(",\"name\":");
+	private static final byte[] RESERVATION_ID = utf8(",\"reservationId\":");
+	private static final byte[] RESERVATION_START_TIME = utf8(",\"startTime\":");
+	private static final byte[] RESERVATION_STATUS = utf8(",\"status\":");
+	private static final byte[] RESERVATION_TIME_SLOT_ID = utf8(",\"timeSlotId\":");
+
+	private static final byte[] NULL = utf8("null");
+
+	/** 分単位の "HH:mm"（引用符付き）。TimeSlotAvailableResponseDTO の startTime 用 */
+	private static final byte[][] MINUTE_LABELS = new byte[MINUTES_PER_DAY][];
+	/** 分単位の "HH:mm:ss"（引用符付き）。LocalTime（秒・ナノ秒が0）用 */
+	private static final byte[][] MINUTE_TIMES = new byte[MINUTES_PER_DAY][];
+	private static final Map<String, byte[]> STATUSES = new HashMap<>();
+
+	static {
+		for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+			LocalTime time = LocalTime.of(minute / 60, minute % 60);
+			MINUTE_LABELS[minute] = utf8('"' + time.format(DateTimeFormatter.ofPattern("HH:mm")) + '"');
+			MINUTE_TIMES[minute] = utf8('"' + time.format(DateTimeFormatter.ISO_LOCAL_TIME) + '"');
+		}
+		for (ReservationStatus status : ReservationStatus.values()) {
+			STATUSES.put(status.name(), utf8('"' + status.name() + '"'));
+		}
+	}
+
+	private final OutputStream out;
+	private final byte[] buffer;
+	private int position;
+
+	private JsonListWriter(OutputStream out, int rows, int rowBytes) {
+		this.out = out;
+		// 短い一覧（1日分の枠など）では大きなバッファを確保しない
+		this.buffer = new byte[(int) Math.clamp(2L + (long) rows * rowBytes, MIN_BUFFER_SIZE, MAX_BUFFER_SIZE)];
+	}
+
+	/**
+	 * 空き予約枠の一覧を書き出す。
+	 */
+	public static void writeTimeSlots(List<TimeSlotAvailableResponseDTO> slots, OutputStream out) throws IOException {
+		JsonListWriter writer = new JsonListWriter(out, slots.size(), SLOT_ROW_BYTES);
+		writer.writeByte('[');
+		for (int i = 0, size = slots.size(); i < size; i++) {
+			if (i > 0) {
+				writer.writeByte(',');
+			}
+			TimeSlotAvailableResponseDTO slot = slots.get(i);
+			if (slot == null) {
+				writer.writeBytes(NULL);
+				continue;
+			}
+			writer.writeBytes(SLOT_TIME_SLOT_ID);
+			writer.writeLong(slot.getTimeSlotId());
+			writer.writeBytes(SLOT_START_TIME);
+			writer.writeLabel(slot.getStartTime());
+			writer.writeByte('}');
+		}
+		writer.writeByte(']');
+		writer.flush();
+	}
+
+	/**
+	 * 予約の一覧を書き出す。
+	 */
+	public static void writeReservations(List<ReservationResponseDTO> reservations, OutputStream out)
+			throws IOException {
+		JsonListWriter writer = new JsonListWriter(out, reservations.size(), RESERVATION_ROW_BYTES);
+		writer.writeByte('[');
+		for (int i = 0, size = reservations.size(); i < size; i++) {
+			if (i > 0) {
+				writer.writeByte(',');
+			}
+			ReservationResponseDTO reservation = reservations.get(i);
+			if (reservation == null) {
+				writer.writeBytes(NULL);
+				continue;
+			}
+			writer.writeBytes(RESERVATION_DATE);
+			writer.writeDate(reservation.getDate());
+			writer.writeBytes(RESERVATION_END_TIME);
+			writer.writeTime(reservation.getEndTime());
+			writer.writeBytes(RESERVATION_NAME);
+			writer.writeString(reservation.getName());
+			writer.writeBytes(RESERVATION_ID);
+			writer.writeLong(reservation.getReservationId());
+			writer.writeBytes(RESERVATION_START_TIME);
+			writer.writeTime(reservation.getStartTime());
+			writer.writeBytes(RESERVATION_STATUS);
+			writer.writeStatus(reservation.getStatus());
+			writer.writeBytes(RESERVATION_TIME_SLOT_ID);
+			writer.writeLong(reservation.getTimeSlotId());
+			writer.writeByte('}');
+		}
+		writer.writeByte(']');
+		writer.flush();
+	}
+
+	private void writeLong(Long boxed) throws IOException {
+		if (boxed == null) {
+			writeBytes(NULL);
+			return;
+		}
+		long value = boxed;
+		if (value == Long.MIN_VALUE) {
+			writeBytes(utf8(Long.toString(value)));
+			return;
+		}
+		ensure(20);
+		if (value < 0) {
+			buffer[position++] = '-';
+			value = -value;
+		}
+		int digits = 1;
+		for (long rest = value / 10; rest > 0; rest /= 10) {
+			digits++;
+		}
+		for (int i = position + digits - 1; i >= position; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		position += digits;
+	}
+
+	private void writeLabel(String label) throws IOException {
+		if (label == null) {
+			writeBytes(NULL);
+			return;
+		}
+		// "HH:mm" 形式であれば事前に変換したバイト列を使う
+		if (label.length() == 5 && label.charAt(2) == ':') {
+			int hour = digit(label.charAt(0)) * 10 + digit(label.charAt(1));
+			int minute = digit(label.charAt(3)) * 10 + digit(label.charAt(4));
+			if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60) {
+				writeBytes(MINUTE_LABELS[hour * 60 + minute]);
+				return;
+			}
+		}
+		writeString(label);
+	}
+
+	private void writeTime(LocalTime time) throws IOException {
+		if (time == null) {
+			writeBytes(NULL);
+		} else if (time.getSecond() == 0 && time.getNano() == 0) {
+			writeBytes(MINUTE_TIMES[time.getHour() * 60 + time.getMinute()]);
+		} else {
+			writeBytes(utf8('"' + time.format(DateTimeFormatter.ISO_LOCAL_TIME) + '"'));
+		}
+	}
+
+	private void writeDate(LocalDate date) throws IOException {
+		if (date == null) {
+			writeBytes(NULL);
+			return;
+		}
+		int year = date.getYear();
+		if (year < 0 || year > 9999) {
+			writeBytes(utf8('"' + date.toString() + '"'));
+			return;
+		}
+		ensure(12);
+		buffer[position++] = '"';
+		writeDigits(year, 4);
+		buffer[position++] = '-';
+		writeDigits(date.getMonthValue(), 2);
+		buffer[position++] = '-';
+		writeDigits(date.getDayOfMonth(), 2);
+		buffer[position++] = '"';
+	}
+
+	private void writeStatus(String status) throws IOException {
+		byte[] encoded = status != null ? STATUSES.get(status) : null;
+		if (encoded != null) {
+			writeBytes(encoded);
+		} else {
+			writeString(status);
+		}
+	}
+
+	/**
+	 * 文字列を JSON 文字列として書き出す。エスケープは {@link JsonEscapes}（Jackson と同じ）。
+	 */
+	private void writeString(String value) throws IOException {
+		if (value == null) {
+			writeBytes(NULL);
+			return;
+		}
+		ensure(1);
+		buffer[position++] = '"';
+		for (int i = 0, length = value.length(); i < length; i++) {
+			char c = value.charAt(i);
+			ensure(6);
+			if (c < 0x80) {
+				String escaped = JsonEscapes.escape(c);
+				if (escaped == null) {
+					buffer[position++] = (byte) c;
+				} else {
+					// エスケープは ASCII のみで最大6文字
+					for (int k = 0; k < escaped.length(); k++) {
+						buffer[position++] = (byte) escaped.charAt(k);
+					}
+				}
+			} else if (c < 0x800) {
+				buffer[position++] = (byte) (0xC0 | (c >> 6));
+				buffer[position++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+				buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				// 対になっていないサロゲートは書き出せないため置換する
+				buffer[position++] = '?';
+			} else {
+				buffer[position++] = (byte) (0xE0 | (c >> 12));
+				buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buffer[position++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		ensure(1);
+		buffer[position++] = '"';
+	}
+
+	private void writeDigits(int value, int width) {
+		for (int i = position + width - 1; i >= position; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		position += width;
+	}
+
+	private void writeByte(char c) throws IOException {
+		ensure(1);
+		buffer[position++] = (byte) c;
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		if (bytes.length > buffer.length - position) {
+			flushBuffer();
+			if (bytes.length > buffer.length) {
+				out.write(bytes);
+				return;
+			}
+		}
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+
+	private void ensure(int bytes) throws IOException {
+		if (bytes > buffer.length - position) {
+			flushBuffer();
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		out.write(buffer, 0, position);
+		position = 0;
+	}
+
+	private void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	/**
+	 * 数字でなければ負の値（十の位に使っても結果が負になる大きさ）を返す。
+	 */
+	private static int digit(char c) {
+		return c >= '0' && c <= '9' ? c - '0' : -1000;
+	}
+
+	private static byte[] utf8(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,16 @@
+package jp.github.minamoto.m.reservationsystem.datasource;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code app.datasource.routing} の設定。レプリカは複数指定でき、先頭から順に replica-0, replica-1 ... と名付ける。
+ */
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public record DataSourceRoutingProperties(boolean enabled, @DefaultValue List<Replica> replicas) {
+
+	public record Replica(String url, String username, String password) {
+	}
+}
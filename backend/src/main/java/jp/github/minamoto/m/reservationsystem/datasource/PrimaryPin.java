@@ -0,0 +1,26 @@
+package jp.github.minamoto.m.reservationsystem.datasource;
+
+/**
+ * 現在のスレッドの読み取りをプライマリに固定するかどうかを保持する。
+ *
+ * <p>自分の書き込み直後の参照がレプリカ遅延で古い値を返さないよう、{@link ReadYourWritesFilter} が
+ * リクエスト単位で設定・解除する。</p>
+ */
+public final class PrimaryPin {
+	private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+	private PrimaryPin() {
+	}
+
+	public static void pin() {
+		PINNED.set(Boolean.TRUE);
+	}
+
+	public static void clear() {
+		PINNED.remove();
+	}
+
+	public static boolean isPinned() {
+		return PINNED.get() != null;
+	}
+}
@@ -0,0 +1,81 @@
+package jp.github.minamoto.m.reservationsystem.datasource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 書き込みを行ったクライアントの参照を、一定時間プライマリに固定するフィルター。
+ *
+ * <p>GET/HEAD/OPTIONS 以外のリクエストでは、期限（エポックミリ秒）を入れた Cookie を発行し、
+ * そのリクエスト自体もプライマリに固定する。期限内の Cookie を持つリクエストも同様に固定するため、
+ * 予約直後の空き枠一覧や予約照会がレプリカ遅延で古い状態を返さない。</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+	static final String COOKIE_NAME = "primary_pin";
+
+	private final Duration pinWindow;
+
+	public ReadYourWritesFilter(@Value("${app.datasource.routing.pin-window:5s}") Duration pinWindow) {
+		this.pinWindow = pinWindow;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long now = System.currentTimeMillis();
+		if (isWrite(request)) {
+			Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(now + pinWindow.toMillis()));
+			cookie.setPath("/");
+			cookie.setHttpOnly(true);
+			cookie.setMaxAge((int) Math.max(1, pinWindow.toSeconds()));
+			response.addCookie(cookie);
+			PrimaryPin.pin();
+		} else if (pinnedUntil(request) > now) {
+			PrimaryPin.pin();
+		}
+
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			PrimaryPin.clear();
+		}
+	}
+
+	private static boolean isWrite(HttpServletRequest request) {
+		String method = request.getMethod();
+		return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+	}
+
+	private static long pinnedUntil(HttpServletRequest request) {
+		if (request.getCookies() == null) {
+			return 0;
+		}
+		return Arrays.stream(request.getCookies())
+			.filter(c -> COOKIE_NAME.equals(c.getName()))
+			.mapToLong(c -> parse(c.getValue()))
+			.max()
+			.orElse(0);
+	}
+
+	private static long parse(String value) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+}
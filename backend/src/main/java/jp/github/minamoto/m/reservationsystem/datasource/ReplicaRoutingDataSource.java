@@ -0,0 +1,52 @@
+package jp.github.minamoto.m.reservationsystem.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 読み取り専用トランザクションの接続先を選ぶ DataSource。
+ *
+ * <p>レプリカをラウンドロビンで選び、{@link PrimaryPin} が設定されている場合はプライマリを返す。
+ * レプリカのプールはこのクラスが所有し、{@link #close()} で閉じる。</p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+	static final String PRIMARY = "primary";
+
+	private final List<HikariDataSource> replicas;
+	private final AtomicInteger next = new AtomicInteger();
+
+	public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas) {
+		this.replicas = List.copyOf(replicas);
+
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < this.replicas.size(); i++) {
+			targets.put(i, this.replicas.get(i));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (PrimaryPin.isPinned() || replicas.isEmpty()) {
+			return PRIMARY;
+		}
+		return Math.floorMod(next.getAndIncrement(), replicas.size());
+	}
+
+	@Override
+	public void close() {
+		replicas.forEach(HikariDataSource::close);
+	}
+}
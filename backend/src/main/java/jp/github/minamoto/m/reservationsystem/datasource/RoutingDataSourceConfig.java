@@ -0,0 +1,75 @@
+package jp.github.minamoto.m.reservationsystem.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 読み取り専用トランザクションをレプリカへ、それ以外をプライマリへ振り分ける DataSource を構成する。
+ *
+ * <p>アプリケーションが使う DataSource は {@link LazyConnectionDataSourceProxy} で、
+ * {@code @Transactional(readOnly = true)} のトランザクションでは最初のSQL実行時に
+ * {@link ReplicaRoutingDataSource} から接続を取得する。レプリカが未設定の場合はすべてプライマリを使う。</p>
+ *
+ * <p>{@code app.datasource.routing.enabled=false}（デフォルト）の場合は Spring Boot 標準の DataSource を使う。</p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class RoutingDataSourceConfig {
+	private static final Logger log = LoggerFactory.getLogger(RoutingDataSourceConfig.class);
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	@Bean
+	public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+			DataSourceRoutingProperties routing) {
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for (DataSourceRoutingProperties.Replica replica : routing.replicas()) {
+			if (!StringUtils.hasText(replica.url())) {
+				continue;
+			}
+			HikariDataSource dataSource = new HikariDataSource();
+			dataSource.setPoolName("replica-" + replicas.size());
+			dataSource.setDriverClassName(primaryDataSource.getDriverClassName());
+			dataSource.setJdbcUrl(replica.url());
+			dataSource.setUsername(replica.username());
+			dataSource.setPassword(replica.password());
+			dataSource.setAutoCommit(primaryDataSource.isAutoCommit());
+			dataSource.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+			dataSource.setReadOnly(true);
+			replicas.add(dataSource);
+		}
+		log.info("DataSource routing enabled: replicas={}", replicas.size());
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+		LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+		proxy.setReadOnlyDataSource(replicaRoutingDataSource);
+		return proxy;
+	}
+}
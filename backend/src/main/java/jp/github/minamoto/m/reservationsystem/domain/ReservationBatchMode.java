@@ -0,0 +1,11 @@
+package jp.github.minamoto.m.reservationsystem.domain;
+
+/**
+ * 一括予約の処理モード。
+ */
+public enum ReservationBatchMode {
+	/** 1件でも予約できない枠があれば何も登録しない */
+	ALL_OR_NOTHING,
+	/** 予約できた枠だけを登録する */
+	BEST_EFFORT
+}
@@ -0,0 +1,13 @@
+package jp.github.minamoto.m.reservationsystem.domain;
+
+/**
+ * 予約作成時に予約枠（TimeSlot）を確保する方式。
+ *
+ * <p>{@code app.reservation.claim-strategy} で切り替える。</p>
+ */
+public enum ReservationClaimStrategy {
+	/** 予約枠を SELECT ... FOR UPDATE でロックしてからステータスを更新する（従来方式） */
+	PESSIMISTIC_LOCK,
+	/** OPEN の場合のみ RESERVED に更新する条件付き UPDATE 1文で確保する（行ロックは UPDATE の間だけ） */
+	CONDITIONAL_UPDATE
+}
@@ -3,5 +3,6 @@ package jp.github.minamoto.m.reservationsystem.domain;
 public enum TimeSlotStatus {
 	OPEN,
 	RESERVED,
+	HELD,
 	DOCTOR_UNAVAILABLE
 }
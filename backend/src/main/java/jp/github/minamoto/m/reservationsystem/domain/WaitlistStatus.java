@@ -0,0 +1,7 @@
+package jp.github.minamoto.m.reservationsystem.domain;
+
+public enum WaitlistStatus {
+	WAITING,
+	PROMOTED,
+	CANCELED
+}
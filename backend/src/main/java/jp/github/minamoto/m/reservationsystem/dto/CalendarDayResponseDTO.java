@@ -0,0 +1,15 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarDayResponseDTO {
+    private LocalDate date;
+    private int openSlots;  // 空き枠（OPEN）の件数
+}
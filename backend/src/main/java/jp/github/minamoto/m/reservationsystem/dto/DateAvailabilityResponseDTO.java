@@ -0,0 +1,16 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DateAvailabilityResponseDTO {
+    private LocalDate date;
+    private List<TimeSlotAvailableResponseDTO> slots;  // 開始時刻順
+}
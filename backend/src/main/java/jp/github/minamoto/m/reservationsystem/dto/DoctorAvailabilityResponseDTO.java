@@ -0,0 +1,15 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorAvailabilityResponseDTO {
+    private Long doctorId;
+    private List<DateAvailabilityResponseDTO> dates;  // 空き枠のある日のみ（日付順）
+}
@@ -0,0 +1,16 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorScheduleDTO {
+    private List<ScheduleRuleDTO> rules = new ArrayList<>();            // 週単位の勤務時間
+    private List<ScheduleExceptionDTO> exceptions = new ArrayList<>();  // 休診日・特定の日の勤務時間
+}
@@ -0,0 +1,17 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NextAvailableSlotResponseDTO {
+    private Long timeSlotId;
+    private Long doctorId;
+    private LocalDate date;
+    private String startTime;  // "HH:mm" 形式
+}
@@ -0,0 +1,17 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpenSlotCounterMismatchDTO {
+    private Long doctorId;
+    private LocalDate date;
+    private int expected;    // time_slot を数えた空き枠の件数
+    private Integer actual;  // カウンタの値（カウンタの行がない場合は null）
+}
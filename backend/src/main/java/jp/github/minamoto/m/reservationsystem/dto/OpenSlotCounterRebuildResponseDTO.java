@@ -0,0 +1,16 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpenSlotCounterRebuildResponseDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private int days;  // 作り直した医師×日の数
+}
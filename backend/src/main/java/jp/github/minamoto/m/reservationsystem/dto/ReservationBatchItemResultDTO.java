@@ -0,0 +1,12 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import lombok.Data;
+
+@Data
+public class ReservationBatchItemResultDTO {
+	private int index;
+	private Long timeSlotId;
+	private String result;  // CREATED / CONFLICT / NOT_FOUND / SKIPPED
+	private String message;
+	private ReservationResponseDTO reservation;
+}
@@ -0,0 +1,12 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.util.List;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationBatchMode;
+import lombok.Data;
+
+@Data
+public class ReservationBatchRequestDTO {
+	private ReservationBatchMode mode = ReservationBatchMode.ALL_OR_NOTHING;
+	private List<ReservationCreateRequestDTO> items;
+}
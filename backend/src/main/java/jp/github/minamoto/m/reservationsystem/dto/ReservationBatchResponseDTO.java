@@ -0,0 +1,13 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ReservationBatchResponseDTO {
+	private String mode;
+	private int created;
+	private int failed;
+	private List<ReservationBatchItemResultDTO> results;
+}
@@ -7,4 +7,6 @@ public class ReservationCreateRequestDTO {
 	private Long timeSlotId;
 	private String name;
 	private String phoneNumber;
+	// 仮押さえから確定する場合のトークン（任意）
+	private String holdToken;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleExceptionDTO {
+    private LocalDate date;
+    private LocalTime startTime;  // 開始・終了時刻を省略した日は休診日
+    private LocalTime endTime;
+    private Integer slotMinutes;
+}
@@ -0,0 +1,18 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleRuleDTO {
+    private DayOfWeek dayOfWeek;  // "MONDAY" など
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private Integer slotMinutes;  // 1枠の長さ（分）
+}
@@ -0,0 +1,20 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotGenerationResponseDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private int doctors;       // 対象の医師数
+    private int changedDays;   // 勤務時間が変わり、予約枠を作り直した医師×日の数
+    private int insertedSlots;
+    private int deletedSlots;
+    private int keptSlots;     // 勤務時間から外れたが、予約などがあるため残した予約枠の数
+}
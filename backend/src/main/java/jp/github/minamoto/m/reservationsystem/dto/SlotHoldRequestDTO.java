@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import lombok.Data;
+
+@Data
+public class SlotHoldRequestDTO {
+	private Long timeSlotId;
+}
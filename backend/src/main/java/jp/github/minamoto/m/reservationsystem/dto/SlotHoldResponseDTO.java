@@ -0,0 +1,12 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class SlotHoldResponseDTO {
+	private String holdToken;
+	private Long timeSlotId;
+	private LocalDateTime expiresAt;
+}
@@ -0,0 +1,20 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSlotBulkStatusRequestDTO {
+    private Long doctorId;
+    private LocalDate from;
+    private LocalDate to;
+    // 時間帯（任意）。指定した場合は、この時間帯に収まる枠のみが対象
+    private LocalTime startTime;
+    private LocalTime endTime;
+}
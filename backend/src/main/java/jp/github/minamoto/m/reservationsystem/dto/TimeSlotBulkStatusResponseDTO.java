@@ -0,0 +1,18 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSlotBulkStatusResponseDTO {
+    private String status;
+    private int updated;
+    private List<Long> updatedTimeSlotIds;
+    private int skipped;  // 予約があるため OPEN に戻せなかった枠の数
+    private List<Long> skippedTimeSlotIds;
+}
@@ -0,0 +1,15 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSlotChangeDTO {
+    private Long timeSlotId;
+    private String startTime;  // "HH:mm" 形式
+    private TimeSlotStatus status;
+}
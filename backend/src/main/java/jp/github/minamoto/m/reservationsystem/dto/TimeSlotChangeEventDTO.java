@@ -0,0 +1,20 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SSE（/v1/timeslots/stream）で送る、医師×日の予約枠の変更分。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSlotChangeEventDTO {
+    private Long doctorId;
+    private LocalDate date;
+    private List<TimeSlotChangeDTO> changes;
+}
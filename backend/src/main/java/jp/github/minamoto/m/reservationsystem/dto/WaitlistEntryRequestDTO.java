@@ -0,0 +1,15 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+@Data
+public class WaitlistEntryRequestDTO {
+	// 予約枠を指定する場合は timeSlotId、医師・日付で待つ場合は doctorId と date
+	private Long timeSlotId;
+	private Long doctorId;
+	private LocalDate date;
+	private String name;
+	private String phoneNumber;
+}
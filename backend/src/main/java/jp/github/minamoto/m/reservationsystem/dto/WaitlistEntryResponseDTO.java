@@ -0,0 +1,15 @@
+package jp.github.minamoto.m.reservationsystem.dto;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+@Data
+public class WaitlistEntryResponseDTO {
+	private Long waitlistEntryId;
+	private Long timeSlotId;
+	private Long doctorId;
+	private LocalDate date;
+	private String status;
+	private Long reservationId;
+}
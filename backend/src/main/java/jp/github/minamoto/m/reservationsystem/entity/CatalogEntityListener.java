@@ -0,0 +1,28 @@
+package jp.github.minamoto.m.reservationsystem.entity;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jp.github.minamoto.m.reservationsystem.service.event.CatalogChangedEvent;
+
+/**
+ * Department・Doctor の変更を {@link CatalogChangedEvent} として通知する。
+ *
+ * <p>Spring Boot が Hibernate に Spring の Bean コンテナを設定するため、コンストラクタインジェクションが使える。</p>
+ */
+public class CatalogEntityListener {
+	private final ApplicationEventPublisher eventPublisher;
+
+	public CatalogEntityListener(ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void onChanged(Object entity) {
+		eventPublisher.publishEvent(new CatalogChangedEvent());
+	}
+}
@@ -1,6 +1,7 @@
 package jp.github.minamoto.m.reservationsystem.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -8,6 +9,7 @@ import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Table(name = "doctor")
 @Data
 public class Doctor {
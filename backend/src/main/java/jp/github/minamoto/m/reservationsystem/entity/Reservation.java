@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -11,7 +12,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
 import lombok.Data;
@@ -24,10 +25,15 @@ public class Reservation {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
 
-	@OneToOne
-	@JoinColumn(name = "time_slot_id", unique = true, nullable = false)
+	@ManyToOne
+	@JoinColumn(name = "time_slot_id", nullable = false)
 	private TimeSlot timeSlot;
 
+	// 有効な予約（CONFIRMED）の場合のみ予約枠IDを持つ。一意制約により1枠1件の有効な予約を保証する
+	// （キャンセル済みの予約は NULL にするため、同じ枠を再予約できる）
+	@Column(unique = true)
+	private Long activeTimeSlotId;
+
 	@Enumerated(EnumType.STRING)
 	private ReservationStatus status;
 
@@ -0,0 +1,40 @@
+package jp.github.minamoto.m.reservationsystem.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import lombok.Data;
+
+/**
+ * 保存期間を過ぎてアーカイブに移した予約（読み取り専用）。書き込みは RetentionArchiver が SQL で行う。
+ */
+@Entity
+@Table(name = "reservation_archive")
+@Immutable
+@Data
+public class ReservationArchive {
+	@Id
+	private Long id;
+	private Long timeSlotId;
+	private Long doctorId;
+	private LocalDate date;
+	private LocalTime startTime;
+	private LocalTime endTime;
+
+	@Enumerated(EnumType.STRING)
+	private ReservationStatus status;
+
+	private String name;
+	private String phoneNumber;
+	private LocalDateTime createdAt;
+	private LocalDateTime archivedAt;
+}
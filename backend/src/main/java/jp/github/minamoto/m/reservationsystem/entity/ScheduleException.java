@@ -0,0 +1,26 @@
+package jp.github.minamoto.m.reservationsystem.entity;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+@Entity
+@Table(name = "schedule_exception")
+@Data
+public class ScheduleException {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	private Long doctorId;
+	private LocalDate date;
+	/** 開始・終了時刻が null の場合は休診日 */
+	private LocalTime startTime;
+	private LocalTime endTime;
+	private Integer slotMinutes;
+}
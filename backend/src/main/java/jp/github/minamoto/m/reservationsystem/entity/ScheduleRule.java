@@ -0,0 +1,25 @@
+package jp.github.minamoto.m.reservationsystem.entity;
+
+import java.time.LocalTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+@Entity
+@Table(name = "schedule_rule")
+@Data
+public class ScheduleRule {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	private Long doctorId;
+	/** 1（月曜）〜 7（日曜） */
+	private Integer dayOfWeek;
+	private LocalTime startTime;
+	private LocalTime endTime;
+	private Integer slotMinutes;
+}
@@ -0,0 +1,30 @@
+package jp.github.minamoto.m.reservationsystem.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+@Entity
+@Table(name = "slot_hold")
+@Data
+public class SlotHold {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	private String token;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "time_slot_id", nullable = false)
+	private TimeSlot timeSlot;
+
+	private LocalDateTime expiresAt;
+}
@@ -3,6 +3,9 @@ package jp.github.minamoto.m.reservationsystem.entity;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+import org.hibernate.annotations.PartitionKey;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -23,6 +26,8 @@ public class TimeSlot {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
+	/** MySQL では time_slot のパーティションキー。エンティティの UPDATE・DELETE の条件に id とあわせて入る */
+	@PartitionKey
 	private LocalDate date;
 	private LocalTime startTime;
 	private LocalTime endTime;
@@ -33,4 +38,8 @@ public class TimeSlot {
 
 	@Enumerated(EnumType.STRING)
 	private TimeSlotStatus status;
+
+	/** ステータスを変更するたびにコミット直前に +1 する（SlotVersionService）。JPA からは書き込まない */
+	@Column(insertable = false, updatable = false)
+	private long version;
 }
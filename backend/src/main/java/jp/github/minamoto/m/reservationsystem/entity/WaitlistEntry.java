@@ -0,0 +1,42 @@
+package jp.github.minamoto.m.reservationsystem.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jp.github.minamoto.m.reservationsystem.domain.WaitlistStatus;
+import lombok.Data;
+
+@Entity
+@Table(name = "waitlist_entry")
+@Data
+public class WaitlistEntry {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	// 予約枠単位の順番待ちの場合のみ設定する（NULL の場合は医師・日付単位の順番待ち）
+	private Long timeSlotId;
+	private Long doctorId;
+	private LocalDate date;
+
+	@Enumerated(EnumType.STRING)
+	private WaitlistStatus status;
+
+	private String name;
+	private String phoneNumber;
+
+	// 繰り上げで作成された予約のID
+	private Long reservationId;
+
+	@CreationTimestamp
+	private LocalDateTime createdAt;
+}
@@ -0,0 +1,63 @@
+package jp.github.minamoto.m.reservationsystem.json;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * JSON 文字列のエスケープ。一覧の出力（JsonListWriter）と予約のエクスポート（NDJSON）で共有する。
+ *
+ * <p>エスケープは Jackson と同じで、引用符・バックスラッシュ・制御文字（U+0000〜U+001F）のみ。
+ * \b \t \n \f \r は1文字の形、それ以外の制御文字は大文字4桁の16進の u エスケープとする。
+ * ASCII 以外の文字はエスケープせず、出力側の UTF-8 でそのまま書く。</p>
+ */
+public final class JsonEscapes {
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	/** ASCII の文字ごとのエスケープ（不要な文字は null） */
+	private static final String[] ESCAPES = new String[128];
+
+	static {
+		for (char c = 0; c < 0x20; c++) {
+			ESCAPES[c] = "\\u00" + HEX[c >> 4] + HEX[c & 0xF];
+		}
+		ESCAPES['\b'] = "\\b";
+		ESCAPES['\t'] = "\\t";
+		ESCAPES['\n'] = "\\n";
+		ESCAPES['\f'] = "\\f";
+		ESCAPES['\r'] = "\\r";
+		ESCAPES['"'] = "\\\"";
+		ESCAPES['\\'] = "\\\\";
+	}
+
+	private JsonEscapes() {
+	}
+
+	/**
+	 * 文字のエスケープを返す。エスケープが不要な場合は null。
+	 */
+	public static String escape(char c) {
+		return c < ESCAPES.length ? ESCAPES[c] : null;
+	}
+
+	/**
+	 * 文字列を引用符で囲んだ JSON 文字列として書き出す。null は null。
+	 */
+	public static void writeString(Writer writer, String value) throws IOException {
+		if (value == null) {
+			writer.write("null");
+			return;
+		}
+		writer.write('"');
+		int start = 0;
+		for (int i = 0, length = value.length(); i < length; i++) {
+			String escaped = escape(value.charAt(i));
+			if (escaped != null) {
+				writer.write(value, start, i - start);
+				writer.write(escaped);
+				start = i + 1;
+			}
+		}
+		writer.write(value, start, value.length() - start);
+		writer.write('"');
+	}
+}
@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import jp.github.minamoto.m.reservationsystem.entity.ReservationArchive;
+
+public interface ReservationArchiveRepository extends JpaRepository<ReservationArchive, Long> {
+}
@@ -0,0 +1,14 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+
+/**
+ * 予約一覧に必要な予約と予約枠の列のみを、1回の結合クエリで読み出すためのプロジェクション。
+ * JPQL のコンストラクタ式で直接生成するため、Reservation・TimeSlot のエンティティは作らない。
+ */
+public record ReservationListView(Long id, Long timeSlotId, LocalDate date, LocalTime startTime,
+		LocalTime endTime, ReservationStatus status, String name) {
+}
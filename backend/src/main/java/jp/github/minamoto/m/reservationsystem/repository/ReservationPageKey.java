@@ -0,0 +1,14 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * 予約一覧（日付・開始時刻・予約ID順）のページ境界。前のページの最後の行の値で、次のページはこれより後の行から始める。
+ */
+public record ReservationPageKey(LocalDate date, LocalTime startTime, Long id) {
+
+	public static ReservationPageKey of(ReservationListView view) {
+		return new ReservationPageKey(view.date(), view.startTime(), view.id());
+	}
+}
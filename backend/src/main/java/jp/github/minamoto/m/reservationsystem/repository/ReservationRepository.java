@@ -1,20 +1,28 @@
 package jp.github.minamoto.m.reservationsystem.repository;
 
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import jakarta.persistence.LockModeType;
-import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
 import jp.github.minamoto.m.reservationsystem.entity.Reservation;
 
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
-	List<Reservation> findByStatus(ReservationStatus status);
-
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, ReservationRepositoryCustom {
+	/**
+	 * 予約を行ロック（SELECT ... FOR UPDATE）付きで取得する。更新する場合のみ使用し、参照には findById を使う。
+	 */
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
-	Optional<Reservation> findById(Long id);
+	@Query("SELECT r FROM Reservation r WHERE r.id = :id")
+	Optional<Reservation> findByIdForUpdate(@Param("id") Long id);
 
 	boolean existsByTimeSlotId(Long timeSlotId);
+
+	/**
+	 * 予約に紐づく予約枠の医師IDのみを取得する。
+	 */
+	@Query("SELECT r.timeSlot.doctor.id FROM Reservation r WHERE r.id = :id")
+	Optional<Long> findDoctorIdById(@Param("id") Long id);
 }
@@ -0,0 +1,24 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.util.List;
+
+import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+
+public interface ReservationRepositoryCustom {
+
+	/**
+	 * 予約をJDBCバッチでまとめて登録し、採番されたIDを各エンティティに設定する。
+	 * 呼び出し側のトランザクション内で実行すること。
+	 */
+	void batchInsert(List<Reservation> reservations);
+
+	/**
+	 * 条件に合う予約を予約枠の日付・開始時刻・予約ID順に最大 limit 件取得する（キーセットページング）。
+	 * 予約枠・医師は結合して同じクエリで読み出し、エンティティは生成しない。
+	 *
+	 * @param search 絞り込み条件
+	 * @param after 前のページの最後の行（最初のページは null）
+	 * @param limit 取得する最大件数
+	 */
+	List<ReservationListView> findPage(ReservationSearch search, ReservationPageKey after, int limit);
+}
@@ -0,0 +1,131 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+
+/**
+ * ReservationRepository のうち、Spring Data JPA では表現できない処理の実装。
+ */
+public class ReservationRepositoryImpl implements ReservationRepositoryCustom {
+	private static final String INSERT_SQL =
+			"INSERT INTO reservation (time_slot_id, active_time_slot_id, status, name, phone_number, created_at) "
+			+ "VALUES (?, ?, ?, ?, ?, ?)";
+
+	private static final String PAGE_SELECT =
+			"SELECT new jp.github.minamoto.m.reservationsystem.repository.ReservationListView("
+			+ "r.id, t.id, t.date, t.startTime, t.endTime, r.status, r.name) "
+			+ "FROM Reservation r JOIN r.timeSlot t WHERE 1 = 1";
+	private static final String PAGE_ORDER = " ORDER BY t.date, t.startTime, r.id";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final EntityManager entityManager;
+
+	public ReservationRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public void batchInsert(List<Reservation> reservations) {
+		if (reservations.isEmpty()) {
+			return;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+
+		// IDENTITY 採番のエンティティは Hibernate ではバッチ登録できないため JDBC で直接登録する
+		jdbcTemplate.batchUpdate(
+				con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						Reservation r = reservations.get(i);
+						r.setCreatedAt(now);
+						ps.setLong(1, r.getTimeSlot().getId());
+						ps.setObject(2, r.getActiveTimeSlotId(), Types.BIGINT);
+						ps.setString(3, r.getStatus().name());
+						ps.setString(4, r.getName());
+						ps.setString(5, r.getPhoneNumber());
+						ps.setTimestamp(6, Timestamp.valueOf(now));
+					}
+
+					@Override
+					public int getBatchSize() {
+						return reservations.size();
+					}
+				},
+				keyHolder);
+
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		for (int i = 0; i < reservations.size(); i++) {
+			Map<String, Object> key = keys.get(i);
+			Object id = key.containsKey("ID") ? key.get("ID") : key.values().iterator().next();
+			reservations.get(i).setId(((Number) id).longValue());
+		}
+	}
+
+	@Override
+	public List<ReservationListView> findPage(ReservationSearch search, ReservationPageKey after, int limit) {
+		StringBuilder jpql = new StringBuilder(PAGE_SELECT);
+		if (search.status() != null) {
+			jpql.append(" AND r.status = :status");
+		}
+		if (search.from() != null) {
+			jpql.append(" AND t.date >= :from");
+		}
+		if (search.to() != null) {
+			jpql.append(" AND t.date <= :to");
+		}
+		if (search.doctorId() != null) {
+			jpql.append(" AND t.doctor.id = :doctorId");
+		}
+		if (search.departmentId() != null) {
+			jpql.append(" AND t.doctor.departmentId = :departmentId");
+		}
+		if (after != null) {
+			// (date, startTime, id) > (:afterDate, :afterTime, :afterId) を展開したもの。OFFSET と違い読み飛ばす行がない
+			jpql.append(" AND (t.date > :afterDate OR (t.date = :afterDate AND (t.startTime > :afterTime"
+					+ " OR (t.startTime = :afterTime AND r.id > :afterId))))");
+		}
+		jpql.append(PAGE_ORDER);
+
+		TypedQuery<ReservationListView> query = entityManager.createQuery(jpql.toString(), ReservationListView.class)
+				.setMaxResults(limit);
+		if (search.status() != null) {
+			query.setParameter("status", search.status());
+		}
+		if (search.from() != null) {
+			query.setParameter("from", search.from());
+		}
+		if (search.to() != null) {
+			query.setParameter("to", search.to());
+		}
+		if (search.doctorId() != null) {
+			query.setParameter("doctorId", search.doctorId());
+		}
+		if (search.departmentId() != null) {
+			query.setParameter("departmentId", search.departmentId());
+		}
+		if (after != null) {
+			query.setParameter("afterDate", after.date())
+					.setParameter("afterTime", after.startTime())
+					.setParameter("afterId", after.id());
+		}
+		return query.getResultList();
+	}
+}
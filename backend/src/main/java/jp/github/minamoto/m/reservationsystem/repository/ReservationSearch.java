@@ -0,0 +1,18 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalDate;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+
+/**
+ * 予約一覧・エクスポートの絞り込み条件。null の項目は条件にしない。
+ *
+ * @param status 予約のステータス
+ * @param from 予約枠の日付の開始（含む）
+ * @param to 予約枠の日付の終了（含む）
+ * @param doctorId 医師ID
+ * @param departmentId 診療科ID
+ */
+public record ReservationSearch(ReservationStatus status, LocalDate from, LocalDate to, Long doctorId,
+		Long departmentId) {
+}
@@ -0,0 +1,22 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import jp.github.minamoto.m.reservationsystem.entity.ScheduleException;
+
+public interface ScheduleExceptionRepository extends JpaRepository<ScheduleException, Long> {
+
+	List<ScheduleException> findByDoctorIdOrderByDateAscStartTimeAsc(Long doctorId);
+
+	List<ScheduleException> findByDoctorIdAndDateBetween(Long doctorId, LocalDate from, LocalDate to);
+
+	@Modifying
+	@Query("DELETE FROM ScheduleException e WHERE e.doctorId = :doctorId")
+	int deleteByDoctorId(@Param("doctorId") Long doctorId);
+}
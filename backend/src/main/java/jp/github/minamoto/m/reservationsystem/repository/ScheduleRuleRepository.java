@@ -0,0 +1,25 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import jp.github.minamoto.m.reservationsystem.entity.ScheduleRule;
+
+public interface ScheduleRuleRepository extends JpaRepository<ScheduleRule, Long> {
+
+	List<ScheduleRule> findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(Long doctorId);
+
+	/**
+	 * 週単位の勤務時間が登録されている医師のID（昇順）。
+	 */
+	@Query("SELECT DISTINCT r.doctorId FROM ScheduleRule r ORDER BY r.doctorId")
+	List<Long> findDoctorIds();
+
+	@Modifying
+	@Query("DELETE FROM ScheduleRule r WHERE r.doctorId = :doctorId")
+	int deleteByDoctorId(@Param("doctorId") Long doctorId);
+}
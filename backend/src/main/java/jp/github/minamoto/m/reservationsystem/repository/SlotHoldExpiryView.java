@@ -0,0 +1,11 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 仮押さえの ID と期限のみを読み出すためのプロジェクション。
+ */
+public interface SlotHoldExpiryView {
+	Long getId();
+	LocalDateTime getExpiresAt();
+}
@@ -0,0 +1,34 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.entity.SlotHold;
+
+public interface SlotHoldRepository extends JpaRepository<SlotHold, Long> {
+	Optional<SlotHold> findByToken(String token);
+
+	/**
+	 * 仮押さえ対象の予約枠のうち、ステータスが status のものの予約枠IDを取得する。
+	 */
+	@Query("SELECT h.timeSlot.id FROM SlotHold h WHERE h.id IN :ids AND h.timeSlot.status = :status")
+	List<Long> findTimeSlotIdsByIdInAndStatus(@Param("ids") Collection<Long> ids,
+			@Param("status") TimeSlotStatus status);
+
+	@Modifying
+	@Query("DELETE FROM SlotHold h WHERE h.id IN :ids")
+	int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * 起動時にタイミングホイールへ登録し直すための一覧（ID と期限のみ）。
+	 */
+	@Query("SELECT h.id AS id, h.expiresAt AS expiresAt FROM SlotHold h")
+	List<SlotHoldExpiryView> findAllExpiries();
+}
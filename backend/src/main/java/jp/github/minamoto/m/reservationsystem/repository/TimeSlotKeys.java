@@ -0,0 +1,62 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * time_slot の行を主キー（id, date）で指定する SQL の条件を作る。
+ *
+ * <p>MySQL の time_slot は date でパーティション分割し、主キーを (id, date) にしている。id だけの条件では
+ * すべてのパーティションを探し、ロックを取る読み取りや UPDATE・DELETE ではパーティションごとにギャップロックも取る。
+ * 日付ごとに id をまとめた「date = ? AND id IN (…)」にすれば、対象のパーティションで主キーが一致する行だけをロックする。</p>
+ */
+public final class TimeSlotKeys {
+
+	private TimeSlotKeys() {
+	}
+
+	/**
+	 * 予約枠IDを日付ごとにまとめる。ロックを取らずに読む（予約枠の日付は変わらない）。
+	 * 見つからないIDは含めない。
+	 */
+	public static Map<LocalDate, List<Long>> byDate(JdbcTemplate jdbcTemplate, Collection<Long> ids) {
+		Map<LocalDate, List<Long>> idsByDate = new TreeMap<>();
+		if (ids.isEmpty()) {
+			return idsByDate;
+		}
+		jdbcTemplate.query("SELECT id, date FROM time_slot WHERE id IN ("
+				+ String.join(", ", Collections.nCopies(ids.size(), "?")) + ")",
+				rs -> {
+					idsByDate.computeIfAbsent(rs.getObject(2, LocalDate.class), d -> new ArrayList<>()).add(rs.getLong(1));
+				},
+				ids.toArray());
+		return idsByDate;
+	}
+
+	/**
+	 * 日付ごとの予約枠IDを主キーで指定する条件（括弧付き）を返し、パラメータを args に追加する。
+	 *
+	 * @param alias time_slot の別名（別名を付けない場合は空文字）
+	 * @param idsByDate 日付ごとの予約枠ID（空でないこと）
+	 * @param args パラメータの追加先
+	 */
+	public static String where(String alias, Map<LocalDate, ? extends Collection<Long>> idsByDate, List<Object> args) {
+		String prefix = alias.isEmpty() ? "" : alias + ".";
+		StringJoiner where = new StringJoiner(" OR ", "(", ")");
+		idsByDate.forEach((date, ids) -> {
+			where.add("(" + prefix + "date = ? AND " + prefix + "id IN ("
+					+ String.join(", ", Collections.nCopies(ids.size(), "?")) + "))");
+			args.add(date);
+			args.addAll(ids);
+		});
+		return where.toString();
+	}
+}
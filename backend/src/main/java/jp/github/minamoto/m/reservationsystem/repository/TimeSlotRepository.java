@@ -1,18 +1,130 @@
 package jp.github.minamoto.m.reservationsystem.repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import jakarta.persistence.LockModeType;
 import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
 import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
 
-public interface TimeSlotRepository extends JpaRepository<TimeSlot, Long> {
+/**
+ * 予約枠のリポジトリ。
+ *
+ * <p>ロックを取る読み取りと更新は、主キー（id, date）を指定して行う（{@link TimeSlotKeys}）。
+ * id だけを受け取るメソッドは、先にロックを取らずに日付を読んでから主キーで実行する。</p>
+ */
+public interface TimeSlotRepository extends JpaRepository<TimeSlot, Long>, TimeSlotRepositoryCustom {
+	/**
+	 * 予約枠を行ロック（SELECT ... FOR UPDATE）付きで取得する。更新する場合のみ使用し、参照には findById を使う。
+	 */
+	default Optional<TimeSlot> findByIdForUpdate(Long id) {
+		return findDateById(id).flatMap(date -> findByIdForUpdate(id, date));
+	}
+
+	/**
+	 * 主キー（id, date）を指定して、予約枠を行ロック付きで取得する。
+	 */
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
-	Optional<TimeSlot> findById(Long id);
-	List<TimeSlot> findByDoctorIdAndDateAndStatusOrderByStartTimeAsc(Long doctorId, LocalDate date, TimeSlotStatus status);
+	@Query("SELECT t FROM TimeSlot t WHERE t.id = :id AND t.date = :date")
+	Optional<TimeSlot> findByIdForUpdate(@Param("id") Long id, @Param("date") LocalDate date);
+
+	/**
+	 * 予約枠の日付のみを取得する（ロックは取らない）。
+	 */
+	@Query("SELECT t.date FROM TimeSlot t WHERE t.id = :id")
+	Optional<LocalDate> findDateById(@Param("id") Long id);
+
+	/**
+	 * 医師・日付・ステータスを指定して、予約枠の ID と開始時刻のみを開始時刻順に取得する。
+	 */
+	@Query("SELECT new jp.github.minamoto.m.reservationsystem.repository.TimeSlotStartView(t.id, t.startTime) "
+			+ "FROM TimeSlot t WHERE t.doctor.id = :doctorId AND t.date = :date AND t.status = :status "
+			+ "ORDER BY t.startTime")
+	List<TimeSlotStartView> findStartTimesByDoctorIdAndDateAndStatus(@Param("doctorId") Long doctorId,
+			@Param("date") LocalDate date, @Param("status") TimeSlotStatus status);
+
+	/**
+	 * 予約枠の医師IDのみを取得する。
+	 */
+	@Query("SELECT t.doctor.id FROM TimeSlot t WHERE t.id = :id")
+	Optional<Long> findDoctorIdById(@Param("id") Long id);
+
+	/**
+	 * 指定したIDの予約枠の状態を取得する。
+	 */
+	@Query("SELECT t.id AS id, t.doctor.id AS doctorId, t.date AS date, t.startTime AS startTime, t.status AS status "
+			+ "FROM TimeSlot t WHERE t.id IN :ids")
+	List<TimeSlotStateView> findStatesByIdIn(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * 指定期間（from 以上 to 未満）の予約枠の状態を取得する。
+	 */
+	@Query("SELECT t.id AS id, t.doctor.id AS doctorId, t.date AS date, t.startTime AS startTime, t.status AS status "
+			+ "FROM TimeSlot t WHERE t.date >= :from AND t.date < :to")
+	List<TimeSlotStateView> findStatesByDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	/**
+	 * 指定期間（from 以上 to 未満）の予約枠の状態を version とあわせて取得する。
+	 */
+	@Query("SELECT t.id AS id, t.doctor.id AS doctorId, t.date AS date, t.startTime AS startTime, t.status AS status, "
+			+ "t.version AS version FROM TimeSlot t WHERE t.date >= :from AND t.date < :to")
+	List<TimeSlotVersionedStateView> findVersionedStatesByDateRange(@Param("from") LocalDate from,
+			@Param("to") LocalDate to);
+
+	/**
+	 * 複数の医師の指定期間（from 以上 to 以下）の予約枠を、医師・日付・開始時刻順に取得する。
+	 */
+	@Query("SELECT t.id AS id, t.doctor.id AS doctorId, t.date AS date, t.startTime AS startTime, t.status AS status "
+			+ "FROM TimeSlot t WHERE t.doctor.id IN :doctorIds AND t.date BETWEEN :from AND :to AND t.status = :status "
+			+ "ORDER BY t.doctor.id, t.date, t.startTime")
+	List<TimeSlotStateView> findStatesByDoctorIdsAndDateRange(@Param("doctorIds") Collection<Long> doctorIds,
+			@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("status") TimeSlotStatus status);
+
+	/**
+	 * 診療科の全医師の指定期間（from 以上 to 以下）の予約枠を、医師・日付・開始時刻順に取得する。
+	 */
+	@Query("SELECT t.id AS id, t.doctor.id AS doctorId, t.date AS date, t.startTime AS startTime, t.status AS status "
+			+ "FROM TimeSlot t WHERE t.doctor.departmentId = :departmentId AND t.date BETWEEN :from AND :to "
+			+ "AND t.status = :status ORDER BY t.doctor.id, t.date, t.startTime")
+	List<TimeSlotStateView> findStatesByDepartmentIdAndDateRange(@Param("departmentId") Long departmentId,
+			@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("status") TimeSlotStatus status);
+
+	/**
+	 * 診療科の予約枠のうち、指定日時以降に始まるものを開始日時順に取得する。
+	 */
+	@Query("SELECT t.id AS id, t.doctor.id AS doctorId, t.date AS date, t.startTime AS startTime, t.status AS status "
+			+ "FROM TimeSlot t WHERE t.doctor.departmentId = :departmentId AND t.status = :status "
+			+ "AND (t.date > :date OR (t.date = :date AND t.startTime >= :time)) ORDER BY t.date, t.startTime, t.id")
+	List<TimeSlotStateView> findEarliestByDepartmentId(@Param("departmentId") Long departmentId,
+			@Param("status") TimeSlotStatus status, @Param("date") LocalDate date, @Param("time") LocalTime time,
+			Limit limit);
+
+	/**
+	 * 予約枠のステータスが expected の場合のみ next に更新する。
+	 *
+	 * @return 更新された行数（0 または 1）
+	 */
+	default int updateStatusIfMatches(Long id, TimeSlotStatus expected, TimeSlotStatus next) {
+		return findDateById(id).map(date -> updateStatusIfMatches(id, date, expected, next)).orElse(0);
+	}
+
+	/**
+	 * 主キー（id, date）を指定して、予約枠のステータスが expected の場合のみ next に更新する。
+	 *
+	 * @return 更新された行数（0 または 1）
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE TimeSlot t SET t.status = :next WHERE t.id = :id AND t.date = :date AND t.status = :expected")
+	int updateStatusIfMatches(@Param("id") Long id, @Param("date") LocalDate date,
+			@Param("expected") TimeSlotStatus expected, @Param("next") TimeSlotStatus next);
 }
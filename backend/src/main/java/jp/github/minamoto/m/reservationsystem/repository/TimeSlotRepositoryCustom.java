@@ -0,0 +1,23 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+
+public interface TimeSlotRepositoryCustom {
+
+	/**
+	 * 複数の予約枠をID昇順にロックして取得する。
+	 * ロック順序を固定することで、一括予約同士のデッドロックを防ぐ。
+	 */
+	List<TimeSlot> findAllByIdForUpdate(Collection<Long> ids);
+
+	/**
+	 * 複数の予約枠のうち、ステータスが expected のものだけを next に更新する。
+	 *
+	 * @return 更新された行数
+	 */
+	int updateAllStatusIfMatches(Collection<Long> ids, TimeSlotStatus expected, TimeSlotStatus next);
+}
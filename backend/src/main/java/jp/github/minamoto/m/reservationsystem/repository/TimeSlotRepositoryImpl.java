@@ -0,0 +1,103 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+
+/**
+ * TimeSlotRepository のうち、主キー（id, date）の組を並べる必要があり Spring Data JPA では表現できない処理の実装。
+ *
+ * <p>予約枠IDを {@value #IN_CHUNK} 件ずつ、ロックを取らずに日付を読んで日付ごとにまとめ、
+ * 「(t.date = :date0 AND t.id IN :ids0) OR …」の条件でロック・更新する。</p>
+ */
+public class TimeSlotRepositoryImpl implements TimeSlotRepositoryCustom {
+	/** 1回のクエリに並べるIDの上限 */
+	private static final int IN_CHUNK = 1000;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final EntityManager entityManager;
+
+	public TimeSlotRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public List<TimeSlot> findAllByIdForUpdate(Collection<Long> ids) {
+		List<TimeSlot> slots = new ArrayList<>();
+		for (List<Long> chunk : chunks(ids)) {
+			Map<LocalDate, List<Long>> idsByDate = TimeSlotKeys.byDate(jdbcTemplate, chunk);
+			if (idsByDate.isEmpty()) {
+				continue;
+			}
+			TypedQuery<TimeSlot> query = entityManager
+					.createQuery("SELECT t FROM TimeSlot t WHERE " + where(idsByDate) + " ORDER BY t.id", TimeSlot.class)
+					.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+			bind(query, idsByDate);
+			slots.addAll(query.getResultList());
+		}
+		return slots;
+	}
+
+	@Override
+	public int updateAllStatusIfMatches(Collection<Long> ids, TimeSlotStatus expected, TimeSlotStatus next) {
+		entityManager.flush();
+		int updated = 0;
+		for (List<Long> chunk : chunks(ids)) {
+			Map<LocalDate, List<Long>> idsByDate = TimeSlotKeys.byDate(jdbcTemplate, chunk);
+			if (idsByDate.isEmpty()) {
+				continue;
+			}
+			Query query = entityManager.createQuery("UPDATE TimeSlot t SET t.status = :next WHERE ("
+					+ where(idsByDate) + ") AND t.status = :expected")
+					.setParameter("next", next)
+					.setParameter("expected", expected);
+			bind(query, idsByDate);
+			updated += query.executeUpdate();
+		}
+		return updated;
+	}
+
+	private static String where(Map<LocalDate, List<Long>> idsByDate) {
+		StringBuilder where = new StringBuilder();
+		for (int i = 0; i < idsByDate.size(); i++) {
+			if (i > 0) {
+				where.append(" OR ");
+			}
+			where.append("(t.date = :date").append(i).append(" AND t.id IN :ids").append(i).append(")");
+		}
+		return where.toString();
+	}
+
+	private static void bind(Query query, Map<LocalDate, List<Long>> idsByDate) {
+		int i = 0;
+		for (Map.Entry<LocalDate, List<Long>> entry : idsByDate.entrySet()) {
+			query.setParameter("date" + i, entry.getKey()).setParameter("ids" + i, entry.getValue());
+			i++;
+		}
+	}
+
+	/**
+	 * IDを昇順・重複なしに並べ、{@value #IN_CHUNK} 件ずつに分ける。
+	 */
+	private static List<List<Long>> chunks(Collection<Long> ids) {
+		List<Long> sorted = new ArrayList<>(new TreeSet<>(ids));
+		List<List<Long>> chunks = new ArrayList<>();
+		for (int from = 0; from < sorted.size(); from += IN_CHUNK) {
+			chunks.add(sorted.subList(from, Math.min(from + IN_CHUNK, sorted.size())));
+		}
+		return chunks;
+	}
+}
@@ -0,0 +1,10 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalTime;
+
+/**
+ * 空き予約枠の一覧に必要な ID と開始時刻のみを読み出すためのプロジェクション。
+ * JPQL のコンストラクタ式で直接生成するため、エンティティも永続化コンテキストのスナップショットも作らない。
+ */
+public record TimeSlotStartView(Long id, LocalTime startTime) {
+}
@@ -0,0 +1,18 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+
+/**
+ * 予約枠の状態だけを読み出すためのプロジェクション。
+ * エンティティを生成せずに必要な列のみを取得する。
+ */
+public interface TimeSlotStateView {
+	Long getId();
+	Long getDoctorId();
+	LocalDate getDate();
+	LocalTime getStartTime();
+	TimeSlotStatus getStatus();
+}
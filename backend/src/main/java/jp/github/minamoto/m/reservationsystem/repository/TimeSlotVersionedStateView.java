@@ -0,0 +1,9 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+/**
+ * 予約枠の状態に time_slot.version を加えたプロジェクション。
+ * コミット後のステータス変更イベントが、読み込んだ状態より新しいかどうかを判定するために使う。
+ */
+public interface TimeSlotVersionedStateView extends TimeSlotStateView {
+	long getVersion();
+}
@@ -0,0 +1,43 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.LockModeType;
+import jp.github.minamoto.m.reservationsystem.domain.WaitlistStatus;
+import jp.github.minamoto.m.reservationsystem.entity.WaitlistEntry;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+	/**
+	 * 予約枠単位の順番待ちの先頭をロックして取得する。
+	 * (time_slot_id, status, id) のインデックスで先頭1件のみを読む。
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	Optional<WaitlistEntry> findFirstByTimeSlotIdAndStatusOrderByIdAsc(Long timeSlotId, WaitlistStatus status);
+
+	/**
+	 * 医師・日付単位の順番待ちの先頭をロックして取得する。
+	 * (doctor_id, date, status, id) のインデックスで先頭1件のみを読む。
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	Optional<WaitlistEntry> findFirstByTimeSlotIdIsNullAndDoctorIdAndDateAndStatusOrderByIdAsc(Long doctorId,
+			LocalDate date, WaitlistStatus status);
+
+	/**
+	 * 順番待ちのステータスが expected の場合のみ next に更新する。
+	 * 繰り上げと同時に取り消された場合でも、どちらか一方だけが反映される。
+	 *
+	 * @return 更新された行数（0 または 1）
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE WaitlistEntry e SET e.status = :next WHERE e.id = :id AND e.status = :expected")
+	int updateStatusIfMatches(@Param("id") Long id, @Param("expected") WaitlistStatus expected,
+			@Param("next") WaitlistStatus next);
+}
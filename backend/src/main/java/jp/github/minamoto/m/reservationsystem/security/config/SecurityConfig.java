@@ -32,7 +32,14 @@ public class SecurityConfig {
                 .requestMatchers("/v1/departments/**", "/api/v1/departments/**").permitAll()
                 .requestMatchers("/v1/doctors/**", "/api/v1/doctors/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/v1/timeslots", "/api/v1/timeslots").permitAll()
+                .requestMatchers(HttpMethod.GET, "/v1/timeslots/range", "/api/v1/timeslots/range",
+                        "/v1/timeslots/earliest", "/api/v1/timeslots/earliest",
+                        "/v1/timeslots/stream", "/api/v1/timeslots/stream",
+                        "/v1/timeslots/calendar", "/api/v1/timeslots/calendar").permitAll()
                 .requestMatchers(HttpMethod.POST, "/v1/reservations", "/api/v1/reservations").permitAll()
+                .requestMatchers(HttpMethod.POST, "/v1/holds", "/api/v1/holds").permitAll()
+                .requestMatchers(HttpMethod.POST, "/v1/waitlist", "/api/v1/waitlist").permitAll()
+                .requestMatchers(HttpMethod.DELETE, "/v1/holds/*", "/api/v1/holds/*").permitAll()
                 .requestMatchers("/v1/admin/**", "/api/v1/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
         );
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jp.github.minamoto.m.reservationsystem.dto.DepartmentResponseDTO;
 import jp.github.minamoto.m.reservationsystem.entity.Department;
@@ -36,6 +37,7 @@ public class DepartmentService {
 	 * 
 	 * @return 診療科目一覧レスポンス
 	 */
+	@Transactional(readOnly = true)
 	public List<DepartmentResponseDTO> findAll() {
 		List<Department> departments = departmentRepository.findAll();
 
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jp.github.minamoto.m.reservationsystem.dto.DoctorResponseDTO;
 import jp.github.minamoto.m.reservationsystem.entity.Doctor;
@@ -37,6 +38,7 @@ public class DoctorService {
 	 * 
 	 * @return 医師一覧レスポンス
 	 */
+	@Transactional(readOnly = true)
 	public List<DoctorResponseDTO> findAll() {
 		List<Doctor> departments = doctorRepository.findAll();
 		
@@ -49,6 +51,7 @@ public class DoctorService {
 	 * @param departmentId 診療科目ID
 	 * @return 医師情報レスポンス
 	 */
+	@Transactional(readOnly = true)
 	public List<DoctorResponseDTO> findByDepartmentId(Long departmentId) {
 		List<Doctor> doctors = doctorRepository.findByDepartmentId(departmentId);
 
@@ -0,0 +1,162 @@
+package jp.github.minamoto.m.reservationsystem.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationBatchMode;
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationBatchItemResultDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationBatchRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationBatchResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.engine.SlotStateEngine;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+@Service
+public class ReservationBatchService {
+	static final String CREATED = "CREATED";
+	static final String CONFLICT = "CONFLICT";
+	static final String NOT_FOUND = "NOT_FOUND";
+	static final String SKIPPED = "SKIPPED";
+
+	private final ReservationService reservationService;
+	private final ReservationRepository reservationRepository;
+	private final TimeSlotRepository timeSlotRepository;
+	private final SlotStateEngine slotStateEngine;
+	private final ApplicationEventPublisher eventPublisher;
+	private final int maxItems;
+
+	public ReservationBatchService(ReservationService reservationService, ReservationRepository reservationRepository,
+			TimeSlotRepository timeSlotRepository, SlotStateEngine slotStateEngine,
+			ApplicationEventPublisher eventPublisher,
+			@Value("${app.reservation.batch.max-items:100}") int maxItems) {
+		this.reservationService = reservationService;
+		this.reservationRepository = reservationRepository;
+		this.timeSlotRepository = timeSlotRepository;
+		this.slotStateEngine = slotStateEngine;
+		this.eventPublisher = eventPublisher;
+		this.maxItems = maxItems;
+	}
+
+	/*
+	 * 複数の予約枠をまとめて予約する。
+	 * 
+	 * 対象の予約枠をID昇順に1回のクエリでロック（デッドロック防止）
+	 * 各明細を順に判定（枠なし・予約済み・同一リクエスト内の重複）
+	 * ALL_OR_NOTHING で1件でも失敗があれば何も登録しない
+	 * 予約はJDBCバッチでまとめて登録
+	 * 
+	 * @param dto 一括予約リクエストDTO
+	 * @return 明細ごとの結果
+	 * @throws RequestLimitExceededException 明細数が上限を超える場合
+	 */
+	@Transactional
+	public ReservationBatchResponseDTO createBatch(ReservationBatchRequestDTO dto) {
+		List<ReservationCreateRequestDTO> items = dto.getItems() == null ? List.of() : dto.getItems();
+		if (items.size() > maxItems) {
+			throw new RequestLimitExceededException("一括予約は" + maxItems + "件までです。");
+		}
+		ReservationBatchMode mode = dto.getMode() == null ? ReservationBatchMode.ALL_OR_NOTHING : dto.getMode();
+
+		// ID昇順にまとめてロック
+		Set<Long> ids = items.stream().map(ReservationCreateRequestDTO::getTimeSlotId)
+			.filter(id -> id != null)
+			.collect(Collectors.toCollection(TreeSet::new));
+		Map<Long, TimeSlot> slots = ids.isEmpty() ? Map.of()
+			: timeSlotRepository.findAllByIdForUpdate(ids).stream()
+				.collect(Collectors.toMap(TimeSlot::getId, Function.identity()));
+
+		// 明細ごとに判定する（書き込みはまだ行わない）
+		List<ReservationBatchItemResultDTO> results = new ArrayList<>(items.size());
+		Set<Long> claimed = new HashSet<>();
+		for (int i = 0; i < items.size(); i++) {
+			ReservationCreateRequestDTO item = items.get(i);
+			TimeSlot slot = slots.get(item.getTimeSlotId());
+			if (slot == null) {
+				results.add(result(i, item, NOT_FOUND, "予約枠が見つかりません。"));
+			} else if (slot.getStatus() != TimeSlotStatus.OPEN || !claimed.add(slot.getId())) {
+				results.add(result(i, item, CONFLICT, "すでに予約が存在しています。"));
+			} else {
+				results.add(result(i, item, CREATED, null));
+			}
+		}
+
+		boolean anyFailed = results.stream().anyMatch(r -> !CREATED.equals(r.getResult()));
+		if (mode == ReservationBatchMode.ALL_OR_NOTHING && anyFailed) {
+			results.stream().filter(r -> CREATED.equals(r.getResult())).forEach(r -> {
+				r.setResult(SKIPPED);
+				r.setMessage("他の明細が予約できないため登録していません。");
+			});
+			return toResponse(mode, results);
+		}
+
+		// 予約枠を確保して予約を登録する
+		List<Reservation> reservations = new ArrayList<>();
+		List<ReservationBatchItemResultDTO> createdResults = new ArrayList<>();
+		for (ReservationBatchItemResultDTO r : results) {
+			if (!CREATED.equals(r.getResult())) {
+				continue;
+			}
+			ReservationCreateRequestDTO item = items.get(r.getIndex());
+			TimeSlot slot = slots.get(item.getTimeSlotId());
+			slotStateEngine.force(slot.getId(), TimeSlotStatus.RESERVED);
+			slot.setStatus(TimeSlotStatus.RESERVED);
+
+			Reservation reservation = new Reservation();
+			reservation.setTimeSlot(slot);
+			reservation.setActiveTimeSlotId(slot.getId());
+			reservation.setStatus(ReservationStatus.CONFIRMED);
+			reservation.setName(item.getName());
+			reservation.setPhoneNumber(item.getPhoneNumber());
+			reservations.add(reservation);
+			createdResults.add(r);
+		}
+		reservationRepository.batchInsert(reservations);
+		if (!reservations.isEmpty()) {
+			eventPublisher.publishEvent(new TimeSlotStatusChangedEvent(
+					reservations.stream().map(r -> r.getTimeSlot().getId()).toList(), TimeSlotStatus.OPEN,
+					TimeSlotStatus.RESERVED));
+		}
+
+		for (int i = 0; i < reservations.size(); i++) {
+			createdResults.get(i).setReservation(reservationService.toResponseDto(reservations.get(i)));
+		}
+		return toResponse(mode, results);
+	}
+
+	private ReservationBatchItemResultDTO result(int index, ReservationCreateRequestDTO item, String result,
+			String message) {
+		ReservationBatchItemResultDTO dto = new ReservationBatchItemResultDTO();
+		dto.setIndex(index);
+		dto.setTimeSlotId(item.getTimeSlotId());
+		dto.setResult(result);
+		dto.setMessage(message);
+		return dto;
+	}
+
+	private ReservationBatchResponseDTO toResponse(ReservationBatchMode mode, List<ReservationBatchItemResultDTO> results) {
+		ReservationBatchResponseDTO dto = new ReservationBatchResponseDTO();
+		dto.setMode(mode.name());
+		dto.setResults(results);
+		dto.setCreated((int) results.stream().filter(r -> CREATED.equals(r.getResult())).count());
+		dto.setFailed(results.size() - dto.getCreated());
+		return dto;
+	}
+}
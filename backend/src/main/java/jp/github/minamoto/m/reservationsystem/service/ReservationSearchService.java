@@ -0,0 +1,153 @@
+package jp.github.minamoto.m.reservationsystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationListView;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationPageKey;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationSearch;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidReservationQueryException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+/*
+ * 予約一覧の検索（絞り込みとキーセットページング）。
+ *
+ * <p>予約枠の日付・開始時刻・予約ID順に並べ、前のページの最後の行より後ろを limit 件読み出す。
+ * OFFSET を使わないため、後ろのページでも読み飛ばす行がなく、ページ間で予約が追加・キャンセルされても
+ * 行が重複・欠落しない。1ページは予約・予約枠（・医師）を結合した1回のクエリで取得する。</p>
+ */
+@Service
+public class ReservationSearchService {
+	private static final String CURSOR_VERSION = "1";
+	private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+	private final ReservationRepository reservationRepository;
+	private final int defaultPageSize;
+	private final int maxPageSize;
+
+	public ReservationSearchService(ReservationRepository reservationRepository,
+			@Value("${app.reservation.list.page-size:100}") int defaultPageSize,
+			@Value("${app.reservation.list.max-page-size:500}") int maxPageSize) {
+		this.reservationRepository = reservationRepository;
+		this.maxPageSize = maxPageSize;
+		this.defaultPageSize = Math.min(defaultPageSize, maxPageSize);
+	}
+
+	/**
+	 * 1ページ分の予約一覧。
+	 *
+	 * @param reservations 予約レスポンスDTOのリスト（日付・開始時刻・予約ID順）
+	 * @param nextCursor 次のページのカーソル（最後のページは null）
+	 */
+	public record ReservationPage(List<ReservationResponseDTO> reservations, String nextCursor) {
+	}
+
+	/*
+	 * 条件に合う予約を1ページ分取得する。
+	 *
+	 * 期間は from 以上 to 以下（どちらも省略可）
+	 * 医師・診療科は指定した場合のみ絞り込む
+	 * 次のページがあるかは limit + 1 件読み出して判定する（件数を数えるクエリは発行しない）
+	 *
+	 * @param status 予約のステータス（null の場合は CONFIRMED）
+	 * @param from 開始日
+	 * @param to 終了日
+	 * @param doctorId 医師ID
+	 * @param departmentId 診療科ID
+	 * @param cursor 前のページの nextCursor（最初のページは null）
+	 * @param limit 1ページの件数（null の場合は既定の件数）
+	 * @return 1ページ分の予約一覧
+	 * @throws InvalidReservationQueryException 条件・カーソルが不正な場合
+	 * @throws RequestLimitExceededException 件数が上限を超える場合
+	 */
+	@Transactional(readOnly = true)
+	public ReservationPage findPage(ReservationStatus status, LocalDate from, LocalDate to, Long doctorId,
+			Long departmentId, String cursor, Integer limit) {
+		if (from != null && to != null && from.isAfter(to)) {
+			throw new InvalidReservationQueryException("期間の指定が不正です。");
+		}
+		int pageSize = limit != null ? limit : defaultPageSize;
+		if (pageSize < 1) {
+			throw new InvalidReservationQueryException("limit は1以上を指定してください。");
+		}
+		if (pageSize > maxPageSize) {
+			throw new RequestLimitExceededException("limit は" + maxPageSize + "件までです。");
+		}
+
+		ReservationSearch search = new ReservationSearch(status != null ? status : ReservationStatus.CONFIRMED,
+				from, to, doctorId, departmentId);
+		List<ReservationListView> rows = reservationRepository.findPage(search, decodeCursor(cursor), pageSize + 1);
+
+		boolean hasNext = rows.size() > pageSize;
+		int size = hasNext ? pageSize : rows.size();
+		List<ReservationResponseDTO> dtos = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			dtos.add(toResponseDto(rows.get(i)));
+		}
+		String nextCursor = hasNext ? encodeCursor(ReservationPageKey.of(rows.get(size - 1))) : null;
+		return new ReservationPage(dtos, nextCursor);
+	}
+
+	/*
+	 * ページ境界をカーソル文字列にする。
+	 *
+	 * <p>中身は "版|日付|開始時刻|予約ID" を URL セーフな Base64 にしたもの。並び順の列の値のみを持つため、
+	 * 同じカーソルは絞り込み条件を変えても「その行より後ろ」を意味する。</p>
+	 */
+	private static String encodeCursor(ReservationPageKey key) {
+		String raw = CURSOR_VERSION + "|" + key.date() + "|" + key.startTime() + "|" + key.id();
+		return CURSOR_ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static ReservationPageKey decodeCursor(String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return null;
+		}
+		try {
+			String[] parts = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+			if (parts.length != 4 || !CURSOR_VERSION.equals(parts[0])) {
+				throw new InvalidReservationQueryException("cursor が不正です。");
+			}
+			return new ReservationPageKey(LocalDate.parse(parts[1]), LocalTime.parse(parts[2]),
+					Long.valueOf(parts[3]));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new InvalidReservationQueryException("cursor が不正です。");
+		}
+	}
+
+	/*
+	 * 予約一覧のプロジェクションをレスポンス用DTOに変換する。
+	 *
+	 * @param view 予約一覧のプロジェクション
+	 *
+	 * @return 予約レスポンスDTO
+	 */
+	private ReservationResponseDTO toResponseDto(ReservationListView view) {
+		ReservationResponseDTO dto = new ReservationResponseDTO();
+
+		dto.setReservationId(view.id());
+		dto.setTimeSlotId(view.timeSlotId());
+
+		dto.setDate(view.date());
+		dto.setStartTime(view.startTime());
+		dto.setEndTime(view.endTime());
+
+		dto.setStatus(view.status().name());
+		dto.setName(view.name());
+
+		return dto;
+	}
+}
@@ -1,32 +1,61 @@
 package jp.github.minamoto.m.reservationsystem.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.transaction.Transactional;
+import jp.github.minamoto.m.reservationsystem.domain.ReservationClaimStrategy;
 import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
 import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
 import jp.github.minamoto.m.reservationsystem.dto.ReservationCancelResponseDTO;
 import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
 import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
 import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+import jp.github.minamoto.m.reservationsystem.entity.ReservationArchive;
+import jp.github.minamoto.m.reservationsystem.entity.SlotHold;
 import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationArchiveRepository;
 import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.SlotHoldRepository;
 import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.engine.SlotStateEngine;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
 import jp.github.minamoto.m.reservationsystem.service.exception.ReservationNotFoundException;
+import jp.github.minamoto.m.reservationsystem.service.exception.SlotHoldExpiredException;
 import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotAlreadyTakenException;
 import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotNotFoundException;
 
 @Service
 public class ReservationService {
 	private final ReservationRepository reservationRepository;
+	private final ReservationArchiveRepository reservationArchiveRepository;
 	private final TimeSlotRepository timeSlotRepository;
+	private final SlotHoldRepository slotHoldRepository;
+	private final SlotStateEngine slotStateEngine;
+	private final WaitlistService waitlistService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ReservationClaimStrategy claimStrategy;
 
-	public ReservationService(ReservationRepository reservationRepository, TimeSlotRepository timeSlotRepository) {
+	public ReservationService(ReservationRepository reservationRepository,
+			ReservationArchiveRepository reservationArchiveRepository, TimeSlotRepository timeSlotRepository,
+			SlotHoldRepository slotHoldRepository, SlotStateEngine slotStateEngine, WaitlistService waitlistService,
+			ApplicationEventPublisher eventPublisher,
+			@Value("${app.reservation.claim-strategy:PESSIMISTIC_LOCK}") ReservationClaimStrategy claimStrategy) {
 		this.reservationRepository = reservationRepository;
+		this.reservationArchiveRepository = reservationArchiveRepository;
 		this.timeSlotRepository = timeSlotRepository;
+		this.slotHoldRepository = slotHoldRepository;
+		this.slotStateEngine = slotStateEngine;
+		this.waitlistService = waitlistService;
+		this.eventPublisher = eventPublisher;
+		// 未指定の場合は従来の悲観ロック方式
+		this.claimStrategy = claimStrategy != null ? claimStrategy : ReservationClaimStrategy.PESSIMISTIC_LOCK;
 	}
 
 	/*
@@ -36,7 +65,7 @@ public class ReservationService {
 	 * 
 	 * @return 予約レスポンスDTO
 	 */
-	private ReservationResponseDTO toResponseDto(Reservation entity) {
+	ReservationResponseDTO toResponseDto(Reservation entity) {
 		ReservationResponseDTO dto = new ReservationResponseDTO();
 
 		dto.setReservationId(entity.getId());
@@ -52,6 +81,29 @@ public class ReservationService {
 		return dto;
 	}
 
+	/*
+	 * アーカイブ済みの予約をレスポンス用DTOに変換する。
+	 * 
+	 * @param entity アーカイブ済みの予約
+	 * 
+	 * @return 予約レスポンスDTO
+	 */
+	ReservationResponseDTO toResponseDto(ReservationArchive entity) {
+		ReservationResponseDTO dto = new ReservationResponseDTO();
+
+		dto.setReservationId(entity.getId());
+		dto.setTimeSlotId(entity.getTimeSlotId());
+
+		dto.setDate(entity.getDate());
+		dto.setStartTime(entity.getStartTime());
+		dto.setEndTime(entity.getEndTime());
+
+		dto.setStatus(entity.getStatus().name());
+		dto.setName(entity.getName());
+
+		return dto;
+	}
+
 	/*
 	 * 予約情報エンティティをキャンセルレスポンス用DTOに変換する。
 	 * 
@@ -71,8 +123,9 @@ public class ReservationService {
 	/*
 	 * 予約を作成する。
 	 * 
-	 * TimeSlotをロックして取得
-	 * TimeSlotをRESERVEDに更新
+	 * holdToken が指定された場合は仮押さえ中（HELD）の枠を確定
+	 * それ以外はインメモリエンジンが有効な場合は先にメモリ上で枠を確保（負けた場合はDBに触れずに拒否）し、
+	 * 予約枠を確保（claimStrategy に応じてロック取得 or 条件付き UPDATE）
 	 * Reservationの作成
 	 * 
 	 * @param 予約作成リクエストDTO
@@ -80,21 +133,32 @@ public class ReservationService {
 	 */
 	@Transactional
 	public ReservationResponseDTO create(ReservationCreateRequestDTO dto) {
+		return applyCreate(dto);
+	}
 
-		// 予約枠を取得
-		TimeSlot timeSlot = timeSlotRepository.findById(dto.getTimeSlotId())
-			.orElseThrow(() -> new TimeSlotNotFoundException(dto.getTimeSlotId()));
-		
-		if(timeSlot.getStatus() != TimeSlotStatus.OPEN) {
-			throw new TimeSlotAlreadyTakenException("すでに予約が存在しています。");
-		}
+	/*
+	 * 呼び出し側のトランザクション内で予約を作成する。
+	 * 
+	 * <p>BookingPipeline が複数の予約をまとめて1トランザクションでコミットするために使用する。
+	 * 業務例外（枠なし・予約済み）はDBへの書き込み前にスローする。</p>
+	 * 
+	 * @param 予約作成リクエストDTO
+	 * @return 作成された予約情報
+	 */
+	public ReservationResponseDTO applyCreate(ReservationCreateRequestDTO dto) {
 
-		// 予約枠を予約済みに更新
-		timeSlot.setStatus(TimeSlotStatus.RESERVED);
+		// 予約枠を確保
+		boolean held = dto.getHoldToken() != null;
+		TimeSlot timeSlot = held
+				? claimHeld(dto.getTimeSlotId(), dto.getHoldToken())
+				: claimOpen(dto.getTimeSlotId());
+		eventPublisher.publishEvent(TimeSlotStatusChangedEvent.of(timeSlot.getId(),
+				held ? TimeSlotStatus.HELD : TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED));
 
 		// 予約情報の作成
 		Reservation reservation = new Reservation();
 		reservation.setTimeSlot(timeSlot);
+		reservation.setActiveTimeSlotId(timeSlot.getId());
 		reservation.setStatus(ReservationStatus.CONFIRMED);
 		reservation.setName(dto.getName());
 		reservation.setPhoneNumber(dto.getPhoneNumber());
@@ -104,6 +168,98 @@ public class ReservationService {
 		return toResponseDto(savedReservation);
 	}
 
+	/*
+	 * OPEN の予約枠を確保する。
+	 * 
+	 * @param timeSlotId 予約枠ID
+	 * @return 確保した予約枠
+	 */
+	private TimeSlot claimOpen(Long timeSlotId) {
+		// メモリ上で確保済みの場合は即座に拒否する（ロールバック時はエンジン側で元に戻る）
+		if(slotStateEngine.claim(timeSlotId, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED)
+				== SlotStateEngine.Transition.CONFLICT) {
+			throw new TimeSlotAlreadyTakenException("すでに予約が存在しています。");
+		}
+
+		return switch (claimStrategy) {
+			case PESSIMISTIC_LOCK -> claimWithLock(timeSlotId);
+			case CONDITIONAL_UPDATE -> claimWithConditionalUpdate(timeSlotId);
+		};
+	}
+
+	/*
+	 * 仮押さえ中（HELD）の予約枠を RESERVED に更新し、仮押さえを削除する。
+	 * 
+	 * <p>期限切れの解放処理と競合した場合は、条件付き UPDATE の更新件数で判定する。</p>
+	 * 
+	 * @param timeSlotId 予約枠ID
+	 * @param holdToken 仮押さえトークン
+	 * @return 確保した予約枠
+	 * @throws SlotHoldExpiredException 仮押さえが存在しない・期限切れ・別の枠のものである場合
+	 */
+	private TimeSlot claimHeld(Long timeSlotId, String holdToken) {
+		SlotHold hold = slotHoldRepository.findByToken(holdToken)
+			.filter(h -> h.getTimeSlot().getId().equals(timeSlotId))
+			.filter(h -> h.getExpiresAt().isAfter(LocalDateTime.now()))
+			.orElseThrow(() -> new SlotHoldExpiredException("仮押さえが見つからないか、期限が切れています。"));
+
+		if(timeSlotRepository.updateStatusIfMatches(timeSlotId, TimeSlotStatus.HELD, TimeSlotStatus.RESERVED) != 1) {
+			throw new SlotHoldExpiredException("仮押さえが見つからないか、期限が切れています。");
+		}
+		slotHoldRepository.delete(hold);
+		slotStateEngine.force(timeSlotId, TimeSlotStatus.RESERVED);
+
+		return timeSlotRepository.getReferenceById(timeSlotId);
+	}
+
+	/*
+	 * 予約枠をロックして取得し、RESERVEDに更新する。
+	 * 
+	 * @param timeSlotId 予約枠ID
+	 * @return 確保した予約枠
+	 * @throws TimeSlotNotFoundException 予約枠が存在しない場合
+	 * @throws TimeSlotAlreadyTakenException 予約枠がOPENでない場合
+	 */
+	private TimeSlot claimWithLock(Long timeSlotId) {
+		TimeSlot timeSlot = timeSlotRepository.findByIdForUpdate(timeSlotId)
+			.orElseThrow(() -> new TimeSlotNotFoundException(timeSlotId));
+		
+		if(timeSlot.getStatus() != TimeSlotStatus.OPEN) {
+			throw new TimeSlotAlreadyTakenException("すでに予約が存在しています。");
+		}
+
+		// 予約枠を予約済みに更新
+		timeSlot.setStatus(TimeSlotStatus.RESERVED);
+
+		return timeSlot;
+	}
+
+	/*
+	 * 「status = OPEN の場合のみ RESERVED に更新」する UPDATE 1文で予約枠を確保する。
+	 * 
+	 * <p>事前の SELECT ... FOR UPDATE を行わないため、行ロックは UPDATE 文の実行中からコミットまでに限られる。
+	 * 更新件数が1件の場合のみ確保成功とし、0件の場合は存在確認をして例外を切り分ける。</p>
+	 * 
+	 * @param timeSlotId 予約枠ID
+	 * @return 確保した予約枠
+	 * @throws TimeSlotNotFoundException 予約枠が存在しない場合
+	 * @throws TimeSlotAlreadyTakenException 予約枠がOPENでない場合
+	 */
+	private TimeSlot claimWithConditionalUpdate(Long timeSlotId) {
+		int updated = timeSlotRepository.updateStatusIfMatches(
+				timeSlotId, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED);
+
+		if(updated != 1) {
+			if(!timeSlotRepository.existsById(timeSlotId)) {
+				throw new TimeSlotNotFoundException(timeSlotId);
+			}
+			throw new TimeSlotAlreadyTakenException("すでに予約が存在しています。");
+		}
+
+		// UPDATE 済みのため参照のみ取得する（レスポンス生成時に必要な列だけ遅延ロードされる）
+		return timeSlotRepository.getReferenceById(timeSlotId);
+	}
+
 	/*
 	 * 予約をキャンセルする。
 	 * 
@@ -111,14 +267,27 @@ public class ReservationService {
 	 * 
 	 * ReservationStatusがCONFIRMEDのもののみ対象
 	 * ReservationStatusをCANCELEDに変更
-	 * TimeSlotStatusをOPENに変更
+	 * 順番待ちがあれば先頭に繰り上げ（TimeSlotStatusはRESERVEDのまま）
+	 * 順番待ちがなければTimeSlotStatusをOPENに変更
 	 * 
 	 * @param reservationId 予約ID
 	 * @return キャンセルされた予約情報
 	 */
 	@Transactional
 	public ReservationCancelResponseDTO cancel(Long reservationId) {
-		Reservation reservation = reservationRepository.findById(reservationId)
+		return applyCancel(reservationId);
+	}
+
+	/*
+	 * 呼び出し側のトランザクション内で予約をキャンセルする。
+	 * 
+	 * <p>業務例外（予約なし・キャンセル不可）はDBへの書き込み前にスローする。</p>
+	 * 
+	 * @param reservationId 予約ID
+	 * @return キャンセルされた予約情報
+	 */
+	public ReservationCancelResponseDTO applyCancel(Long reservationId) {
+		Reservation reservation = reservationRepository.findByIdForUpdate(reservationId)
 				.orElseThrow(() -> new ReservationNotFoundException(reservationId));
 
 		if(reservation.getStatus() != ReservationStatus.CONFIRMED) {
@@ -127,10 +296,16 @@ public class ReservationService {
 
 		// 予約をキャンセル
 		reservation.setStatus(ReservationStatus.CANCELED);
+		reservation.setActiveTimeSlotId(null);
 
-		// 予約枠を空きに更新
+		// 順番待ちがいれば同じトランザクション内で繰り上げ、いなければ予約枠を空きに更新
 		TimeSlot timeSlot = reservation.getTimeSlot();
-		timeSlot.setStatus(TimeSlotStatus.OPEN);
+		if(waitlistService.promote(timeSlot).isEmpty()) {
+			TimeSlotStatus previous = timeSlot.getStatus();
+			timeSlot.setStatus(TimeSlotStatus.OPEN);
+			slotStateEngine.release(timeSlot.getId(), TimeSlotStatus.OPEN);
+			eventPublisher.publishEvent(TimeSlotStatusChangedEvent.of(timeSlot.getId(), previous, TimeSlotStatus.OPEN));
+		}
 
 		return toCancelResponseDTO(reservation);
 	}
@@ -141,6 +316,7 @@ public class ReservationService {
 	 * 
 	 * @return 予約レスポンスDTOのリスト
 	 */
+	@Transactional(readOnly = true)
 	public List<ReservationResponseDTO> findAll() {
 		List<Reservation> reservations = reservationRepository.findAll();
 
@@ -148,30 +324,27 @@ public class ReservationService {
 			.collect(Collectors.toList());
 	}
 
-	/*
-	 * 予約済みの予約一覧を取得する。
-	 * 
-	 * @return 予約レスポンスDTOのリスト
-	 */
-	public List<ReservationResponseDTO> findAllConfirmed() {
-		return reservationRepository.findByStatus(ReservationStatus.CONFIRMED)
-			.stream().map(this::toResponseDto)
-			.collect(Collectors.toList());
-	}
-
 	/*
 	 * 予約IDを指定して予約情報を取得する。
 	 * 
-	 * <p>指定された予約IDの予約が存在しない場合は例外を発生させる。</p>
+	 * <p>指定された予約IDの予約が存在しない場合は例外を発生させる。
+	 * 行ロックは取らないため、キャンセル処理中の予約でも待たずにコミット済みの状態を返す。
+	 * 保存期間を過ぎてアーカイブに移した予約は reservation_archive から返す。</p>
 	 * 
 	 * @param reservationId 予約ID
 	 * @return 予約レスポンスDTO
 	 * @throws ReservationNotFoundException 予約が存在しない場合
 	 */
+	@Transactional(readOnly = true)
 	public ReservationResponseDTO findById(Long reservationId) {
-		Reservation reservation = reservationRepository.findById(reservationId)
-				.orElseThrow(() -> new ReservationNotFoundException(reservationId));
+		Optional<Reservation> reservation = reservationRepository.findById(reservationId);
+		if(reservation.isPresent()) {
+			return toResponseDto(reservation.get());
+		}
 
-		return toResponseDto(reservation);
+		// アーカイブへの移動は予約の削除と同じトランザクションでコミットされるため、どちらかには必ずある
+		return reservationArchiveRepository.findById(reservationId)
+				.map(this::toResponseDto)
+				.orElseThrow(() -> new ReservationNotFoundException(reservationId));
 	}
 }
@@ -2,27 +2,51 @@ package jp.github.minamoto.m.reservationsystem.service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import jakarta.transaction.Transactional;
 import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
 import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
 import jp.github.minamoto.m.reservationsystem.dto.TimeSlotStatusResponseDTO;
 import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
 import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
 import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotStartView;
+import jp.github.minamoto.m.reservationsystem.service.availability.AvailabilityIndex;
+import jp.github.minamoto.m.reservationsystem.service.engine.SlotStateEngine;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.version.SlotVersionService;
 
 @Service
 public class TimeSlotService {
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
     private final TimeSlotRepository timeSlotRepository;
     private final ReservationRepository reservationRepository;
+    private final SlotStateEngine slotStateEngine;
+    private final AvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SlotVersionService slotVersionService;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public TimeSlotService(TimeSlotRepository timeSlotRepository, ReservationRepository reservationRepository) {
+    public TimeSlotService(TimeSlotRepository timeSlotRepository, ReservationRepository reservationRepository,
+            SlotStateEngine slotStateEngine, AvailabilityIndex availabilityIndex,
+            ApplicationEventPublisher eventPublisher, SlotVersionService slotVersionService,
+            PlatformTransactionManager transactionManager) {
         this.timeSlotRepository = timeSlotRepository;
         this.reservationRepository = reservationRepository;
+        this.slotStateEngine = slotStateEngine;
+        this.availabilityIndex = availabilityIndex;
+        this.eventPublisher = eventPublisher;
+        this.slotVersionService = slotVersionService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     /**
@@ -33,10 +57,14 @@ public class TimeSlotService {
      */
     @Transactional
     public TimeSlotStatusResponseDTO close(Long timeSlotId) {
-        TimeSlot timeSlot = timeSlotRepository.findById(timeSlotId)
+        TimeSlot timeSlot = timeSlotRepository.findByIdForUpdate(timeSlotId)
             .orElseThrow(() -> new IllegalArgumentException("予約枠が見つかりません。"));
         
+        TimeSlotStatus previous = timeSlot.getStatus();
         timeSlot.setStatus(TimeSlotStatus.DOCTOR_UNAVAILABLE);
+        // 閉じた枠への予約はメモリ上で即座に拒否させる（ロールバック時は元に戻る）
+        slotStateEngine.force(timeSlotId, TimeSlotStatus.DOCTOR_UNAVAILABLE);
+        eventPublisher.publishEvent(TimeSlotStatusChangedEvent.of(timeSlotId, previous, TimeSlotStatus.DOCTOR_UNAVAILABLE));
 
         return new TimeSlotStatusResponseDTO(timeSlotId, timeSlot.getStatus().name());
     }
@@ -49,7 +77,7 @@ public class TimeSlotService {
      */
     @Transactional
     public TimeSlotStatusResponseDTO open(Long timeSlotId) {
-        TimeSlot timeSlot = timeSlotRepository.findById(timeSlotId)
+        TimeSlot timeSlot = timeSlotRepository.findByIdForUpdate(timeSlotId)
             .orElseThrow(() -> new IllegalArgumentException("予約枠が見つかりません。"));
 
         // 予約が存在する場合はOPENに戻せない
@@ -58,7 +86,11 @@ public class TimeSlotService {
             throw new IllegalArgumentException("予約が存在するためOPENに戻せません。");
         }
        
+        TimeSlotStatus previous = timeSlot.getStatus();
         timeSlot.setStatus(TimeSlotStatus.OPEN);
+        // 予約可能になるのはコミット後
+        slotStateEngine.release(timeSlotId, TimeSlotStatus.OPEN);
+        eventPublisher.publishEvent(TimeSlotStatusChangedEvent.of(timeSlotId, previous, TimeSlotStatus.OPEN));
 
         return new TimeSlotStatusResponseDTO(timeSlotId, timeSlot.getStatus().name());
     }
@@ -66,19 +98,60 @@ public class TimeSlotService {
     /**
      * 日付と医師IDを指定して空き予約枠（OPEN）を取得する。
      *
+     * <p>空き枠インデックスの管理対象であればメモリ上で返し、DBには触れない（トランザクションも開始しない）。
+     * 管理対象外の場合のみ読み取り専用でDBを検索する。</p>
+     *
      * @param date 予約希望日
      * @param doctorId 医師ID
      * @return 空き予約枠のDTOリスト（timeSlotId, startTime）
      */
     public List<TimeSlotAvailableResponseDTO> findAvailable(LocalDate date, Long doctorId) {
-        List<TimeSlot> result = timeSlotRepository
-                .findByDoctorIdAndDateAndStatusOrderByStartTimeAsc(doctorId, date, TimeSlotStatus.OPEN);
-
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-        return result.stream()
-                .map(ts -> new TimeSlotAvailableResponseDTO(
-                        ts.getId(),
-                        ts.getStartTime().format(timeFormatter)))
-                .collect(Collectors.toList());
+        List<TimeSlotAvailableResponseDTO> indexed = availabilityIndex.findOpen(doctorId, date);
+        if (indexed != null) {
+            return indexed;
+        }
+        return findAvailableInDb(date, doctorId);
+    }
+
+    /**
+     * 空き予約枠（OPEN）と、その一覧に対応する ETag をあわせて取得する。
+     *
+     * <p>ETag は一覧と同じ読み取り元から作る。空き枠インデックスから返す場合は一覧の内容から、
+     * DBから返す場合は一覧と同じ読み取り専用トランザクション（同じ接続）で読んだバージョンから作る。
+     * プライマリで読んだバージョンを遅れたレプリカの一覧に付けると、古い一覧が 304 で再検証され続けるため。</p>
+     *
+     * @param date 予約希望日
+     * @param doctorId 医師ID
+     * @return 空き予約枠のDTOリストと ETag
+     */
+    public AvailableSlots findAvailableWithEtag(LocalDate date, Long doctorId) {
+        List<TimeSlotAvailableResponseDTO> indexed = availabilityIndex.findOpen(doctorId, date);
+        if (indexed != null) {
+            return new AvailableSlots(slotVersionService.contentEtag(doctorId, date, indexed), indexed);
+        }
+        // バージョンを先に読む。間にコミットがあっても一覧の方が新しくなるだけで、次の再検証で 200 になる
+        return readOnlyTransaction.execute(status -> {
+            String etag = slotVersionService.etagInTransaction(doctorId, date);
+            return new AvailableSlots(etag, findAvailableInDb(date, doctorId));
+        });
+    }
+
+    private List<TimeSlotAvailableResponseDTO> findAvailableInDb(LocalDate date, Long doctorId) {
+        // Spring Data のリポジトリメソッドは読み取り専用トランザクションで実行される。
+        // 必要な列だけをレコードに読み出し、エンティティ（医師のプロキシや変更検知用のスナップショット）は作らない
+        List<TimeSlotStartView> result = timeSlotRepository
+                .findStartTimesByDoctorIdAndDateAndStatus(doctorId, date, TimeSlotStatus.OPEN);
+
+        List<TimeSlotAvailableResponseDTO> available = new ArrayList<>(result.size());
+        for (TimeSlotStartView slot : result) {
+            available.add(new TimeSlotAvailableResponseDTO(slot.id(), slot.startTime().format(TIME_FORMATTER)));
+        }
+        return available;
+    }
+
+    /**
+     * 空き予約枠の一覧と、その一覧に対応する ETag。
+     */
+    public record AvailableSlots(String etag, List<TimeSlotAvailableResponseDTO> slots) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package jp.github.minamoto.m.reservationsystem.service;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.domain.WaitlistStatus;
+import jp.github.minamoto.m.reservationsystem.dto.WaitlistEntryRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.WaitlistEntryResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+import jp.github.minamoto.m.reservationsystem.entity.WaitlistEntry;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.repository.WaitlistEntryRepository;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidWaitlistRequestException;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotNotFoundException;
+import jp.github.minamoto.m.reservationsystem.service.exception.WaitlistEntryNotFoundException;
+
+@Service
+public class WaitlistService {
+	private final WaitlistEntryRepository waitlistEntryRepository;
+	private final TimeSlotRepository timeSlotRepository;
+	private final ReservationRepository reservationRepository;
+
+	public WaitlistService(WaitlistEntryRepository waitlistEntryRepository, TimeSlotRepository timeSlotRepository,
+			ReservationRepository reservationRepository) {
+		this.waitlistEntryRepository = waitlistEntryRepository;
+		this.timeSlotRepository = timeSlotRepository;
+		this.reservationRepository = reservationRepository;
+	}
+
+	/*
+	 * 順番待ちエンティティをレスポンス用DTOに変換する。
+	 * 
+	 * @param entity 順番待ちエンティティ
+	 * @return 順番待ちレスポンスDTO
+	 */
+	private WaitlistEntryResponseDTO toResponseDto(WaitlistEntry entity) {
+		WaitlistEntryResponseDTO dto = new WaitlistEntryResponseDTO();
+
+		dto.setWaitlistEntryId(entity.getId());
+		dto.setTimeSlotId(entity.getTimeSlotId());
+		dto.setDoctorId(entity.getDoctorId());
+		dto.setDate(entity.getDate());
+		dto.setStatus(entity.getStatus().name());
+		dto.setReservationId(entity.getReservationId());
+
+		return dto;
+	}
+
+	/*
+	 * 順番待ちに登録する。
+	 * 
+	 * timeSlotId を指定した場合はその予約枠の順番待ち（空いている枠は登録不可）
+	 * 指定しない場合は doctorId と date で、その医師・日付のいずれかの枠の順番待ち
+	 * 
+	 * @param dto 順番待ち登録リクエストDTO
+	 * @return 登録された順番待ち
+	 * @throws TimeSlotNotFoundException 予約枠が存在しない場合
+	 * @throws InvalidWaitlistRequestException 指定が不足している、または予約枠が空いている場合
+	 */
+	@Transactional
+	public WaitlistEntryResponseDTO enqueue(WaitlistEntryRequestDTO dto) {
+		WaitlistEntry entry = new WaitlistEntry();
+
+		if(dto.getTimeSlotId() != null) {
+			TimeSlot timeSlot = timeSlotRepository.findById(dto.getTimeSlotId())
+				.orElseThrow(() -> new TimeSlotNotFoundException(dto.getTimeSlotId()));
+
+			if(timeSlot.getStatus() == TimeSlotStatus.OPEN) {
+				throw new InvalidWaitlistRequestException("空きのある予約枠です。そのまま予約してください。");
+			}
+			entry.setTimeSlotId(timeSlot.getId());
+			entry.setDoctorId(timeSlot.getDoctor().getId());
+			entry.setDate(timeSlot.getDate());
+		} else {
+			if(dto.getDoctorId() == null || dto.getDate() == null) {
+				throw new InvalidWaitlistRequestException("timeSlotId、または doctorId と date を指定してください。");
+			}
+			entry.setDoctorId(dto.getDoctorId());
+			entry.setDate(dto.getDate());
+		}
+
+		entry.setStatus(WaitlistStatus.WAITING);
+		entry.setName(dto.getName());
+		entry.setPhoneNumber(dto.getPhoneNumber());
+
+		return toResponseDto(waitlistEntryRepository.save(entry));
+	}
+
+	/*
+	 * 順番待ちの状態を取得する（繰り上げ済みの場合は予約IDを含む）。
+	 * 
+	 * @param waitlistEntryId 順番待ちID
+	 * @return 順番待ちレスポンスDTO
+	 * @throws WaitlistEntryNotFoundException 順番待ちが存在しない場合
+	 */
+	@Transactional(readOnly = true)
+	public WaitlistEntryResponseDTO findById(Long waitlistEntryId) {
+		return waitlistEntryRepository.findById(waitlistEntryId)
+			.map(this::toResponseDto)
+			.orElseThrow(() -> new WaitlistEntryNotFoundException(waitlistEntryId));
+	}
+
+	/*
+	 * 順番待ちを取り消す。繰り上げ済みの場合は何もしない。
+	 * 
+	 * <p>同時に繰り上げられても上書きしないよう、WAITING の場合のみ条件付き UPDATE で取り消す。</p>
+	 * 
+	 * @param waitlistEntryId 順番待ちID
+	 * @return 順番待ちレスポンスDTO
+	 * @throws WaitlistEntryNotFoundException 順番待ちが存在しない場合
+	 */
+	@Transactional
+	public WaitlistEntryResponseDTO cancel(Long waitlistEntryId) {
+		waitlistEntryRepository.updateStatusIfMatches(waitlistEntryId, WaitlistStatus.WAITING, WaitlistStatus.CANCELED);
+
+		return waitlistEntryRepository.findById(waitlistEntryId)
+			.map(this::toResponseDto)
+			.orElseThrow(() -> new WaitlistEntryNotFoundException(waitlistEntryId));
+	}
+
+	/*
+	 * 空いた予約枠を順番待ちの先頭に割り当てる。呼び出し側のトランザクション内で実行する。
+	 * 
+	 * <p>予約枠単位の順番待ちを優先し、いなければ同じ医師・日付の順番待ちから繰り上げる。
+	 * 先頭の1件だけをインデックスで読み、行ロックを取るため、同時に空いた枠に同じ人が二重に割り当てられることはない。
+	 * 予約枠のステータスは RESERVED のまま変更しない。閉じられた枠など RESERVED 以外の枠は繰り上げない。</p>
+	 * 
+	 * @param timeSlot 空いた予約枠
+	 * @return 繰り上げで作成した予約（順番待ちがいない場合、または予約枠が RESERVED でない場合は空）
+	 */
+	public Optional<Reservation> promote(TimeSlot timeSlot) {
+		if(timeSlot.getStatus() != TimeSlotStatus.RESERVED) {
+			return Optional.empty();
+		}
+		Optional<WaitlistEntry> head = waitlistEntryRepository
+			.findFirstByTimeSlotIdAndStatusOrderByIdAsc(timeSlot.getId(), WaitlistStatus.WAITING);
+		if(head.isEmpty() && timeSlot.getDoctor() != null) {
+			head = waitlistEntryRepository.findFirstByTimeSlotIdIsNullAndDoctorIdAndDateAndStatusOrderByIdAsc(
+					timeSlot.getDoctor().getId(), timeSlot.getDate(), WaitlistStatus.WAITING);
+		}
+		if(head.isEmpty()) {
+			return Optional.empty();
+		}
+		WaitlistEntry entry = head.get();
+
+		// キャンセルされた予約の active_time_slot_id を先に NULL にしてから登録する（一意制約のため）
+		reservationRepository.flush();
+
+		Reservation reservation = new Reservation();
+		reservation.setTimeSlot(timeSlot);
+		reservation.setActiveTimeSlotId(timeSlot.getId());
+		reservation.setStatus(ReservationStatus.CONFIRMED);
+		reservation.setName(entry.getName());
+		reservation.setPhoneNumber(entry.getPhoneNumber());
+		Reservation saved = reservationRepository.save(reservation);
+
+		entry.setStatus(WaitlistStatus.PROMOTED);
+		entry.setReservationId(saved.getId());
+
+		return Optional.of(saved);
+	}
+}
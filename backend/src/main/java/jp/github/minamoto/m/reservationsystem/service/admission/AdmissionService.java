@@ -0,0 +1,224 @@
+package jp.github.minamoto.m.reservationsystem.service.admission;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.exception.BookingOverloadedException;
+import jp.github.minamoto.m.reservationsystem.service.exception.BookingQueuedException;
+
+/**
+ * 予約系エンドポイントの入場制御（仮想待合室）。
+ *
+ * <p>医師ごとにトークンバケットと待ち番号の FIFO を持ち、発行順に一定レート（rate-per-second）で入場させる。
+ * 順番が来ていないリクエストには待ち番号チケットと待ち人数を付けて 429 を返し、
+ * 待ち行列が上限を超えた場合はチケットを発行せずに 503 を返す。どちらも Retry-After で再試行の目安を返す。</p>
+ *
+ * <p>チケットは「医師ID.番号.発行時刻.署名」の文字列で、Queue-Ticket ヘッダーで再送してもらう。
+ * 署名があるため番号を書き換えて割り込むことはできない。順番が来た時点で本人がいないチケットも
+ * 1人分として数えるため、戻ってこない利用者の分だけ入場レートは下がる。</p>
+ *
+ * <p>チケットでの入場は1回限りで、使用済みのチケットは新規と同じく最後尾に並び直させる。
+ * 有効期限（ticket-ttl）の間に同じチケットを使い回してトークンバケットを迂回することはできない。</p>
+ *
+ * <p>{@code app.admission.enabled=false}（デフォルト）の場合は何もしない。</p>
+ */
+@Service
+public class AdmissionService {
+	private static final String HMAC = "HmacSHA256";
+
+	private final TimeSlotRepository timeSlotRepository;
+	private final AdmissionStateStore store;
+	private final boolean enabled;
+	private final double ratePerSecond;
+	private final int burst;
+	private final long maxQueueLength;
+	private final long ticketTtlMillis;
+	private final SecretKeySpec ticketKey;
+	private final LongSupplier clock;
+
+	private final Counter admitted;
+	private final Counter queued;
+	private final Counter rejected;
+
+	@Autowired
+	public AdmissionService(TimeSlotRepository timeSlotRepository, AdmissionStateStore store, MeterRegistry meterRegistry,
+			@Value("${app.admission.enabled:false}") boolean enabled,
+			@Value("${app.admission.rate-per-second:20}") double ratePerSecond,
+			@Value("${app.admission.burst:40}") int burst,
+			@Value("${app.admission.max-queue-length:5000}") long maxQueueLength,
+			@Value("${app.admission.ticket-ttl:10m}") Duration ticketTtl,
+			@Value("${app.admission.ticket-secret:}") String ticketSecret) {
+		this(timeSlotRepository, store, meterRegistry, enabled, ratePerSecond, burst, maxQueueLength, ticketTtl,
+				ticketSecret, System::currentTimeMillis);
+	}
+
+	AdmissionService(TimeSlotRepository timeSlotRepository, AdmissionStateStore store, MeterRegistry meterRegistry,
+			boolean enabled, double ratePerSecond, int burst, long maxQueueLength, Duration ticketTtl,
+			String ticketSecret, LongSupplier clock) {
+		this.timeSlotRepository = timeSlotRepository;
+		this.store = store;
+		this.enabled = enabled;
+		this.ratePerSecond = ratePerSecond;
+		this.burst = burst;
+		this.maxQueueLength = maxQueueLength;
+		this.ticketTtlMillis = ticketTtl.toMillis();
+		this.ticketKey = new SecretKeySpec(secretBytes(ticketSecret), HMAC);
+		this.clock = clock;
+
+		Gauge.builder("booking.admission.queue.length", store, AdmissionStateStore::totalWaiting)
+			.description("入場待ちのチケット数")
+			.register(meterRegistry);
+		this.admitted = outcomeCounter(meterRegistry, "admitted");
+		this.queued = outcomeCounter(meterRegistry, "queued");
+		this.rejected = outcomeCounter(meterRegistry, "rejected");
+	}
+
+	/**
+	 * 予約枠の医師の待ち行列で入場を判定する。入場できる場合はそのまま戻る。
+	 *
+	 * @param timeSlotId 予約枠ID
+	 * @param ticket 以前に発行した待ち番号チケット（任意）
+	 * @throws BookingQueuedException 順番がまだ来ていない場合
+	 * @throws BookingOverloadedException 待ち行列が満杯の場合
+	 */
+	public void admit(Long timeSlotId, String ticket) {
+		if (!enabled || timeSlotId == null) {
+			return;
+		}
+		// 存在しない予約枠は後続の処理で 404 にする
+		Optional<Long> doctorId = timeSlotRepository.findDoctorIdById(timeSlotId);
+		if (doctorId.isPresent()) {
+			admitDoctor(doctorId.get(), ticket);
+		}
+	}
+
+	void admitDoctor(long doctorId, String presented) {
+		long now = clock.getAsLong();
+		Ticket ticket = parse(presented, doctorId, now);
+
+		Decision decision = store.update(doctorId, burst, now, state -> {
+			state.advance(now, ratePerSecond, burst);
+			state.expireRedeemed(now - ticketTtlMillis);
+			long number;
+			long issuedAt;
+			boolean redeeming = ticket != null && !state.isRedeemed(ticket.number());
+			if (redeeming) {
+				number = ticket.number();
+				issuedAt = ticket.issuedAt();
+			} else if (state.waiting() >= maxQueueLength) {
+				return null;
+			} else {
+				number = state.issue();
+				issuedAt = now;
+				// 空いていればトークンを使ってすぐに入場させる
+				state.advance(now, ratePerSecond, burst);
+			}
+			boolean admitted = state.isAdmitted(number);
+			if (admitted && redeeming) {
+				state.redeem(number, issuedAt);
+			}
+			return new Decision(number, issuedAt, admitted, state.positionOf(number));
+		});
+
+		if (decision == null) {
+			rejected.increment();
+			throw new BookingOverloadedException("予約が混み合っています。しばらくしてから再度お試しください。",
+					retryAfterSeconds(maxQueueLength));
+		}
+		if (!decision.admitted()) {
+			queued.increment();
+			throw new BookingQueuedException("順番待ちです。Queue-Ticket ヘッダーにチケットを指定して再度お試しください。",
+					encode(doctorId, decision.number(), decision.issuedAt()), decision.position(),
+					retryAfterSeconds(decision.position()));
+		}
+		admitted.increment();
+	}
+
+	private long retryAfterSeconds(long position) {
+		return Math.max(1, (long) Math.ceil(position / ratePerSecond));
+	}
+
+	/**
+	 * チケットを検証して読み取る。未指定、署名不一致、他の医師のもの、期限切れの場合は null（新規に並ぶ）。
+	 */
+	private Ticket parse(String value, long doctorId, long now) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		String[] parts = value.split("\\.");
+		if (parts.length != 4) {
+			return null;
+		}
+		String payload = parts[0] + "." + parts[1] + "." + parts[2];
+		if (!MessageDigest.isEqual(sign(payload).getBytes(StandardCharsets.US_ASCII),
+				parts[3].getBytes(StandardCharsets.US_ASCII))) {
+			return null;
+		}
+		try {
+			long ticketDoctorId = Long.parseLong(parts[0]);
+			long number = Long.parseLong(parts[1]);
+			long issuedAt = Long.parseLong(parts[2]);
+			if (ticketDoctorId != doctorId || now - issuedAt >= ticketTtlMillis) {
+				return null;
+			}
+			return new Ticket(number, issuedAt);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private String encode(long doctorId, long number, long issuedAt) {
+		String payload = doctorId + "." + number + "." + issuedAt;
+		return payload + "." + sign(payload);
+	}
+
+	private String sign(String payload) {
+		try {
+			Mac mac = Mac.getInstance(HMAC);
+			mac.init(ticketKey);
+			byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] secretBytes(String secret) {
+		if (secret != null && !secret.isBlank()) {
+			return secret.getBytes(StandardCharsets.UTF_8);
+		}
+		byte[] random = new byte[32];
+		new SecureRandom().nextBytes(random);
+		return random;
+	}
+
+	private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+		return Counter.builder("booking.admission.requests")
+			.description("入場判定の結果ごとの件数")
+			.tag("outcome", outcome)
+			.register(meterRegistry);
+	}
+
+	private record Ticket(long number, long issuedAt) {
+	}
+
+	private record Decision(long number, long issuedAt, boolean admitted, long position) {
+	}
+}
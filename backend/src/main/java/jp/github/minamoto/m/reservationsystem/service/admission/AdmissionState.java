@@ -0,0 +1,88 @@
+package jp.github.minamoto.m.reservationsystem.service.admission;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 医師ごとの入場制御の状態（トークンバケットと待ち番号）。
+ *
+ * <p>待ち番号は 0 から順に発行し、番号が {@code admitted} 未満になったチケットを入場させる。
+ * {@code admitted} はトークンを1つ消費するごとに1つ進むため、待ち行列は発行順に一定レートで捌かれる。
+ * 入場に使ったチケットの番号は期限が切れるまで記録し、同じチケットでの2回目以降の入場を拒否する。
+ * 時刻はノード間で共有できるようエポックミリ秒で扱う。</p>
+ */
+public class AdmissionState {
+	private long issued;
+	private long admitted;
+	private double tokens;
+	private long lastRefillMillis;
+	/** 入場に使ったチケットの番号 → 発行時刻（おおむね発行順） */
+	private final Map<Long, Long> redeemed = new LinkedHashMap<>();
+
+	public AdmissionState(double initialTokens, long nowMillis) {
+		this.tokens = initialTokens;
+		this.lastRefillMillis = nowMillis;
+	}
+
+	/**
+	 * 経過時間分のトークンを補充し、待っている番号をトークンの数だけ入場可能にする。
+	 */
+	void advance(long nowMillis, double ratePerSecond, int burst) {
+		long elapsed = nowMillis - lastRefillMillis;
+		if (elapsed > 0) {
+			tokens = Math.min(burst, tokens + elapsed * ratePerSecond / 1000.0);
+			lastRefillMillis = nowMillis;
+		}
+		long movable = Math.min((long) tokens, issued - admitted);
+		admitted += movable;
+		tokens -= movable;
+	}
+
+	/**
+	 * 待ち番号を発行する。
+	 */
+	long issue() {
+		return issued++;
+	}
+
+	boolean isAdmitted(long number) {
+		return number < admitted;
+	}
+
+	/**
+	 * 番号の順番までに入場する人数（1 なら次）。
+	 */
+	long positionOf(long number) {
+		return number - admitted + 1;
+	}
+
+	/**
+	 * チケットの番号で入場する。既に使われている場合は false。
+	 */
+	boolean redeem(long number, long issuedAtMillis) {
+		return redeemed.putIfAbsent(number, issuedAtMillis) == null;
+	}
+
+	boolean isRedeemed(long number) {
+		return redeemed.containsKey(number);
+	}
+
+	/**
+	 * 期限切れのチケット（発行時刻が oldestValidMillis より前）の記録を先頭から捨てる。
+	 * 期限切れのチケットはそもそも受け付けないため、記録は不要になる。
+	 */
+	void expireRedeemed(long oldestValidMillis) {
+		Iterator<Long> issuedAt = redeemed.values().iterator();
+		while (issuedAt.hasNext() && issuedAt.next() < oldestValidMillis) {
+			issuedAt.remove();
+		}
+	}
+
+	/**
+	 * 入場を待っているチケットの数。
+	 */
+	public long waiting() {
+		return issued - admitted;
+	}
+}
@@ -0,0 +1,22 @@
+package jp.github.minamoto.m.reservationsystem.service.admission;
+
+import java.util.function.Function;
+
+/**
+ * 入場制御の状態の保存先。
+ *
+ * <p>{@code app.admission.store} で切り替える。現在は memory（プロセス内）のみで、
+ * 複数ノードで共有する場合は状態をまとめて読み書きできるストア（CAS 付きの KVS など）で実装する。</p>
+ */
+public interface AdmissionStateStore {
+
+	/**
+	 * 医師の状態をアトミックに読み書きする。状態がなければ initialTokens で作成する。
+	 */
+	<T> T update(long doctorId, double initialTokens, long nowMillis, Function<AdmissionState, T> action);
+
+	/**
+	 * 全医師の入場待ちチケット数の合計。
+	 */
+	long totalWaiting();
+}
@@ -0,0 +1,35 @@
+package jp.github.minamoto.m.reservationsystem.service.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * プロセス内に保持する AdmissionStateStore。医師ごとの状態をロックして更新する。
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.admission", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryAdmissionStateStore implements AdmissionStateStore {
+	private final ConcurrentHashMap<Long, AdmissionState> states = new ConcurrentHashMap<>();
+
+	@Override
+	public <T> T update(long doctorId, double initialTokens, long nowMillis, Function<AdmissionState, T> action) {
+		AdmissionState state = states.computeIfAbsent(doctorId, id -> new AdmissionState(initialTokens, nowMillis));
+		synchronized (state) {
+			return action.apply(state);
+		}
+	}
+
+	@Override
+	public long totalWaiting() {
+		long total = 0;
+		for (AdmissionState state : states.values()) {
+			synchronized (state) {
+				total += state.waiting();
+			}
+		}
+		return total;
+	}
+}
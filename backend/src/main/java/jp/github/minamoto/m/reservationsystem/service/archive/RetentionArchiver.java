@@ -0,0 +1,188 @@
+package jp.github.minamoto.m.reservationsystem.service.archive;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotKeys;
+
+/**
+ * 保存期間を過ぎた予約枠と予約を time_slot_archive・reservation_archive に移す。
+ *
+ * <p>基準日より前の予約枠を batch-size 件ずつ（日付・開始時刻順に）ロックし、その枠の予約と合わせて
+ * アーカイブへ INSERT … SELECT してから元の行を削除する。ロックした後の time_slot への読み書きは主キー（id, date）で行う。
+ * 1回の移動は1トランザクションで、
+ * 移動の間に pause-ms だけ間を空ける。ロックを持つのは1回の移動の間だけで、予約の受付と長く競合しない。
+ * 1回の実行で移す回数は max-batches までとし、残りは次回に続きから移す。</p>
+ *
+ * <p>毎日実行するため、time_slot・reservation には保存期間の分だけが残り、履歴がいくら増えても大きさは一定になる。
+ * 移した日の空き枠カウンタ（doctor_day_counter）と勤務時間の反映記録（schedule_day）は削除する。
+ * アーカイブに移した予約は ReservationService.findById で引き続き参照できるが、一覧・検索・エクスポートには出なくなるため、
+ * 定期実行はデフォルトでは無効（app.archive.enabled=true で有効にする）。</p>
+ */
+@Component
+public class RetentionArchiver {
+	private static final Logger log = LoggerFactory.getLogger(RetentionArchiver.class);
+
+	private static final String SELECT_SQL =
+			"SELECT id, date FROM time_slot WHERE date < ? ORDER BY date, start_time, doctor_id LIMIT ? FOR UPDATE";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final boolean enabled;
+	private final int retentionDays;
+	private final int batchSize;
+	private final long pauseMillis;
+	private final int maxBatches;
+
+	public RetentionArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			@Value("${app.archive.enabled:false}") boolean enabled,
+			@Value("${app.archive.retention-days:180}") int retentionDays,
+			@Value("${app.archive.batch-size:500}") int batchSize,
+			@Value("${app.archive.pause-ms:200}") long pauseMillis,
+			@Value("${app.archive.max-batches:2000}") int maxBatches) {
+		if (retentionDays < 1 || batchSize < 1) {
+			throw new IllegalArgumentException("app.archive.retention-days と batch-size は1以上を指定してください。");
+		}
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.enabled = enabled;
+		this.retentionDays = retentionDays;
+		this.batchSize = batchSize;
+		this.pauseMillis = pauseMillis;
+		this.maxBatches = maxBatches;
+	}
+
+	/**
+	 * アーカイブの実行結果。
+	 *
+	 * @param cutoff 基準日（この日より前を移す）
+	 * @param batches 移動の回数
+	 * @param slots 移した予約枠の数
+	 * @param reservations 移した予約の数
+	 * @param completed 基準日より前の予約枠をすべて移し終えたか
+	 */
+	public record Result(LocalDate cutoff, int batches, int slots, int reservations, boolean completed) {
+	}
+
+	/**
+	 * 毎日、本日から retention-days 日より前の予約枠と予約を移す。
+	 */
+	@Scheduled(cron = "${app.archive.cron:0 0 4 * * *}")
+	public void archiveExpired() {
+		if (enabled) {
+			archiveBefore(LocalDate.now().minusDays(retentionDays));
+		}
+	}
+
+	/*
+	 * 基準日より前の予約枠と、その予約をアーカイブに移す。
+	 *
+	 * 本日以降の予約枠は移さない
+	 *
+	 * @param cutoff 基準日（この日を含まない）
+	 * @return 実行結果
+	 * @throws IllegalArgumentException 基準日が本日より後の場合
+	 */
+	public Result archiveBefore(LocalDate cutoff) {
+		if (cutoff == null || cutoff.isAfter(LocalDate.now())) {
+			throw new IllegalArgumentException("基準日は本日以前を指定してください。");
+		}
+		long started = System.nanoTime();
+		int batches = 0;
+		int slots = 0;
+		int reservations = 0;
+		while (batches < maxBatches) {
+			int[] moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+			batches++;
+			slots += moved[0];
+			reservations += moved[1];
+			if (moved[0] < batchSize || !pause()) {
+				break;
+			}
+		}
+
+		// 移し終えた日の分だけ、日付で持つ派生データを削除する
+		LocalDate remaining = jdbcTemplate.queryForObject("SELECT MIN(date) FROM time_slot WHERE date < ?",
+				LocalDate.class, cutoff);
+		LocalDate purgeBefore = remaining != null ? remaining : cutoff;
+		transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.update("DELETE FROM doctor_day_counter WHERE date < ?", purgeBefore);
+			jdbcTemplate.update("DELETE FROM schedule_day WHERE date < ?", purgeBefore);
+		});
+
+		log.info("Archived expired time slots: cutoff={} batches={} slots={} reservations={} completed={} elapsedMs={}",
+				cutoff, batches, slots, reservations, remaining == null, (System.nanoTime() - started) / 1_000_000);
+		return new Result(cutoff, batches, slots, reservations, remaining == null);
+	}
+
+	/**
+	 * 予約枠を1回分ロックしてアーカイブに移す。移した予約枠と予約の数を返す。
+	 */
+	private int[] archiveBatch(LocalDate cutoff) {
+		List<Long> ids = new ArrayList<>();
+		Map<LocalDate, List<Long>> idsByDate = new TreeMap<>();
+		jdbcTemplate.query(SELECT_SQL,
+				rs -> {
+					ids.add(rs.getLong(1));
+					idsByDate.computeIfAbsent(rs.getObject(2, LocalDate.class), d -> new ArrayList<>()).add(rs.getLong(1));
+				},
+				cutoff, batchSize);
+		if (ids.isEmpty()) {
+			return new int[] { 0, 0 };
+		}
+		String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+		Object[] args = ids.toArray();
+		List<Object> keyArgs = new ArrayList<>();
+		String keys = TimeSlotKeys.where("", idsByDate, keyArgs);
+		// 結合用に別名付きで同じ条件を作る（パラメータは keyArgs と同じ並び）
+		String joinKeys = TimeSlotKeys.where("t", idsByDate, new ArrayList<>());
+
+		// 予約枠の日付・時刻を予約のアーカイブにも写し、予約IDだけで参照できるようにする
+		int reservations = jdbcTemplate.update("INSERT INTO reservation_archive "
+				+ "(id, time_slot_id, doctor_id, date, start_time, end_time, status, name, phone_number, created_at, archived_at) "
+				+ "SELECT r.id, r.time_slot_id, t.doctor_id, t.date, t.start_time, t.end_time, r.status, r.name, "
+				+ "r.phone_number, r.created_at, CURRENT_TIMESTAMP "
+				+ "FROM time_slot t JOIN reservation r ON r.time_slot_id = t.id WHERE " + joinKeys,
+				keyArgs.toArray());
+		jdbcTemplate.update("INSERT INTO time_slot_archive "
+				+ "(id, date, start_time, end_time, doctor_id, status, archived_at) "
+				+ "SELECT id, date, start_time, end_time, doctor_id, status, CURRENT_TIMESTAMP "
+				+ "FROM time_slot WHERE " + keys,
+				keyArgs.toArray());
+
+		jdbcTemplate.update("DELETE FROM reservation WHERE time_slot_id IN (" + in + ")", args);
+		// 過去の枠の仮押さえは期限切れのため、移さずに削除する
+		jdbcTemplate.update("DELETE FROM slot_hold WHERE time_slot_id IN (" + in + ")", args);
+		jdbcTemplate.update("DELETE FROM time_slot WHERE " + keys, keyArgs.toArray());
+		return new int[] { ids.size(), reservations };
+	}
+
+	/**
+	 * 次の移動までの間を空ける。割り込まれた場合は false（今回の実行を打ち切る）。
+	 */
+	private boolean pause() {
+		if (pauseMillis <= 0) {
+			return true;
+		}
+		try {
+			Thread.sleep(pauseMillis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,403 @@
+package jp.github.minamoto.m.reservationsystem.service.availability;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.NextAvailableSlotResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.Doctor;
+import jp.github.minamoto.m.reservationsystem.repository.DoctorRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotVersionedStateView;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotsGeneratedEvent;
+
+/**
+ * 空き予約枠（OPEN）のメモリ上のインデックス。
+ *
+ * <p>「医師 × 日」ごとに、その日の予約枠を開始時刻順に並べた予約枠ID・開始時刻の配列と、
+ * OPEN の枠を表すビットマップ（long 1つ、最大64枠）を持つ。空き枠の検索はビットを走査するだけで、
+ * DBにもエンティティにも触れない。</p>
+ *
+ * <p>あわせて診療科ごとに OPEN の枠を開始日時順に並べた順序付き集合（スキップリスト）を持ち、
+ * 「診療科で最も早い空き枠」を医師×日を走査せずに O(log n) で引けるようにする。</p>
+ *
+ * <p>ステータスの変更はコミット後に {@link TimeSlotStatusChangedEvent} で反映する。
+ * コミット後のイベントは同じ予約枠でもコミット順と逆に届くことがあるため、予約枠ごとに反映済みの
+ * time_slot.version を持ち、それ以下の version のイベントは捨てる。
+ * 保持するのは本日から horizonDays 日分で、起動時と日付変更時に time_slot から再構築する。
+ * 管理対象外（期間外、1日に64枠を超える日、未登録の医師）の検索は null を返し、呼び出し側でDBを検索する。</p>
+ *
+ * <p>{@code app.availability.index.enabled=false}（デフォルト）の場合は何もしない。</p>
+ */
+@Component
+public class AvailabilityIndex {
+	private static final Logger log = LoggerFactory.getLogger(AvailabilityIndex.class);
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+	private final TimeSlotRepository timeSlotRepository;
+	private final DoctorRepository doctorRepository;
+	private final boolean enabled;
+	private final int horizonDays;
+
+	private volatile Snapshot snapshot = Snapshot.EMPTY;
+	/** 再構築中に受け取ったイベント。再構築中でなければ null */
+	private List<TimeSlotStatusChangedEvent> pending;
+
+	public AvailabilityIndex(TimeSlotRepository timeSlotRepository, DoctorRepository doctorRepository,
+			@Value("${app.availability.index.enabled:false}") boolean enabled,
+			@Value("${app.availability.index.horizon-days:62}") int horizonDays) {
+		this.timeSlotRepository = timeSlotRepository;
+		this.doctorRepository = doctorRepository;
+		this.enabled = enabled;
+		this.horizonDays = horizonDays;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (enabled) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * 日付が変わったら管理期間をずらして再構築する。
+	 */
+	@Scheduled(cron = "${app.availability.index.rebuild-cron:0 0 0 * * *}")
+	public void rebuildDaily() {
+		if (enabled) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * 管理期間内の日に予約枠が追加・削除された場合は再構築する。
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onSlotsGenerated(TimeSlotsGeneratedEvent event) {
+		LocalDate today = LocalDate.now();
+		if (enabled && event.touches(today, today.plusDays(horizonDays))) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * time_slot テーブルから本日以降 horizonDays 日分を読み込み、インデックスを作り直す。
+	 *
+	 * <p>読み込み中にコミットされた変更は読み込み結果に含まれない可能性があるため、
+	 * 再構築中に受け取ったイベントを新しいインデックスに再適用してから差し替える
+	 * （読み込み結果に含まれていた変更は version で捨てられる）。</p>
+	 */
+	public void rebuild() {
+		synchronized (this) {
+			pending = new ArrayList<>();
+		}
+		Snapshot built;
+		try {
+			LocalDate baseDate = LocalDate.now();
+			Map<Long, Long> departmentOfDoctor = new HashMap<>();
+			for (Doctor doctor : doctorRepository.findAll()) {
+				if (doctor.getDepartmentId() != null) {
+					departmentOfDoctor.put(doctor.getId(), doctor.getDepartmentId());
+				}
+			}
+			built = Snapshot.build(baseDate, horizonDays, departmentOfDoctor,
+					timeSlotRepository.findVersionedStatesByDateRange(baseDate, baseDate.plusDays(horizonDays)));
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				pending = null;
+			}
+			throw e;
+		}
+		synchronized (this) {
+			pending.forEach(built::apply);
+			pending = null;
+			snapshot = built;
+		}
+		log.info("AvailabilityIndex rebuilt: baseDate={}, doctors={}, slots={}",
+				built.baseDate, built.doctorIndex.size(), built.sortedIds.length);
+	}
+
+	/**
+	 * 医師・日付の空き予約枠を開始時刻順に返す。管理対象外の場合は null。
+	 */
+	public List<TimeSlotAvailableResponseDTO> findOpen(Long doctorId, LocalDate date) {
+		if (!enabled) {
+			return null;
+		}
+		Snapshot s = snapshot;
+		int day = s.dayOf(doctorId, date);
+		if (day < 0) {
+			return null;
+		}
+		long[] slotIds = s.slotIds[day];
+		String[] labels = s.labels[day];
+		long bits = s.open.get(day);
+
+		List<TimeSlotAvailableResponseDTO> result = new ArrayList<>(Long.bitCount(bits));
+		while (bits != 0) {
+			int i = Long.numberOfTrailingZeros(bits);
+			result.add(new TimeSlotAvailableResponseDTO(slotIds[i], labels[i]));
+			bits &= bits - 1;
+		}
+		return result;
+	}
+
+	/**
+	 * 診療科の空き予約枠を、after 以降に始まるものから開始日時順に最大 limit 件返す。
+	 *
+	 * <p>保持期間より先の枠は含まれないため、limit 件に満たない場合は null を返し、呼び出し側でDBを検索する。</p>
+	 */
+	public List<NextAvailableSlotResponseDTO> findEarliest(Long departmentId, LocalDateTime after, int limit) {
+		if (!enabled) {
+			return null;
+		}
+		NavigableSet<OpenSlot> open = snapshot.openByDepartment.get(departmentId);
+		if (open == null) {
+			return null;
+		}
+		List<NextAvailableSlotResponseDTO> result = new ArrayList<>(limit);
+		for (OpenSlot slot : open.tailSet(new OpenSlot(after, Long.MIN_VALUE, 0, null), true)) {
+			if (result.size() == limit) {
+				break;
+			}
+			result.add(new NextAvailableSlotResponseDTO(slot.timeSlotId(), slot.doctorId(), slot.startAt().toLocalDate(),
+					slot.label()));
+		}
+		return result.size() < limit ? null : result;
+	}
+
+	/**
+	 * コミットされたステータス変更を反映する。
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onStatusChanged(TimeSlotStatusChangedEvent event) {
+		if (!enabled) {
+			return;
+		}
+		// 再構築の差し替えと競合しないよう、反映と記録をまとめて行う
+		synchronized (this) {
+			snapshot.apply(event);
+			if (pending != null) {
+				pending.add(event);
+			}
+		}
+	}
+
+	/**
+	 * 診療科ごとの順序付き集合の要素。開始日時、予約枠IDの順に並べる。
+	 */
+	private record OpenSlot(LocalDateTime startAt, long timeSlotId, long doctorId, String label)
+			implements Comparable<OpenSlot> {
+
+		@Override
+		public int compareTo(OpenSlot other) {
+			int c = startAt.compareTo(other.startAt);
+			return c != 0 ? c : Long.compare(timeSlotId, other.timeSlotId);
+		}
+	}
+
+	/**
+	 * 再構築ごとに作り直すインデックス一式。
+	 */
+	private static final class Snapshot {
+		static final Snapshot EMPTY = new Snapshot(LocalDate.MIN, 0, Map.of(), new long[0], new int[0], new byte[0],
+				new OpenSlot[0], new long[0], new long[0], new long[0][], new String[0][], new AtomicLongArray(0), Map.of());
+
+		final LocalDate baseDate;
+		final int horizonDays;
+		final Map<Long, Integer> doctorIndex;
+		/** 予約枠ID（昇順）→ 医師×日の位置・ビット位置（ビットマップ対象外の日は -1）・診療科の集合の要素 */
+		final long[] sortedIds;
+		final int[] dayOfId;
+		final byte[] bitOfId;
+		final OpenSlot[] slotOfId;
+		final long[] departmentOfId;
+		/** 予約枠ID（昇順）→ 反映済みの time_slot.version。AvailabilityIndex のロック内でのみ更新する */
+		final long[] versionOfId;
+		/** 医師×日ごとの予約枠ID・開始時刻（開始時刻順）。管理対象外の日は null */
+		final long[][] slotIds;
+		final String[][] labels;
+		/** 医師×日ごとの OPEN ビットマップ */
+		final AtomicLongArray open;
+		/** 診療科ごとの OPEN の枠（開始日時順） */
+		final Map<Long, NavigableSet<OpenSlot>> openByDepartment;
+
+		Snapshot(LocalDate baseDate, int horizonDays, Map<Long, Integer> doctorIndex, long[] sortedIds, int[] dayOfId,
+				byte[] bitOfId, OpenSlot[] slotOfId, long[] departmentOfId, long[] versionOfId, long[][] slotIds,
+				String[][] labels, AtomicLongArray open, Map<Long, NavigableSet<OpenSlot>> openByDepartment) {
+			this.baseDate = baseDate;
+			this.horizonDays = horizonDays;
+			this.doctorIndex = doctorIndex;
+			this.sortedIds = sortedIds;
+			this.dayOfId = dayOfId;
+			this.bitOfId = bitOfId;
+			this.slotOfId = slotOfId;
+			this.departmentOfId = departmentOfId;
+			this.versionOfId = versionOfId;
+			this.slotIds = slotIds;
+			this.labels = labels;
+			this.open = open;
+			this.openByDepartment = openByDepartment;
+		}
+
+		static Snapshot build(LocalDate baseDate, int horizonDays, Map<Long, Long> departmentOfDoctor,
+				List<TimeSlotVersionedStateView> rows) {
+			Map<Long, Integer> doctorIndex = new HashMap<>();
+			for (TimeSlotVersionedStateView row : rows) {
+				doctorIndex.putIfAbsent(row.getDoctorId(), doctorIndex.size());
+			}
+
+			// 医師×日ごとにまとめ、開始時刻順に並べる
+			int days = doctorIndex.size() * horizonDays;
+			List<List<TimeSlotVersionedStateView>> byDay = new ArrayList<>(days);
+			for (int i = 0; i < days; i++) {
+				byDay.add(new ArrayList<>());
+			}
+			for (TimeSlotVersionedStateView row : rows) {
+				long offset = ChronoUnit.DAYS.between(baseDate, row.getDate());
+				if (offset >= 0 && offset < horizonDays) {
+					byDay.get(doctorIndex.get(row.getDoctorId()) * horizonDays + (int) offset).add(row);
+				}
+			}
+
+			long[][] slotIds = new long[days][];
+			String[][] labels = new String[days][];
+			AtomicLongArray open = new AtomicLongArray(days);
+			Map<Long, NavigableSet<OpenSlot>> openByDepartment = new HashMap<>();
+			for (Long departmentId : departmentOfDoctor.values()) {
+				openByDepartment.computeIfAbsent(departmentId, id -> new ConcurrentSkipListSet<>());
+			}
+			Entry[] entries = new Entry[rows.size()];
+			int tracked = 0;
+			for (int day = 0; day < days; day++) {
+				List<TimeSlotVersionedStateView> slots = byDay.get(day);
+				slots.sort(Comparator.comparing(TimeSlotVersionedStateView::getStartTime));
+				boolean bitmap = slots.size() <= Long.SIZE;
+				if (bitmap) {
+					slotIds[day] = new long[slots.size()];
+					labels[day] = new String[slots.size()];
+				}
+				long bits = 0;
+				for (int bit = 0; bit < slots.size(); bit++) {
+					TimeSlotVersionedStateView slot = slots.get(bit);
+					String label = label(slot.getStartTime());
+					Long departmentId = departmentOfDoctor.get(slot.getDoctorId());
+					OpenSlot openSlot = new OpenSlot(LocalDateTime.of(slot.getDate(), slot.getStartTime()), slot.getId(),
+							slot.getDoctorId(), label);
+					boolean available = slot.getStatus() == TimeSlotStatus.OPEN;
+					if (bitmap) {
+						slotIds[day][bit] = slot.getId();
+						labels[day][bit] = label;
+						if (available) {
+							bits |= 1L << bit;
+						}
+					}
+					if (available && departmentId != null) {
+						openByDepartment.get(departmentId).add(openSlot);
+					}
+					entries[tracked++] = new Entry(slot.getId(), day, (byte) (bitmap ? bit : -1), openSlot,
+							departmentId == null ? -1L : departmentId, slot.getVersion());
+				}
+				open.set(day, bits);
+			}
+
+			Arrays.sort(entries, 0, tracked, Comparator.comparingLong(Entry::timeSlotId));
+			long[] sortedIds = new long[tracked];
+			int[] dayOfId = new int[tracked];
+			byte[] bitOfId = new byte[tracked];
+			OpenSlot[] slotOfId = new OpenSlot[tracked];
+			long[] departmentOfId = new long[tracked];
+			long[] versionOfId = new long[tracked];
+			for (int i = 0; i < tracked; i++) {
+				sortedIds[i] = entries[i].timeSlotId();
+				dayOfId[i] = entries[i].day();
+				bitOfId[i] = entries[i].bit();
+				slotOfId[i] = entries[i].slot();
+				departmentOfId[i] = entries[i].departmentId();
+				versionOfId[i] = entries[i].version();
+			}
+			return new Snapshot(baseDate, horizonDays, doctorIndex, sortedIds, dayOfId, bitOfId, slotOfId,
+					departmentOfId, versionOfId, slotIds, labels, open, openByDepartment);
+		}
+
+		int dayOf(Long doctorId, LocalDate date) {
+			Integer doctor = doctorIndex.get(doctorId);
+			if (doctor == null || date == null) {
+				return -1;
+			}
+			long offset = ChronoUnit.DAYS.between(baseDate, date);
+			if (offset < 0 || offset >= horizonDays) {
+				return -1;
+			}
+			int day = doctor * horizonDays + (int) offset;
+			return slotIds[day] == null ? -1 : day;
+		}
+
+		/**
+		 * イベントを反映する。反映済みの version 以下のイベント（後から届いた古い変更）は捨てる。
+		 * version が記録されていないイベントはそのまま反映する。
+		 */
+		void apply(TimeSlotStatusChangedEvent event) {
+			boolean available = event.status() == TimeSlotStatus.OPEN;
+			for (Long timeSlotId : event.timeSlotIds()) {
+				int i = Arrays.binarySearch(sortedIds, timeSlotId);
+				if (i < 0) {
+					continue;
+				}
+				long version = event.version(timeSlotId);
+				if (version >= 0) {
+					if (version <= versionOfId[i]) {
+						continue;
+					}
+					versionOfId[i] = version;
+				}
+				if (bitOfId[i] >= 0) {
+					long mask = 1L << bitOfId[i];
+					open.getAndUpdate(dayOfId[i], bits -> available ? bits | mask : bits & ~mask);
+				}
+				NavigableSet<OpenSlot> department = openByDepartment.get(departmentOfId[i]);
+				if (department != null) {
+					if (available) {
+						department.add(slotOfId[i]);
+					} else {
+						department.remove(slotOfId[i]);
+					}
+				}
+			}
+		}
+
+		private static String label(LocalTime time) {
+			return time.format(TIME_FORMAT);
+		}
+
+		private record Entry(long timeSlotId, int day, byte bit, OpenSlot slot, long departmentId, long version) {
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package jp.github.minamoto.m.reservationsystem.service.availability;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.DateAvailabilityResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.DoctorAvailabilityResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.NextAvailableSlotResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.Doctor;
+import jp.github.minamoto.m.reservationsystem.repository.DoctorRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotStateView;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidAvailabilityQueryException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+/*
+ * 複数の医師・期間をまとめて扱う空き枠検索。
+ * 
+ * <p>空き枠インデックスが対象の医師×日をすべて保持している場合はメモリ上で返し、
+ * それ以外は医師・期間を条件にした1回のクエリで取得する（医師×日ごとのクエリは発行しない）。</p>
+ */
+@Service
+public class AvailabilityService {
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+	private final TimeSlotRepository timeSlotRepository;
+	private final DoctorRepository doctorRepository;
+	private final AvailabilityIndex availabilityIndex;
+	private final int maxDays;
+	private final int maxDoctors;
+	private final int maxEarliest;
+
+	public AvailabilityService(TimeSlotRepository timeSlotRepository, DoctorRepository doctorRepository,
+			AvailabilityIndex availabilityIndex,
+			@Value("${app.availability.range.max-days:31}") int maxDays,
+			@Value("${app.availability.range.max-doctors:50}") int maxDoctors,
+			@Value("${app.availability.earliest.max-results:50}") int maxEarliest) {
+		this.timeSlotRepository = timeSlotRepository;
+		this.doctorRepository = doctorRepository;
+		this.availabilityIndex = availabilityIndex;
+		this.maxDays = maxDays;
+		this.maxDoctors = maxDoctors;
+		this.maxEarliest = maxEarliest;
+	}
+
+	/*
+	 * 診療科または医師IDのリストと期間を指定して、空き予約枠を医師・日付ごとにまとめて取得する。
+	 * 
+	 * 診療科と医師IDはどちらか一方を指定する
+	 * 期間は from 以上 to 以下で、maxDays 日まで
+	 * 空き枠のない医師・日は結果に含めない
+	 * インデックスから返す場合にDB接続を取らないよう、トランザクションは開始しない（リポジトリ側の読み取り専用トランザクションで実行する）
+	 * 
+	 * @param departmentId 診療科ID
+	 * @param doctorIds 医師IDのリスト
+	 * @param from 開始日
+	 * @param to 終了日
+	 * @return 医師ごとの空き予約枠（医師ID順、日付順、開始時刻順）
+	 * @throws InvalidAvailabilityQueryException 条件が不正な場合
+	 * @throws RequestLimitExceededException 期間・医師数が上限を超える場合
+	 */
+	public List<DoctorAvailabilityResponseDTO> findAvailableInRange(Long departmentId, List<Long> doctorIds,
+			LocalDate from, LocalDate to) {
+		boolean byDoctors = doctorIds != null && !doctorIds.isEmpty();
+		if ((departmentId == null) == !byDoctors) {
+			throw new InvalidAvailabilityQueryException("departmentId と doctorIds のどちらか一方を指定してください。");
+		}
+		if (from == null || to == null || from.isAfter(to)) {
+			throw new InvalidAvailabilityQueryException("期間の指定が不正です。");
+		}
+		if (ChronoUnit.DAYS.between(from, to) + 1 > maxDays) {
+			throw new RequestLimitExceededException("期間は" + maxDays + "日までです。");
+		}
+		List<Long> ids = byDoctors ? List.copyOf(new LinkedHashSet<>(doctorIds)) : null;
+		if (ids != null && ids.size() > maxDoctors) {
+			throw new RequestLimitExceededException("医師は" + maxDoctors + "人までです。");
+		}
+
+		if (availabilityIndex.isEnabled()) {
+			List<Long> targets = ids != null ? ids.stream().sorted().toList()
+					: doctorRepository.findByDepartmentId(departmentId).stream().map(Doctor::getId).sorted().toList();
+			List<DoctorAvailabilityResponseDTO> indexed = fromIndex(targets, from, to);
+			if (indexed != null) {
+				return indexed;
+			}
+		}
+
+		List<TimeSlotStateView> rows = ids != null
+				? timeSlotRepository.findStatesByDoctorIdsAndDateRange(ids, from, to, TimeSlotStatus.OPEN)
+				: timeSlotRepository.findStatesByDepartmentIdAndDateRange(departmentId, from, to, TimeSlotStatus.OPEN);
+		return group(rows);
+	}
+
+	/*
+	 * 診療科で最も早い空き予約枠を、開始日時順に最大 limit 件取得する。
+	 * 
+	 * 空き枠インデックスが有効な場合は診療科ごとの順序付き集合から O(log n) で引く
+	 * インデックスの保持期間内に limit 件ない場合は、DBを開始日時順に limit 件だけ検索する
+	 * 
+	 * @param departmentId 診療科ID
+	 * @param after この日時以降に始まる枠を対象にする（未指定の場合は現在時刻）
+	 * @param limit 取得件数
+	 * @return 空き予約枠（開始日時順）
+	 * @throws InvalidAvailabilityQueryException 条件が不正な場合
+	 * @throws RequestLimitExceededException 取得件数が上限を超える場合
+	 */
+	public List<NextAvailableSlotResponseDTO> findEarliest(Long departmentId, LocalDateTime after, int limit) {
+		if (departmentId == null || limit < 1) {
+			throw new InvalidAvailabilityQueryException("departmentId と1以上の件数を指定してください。");
+		}
+		if (limit > maxEarliest) {
+			throw new RequestLimitExceededException("取得件数は" + maxEarliest + "件までです。");
+		}
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime from = after == null || after.isBefore(now) ? now : after;
+
+		List<NextAvailableSlotResponseDTO> indexed = availabilityIndex.findEarliest(departmentId, from, limit);
+		if (indexed != null) {
+			return indexed;
+		}
+
+		return timeSlotRepository.findEarliestByDepartmentId(departmentId, TimeSlotStatus.OPEN, from.toLocalDate(),
+				from.toLocalTime(), Limit.of(limit)).stream()
+			.map(row -> new NextAvailableSlotResponseDTO(row.getId(), row.getDoctorId(), row.getDate(),
+					row.getStartTime().format(TIME_FORMAT)))
+			.toList();
+	}
+
+	/*
+	 * インデックスから医師×日ごとの空き枠を集める。管理対象外の医師×日が1つでもあれば null。
+	 */
+	private List<DoctorAvailabilityResponseDTO> fromIndex(List<Long> doctorIds, LocalDate from, LocalDate to) {
+		List<DoctorAvailabilityResponseDTO> result = new ArrayList<>();
+		for (Long doctorId : doctorIds) {
+			List<DateAvailabilityResponseDTO> dates = new ArrayList<>();
+			for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+				List<TimeSlotAvailableResponseDTO> slots = availabilityIndex.findOpen(doctorId, date);
+				if (slots == null) {
+					return null;
+				}
+				if (!slots.isEmpty()) {
+					dates.add(new DateAvailabilityResponseDTO(date, slots));
+				}
+			}
+			if (!dates.isEmpty()) {
+				result.add(new DoctorAvailabilityResponseDTO(doctorId, dates));
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * 医師・日付・開始時刻順に並んだ行を医師ごと、日付ごとにまとめる。
+	 */
+	private List<DoctorAvailabilityResponseDTO> group(List<TimeSlotStateView> rows) {
+		List<DoctorAvailabilityResponseDTO> result = new ArrayList<>();
+		DoctorAvailabilityResponseDTO doctor = null;
+		DateAvailabilityResponseDTO day = null;
+		for (TimeSlotStateView row : rows) {
+			if (doctor == null || !doctor.getDoctorId().equals(row.getDoctorId())) {
+				doctor = new DoctorAvailabilityResponseDTO(row.getDoctorId(), new ArrayList<>());
+				result.add(doctor);
+				day = null;
+			}
+			if (day == null || !day.getDate().equals(row.getDate())) {
+				day = new DateAvailabilityResponseDTO(row.getDate(), new ArrayList<>());
+				doctor.getDates().add(day);
+			}
+			day.getSlots().add(new TimeSlotAvailableResponseDTO(row.getId(), row.getStartTime().format(TIME_FORMAT)));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,78 @@
+package jp.github.minamoto.m.reservationsystem.service.calendar;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.github.minamoto.m.reservationsystem.dto.CalendarDayResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidAvailabilityQueryException;
+
+/*
+ * 月カレンダー用の、日ごとの空き枠の件数。
+ *
+ * <p>医師×日のカウンタ（doctor_day_counter）を読むだけで、time_slot は数えない。
+ * 医師の場合は主キーの範囲読み出し、診療科の場合は所属医師のカウンタを日ごとに合計する。</p>
+ */
+@Service
+public class CalendarService {
+	private final JdbcTemplate jdbcTemplate;
+
+	public CalendarService(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/*
+	 * 医師または診療科の、月の各日の空き枠の件数を取得する。
+	 *
+	 * 医師と診療科はどちらか一方を指定する
+	 * 月のすべての日を返す（カウンタのない日は0件）
+	 *
+	 * @param doctorId 医師ID
+	 * @param departmentId 診療科ID
+	 * @param month 月
+	 * @return 日ごとの空き枠の件数（日付順）
+	 * @throws InvalidAvailabilityQueryException 条件が不正な場合
+	 */
+	@Transactional(readOnly = true)
+	public List<CalendarDayResponseDTO> findMonth(Long doctorId, Long departmentId, YearMonth month) {
+		if ((doctorId == null) == (departmentId == null)) {
+			throw new InvalidAvailabilityQueryException("doctorId と departmentId のどちらか一方を指定してください。");
+		}
+		if (month == null) {
+			throw new InvalidAvailabilityQueryException("month を指定してください。");
+		}
+		LocalDate from = month.atDay(1);
+		LocalDate to = month.atEndOfMonth();
+
+		Map<LocalDate, Integer> counts = new HashMap<>();
+		if (doctorId != null) {
+			jdbcTemplate.query("SELECT date, open_slots FROM doctor_day_counter "
+					+ "WHERE doctor_id = ? AND date BETWEEN ? AND ?",
+					rs -> {
+						counts.put(rs.getObject(1, LocalDate.class), rs.getInt(2));
+					},
+					doctorId, from, to);
+		} else {
+			jdbcTemplate.query("SELECT c.date, SUM(c.open_slots) FROM doctor_day_counter c "
+					+ "JOIN doctor d ON d.id = c.doctor_id "
+					+ "WHERE d.department_id = ? AND c.date BETWEEN ? AND ? GROUP BY c.date",
+					rs -> {
+						counts.put(rs.getObject(1, LocalDate.class), rs.getInt(2));
+					},
+					departmentId, from, to);
+		}
+
+		List<CalendarDayResponseDTO> days = new ArrayList<>(month.lengthOfMonth());
+		for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+			days.add(new CalendarDayResponseDTO(date, counts.getOrDefault(date, 0)));
+		}
+		return days;
+	}
+}
@@ -0,0 +1,254 @@
+package jp.github.minamoto.m.reservationsystem.service.calendar;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.OpenSlotCounterMismatchDTO;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidAvailabilityQueryException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+/**
+ * 医師×日ごとの空き枠（OPEN）の件数（doctor_day_counter）を管理する。
+ *
+ * <p>予約枠のステータスを変更したトランザクションのコミット直前に、変更前後のステータスから増減を求めて
+ * カウンタに加算する。ステータスの変更とカウンタの更新は同じトランザクションでコミット・ロールバックされる。
+ * 複数の医師×日をまとめて更新する場合は（医師ID, 日付）順に更新し、トランザクション間でロックの順番を揃える。</p>
+ *
+ * <p>カウンタは time_slot から作り直せる（{@link #rebuild}）。カウンタの行がない医師×日は更新されないため、
+ * 予約枠を追加・削除した日は作り直す（{@link #rebuildDoctor}）。{@link #verify} で time_slot を数えた値と突き合わせられる。</p>
+ *
+ * <p>期間全体の作り直しは医師ごとの短いトランザクション（READ COMMITTED）で行い、time_slot はロックを取らない
+ * 読み取りで数えてからカウンタを書き換える。作り直しは time_slot の行ロックを待たないため、予約処理
+ * （time_slot → カウンタの順にロックする）とデッドロックせず、予約を止めるのはその医師のカウンタの行だけになる。
+ * カウンタの行を先にロックしてから数えるので、数えた後にコミットされた変更はカウンタの行ロックを待って加算される。</p>
+ */
+@Component
+public class OpenSlotCounterService {
+	private static final Logger log = LoggerFactory.getLogger(OpenSlotCounterService.class);
+
+	private static final String COUNT_SQL =
+			"SELECT doctor_id, date, SUM(CASE WHEN status = 'OPEN' THEN 1 ELSE 0 END) "
+			+ "FROM time_slot WHERE date BETWEEN ? AND ? GROUP BY doctor_id, date";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final TransactionTemplate rebuildTransaction;
+	private final boolean rebuildOnStartup;
+	private final int rebuildDaysAhead;
+	private final int maxDays;
+
+	public OpenSlotCounterService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			@Value("${app.calendar.counter.rebuild-on-startup:false}") boolean rebuildOnStartup,
+			@Value("${app.calendar.counter.rebuild-days-ahead:400}") int rebuildDaysAhead,
+			@Value("${app.calendar.counter.max-days:400}") int maxDays) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.rebuildTransaction = new TransactionTemplate(transactionManager);
+		// MySQL の REPEATABLE READ ではギャップロックを取り、予約枠の追加を待たせるため
+		this.rebuildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+		this.rebuildOnStartup = rebuildOnStartup;
+		this.rebuildDaysAhead = rebuildDaysAhead;
+		this.maxDays = maxDays;
+	}
+
+	/**
+	 * 医師×日。（医師ID, 日付）の順に並ぶ。
+	 */
+	private record DoctorDay(long doctorId, LocalDate date) implements Comparable<DoctorDay> {
+		@Override
+		public int compareTo(DoctorDay other) {
+			int byDoctor = Long.compare(doctorId, other.doctorId);
+			return byDoctor != 0 ? byDoctor : date.compareTo(other.date);
+		}
+	}
+
+	/**
+	 * ステータスを変更したトランザクション内で、コミット直前にカウンタを増減する。
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+	public void apply(TimeSlotStatusChangedEvent event) {
+		int delta = openCount(event.status()) - openCount(event.previous());
+		if (delta == 0 || event.timeSlotIds().isEmpty()) {
+			return;
+		}
+
+		String placeholders = String.join(", ", Collections.nCopies(event.timeSlotIds().size(), "?"));
+		Map<DoctorDay, Integer> deltas = new TreeMap<>();
+		jdbcTemplate.query("SELECT doctor_id, date FROM time_slot WHERE id IN (" + placeholders + ")",
+				rs -> {
+					deltas.merge(new DoctorDay(rs.getLong(1), rs.getObject(2, LocalDate.class)), delta, Integer::sum);
+				},
+				event.timeSlotIds().toArray());
+
+		List<Object[]> args = new ArrayList<>(deltas.size());
+		deltas.forEach((day, value) -> args.add(new Object[] { value, day.doctorId(), day.date() }));
+		int[] updated = jdbcTemplate.batchUpdate(
+				"UPDATE doctor_day_counter SET open_slots = open_slots + ? WHERE doctor_id = ? AND date = ?", args);
+		for (int i = 0; i < updated.length; i++) {
+			if (updated[i] == 0) {
+				log.debug("No open slot counter for doctor={} date={}; rebuild the day", args.get(i)[1], args.get(i)[2]);
+			}
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (!rebuildOnStartup) {
+			return;
+		}
+		LocalDate today = LocalDate.now();
+		rebuildUnchecked(today, today.plusDays(rebuildDaysAhead));
+	}
+
+	/*
+	 * 期間内のカウンタを time_slot から作り直す。
+	 *
+	 * 医師ごとに1トランザクションで、その医師の期間内のカウンタを削除し、time_slot を日ごとに数えた値を入れ直す
+	 * 作り直している間にその医師の予約枠のステータスを変更したトランザクションは、カウンタの行ロックを待つ
+	 *
+	 * @param from 開始日
+	 * @param to 終了日
+	 * @return 作り直した医師×日の数
+	 * @throws InvalidAvailabilityQueryException 期間の指定が不正な場合
+	 * @throws RequestLimitExceededException 期間が上限の日数を超える場合
+	 */
+	public int rebuild(LocalDate from, LocalDate to) {
+		checkRange(from, to);
+		return rebuildUnchecked(from, to);
+	}
+
+	/*
+	 * 医師の期間内のカウンタを time_slot から作り直す（予約枠を追加・削除した後に呼ぶ）。
+	 *
+	 * 呼び出し側のトランザクションがあればその中で実行する
+	 *
+	 * @param doctorId 医師ID
+	 * @param from 開始日
+	 * @param to 終了日
+	 */
+	public void rebuildDoctor(long doctorId, LocalDate from, LocalDate to) {
+		// 呼び出し側のトランザクション（REPEATABLE READ）の古いスナップショットで数えないよう、
+		// ここでは最新のコミット済みの値を読む INSERT … SELECT を使う（医師の行ロックで反映は直列になっている）
+		transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.update("DELETE FROM doctor_day_counter WHERE doctor_id = ? AND date BETWEEN ? AND ?",
+					doctorId, from, to);
+			jdbcTemplate.update("INSERT INTO doctor_day_counter (doctor_id, date, open_slots) "
+					+ "SELECT doctor_id, date, SUM(CASE WHEN status = 'OPEN' THEN 1 ELSE 0 END) FROM time_slot "
+					+ "WHERE doctor_id = ? AND date BETWEEN ? AND ? GROUP BY doctor_id, date",
+					doctorId, from, to);
+		});
+	}
+
+	private int rebuildUnchecked(LocalDate from, LocalDate to) {
+		long started = System.nanoTime();
+		int rows = 0;
+		for (Long doctorId : jdbcTemplate.queryForList("SELECT id FROM doctor ORDER BY id", Long.class)) {
+			rows += rebuildTransaction.execute(status -> rebuildDoctorDays(doctorId, from, to));
+		}
+		log.info("Open slot counters rebuilt: from={} to={} days={} elapsedMs={}", from, to, rows,
+				(System.nanoTime() - started) / 1_000_000);
+		return rows;
+	}
+
+	/**
+	 * 医師の期間内のカウンタを作り直す。READ COMMITTED のトランザクション内で実行する。
+	 *
+	 * <p>カウンタの行を先にロックしてから、time_slot をロックを取らずに数える（INSERT … SELECT は
+	 * time_slot の行に共有ロックを取るため使わない）。</p>
+	 *
+	 * @return 入れ直した医師×日の数
+	 */
+	private int rebuildDoctorDays(long doctorId, LocalDate from, LocalDate to) {
+		jdbcTemplate.queryForList("SELECT date FROM doctor_day_counter WHERE doctor_id = ? AND date BETWEEN ? AND ? FOR UPDATE",
+				LocalDate.class, doctorId, from, to);
+		List<Object[]> args = new ArrayList<>();
+		jdbcTemplate.query("SELECT date, SUM(CASE WHEN status = 'OPEN' THEN 1 ELSE 0 END) FROM time_slot "
+				+ "WHERE doctor_id = ? AND date BETWEEN ? AND ? GROUP BY date",
+				rs -> {
+					args.add(new Object[] { doctorId, rs.getObject(1, LocalDate.class), rs.getInt(2) });
+				},
+				doctorId, from, to);
+		jdbcTemplate.update("DELETE FROM doctor_day_counter WHERE doctor_id = ? AND date BETWEEN ? AND ?",
+				doctorId, from, to);
+		jdbcTemplate.batchUpdate("INSERT INTO doctor_day_counter (doctor_id, date, open_slots) VALUES (?, ?, ?)", args);
+		return args.size();
+	}
+
+	/*
+	 * 期間内のカウンタを time_slot を数えた値と突き合わせる。
+	 *
+	 * 両方を同じトランザクションで読む（レプリカの遅れで食い違いと判定しないよう、プライマリから読む）
+	 *
+	 * @param from 開始日
+	 * @param to 終了日
+	 * @return 食い違いのある医師×日（（医師ID, 日付）順。なければ空）
+	 * @throws InvalidAvailabilityQueryException 期間の指定が不正な場合
+	 * @throws RequestLimitExceededException 期間が上限の日数を超える場合
+	 */
+	public List<OpenSlotCounterMismatchDTO> verify(LocalDate from, LocalDate to) {
+		checkRange(from, to);
+		List<OpenSlotCounterMismatchDTO> mismatches = transactionTemplate.execute(status -> {
+			Map<DoctorDay, Integer> expected = new HashMap<>();
+			jdbcTemplate.query(COUNT_SQL, rs -> {
+				expected.put(new DoctorDay(rs.getLong(1), rs.getObject(2, LocalDate.class)), rs.getInt(3));
+			}, from, to);
+			Map<DoctorDay, Integer> actual = new HashMap<>();
+			jdbcTemplate.query("SELECT doctor_id, date, open_slots FROM doctor_day_counter WHERE date BETWEEN ? AND ?",
+					rs -> {
+						actual.put(new DoctorDay(rs.getLong(1), rs.getObject(2, LocalDate.class)), rs.getInt(3));
+					}, from, to);
+
+			TreeSet<DoctorDay> days = new TreeSet<>(expected.keySet());
+			days.addAll(actual.keySet());
+			List<OpenSlotCounterMismatchDTO> result = new ArrayList<>();
+			for (DoctorDay day : days) {
+				int count = expected.getOrDefault(day, 0);
+				Integer counter = actual.get(day);
+				if (counter == null ? count != 0 : counter != count) {
+					result.add(new OpenSlotCounterMismatchDTO(day.doctorId(), day.date(), count, counter));
+				}
+			}
+			return result;
+		});
+		if (!mismatches.isEmpty()) {
+			log.warn("Open slot counters out of sync: from={} to={} mismatches={} first={}", from, to,
+					mismatches.size(), mismatches.get(0));
+		}
+		return mismatches;
+	}
+
+	private void checkRange(LocalDate from, LocalDate to) {
+		if (from == null || to == null || from.isAfter(to)) {
+			throw new InvalidAvailabilityQueryException("期間の指定が不正です。");
+		}
+		if (ChronoUnit.DAYS.between(from, to) + 1 > maxDays) {
+			throw new RequestLimitExceededException("期間は" + maxDays + "日までです。");
+		}
+	}
+
+	private static int openCount(TimeSlotStatus status) {
+		return status == TimeSlotStatus.OPEN ? 1 : 0;
+	}
+}
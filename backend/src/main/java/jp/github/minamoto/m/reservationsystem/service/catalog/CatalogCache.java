@@ -0,0 +1,212 @@
+package jp.github.minamoto.m.reservationsystem.service.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jp.github.minamoto.m.reservationsystem.dto.DepartmentResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.DoctorResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.DepartmentService;
+import jp.github.minamoto.m.reservationsystem.service.DoctorService;
+import jp.github.minamoto.m.reservationsystem.service.event.CatalogChangedEvent;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * 診療科・医師一覧（カタログ）の JSON をシリアライズ済みのバイト列（そのままと gzip）で保持する。
+ *
+ * <p>GET /v1/departments・/v1/doctors・/v1/doctors/{departmentId} はメモリ上のバイト列を返すだけで、
+ * DBにもアクセスせず、DTO の組み立て・JSON 化もしない。</p>
+ *
+ * <p>Department・Doctor をJPAで変更した場合はコミット後に破棄し、次のリクエストで読み込み直す。
+ * 他のノードでの変更やDBを直接更新した場合に備え、一定間隔（catalog-refresh-ms）でも読み込み直す。
+ * ETag は一覧の JSON のハッシュのため、内容が同じであればどのノードでも同じ値になる。</p>
+ */
+@Component
+public class CatalogCache {
+	private static final Logger log = LoggerFactory.getLogger(CatalogCache.class);
+
+	private static final CatalogBody EMPTY_LIST = CatalogBody.of("[]".getBytes(StandardCharsets.UTF_8), "\"cat-empty\"");
+
+	private final DepartmentService departmentService;
+	private final DoctorService doctorService;
+	private final ObjectMapper objectMapper;
+	private final CacheControl cacheControl;
+
+	private volatile Snapshot snapshot;
+	private volatile boolean stale = true;
+
+	public CatalogCache(DepartmentService departmentService, DoctorService doctorService, ObjectMapper objectMapper,
+			@Value("${app.http-cache.catalog-max-age:5m}") Duration maxAge) {
+		this.departmentService = departmentService;
+		this.doctorService = doctorService;
+		this.objectMapper = objectMapper;
+		this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		reload(true);
+	}
+
+	/**
+	 * Department・Doctor を変更したトランザクションのコミット後に破棄する。
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCatalogChanged(CatalogChangedEvent event) {
+		stale = true;
+	}
+
+	/**
+	 * 破棄されていなくても一定間隔で読み込み直す（他のノード・DBの直接更新への備え）。
+	 */
+	@Scheduled(fixedDelayString = "${app.http-cache.catalog-refresh-ms:60000}",
+			initialDelayString = "${app.http-cache.catalog-refresh-ms:60000}")
+	public void refresh() {
+		reload(true);
+	}
+
+	/**
+	 * GET /v1/departments の本文。
+	 */
+	public CatalogBody departments() {
+		return current().departments();
+	}
+
+	/**
+	 * GET /v1/doctors の本文。
+	 */
+	public CatalogBody doctors() {
+		return current().doctors();
+	}
+
+	/**
+	 * GET /v1/doctors/{departmentId} の本文。医師がいない診療科は空の一覧。
+	 */
+	public CatalogBody doctors(Long departmentId) {
+		return current().doctorsByDepartment().getOrDefault(departmentId, EMPTY_LIST);
+	}
+
+	/**
+	 * カタログの Cache-Control。
+	 */
+	public CacheControl cacheControl() {
+		return cacheControl;
+	}
+
+	private Snapshot current() {
+		Snapshot current = snapshot;
+		if (current == null || stale) {
+			current = reload(false);
+		}
+		return current;
+	}
+
+	/**
+	 * DBから読み込み、JSON と gzip を作り直す。内容が変わっていなければ保持しているものをそのまま使う。
+	 *
+	 * @param force false の場合、待っている間に他のスレッドが読み込み直していればそれを使う
+	 */
+	private synchronized Snapshot reload(boolean force) {
+		if (!force && snapshot != null && !stale) {
+			return snapshot;
+		}
+		// 読み込み中に破棄された場合は次のリクエストで読み込み直す
+		stale = false;
+		List<DepartmentResponseDTO> departments = departmentService.findAll();
+		List<DoctorResponseDTO> doctors = doctorService.findAll();
+
+		byte[] departmentsJson = objectMapper.writeValueAsBytes(departments);
+		byte[] doctorsJson = objectMapper.writeValueAsBytes(doctors);
+		String version = version(departmentsJson, doctorsJson);
+		Snapshot current = snapshot;
+		if (current != null && current.version().equals(version)) {
+			return current;
+		}
+
+		Map<Long, List<DoctorResponseDTO>> grouped = new LinkedHashMap<>();
+		for (DoctorResponseDTO doctor : doctors) {
+			grouped.computeIfAbsent(doctor.getDepartmentId(), id -> new ArrayList<>()).add(doctor);
+		}
+		Map<Long, CatalogBody> doctorsByDepartment = new HashMap<>();
+		grouped.forEach((departmentId, list) -> doctorsByDepartment.put(departmentId,
+				CatalogBody.of(objectMapper.writeValueAsBytes(list), etag(version, "d" + departmentId))));
+
+		Snapshot loaded = new Snapshot(version,
+				CatalogBody.of(departmentsJson, etag(version, "departments")),
+				CatalogBody.of(doctorsJson, etag(version, "doctors")),
+				Map.copyOf(doctorsByDepartment));
+		snapshot = loaded;
+		log.info("Catalog loaded: version={} departments={} doctors={}", version, departments.size(), doctors.size());
+		return loaded;
+	}
+
+	private static String version(byte[] departmentsJson, byte[] doctorsJson) {
+		MessageDigest digest = sha256();
+		digest.update(departmentsJson);
+		digest.update((byte) '\n');
+		digest.update(doctorsJson);
+		return HexFormat.of().formatHex(digest.digest(), 0, 8);
+	}
+
+	private static String etag(String version, String resource) {
+		return "\"cat-" + version + "-" + resource + "\"";
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private record Snapshot(String version, CatalogBody departments, CatalogBody doctors,
+			Map<Long, CatalogBody> doctorsByDepartment) {
+	}
+
+	/**
+	 * 1つのエンドポイントの本文。gzip 版は ETag も別にする（表現が異なるため）。
+	 *
+	 * @param json JSON（UTF-8）
+	 * @param gzip JSON を gzip 圧縮したもの
+	 * @param etag JSON の ETag
+	 * @param gzipEtag gzip 版の ETag
+	 */
+	public record CatalogBody(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+
+		static CatalogBody of(byte[] json, String etag) {
+			return new CatalogBody(json, gzip(json), etag, etag.substring(0, etag.length() - 1) + "-gzip\"");
+		}
+
+		private static byte[] gzip(byte[] json) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 32);
+			try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+				gzip.write(json);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return out.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,431 @@
+package jp.github.minamoto.m.reservationsystem.service.engine;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotStateView;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotsGeneratedEvent;
+
+/**
+ * 直近の予約枠ステータスをメモリ上に保持し、競合判定をDBより先に行うエンジン。
+ *
+ * <p>ステータスは「医師 × 日 × 枠」で並べた int 配列（AtomicIntegerArray）に保持し、
+ * 状態遷移は CAS で行う。CAS に負けた予約はDBに触れずに即座に拒否できる。</p>
+ *
+ * <ul>
+ *   <li>確保系の遷移（OPEN→RESERVED、→DOCTOR_UNAVAILABLE）は即時に反映し、ロールバック時に元に戻す</li>
+ *   <li>解放系の遷移（→OPEN）はコミット後に反映する</li>
+ * </ul>
+ *
+ * <p>DBへの条件付き更新・ロックは従来どおり行うため、メモリ上の状態が古くなっても二重予約にはならない。
+ * 単一ノードでの利用を前提とし、起動時と日付変更時に time_slot から再構築する。
+ * 再構築中にコミットされた遷移は記録しておき、新しい配列に再適用してから差し替える。</p>
+ *
+ * <p>{@code app.booking.engine.enabled=false}（デフォルト）の場合は何もしない。</p>
+ */
+@Component
+public class SlotStateEngine {
+	private static final Logger log = LoggerFactory.getLogger(SlotStateEngine.class);
+
+	/** 配列上の「枠なし」を表す値。ステータスは ordinal + 1 で保持する。 */
+	private static final int NONE = 0;
+	private static final TimeSlotStatus[] STATUSES = TimeSlotStatus.values();
+
+	/** 遷移結果 */
+	public enum Transition {
+		/** 遷移を反映した */
+		APPLIED,
+		/** 期待したステータスではなかった（競合） */
+		CONFLICT,
+		/** エンジンの管理対象外（無効、期間外、グリッド外）。DBで判定する */
+		UNTRACKED
+	}
+
+	private final TimeSlotRepository timeSlotRepository;
+	private final boolean enabled;
+	private final int horizonDays;
+	private final LocalTime dayStart;
+	private final int slotMinutes;
+	private final int slotsPerDay;
+
+	private volatile Grid grid = Grid.EMPTY;
+	/** 再構築中にコミットされた遷移。再構築中でなければ null */
+	private List<Change> pending;
+
+	public SlotStateEngine(TimeSlotRepository timeSlotRepository,
+			@Value("${app.booking.engine.enabled:false}") boolean enabled,
+			@Value("${app.booking.engine.horizon-days:62}") int horizonDays,
+			@Value("${app.booking.engine.day-start:09:00}") String dayStart,
+			@Value("${app.booking.engine.slot-minutes:30}") int slotMinutes,
+			@Value("${app.booking.engine.slots-per-day:18}") int slotsPerDay) {
+		this.timeSlotRepository = timeSlotRepository;
+		this.enabled = enabled;
+		this.horizonDays = horizonDays;
+		this.dayStart = LocalTime.parse(dayStart);
+		this.slotMinutes = slotMinutes;
+		this.slotsPerDay = slotsPerDay;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (enabled) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * 日付が変わったら管理期間をずらして再構築する。
+	 */
+	@Scheduled(cron = "${app.booking.engine.rebuild-cron:0 0 0 * * *}")
+	public void rebuildDaily() {
+		if (enabled) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * 管理期間内の日に予約枠が追加・削除された場合は再構築する。
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onSlotsGenerated(TimeSlotsGeneratedEvent event) {
+		LocalDate today = LocalDate.now();
+		if (enabled && event.touches(today, today.plusDays(horizonDays))) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * time_slot テーブルから本日以降 horizonDays 日分の状態を読み込み、配列を作り直す。
+	 *
+	 * <p>読み込み中にコミットされた遷移は読み込み結果に含まれない可能性があるため、
+	 * 再構築中に記録した遷移を新しい配列に再適用してから差し替える。</p>
+	 */
+	public void rebuild() {
+		synchronized (this) {
+			pending = new ArrayList<>();
+		}
+		LocalDate baseDate = LocalDate.now();
+		List<TimeSlotStateView> rows;
+		try {
+			rows = timeSlotRepository.findStatesByDateRange(baseDate, baseDate.plusDays(horizonDays));
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				pending = null;
+			}
+			throw e;
+		}
+
+		Map<Long, Integer> doctorIndex = new HashMap<>();
+		for (TimeSlotStateView row : rows) {
+			doctorIndex.putIfAbsent(row.getDoctorId(), doctorIndex.size());
+		}
+
+		int cells = doctorIndex.size() * horizonDays * slotsPerDay;
+		AtomicIntegerArray states = new AtomicIntegerArray(cells);
+
+		// ID→セルの対応表は ID 昇順に並べ、二分探索で引く
+		long[][] pairs = new long[rows.size()][];
+		int tracked = 0;
+		for (TimeSlotStateView row : rows) {
+			int cell = cellOf(doctorIndex.get(row.getDoctorId()), baseDate, row.getDate(), row.getStartTime());
+			if (cell < 0) {
+				continue;
+			}
+			states.set(cell, row.getStatus().ordinal() + 1);
+			pairs[tracked++] = new long[] { row.getId(), cell };
+		}
+		Arrays.sort(pairs, 0, tracked, (a, b) -> Long.compare(a[0], b[0]));
+
+		long[] ids = new long[tracked];
+		int[] cellOfId = new int[tracked];
+		for (int i = 0; i < tracked; i++) {
+			ids[i] = pairs[i][0];
+			cellOfId[i] = (int) pairs[i][1];
+		}
+
+		Grid built = new Grid(ids, cellOfId, states);
+		synchronized (this) {
+			for (Change change : pending) {
+				int cell = built.cellOf(change.timeSlotId());
+				if (cell >= 0) {
+					built.states.set(cell, change.value());
+				}
+			}
+			pending = null;
+			this.grid = built;
+		}
+		log.info("SlotStateEngine rebuilt: baseDate={}, doctors={}, slots={}", baseDate, doctorIndex.size(), tracked);
+	}
+
+	/**
+	 * 予約枠のステータスを取得する。管理対象外の場合は null。
+	 */
+	public TimeSlotStatus status(Long timeSlotId) {
+		if (!enabled) {
+			return null;
+		}
+		Grid g = grid;
+		int cell = g.cellOf(timeSlotId);
+		if (cell < 0) {
+			return null;
+		}
+		int value = g.states.get(cell);
+		return value == NONE ? null : STATUSES[value - 1];
+	}
+
+	/**
+	 * expected → next の遷移を CAS で即時に反映する（確保系の遷移）。
+	 *
+	 * <p>トランザクション中であれば、ロールバック時に next → expected へ戻す。</p>
+	 */
+	public Transition claim(Long timeSlotId, TimeSlotStatus expected, TimeSlotStatus next) {
+		if (!enabled) {
+			return Transition.UNTRACKED;
+		}
+		Grid g = grid;
+		int cell = g.cellOf(timeSlotId);
+		if (cell < 0) {
+			return Transition.UNTRACKED;
+		}
+		if (!g.states.compareAndSet(cell, expected.ordinal() + 1, next.ordinal() + 1)) {
+			return Transition.CONFLICT;
+		}
+		settleOnCompletion(g, timeSlotId, cell, next, expected);
+		return Transition.APPLIED;
+	}
+
+	/**
+	 * 現在のステータスに関わらず next に更新する（枠を閉じる場合など）。
+	 *
+	 * <p>トランザクション中であれば、ロールバック時に元のステータスへ戻す。</p>
+	 */
+	public Transition force(Long timeSlotId, TimeSlotStatus next) {
+		if (!enabled) {
+			return Transition.UNTRACKED;
+		}
+		Grid g = grid;
+		int cell = g.cellOf(timeSlotId);
+		if (cell < 0) {
+			return Transition.UNTRACKED;
+		}
+		int previous = g.states.getAndSet(cell, next.ordinal() + 1);
+		if (previous != NONE && previous != next.ordinal() + 1) {
+			settleOnCompletion(g, timeSlotId, cell, next, STATUSES[previous - 1]);
+		}
+		return Transition.APPLIED;
+	}
+
+	/**
+	 * next への遷移をコミット後に反映する（解放系の遷移）。
+	 * トランザクション外で呼ばれた場合は即時に反映する。
+	 */
+	public void release(Long timeSlotId, TimeSlotStatus next) {
+		if (!enabled) {
+			return;
+		}
+		Grid g = grid;
+		int cell = g.cellOf(timeSlotId);
+		if (cell < 0) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			settle(List.of(timeSlotId), next.ordinal() + 1);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				settle(List.of(timeSlotId), next.ordinal() + 1);
+			}
+		});
+	}
+
+	/**
+	 * 複数の予約枠を現在のステータスに関わらず next に更新する（期間を指定して枠を閉じる場合など）。
+	 *
+	 * <p>トランザクション中であれば、ロールバック時に元のステータスへ戻す（登録するコールバックは1つ）。</p>
+	 */
+	public void forceAll(Collection<Long> timeSlotIds, TimeSlotStatus next) {
+		if (!enabled) {
+			return;
+		}
+		Grid g = grid;
+		List<Long> changedIds = new ArrayList<>(timeSlotIds.size());
+		int[] cells = new int[timeSlotIds.size()];
+		int[] previous = new int[timeSlotIds.size()];
+		int applied = 0;
+		for (Long timeSlotId : timeSlotIds) {
+			int cell = g.cellOf(timeSlotId);
+			if (cell < 0) {
+				continue;
+			}
+			int value = g.states.getAndSet(cell, next.ordinal() + 1);
+			if (value != NONE && value != next.ordinal() + 1) {
+				changedIds.add(timeSlotId);
+				cells[applied] = cell;
+				previous[applied++] = value;
+			}
+		}
+		if (applied == 0) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			settleCommitted(g, changedIds, next.ordinal() + 1);
+			return;
+		}
+		int count = applied;
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_COMMITTED) {
+					settleCommitted(g, changedIds, next.ordinal() + 1);
+					return;
+				}
+				for (int i = 0; i < count; i++) {
+					g.states.compareAndSet(cells[i], next.ordinal() + 1, previous[i]);
+				}
+			}
+		});
+	}
+
+	/**
+	 * 複数の予約枠の next への遷移をコミット後に反映する（期間を指定して枠を開く場合など）。
+	 * トランザクション外で呼ばれた場合は即時に反映する。
+	 */
+	public void releaseAll(Collection<Long> timeSlotIds, TimeSlotStatus next) {
+		if (!enabled) {
+			return;
+		}
+		List<Long> ids = List.copyOf(timeSlotIds);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			settle(ids, next.ordinal() + 1);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				settle(ids, next.ordinal() + 1);
+			}
+		});
+	}
+
+	/**
+	 * 即時に反映した遷移の後始末を登録する。ロールバック時は元に戻し、
+	 * コミット時（トランザクション外では即時）は再構築中の記録と、その間に差し替わった配列への反映を行う。
+	 */
+	private void settleOnCompletion(Grid g, Long timeSlotId, int cell, TimeSlotStatus applied, TimeSlotStatus previous) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			settleCommitted(g, List.of(timeSlotId), applied.ordinal() + 1);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_COMMITTED) {
+					settleCommitted(g, List.of(timeSlotId), applied.ordinal() + 1);
+				} else {
+					g.states.compareAndSet(cell, applied.ordinal() + 1, previous.ordinal() + 1);
+				}
+			}
+		});
+	}
+
+	/**
+	 * コミット後に反映する遷移を現在の配列に書き込み、再構築中であれば記録する。
+	 */
+	private synchronized void settle(List<Long> timeSlotIds, int value) {
+		Grid g = grid;
+		for (Long timeSlotId : timeSlotIds) {
+			int cell = g.cellOf(timeSlotId);
+			if (cell >= 0) {
+				g.states.set(cell, value);
+			}
+			if (pending != null) {
+				pending.add(new Change(timeSlotId, value));
+			}
+		}
+	}
+
+	/**
+	 * 即時に反映済みの遷移がコミットされた。配列 applied に書き込み済みのため、
+	 * 再構築中であれば記録し、その後に差し替わっていれば新しい配列にも反映する。
+	 */
+	private synchronized void settleCommitted(Grid applied, List<Long> timeSlotIds, int value) {
+		if (pending == null && grid == applied) {
+			return;
+		}
+		settle(timeSlotIds, value);
+	}
+
+	/**
+	 * 医師・日付・開始時刻から配列上の位置を求める。グリッドに収まらない場合は -1。
+	 */
+	private int cellOf(int doctorIdx, LocalDate baseDate, LocalDate date, LocalTime startTime) {
+		long day = ChronoUnit.DAYS.between(baseDate, date);
+		long minutes = ChronoUnit.MINUTES.between(dayStart, startTime);
+		if (day < 0 || day >= horizonDays || minutes < 0 || minutes % slotMinutes != 0) {
+			return -1;
+		}
+		long slot = minutes / slotMinutes;
+		if (slot >= slotsPerDay) {
+			return -1;
+		}
+		return (int) ((doctorIdx * (long) horizonDays + day) * slotsPerDay + slot);
+	}
+
+	/**
+	 * 再構築中に記録する遷移（予約枠ID・ステータス）。
+	 */
+	private record Change(Long timeSlotId, int value) {
+	}
+
+	/**
+	 * 再構築ごとに作り直す配列一式。ID→セルの対応はソート済み配列の二分探索で引く。
+	 */
+	private static final class Grid {
+		static final Grid EMPTY = new Grid(new long[0], new int[0], new AtomicIntegerArray(0));
+
+		final long[] sortedIds;
+		final int[] cellOfId;
+		final AtomicIntegerArray states;
+
+		Grid(long[] sortedIds, int[] cellOfId, AtomicIntegerArray states) {
+			this.sortedIds = sortedIds;
+			this.cellOfId = cellOfId;
+			this.states = states;
+		}
+
+		int cellOf(Long timeSlotId) {
+			if (timeSlotId == null) {
+				return -1;
+			}
+			int i = Arrays.binarySearch(sortedIds, timeSlotId);
+			return i < 0 ? -1 : cellOfId[i];
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package jp.github.minamoto.m.reservationsystem.service.event;
+
+/**
+ * 診療科・医師（カタログ）が追加・変更・削除されたことを通知するイベント。
+ *
+ * <p>変更したトランザクション内で発行し、受け取る側は {@code @TransactionalEventListener}（コミット後）で処理する。</p>
+ */
+public record CatalogChangedEvent() {
+}
@@ -0,0 +1,41 @@
+package jp.github.minamoto.m.reservationsystem.service.event;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+
+/**
+ * 予約枠のステータスが変わったことを通知するイベント。
+ *
+ * <p>ステータスを更新したトランザクション内で発行し、受け取る側は
+ * {@code @TransactionalEventListener}（コミット後）で処理する。ロールバックされた変更は通知されない。</p>
+ *
+ * <p>コミット後のリスナーはトランザクションごとのスレッドで動くため、同じ予約枠のイベントがコミット順と
+ * 逆に届くことがある。順序が必要な受け手は versions（コミット直前に SlotVersionService が進めた
+ * time_slot.version）を比べて古いイベントを捨てる。</p>
+ *
+ * @param timeSlotIds 変更された予約枠ID
+ * @param previous 変更前のステータス（timeSlotIds のすべてで同じもの）
+ * @param status 変更後のステータス
+ * @param versions 予約枠IDごとの変更後の time_slot.version。コミット直前に記録する
+ */
+public record TimeSlotStatusChangedEvent(List<Long> timeSlotIds, TimeSlotStatus previous, TimeSlotStatus status,
+		Map<Long, Long> versions) {
+
+	public TimeSlotStatusChangedEvent(List<Long> timeSlotIds, TimeSlotStatus previous, TimeSlotStatus status) {
+		this(timeSlotIds, previous, status, new ConcurrentHashMap<>());
+	}
+
+	public static TimeSlotStatusChangedEvent of(Long timeSlotId, TimeSlotStatus previous, TimeSlotStatus status) {
+		return new TimeSlotStatusChangedEvent(List.of(timeSlotId), previous, status);
+	}
+
+	/**
+	 * 予約枠の変更後の version。記録されていない（トランザクション外で発行された）場合は -1。
+	 */
+	public long version(Long timeSlotId) {
+		return versions.getOrDefault(timeSlotId, -1L);
+	}
+}
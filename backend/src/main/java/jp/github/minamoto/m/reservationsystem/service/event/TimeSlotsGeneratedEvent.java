@@ -0,0 +1,26 @@
+package jp.github.minamoto.m.reservationsystem.service.event;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 勤務時間から予約枠が追加・削除されたことを通知するイベント。
+ *
+ * <p>予約枠の生成（医師ごとのトランザクション）がすべて終わった後に、トランザクションの外で発行する。
+ * 受け取る側は {@code @TransactionalEventListener(fallbackExecution = true)} で処理する。
+ * 予約枠の件数が変わった医師×日のキャッシュ・インデックスを作り直すために使う。</p>
+ *
+ * @param changedDays 予約枠が変わった日（医師IDごと、日付順）
+ */
+public record TimeSlotsGeneratedEvent(Map<Long, List<LocalDate>> changedDays) {
+
+	/**
+	 * from 以上 to 未満の日を含むか。
+	 */
+	public boolean touches(LocalDate from, LocalDate to) {
+		return changedDays.values().stream()
+			.flatMap(List::stream)
+			.anyMatch(date -> !date.isBefore(from) && date.isBefore(to));
+	}
+}
@@ -0,0 +1,19 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+/**
+ * 予約処理が混雑していて受け付けられない場合の例外。
+ * 再試行までの目安秒数を持つ。
+ */
+public class BookingOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public BookingOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,31 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+/**
+ * 入場制御の待ち行列で順番がまだ来ていない場合の例外。
+ * 待ち番号チケット、待ち人数、再試行までの目安秒数を持つ。
+ */
+public class BookingQueuedException extends RuntimeException {
+
+    private final String ticket;
+    private final long position;
+    private final long retryAfterSeconds;
+
+    public BookingQueuedException(String message, String ticket, long position, long retryAfterSeconds) {
+        super(message);
+        this.ticket = ticket;
+        this.position = position;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
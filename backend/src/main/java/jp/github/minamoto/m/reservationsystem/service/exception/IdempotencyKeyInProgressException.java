@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
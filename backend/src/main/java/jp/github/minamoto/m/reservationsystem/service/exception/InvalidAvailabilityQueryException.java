@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class InvalidAvailabilityQueryException extends RuntimeException {
+
+    public InvalidAvailabilityQueryException(String message) {
+        super(message);
+    }
+}
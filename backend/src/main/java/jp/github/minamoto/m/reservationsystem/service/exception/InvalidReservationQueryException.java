@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class InvalidReservationQueryException extends RuntimeException {
+
+    public InvalidReservationQueryException(String message) {
+        super(message);
+    }
+}
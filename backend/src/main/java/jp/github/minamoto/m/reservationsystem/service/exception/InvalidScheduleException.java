@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class InvalidScheduleException extends RuntimeException {
+
+    public InvalidScheduleException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class InvalidTimeSlotRangeException extends RuntimeException {
+
+    public InvalidTimeSlotRangeException(String message) {
+        super(message);
+    }
+}
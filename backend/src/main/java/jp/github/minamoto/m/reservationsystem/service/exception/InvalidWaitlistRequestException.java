@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class InvalidWaitlistRequestException extends RuntimeException {
+
+    public InvalidWaitlistRequestException(String message) {
+        super(message);
+    }
+}
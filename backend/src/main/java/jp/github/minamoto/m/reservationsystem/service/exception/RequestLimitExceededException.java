@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class RequestLimitExceededException extends RuntimeException {
+
+    public RequestLimitExceededException(String message) {
+        super(message);
+    }
+}
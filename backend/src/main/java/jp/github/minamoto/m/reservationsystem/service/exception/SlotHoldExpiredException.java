@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class SlotHoldExpiredException extends RuntimeException {
+
+    public SlotHoldExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+/**
+ * 予約枠の変更通知（SSE）の購読者数が上限に達している場合の例外。
+ * 再試行までの目安秒数を持つ。
+ */
+public class SubscriberLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public SubscriberLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,8 @@
+package jp.github.minamoto.m.reservationsystem.service.exception;
+
+public class WaitlistEntryNotFoundException extends RuntimeException {
+
+    public WaitlistEntryNotFoundException(Long id) {
+        super("WaitlistEntry not found. id=" + id);
+    }
+}
@@ -0,0 +1,44 @@
+package jp.github.minamoto.m.reservationsystem.service.export;
+
+import java.util.Locale;
+
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidReservationQueryException;
+
+/**
+ * 予約エクスポートの出力形式。
+ */
+public enum ExportFormat {
+	/** 1行目が列名の CSV（RFC 4180）。Excel で文字化けしないよう先頭に BOM を付ける */
+	CSV("text/csv;charset=UTF-8", "csv"),
+	/** 1行に1件の JSON オブジェクト（改行区切り JSON） */
+	NDJSON("application/x-ndjson", "ndjson");
+
+	private final String contentType;
+	private final String extension;
+
+	ExportFormat(String contentType, String extension) {
+		this.contentType = contentType;
+		this.extension = extension;
+	}
+
+	public String contentType() {
+		return contentType;
+	}
+
+	public String extension() {
+		return extension;
+	}
+
+	/**
+	 * リクエストパラメータ（大文字・小文字は区別しない）から出力形式を返す。
+	 *
+	 * @throws InvalidReservationQueryException 未知の形式の場合
+	 */
+	public static ExportFormat of(String value) {
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidReservationQueryException("format は csv または ndjson を指定してください。");
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package jp.github.minamoto.m.reservationsystem.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.json.JsonEscapes;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationSearch;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidReservationQueryException;
+
+/**
+ * 予約を CSV・NDJSON で出力する（請求処理などの運用向け）。
+ *
+ * <p>予約と予約枠を結合した1本の SELECT を前方向専用のカーソルで読み、1行ずつ出力先に書き出す。
+ * JPA（永続化コンテキスト）を通さずエンティティも一覧も作らないため、件数によらずヒープ使用量は一定になる。
+ * ドライバーが一度に受け取る行数は fetch-size で指定する（MySQL Connector/J は Integer.MIN_VALUE で1行ずつ受け取る）。</p>
+ *
+ * <p>読み取り専用トランザクションで実行するため、レプリカへの振り分けが有効な場合はレプリカから読む。</p>
+ */
+@Service
+public class ReservationExportService {
+	private static final Logger log = LoggerFactory.getLogger(ReservationExportService.class);
+
+	private static final String SELECT_SQL =
+			"SELECT r.id, r.time_slot_id, t.doctor_id, t.date, t.start_time, t.end_time, r.status, r.name, r.created_at "
+			+ "FROM reservation r JOIN time_slot t ON t.id = r.time_slot_id";
+	// 予約ID順は reservation の主キーを先頭から読むだけで済み、DB側でも並べ替えが発生しない
+	private static final String ORDER_SQL = " ORDER BY r.id";
+
+	private static final String[] COLUMNS = {
+			"reservationId", "timeSlotId", "doctorId", "date", "startTime", "endTime", "status", "name", "createdAt" };
+	private static final char BOM = '\uFEFF';
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate readOnlyTransaction;
+	private final int fetchSize;
+
+	public ReservationExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			@Value("${app.reservation.export.fetch-size:1000}") int fetchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.fetchSize = fetchSize;
+	}
+
+	/*
+	 * エクスポートの条件を確認する。出力を始める前（レスポンスヘッダーを設定する前）に呼ぶ。
+	 *
+	 * @param search 絞り込み条件（status が null の場合はすべてのステータス）
+	 * @throws InvalidReservationQueryException 条件が不正な場合
+	 */
+	public void validate(ReservationSearch search) {
+		if (search.from() != null && search.to() != null && search.from().isAfter(search.to())) {
+			throw new InvalidReservationQueryException("期間の指定が不正です。");
+		}
+	}
+
+	/*
+	 * 条件に合う予約を予約ID順に出力先へ書き出す。
+	 *
+	 * 出力はバッファが一杯になるたびに出力先へ送られる（全件を溜めてから送ることはしない）
+	 * 出力先は閉じない
+	 *
+	 * @param search 絞り込み条件（validate で確認済みのもの）
+	 * @param format 出力形式
+	 * @param out 出力先
+	 * @return 出力した件数
+	 * @throws IOException 出力先への書き込みに失敗した場合（クライアントの切断など）。読み出しも中断する
+	 */
+	public long export(ReservationSearch search, ExportFormat format, OutputStream out) throws IOException {
+		long started = System.nanoTime();
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+		writeHeader(writer, format);
+
+		StringBuilder sql = new StringBuilder(SELECT_SQL);
+		List<Object> args = new ArrayList<>();
+		if (search.departmentId() != null) {
+			sql.append(" JOIN doctor d ON d.id = t.doctor_id");
+		}
+		sql.append(" WHERE 1 = 1");
+		if (search.status() != null) {
+			sql.append(" AND r.status = ?");
+			args.add(search.status().name());
+		}
+		if (search.from() != null) {
+			sql.append(" AND t.date >= ?");
+			args.add(search.from());
+		}
+		if (search.to() != null) {
+			sql.append(" AND t.date <= ?");
+			args.add(search.to());
+		}
+		if (search.doctorId() != null) {
+			sql.append(" AND t.doctor_id = ?");
+			args.add(search.doctorId());
+		}
+		if (search.departmentId() != null) {
+			sql.append(" AND d.department_id = ?");
+			args.add(search.departmentId());
+		}
+		sql.append(ORDER_SQL);
+
+		long[] rows = new long[1];
+		RowCallbackHandler handler = rs -> {
+			try {
+				writeRow(writer, format, rs);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			rows[0]++;
+		};
+		try {
+			readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+				PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY,
+						ResultSet.CONCUR_READ_ONLY);
+				ps.setFetchSize(fetchSize);
+				for (int i = 0; i < args.size(); i++) {
+					ps.setObject(i + 1, args.get(i));
+				}
+				return ps;
+			}, handler));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		writer.flush();
+
+		log.info("Reservations exported: format={} rows={} elapsedMs={}", format, rows[0],
+				(System.nanoTime() - started) / 1_000_000);
+		return rows[0];
+	}
+
+	private static void writeHeader(Writer writer, ExportFormat format) throws IOException {
+		if (format != ExportFormat.CSV) {
+			return;
+		}
+		writer.write(BOM);
+		writer.write(String.join(",", COLUMNS));
+		writer.write("\r\n");
+	}
+
+	private static void writeRow(Writer writer, ExportFormat format, ResultSet rs) throws SQLException, IOException {
+		String id = Long.toString(rs.getLong(1));
+		String timeSlotId = Long.toString(rs.getLong(2));
+		String doctorId = Long.toString(rs.getLong(3));
+		String date = rs.getObject(4, LocalDate.class).toString();
+		String startTime = DateTimeFormatter.ISO_LOCAL_TIME.format(rs.getObject(5, LocalTime.class));
+		String endTime = DateTimeFormatter.ISO_LOCAL_TIME.format(rs.getObject(6, LocalTime.class));
+		String status = rs.getString(7);
+		String name = rs.getString(8);
+		LocalDateTime createdAt = rs.getObject(9, LocalDateTime.class);
+		String created = createdAt != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt) : null;
+
+		if (format == ExportFormat.CSV) {
+			writer.write(id);
+			writer.write(',');
+			writer.write(timeSlotId);
+			writer.write(',');
+			writer.write(doctorId);
+			writer.write(',');
+			writer.write(date);
+			writer.write(',');
+			writer.write(startTime);
+			writer.write(',');
+			writer.write(endTime);
+			writer.write(',');
+			writer.write(status);
+			writer.write(',');
+			writeCsvField(writer, name);
+			writer.write(',');
+			writeCsvField(writer, created);
+			writer.write("\r\n");
+		} else {
+			writer.write("{\"reservationId\":");
+			writer.write(id);
+			writer.write(",\"timeSlotId\":");
+			writer.write(timeSlotId);
+			writer.write(",\"doctorId\":");
+			writer.write(doctorId);
+			writer.write(",\"date\":\"");
+			writer.write(date);
+			writer.write("\",\"startTime\":\"");
+			writer.write(startTime);
+			writer.write("\",\"endTime\":\"");
+			writer.write(endTime);
+			writer.write("\",\"status\":");
+			JsonEscapes.writeString(writer, status);
+			writer.write(",\"name\":");
+			JsonEscapes.writeString(writer, name);
+			writer.write(",\"createdAt\":");
+			JsonEscapes.writeString(writer, created);
+			writer.write("}\n");
+		}
+	}
+
+	/**
+	 * 区切り文字・引用符・改行を含む場合のみ引用符で囲み、引用符は2つ重ねる（RFC 4180）。null は空欄。
+	 *
+	 * <p>表計算ソフトで数式として実行されないよう、=・+・-・@・タブ・CR で始まる値は先頭に ' を付けて引用符で囲む。</p>
+	 */
+	private static void writeCsvField(Writer writer, String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		boolean formula = isFormulaPrefix(value);
+		boolean quote = formula;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+		}
+		if (!quote) {
+			writer.write(value);
+			return;
+		}
+		writer.write('"');
+		if (formula) {
+			writer.write('\'');
+		}
+		writer.write(value.replace("\"", "\"\""));
+		writer.write('"');
+	}
+
+	private static boolean isFormulaPrefix(String value) {
+		if (value.isEmpty()) {
+			return false;
+		}
+		char c = value.charAt(0);
+		return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+	}
+}
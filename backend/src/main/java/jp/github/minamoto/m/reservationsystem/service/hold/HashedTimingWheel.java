@@ -0,0 +1,136 @@
+package jp.github.minamoto.m.reservationsystem.service.hold;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 期限付きのIDを管理するハッシュ化タイミングホイール。
+ *
+ * <p>時間を tickMillis 単位の tick に区切り、期限の tick を wheelSize 個のバケットに振り分ける
+ * （tick & (wheelSize - 1)）。登録は O(1)、{@link #advance(long)} は経過した tick のバケットだけを走査する。
+ * 1周より先の期限は同じバケットに残り、該当する周回で取り出される。</p>
+ *
+ * <p>各バケットは ID と期限 tick を long 配列で持つため、1件あたり16バイト程度で済む。
+ * 登録は任意のスレッドから行えるが、{@link #advance(long)} は単一スレッドから呼ぶこと。</p>
+ */
+public class HashedTimingWheel {
+
+	private final long startMillis;
+	private final long tickMillis;
+	private final int mask;
+	private final Bucket[] buckets;
+	private final AtomicInteger size = new AtomicInteger();
+
+	/** 次に処理する tick。バケットのロック内でのみ進める。 */
+	private volatile long currentTick;
+
+	public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+		if (tickMillis <= 0 || wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+			throw new IllegalArgumentException("tickMillis must be positive and wheelSize a power of two");
+		}
+		this.startMillis = startMillis;
+		this.tickMillis = tickMillis;
+		this.mask = wheelSize - 1;
+		this.buckets = new Bucket[wheelSize];
+		for (int i = 0; i < wheelSize; i++) {
+			buckets[i] = new Bucket();
+		}
+	}
+
+	/**
+	 * ID を期限（エポックミリ秒）付きで登録する。期限を過ぎている場合は次の {@link #advance(long)} で取り出される。
+	 */
+	public void schedule(long id, long deadlineMillis) {
+		// 期限より早く取り出さないよう切り上げる
+		long deadlineTick = Math.ceilDiv(deadlineMillis - startMillis, tickMillis);
+		while (true) {
+			long tick = Math.max(deadlineTick, currentTick);
+			Bucket bucket = buckets[(int) (tick & mask)];
+			synchronized (bucket) {
+				// ロック待ちの間にこの tick が処理済みになった場合はやり直す
+				if (tick < currentTick) {
+					continue;
+				}
+				bucket.add(id, deadlineTick);
+			}
+			size.incrementAndGet();
+			return;
+		}
+	}
+
+	/**
+	 * nowMillis までに期限を迎えた ID を取り出す。
+	 *
+	 * @return 期限切れの ID（取り出した順）
+	 */
+	public long[] advance(long nowMillis) {
+		long nowTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+		LongBuffer expired = new LongBuffer();
+		while (currentTick <= nowTick) {
+			long tick = currentTick;
+			Bucket bucket = buckets[(int) (tick & mask)];
+			synchronized (bucket) {
+				currentTick = tick + 1;
+				bucket.drainDue(tick, expired);
+			}
+		}
+		size.addAndGet(-expired.size);
+		return expired.toArray();
+	}
+
+	/**
+	 * 登録中の件数。
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	private static final class Bucket {
+		private long[] ids = new long[8];
+		private long[] ticks = new long[8];
+		private int count;
+
+		void add(long id, long tick) {
+			if (count == ids.length) {
+				ids = Arrays.copyOf(ids, count * 2);
+				ticks = Arrays.copyOf(ticks, count * 2);
+			}
+			ids[count] = id;
+			ticks[count] = tick;
+			count++;
+		}
+
+		/**
+		 * 期限 tick が tick 以下のものを取り出し、残りを前に詰める。
+		 */
+		void drainDue(long tick, LongBuffer out) {
+			int kept = 0;
+			for (int i = 0; i < count; i++) {
+				if (ticks[i] <= tick) {
+					out.add(ids[i]);
+				} else {
+					ids[kept] = ids[i];
+					ticks[kept] = ticks[i];
+					kept++;
+				}
+			}
+			count = kept;
+		}
+	}
+
+	private static final class LongBuffer {
+		private long[] values = new long[16];
+		private int size;
+
+		void add(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
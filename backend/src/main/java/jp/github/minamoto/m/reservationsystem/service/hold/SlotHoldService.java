@@ -0,0 +1,206 @@
+package jp.github.minamoto.m.reservationsystem.service.hold;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.SlotHoldResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.SlotHold;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+import jp.github.minamoto.m.reservationsystem.repository.SlotHoldExpiryView;
+import jp.github.minamoto.m.reservationsystem.repository.SlotHoldRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.engine.SlotStateEngine;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.exception.SlotHoldExpiredException;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotAlreadyTakenException;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotNotFoundException;
+
+/*
+ * 予約枠の仮押さえ（HELD）を管理する。
+ * 
+ * <p>仮押さえの期限はタイミングホイールで管理し、定期的に期限切れ分をまとめて OPEN に戻す。
+ * 仮押さえごとのタスク登録やDBのポーリングは行わない。確定は予約作成時に holdToken を指定して行う。</p>
+ */
+@Service
+public class SlotHoldService {
+	private static final Logger log = LoggerFactory.getLogger(SlotHoldService.class);
+
+	private final TimeSlotRepository timeSlotRepository;
+	private final SlotHoldRepository slotHoldRepository;
+	private final SlotStateEngine slotStateEngine;
+	private final TransactionOperations transactionOperations;
+	private final ApplicationEventPublisher eventPublisher;
+	private final Duration ttl;
+	private final int expireBatchSize;
+	private final HashedTimingWheel wheel;
+
+	public SlotHoldService(TimeSlotRepository timeSlotRepository, SlotHoldRepository slotHoldRepository,
+			SlotStateEngine slotStateEngine, TransactionOperations transactionOperations,
+			ApplicationEventPublisher eventPublisher,
+			@Value("${app.hold.ttl:10m}") Duration ttl,
+			@Value("${app.hold.tick-ms:1000}") long tickMillis,
+			@Value("${app.hold.wheel-size:512}") int wheelSize,
+			@Value("${app.hold.expire-batch-size:500}") int expireBatchSize) {
+		this.timeSlotRepository = timeSlotRepository;
+		this.slotHoldRepository = slotHoldRepository;
+		this.slotStateEngine = slotStateEngine;
+		this.transactionOperations = transactionOperations;
+		this.eventPublisher = eventPublisher;
+		this.ttl = ttl;
+		this.expireBatchSize = expireBatchSize;
+		this.wheel = new HashedTimingWheel(tickMillis, wheelSize, System.currentTimeMillis());
+	}
+
+	/*
+	 * 予約枠を仮押さえする。
+	 * 
+	 * OPEN の場合のみ HELD に更新（条件付き UPDATE）
+	 * 仮押さえを登録し、コミット後にタイミングホイールへ期限を登録
+	 * 
+	 * @param timeSlotId 予約枠ID
+	 * @return 仮押さえトークンと期限
+	 * @throws TimeSlotNotFoundException 予約枠が存在しない場合
+	 * @throws TimeSlotAlreadyTakenException 予約枠がOPENでない場合
+	 */
+	@Transactional
+	public SlotHoldResponseDTO hold(Long timeSlotId) {
+		if(slotStateEngine.claim(timeSlotId, TimeSlotStatus.OPEN, TimeSlotStatus.HELD)
+				== SlotStateEngine.Transition.CONFLICT) {
+			throw new TimeSlotAlreadyTakenException("すでに予約が存在しています。");
+		}
+
+		int updated = timeSlotRepository.updateStatusIfMatches(timeSlotId, TimeSlotStatus.OPEN, TimeSlotStatus.HELD);
+		if(updated != 1) {
+			if(!timeSlotRepository.existsById(timeSlotId)) {
+				throw new TimeSlotNotFoundException(timeSlotId);
+			}
+			throw new TimeSlotAlreadyTakenException("すでに予約が存在しています。");
+		}
+		eventPublisher.publishEvent(TimeSlotStatusChangedEvent.of(timeSlotId, TimeSlotStatus.OPEN, TimeSlotStatus.HELD));
+
+		Instant expiresAt = Instant.now().plus(ttl);
+		SlotHold hold = new SlotHold();
+		hold.setToken(UUID.randomUUID().toString());
+		hold.setTimeSlot(timeSlotRepository.getReferenceById(timeSlotId));
+		hold.setExpiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()));
+		SlotHold saved = slotHoldRepository.save(hold);
+
+		scheduleAfterCommit(saved.getId(), expiresAt.toEpochMilli());
+
+		SlotHoldResponseDTO dto = new SlotHoldResponseDTO();
+		dto.setHoldToken(saved.getToken());
+		dto.setTimeSlotId(timeSlotId);
+		dto.setExpiresAt(saved.getExpiresAt());
+		return dto;
+	}
+
+	/*
+	 * 仮押さえを取り消し、予約枠を OPEN に戻す。
+	 * 
+	 * @param holdToken 仮押さえトークン
+	 * @throws SlotHoldExpiredException 仮押さえが存在しない（期限切れ・確定済み）場合
+	 */
+	@Transactional
+	public void release(String holdToken) {
+		SlotHold hold = slotHoldRepository.findByToken(holdToken)
+			.orElseThrow(() -> new SlotHoldExpiredException("仮押さえが見つからないか、期限が切れています。"));
+
+		expire(List.of(hold.getId()));
+	}
+
+	/*
+	 * 期限切れの仮押さえをまとめて解放する。
+	 * 
+	 * <p>タイミングホイールから取り出したIDを expireBatchSize 件ずつ、1トランザクションで解放する。</p>
+	 */
+	@Scheduled(fixedDelayString = "${app.hold.tick-ms:1000}")
+	public void expireDue() {
+		long[] due = wheel.advance(System.currentTimeMillis());
+		for (int from = 0; from < due.length; from += expireBatchSize) {
+			List<Long> batch = Arrays.stream(due, from, Math.min(from + expireBatchSize, due.length)).boxed().toList();
+			try {
+				transactionOperations.executeWithoutResult(status -> expire(batch));
+			} catch (RuntimeException e) {
+				log.warn("Failed to expire {} holds, retrying next tick: {}", batch.size(), e.toString());
+				long retryAt = System.currentTimeMillis();
+				batch.forEach(id -> wheel.schedule(id, retryAt));
+			}
+		}
+	}
+
+	/*
+	 * 起動時に残っている仮押さえをタイミングホイールに登録し直す。
+	 * 期限を過ぎているものは次の tick で解放される。
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void restore() {
+		List<SlotHoldExpiryView> holds = slotHoldRepository.findAllExpiries();
+		for (SlotHoldExpiryView hold : holds) {
+			wheel.schedule(hold.getId(), hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+		}
+		if (!holds.isEmpty()) {
+			log.info("Restored {} slot holds", holds.size());
+		}
+	}
+
+	/**
+	 * タイミングホイールに登録中の仮押さえ件数。
+	 */
+	public int pendingCount() {
+		return wheel.size();
+	}
+
+	/*
+	 * 仮押さえを削除し、HELD のままの予約枠を OPEN に戻す（確定済み・閉鎖済みの枠には触れない）。
+	 *
+	 * 先に予約枠をロックして HELD のものだけを選び、その枠だけを更新・通知する。更新した後に OPEN の枠を
+	 * 読み直すと、READ COMMITTED では他のトランザクションが OPEN にした枠まで HELD → OPEN として通知してしまう
+	 */
+	void expire(List<Long> holdIds) {
+		List<Long> timeSlotIds = slotHoldRepository.findTimeSlotIdsByIdInAndStatus(holdIds, TimeSlotStatus.HELD);
+		List<Long> heldIds = timeSlotIds.isEmpty() ? List.of()
+				: timeSlotRepository.findAllByIdForUpdate(timeSlotIds).stream()
+					.filter(slot -> slot.getStatus() == TimeSlotStatus.HELD)
+					.map(TimeSlot::getId)
+					.toList();
+		if (!heldIds.isEmpty()) {
+			timeSlotRepository.updateAllStatusIfMatches(heldIds, TimeSlotStatus.HELD, TimeSlotStatus.OPEN);
+			eventPublisher.publishEvent(new TimeSlotStatusChangedEvent(heldIds, TimeSlotStatus.HELD,
+					TimeSlotStatus.OPEN));
+		}
+		slotHoldRepository.deleteAllByIdIn(holdIds);
+		heldIds.forEach(timeSlotId -> slotStateEngine.release(timeSlotId, TimeSlotStatus.OPEN));
+	}
+
+	private void scheduleAfterCommit(Long holdId, long deadlineMillis) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			wheel.schedule(holdId, deadlineMillis);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				wheel.schedule(holdId, deadlineMillis);
+			}
+		});
+	}
+}
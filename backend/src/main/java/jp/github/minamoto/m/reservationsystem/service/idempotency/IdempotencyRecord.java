@@ -0,0 +1,15 @@
+package jp.github.minamoto.m.reservationsystem.service.idempotency;
+
+/**
+ * Idempotency-Key ごとに保存する処理結果。
+ *
+ * @param fingerprint リクエスト本文のハッシュ（同じキーで別内容のリクエストを検出するため）
+ * @param status 保存したレスポンスのHTTPステータス。処理中の場合は null
+ * @param body 保存したレスポンス本文（JSON）。処理中の場合は null
+ */
+public record IdempotencyRecord(String fingerprint, Integer status, String body) {
+
+	public boolean inProgress() {
+		return status == null;
+	}
+}
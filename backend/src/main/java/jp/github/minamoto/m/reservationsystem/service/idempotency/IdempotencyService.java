@@ -0,0 +1,109 @@
+package jp.github.minamoto.m.reservationsystem.service.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import jp.github.minamoto.m.reservationsystem.service.exception.IdempotencyKeyInProgressException;
+import jp.github.minamoto.m.reservationsystem.service.exception.IdempotencyKeyReusedException;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotAlreadyTakenException;
+import tools.jackson.databind.ObjectMapper;
+
+@Service
+public class IdempotencyService {
+	private final IdempotencyStore idempotencyStore;
+	private final ObjectMapper objectMapper;
+
+	public IdempotencyService(IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
+		this.idempotencyStore = idempotencyStore;
+		this.objectMapper = objectMapper;
+	}
+
+	/*
+	 * Idempotency-Key 付きで処理を実行する。
+	 * 
+	 * <p>同じキーの処理結果が保存済みであれば、処理を実行せずに保存済みのレスポンスを返す。
+	 * 成功時と予約枠の競合（409）は結果を保存し、それ以外の例外はキーを解放して再試行できるようにする。</p>
+	 * 
+	 * @param key Idempotency-Key
+	 * @param request リクエスト本文（同じキーで別内容のリクエストを検出するために使う）
+	 * @param action 実行する処理
+	 * @return 処理結果、または保存済みのレスポンス
+	 * @throws IdempotencyKeyInProgressException 同じキーの処理が実行中の場合
+	 * @throws IdempotencyKeyReusedException 同じキーが別内容のリクエストに使われた場合
+	 */
+	public <T> IdempotentResult<T> execute(String key, Object request, Supplier<T> action) {
+		String fingerprint = fingerprint(request);
+
+		if (!idempotencyStore.tryReserve(key, fingerprint)) {
+			Optional<IdempotencyRecord> stored = idempotencyStore.find(key);
+			if (stored.isPresent()) {
+				return IdempotentResult.replayed(checkReplayable(stored.get(), fingerprint));
+			}
+			// 確認までの間に期限切れになった場合は登録し直す
+			if (!idempotencyStore.tryReserve(key, fingerprint)) {
+				throw new IdempotencyKeyInProgressException("同じ Idempotency-Key のリクエストを処理中です。");
+			}
+		}
+
+		T result;
+		try {
+			result = action.get();
+		} catch (TimeSlotAlreadyTakenException e) {
+			idempotencyStore.complete(key, HttpStatus.CONFLICT.value(), objectMapper.writeValueAsString(Map.of(
+					"error", "TIME_SLOT_ALREADY_TAKEN",
+					"message", e.getMessage())));
+			throw e;
+		} catch (RuntimeException e) {
+			idempotencyStore.release(key);
+			throw e;
+		}
+		idempotencyStore.complete(key, HttpStatus.OK.value(), objectMapper.writeValueAsString(result));
+		return IdempotentResult.executed(result);
+	}
+
+	private IdempotencyRecord checkReplayable(IdempotencyRecord record, String fingerprint) {
+		if (!record.fingerprint().equals(fingerprint)) {
+			throw new IdempotencyKeyReusedException("この Idempotency-Key は別の内容のリクエストで使用されています。");
+		}
+		if (record.inProgress()) {
+			throw new IdempotencyKeyInProgressException("同じ Idempotency-Key のリクエストを処理中です。");
+		}
+		return record;
+	}
+
+	String fingerprint(Object request) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(
+					objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 実行結果、または保存済みレスポンスのいずれか。
+	 */
+	public record IdempotentResult<T>(T value, IdempotencyRecord replay) {
+
+		static <T> IdempotentResult<T> executed(T value) {
+			return new IdempotentResult<>(value, null);
+		}
+
+		static <T> IdempotentResult<T> replayed(IdempotencyRecord replay) {
+			return new IdempotentResult<>(null, replay);
+		}
+
+		public boolean isReplayed() {
+			return replay != null;
+		}
+	}
+}
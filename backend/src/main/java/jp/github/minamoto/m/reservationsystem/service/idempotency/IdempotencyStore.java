@@ -0,0 +1,31 @@
+package jp.github.minamoto.m.reservationsystem.service.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Idempotency-Key と処理結果の保存先。
+ *
+ * <p>{@code app.idempotency.store} で memory（デフォルト）/ jdbc を切り替える。</p>
+ */
+public interface IdempotencyStore {
+
+	/**
+	 * 有効期限内のレコードを取得する。
+	 */
+	Optional<IdempotencyRecord> find(String key);
+
+	/**
+	 * キーを「処理中」として登録する。既に登録済みの場合は false。
+	 */
+	boolean tryReserve(String key, String fingerprint);
+
+	/**
+	 * 処理結果を保存する。
+	 */
+	void complete(String key, int status, String body);
+
+	/**
+	 * 処理中の登録を取り消す（再試行可能なエラーの場合）。
+	 */
+	void release(String key);
+}
@@ -0,0 +1,106 @@
+package jp.github.minamoto.m.reservationsystem.service.idempotency;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * プロセス内に保持する IdempotencyStore。
+ *
+ * <p>登録順の LinkedHashMap で保持し、件数が上限を超えた場合は古いものから捨てる。
+ * 全レコードの TTL が同じなので、期限切れは常に先頭側に集まり、登録のたびに先頭から取り除ける。</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final LongSupplier nanoClock;
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+	@Autowired
+	public InMemoryIdempotencyStore(@Value("${app.idempotency.max-entries:100000}") int maxEntries,
+			@Value("${app.idempotency.ttl:24h}") Duration ttl) {
+		this(maxEntries, ttl, System::nanoTime);
+	}
+
+	InMemoryIdempotencyStore(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+		this.maxEntries = maxEntries;
+		this.ttlNanos = ttl.toNanos();
+		this.nanoClock = nanoClock;
+	}
+
+	@Override
+	public synchronized Optional<IdempotencyRecord> find(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null || isExpired(entry, nanoClock.getAsLong())) {
+			return Optional.empty();
+		}
+		return Optional.of(entry.record);
+	}
+
+	@Override
+	public synchronized boolean tryReserve(String key, String fingerprint) {
+		long now = nanoClock.getAsLong();
+		evictExpired(now);
+		Entry existing = entries.get(key);
+		if (existing != null && !isExpired(existing, now)) {
+			return false;
+		}
+		entries.remove(key);
+		entries.put(key, new Entry(new IdempotencyRecord(fingerprint, null, null), now));
+		while (entries.size() > maxEntries) {
+			Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+			eldest.next();
+			eldest.remove();
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized void complete(String key, int status, String body) {
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			entry.record = new IdempotencyRecord(entry.record.fingerprint(), status, body);
+		}
+	}
+
+	@Override
+	public synchronized void release(String key) {
+		entries.remove(key);
+	}
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+	private void evictExpired(long now) {
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext() && isExpired(it.next(), now)) {
+			it.remove();
+		}
+	}
+
+	private boolean isExpired(Entry entry, long now) {
+		return now - entry.createdAt >= ttlNanos;
+	}
+
+	private static final class Entry {
+		IdempotencyRecord record;
+		final long createdAt;
+
+		Entry(IdempotencyRecord record, long createdAt) {
+			this.record = record;
+			this.createdAt = createdAt;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package jp.github.minamoto.m.reservationsystem.service.idempotency;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * idempotency_key テーブルに保存する IdempotencyStore（複数ノード構成向け）。
+ *
+ * <p>キーを主キーとして INSERT することで、ノードをまたいでも同じキーの処理が1つに限られる。</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Duration ttl;
+
+	public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, @Value("${app.idempotency.ttl:24h}") Duration ttl) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.ttl = ttl;
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+	public Optional<IdempotencyRecord> find(String key) {
+		return jdbcTemplate.query(
+				"SELECT fingerprint, status_code, response_body FROM idempotency_key WHERE idem_key = ? AND expires_at > ?",
+				(rs, rowNum) -> new IdempotencyRecord(
+						rs.getString("fingerprint"),
+						rs.getObject("status_code", Integer.class),
+						rs.getString("response_body")),
+				key, Timestamp.valueOf(LocalDateTime.now()))
+			.stream().findFirst();
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public boolean tryReserve(String key, String fingerprint) {
+		LocalDateTime now = LocalDateTime.now();
+		// 期限切れのレコードが残っている場合は取り除いてから登録する
+		jdbcTemplate.update("DELETE FROM idempotency_key WHERE idem_key = ? AND expires_at <= ?",
+				key, Timestamp.valueOf(now));
+		try {
+			jdbcTemplate.update(
+					"INSERT INTO idempotency_key (idem_key, fingerprint, created_at, expires_at) VALUES (?, ?, ?, ?)",
+					key, fingerprint, Timestamp.valueOf(now), Timestamp.valueOf(now.plus(ttl)));
+			return true;
+		} catch (DuplicateKeyException e) {
+			return false;
+		}
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void complete(String key, int status, String body) {
+		jdbcTemplate.update("UPDATE idempotency_key SET status_code = ?, response_body = ? WHERE idem_key = ?",
+				status, body, key);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void release(String key) {
+		jdbcTemplate.update("DELETE FROM idempotency_key WHERE idem_key = ? AND status_code IS NULL", key);
+	}
+
+	/**
+	 * 期限切れのレコードを定期的に削除する。
+	 */
+	@Scheduled(fixedDelayString = "${app.idempotency.purge-interval:10m}")
+	@Transactional
+	public void purgeExpired() {
+		jdbcTemplate.update("DELETE FROM idempotency_key WHERE expires_at <= ?", Timestamp.valueOf(LocalDateTime.now()));
+	}
+}
@@ -0,0 +1,99 @@
+package jp.github.minamoto.m.reservationsystem.service.partition;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * time_slot の月ごとのレンジパーティション（MySQL）を、先の月の分まで用意する。
+ *
+ * <p>schema-mysql.sql では p_max（MAXVALUE）だけを作り、起動時と毎月1回、p_max を
+ * 「本日の月から months-ahead か月先までの月パーティション + p_max」に分割する。
+ * 分割する時点の p_max は空（またはごく少数の先日付の枠）なので、行のコピーはほとんど発生しない。
+ * 最初に作る月パーティションはそれより前の日付もすべて含む。</p>
+ *
+ * <p>{@code app.time-slot.partitioning.enabled=true} の場合のみ有効（H2 では使わない）。</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.time-slot.partitioning", name = "enabled", havingValue = "true")
+public class TimeSlotPartitionManager {
+	private static final Logger log = LoggerFactory.getLogger(TimeSlotPartitionManager.class);
+
+	static final String MAX_PARTITION = "p_max";
+	private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p_'yyyyMM");
+
+	private final JdbcTemplate jdbcTemplate;
+	private final int monthsAhead;
+
+	public TimeSlotPartitionManager(JdbcTemplate jdbcTemplate,
+			@Value("${app.time-slot.partitioning.months-ahead:13}") int monthsAhead) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.monthsAhead = monthsAhead;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		ensurePartitions();
+	}
+
+	/**
+	 * 足りない月パーティションを追加する。
+	 */
+	@Scheduled(cron = "${app.time-slot.partitioning.cron:0 30 3 1 * *}")
+	public void ensurePartitions() {
+		List<String> bounds = jdbcTemplate.queryForList(
+				"SELECT PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+						+ "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'time_slot' AND PARTITION_NAME IS NOT NULL",
+				String.class);
+		if (bounds.isEmpty()) {
+			log.warn("time_slot is not partitioned; skipping partition maintenance");
+			return;
+		}
+		String ddl = reorganizeStatement(bounds, LocalDate.now(), monthsAhead);
+		if (ddl != null) {
+			jdbcTemplate.execute(ddl);
+			log.info("time_slot partitions added: {}", ddl);
+		}
+	}
+
+	/**
+	 * p_max を分割して、today の月から monthsAhead か月先までの月パーティションを揃える ALTER 文を返す。
+	 * 既に揃っている場合は null。
+	 *
+	 * @param bounds information_schema.PARTITIONS の PARTITION_DESCRIPTION（'2026-11-01' または MAXVALUE）
+	 */
+	public static String reorganizeStatement(List<String> bounds, LocalDate today, int monthsAhead) {
+		LocalDate highest = bounds.stream()
+			.filter(bound -> !"MAXVALUE".equalsIgnoreCase(bound))
+			.map(bound -> LocalDate.parse(bound.replace("'", "")))
+			.max(LocalDate::compareTo)
+			.orElse(null);
+
+		// 月パーティション p_yyyyMM の上限は翌月1日。既存の最大の上限の月から続ける
+		YearMonth next = highest != null ? YearMonth.from(highest) : YearMonth.from(today);
+		YearMonth last = YearMonth.from(today).plusMonths(monthsAhead);
+		if (next.isAfter(last)) {
+			return null;
+		}
+
+		StringBuilder ddl = new StringBuilder("ALTER TABLE time_slot REORGANIZE PARTITION ")
+			.append(MAX_PARTITION).append(" INTO (");
+		for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+			ddl.append("PARTITION ").append(month.atDay(1).format(NAME_FORMAT))
+				.append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+		}
+		ddl.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+		return ddl.toString();
+	}
+}
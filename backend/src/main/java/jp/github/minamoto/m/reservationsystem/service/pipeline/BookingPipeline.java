@@ -0,0 +1,338 @@
+package jp.github.minamoto.m.reservationsystem.service.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.PersistenceException;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCancelResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.ReservationService;
+import jp.github.minamoto.m.reservationsystem.service.exception.BookingOverloadedException;
+import jp.github.minamoto.m.reservationsystem.service.exception.ReservationNotFoundException;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotNotFoundException;
+
+/**
+ * 予約・キャンセルを医師IDごとのシャードに振り分け、シャードごとに1スレッドで順に処理するパイプライン。
+ *
+ * <p>各シャードのスレッドはキューから最大 batchSize 件（最大 maxLinger ミリ秒待つ）を取り出し、
+ * 1トランザクションでまとめてコミットする（グループコミット）。同じ医師の枠への競合はシャード内で
+ * 逐次に判定されるため、行ロック待ちが発生しない。呼び出し元はバッチのコミットを待って結果を受け取る。</p>
+ *
+ * <p>バッチ内のコマンドが業務例外（予約済みなど）を投げた場合はそのコマンドだけを失敗とし、
+ * DBエラーでバッチ全体が失敗した場合は各コマンドを個別のトランザクションで再実行して切り分ける。</p>
+ *
+ * <p>呼び出し元が待ち時間を超えた場合、まだ実行されていないコマンドは破棄済みとしてシャードに読み飛ばさせる。
+ * 既に実行が始まっていればコミットまで待つため、失敗を返した予約が後から作成されることはない。</p>
+ *
+ * <p>{@code app.booking.pipeline.enabled=false}（デフォルト）の場合はスレッドを起動しない。</p>
+ */
+@Component
+public class BookingPipeline {
+	private static final Logger log = LoggerFactory.getLogger(BookingPipeline.class);
+
+	private final ReservationService reservationService;
+	private final TimeSlotRepository timeSlotRepository;
+	private final ReservationRepository reservationRepository;
+	private final TransactionOperations transactionOperations;
+	private final MeterRegistry meterRegistry;
+
+	private final boolean enabled;
+	private final int shardCount;
+	private final int batchSize;
+	private final long maxLingerNanos;
+	private final int queueCapacity;
+	private final long submitTimeoutMillis;
+
+	private final List<Shard> shards = new ArrayList<>();
+
+	public BookingPipeline(ReservationService reservationService, TimeSlotRepository timeSlotRepository,
+			ReservationRepository reservationRepository, TransactionOperations transactionOperations,
+			MeterRegistry meterRegistry,
+			@Value("${app.booking.pipeline.enabled:false}") boolean enabled,
+			@Value("${app.booking.pipeline.shards:4}") int shardCount,
+			@Value("${app.booking.pipeline.batch-size:32}") int batchSize,
+			@Value("${app.booking.pipeline.max-linger-ms:2}") long maxLingerMillis,
+			@Value("${app.booking.pipeline.queue-capacity:1024}") int queueCapacity,
+			@Value("${app.booking.pipeline.submit-timeout-ms:5000}") long submitTimeoutMillis) {
+		this.reservationService = reservationService;
+		this.timeSlotRepository = timeSlotRepository;
+		this.reservationRepository = reservationRepository;
+		this.transactionOperations = transactionOperations;
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.shardCount = shardCount;
+		this.batchSize = batchSize;
+		this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMillis);
+		this.queueCapacity = queueCapacity;
+		this.submitTimeoutMillis = submitTimeoutMillis;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		for (int i = 0; i < shardCount; i++) {
+			Shard shard = new Shard(i, new ArrayBlockingQueue<>(queueCapacity));
+			shards.add(shard);
+			Gauge.builder("booking.pipeline.queue.depth", shard.queue, BlockingQueue::size)
+				.description("シャードごとの未処理コマンド数")
+				.tag("shard", String.valueOf(i))
+				.register(meterRegistry);
+			Thread.ofPlatform().name("booking-shard-" + i).daemon().start(shard);
+		}
+		log.info("BookingPipeline started: shards={}, batchSize={}, maxLingerNanos={}", shardCount, batchSize, maxLingerNanos);
+	}
+
+	@PreDestroy
+	public void stop() {
+		shards.forEach(Shard::stop);
+	}
+
+	/**
+	 * 予約を作成する。予約枠の医師IDでシャードを決め、バッチのコミット後に結果を返す。
+	 *
+	 * @param dto 予約作成リクエストDTO
+	 * @return 作成された予約情報
+	 * @throws TimeSlotNotFoundException 予約枠が存在しない場合
+	 */
+	public ReservationResponseDTO create(ReservationCreateRequestDTO dto) {
+		Long doctorId = timeSlotRepository.findDoctorIdById(dto.getTimeSlotId())
+			.orElseThrow(() -> new TimeSlotNotFoundException(dto.getTimeSlotId()));
+
+		return submit(doctorId, () -> reservationService.applyCreate(dto));
+	}
+
+	/**
+	 * 予約をキャンセルする。予約枠の医師IDでシャードを決め、バッチのコミット後に結果を返す。
+	 *
+	 * @param reservationId 予約ID
+	 * @return キャンセルされた予約情報
+	 * @throws ReservationNotFoundException 予約が存在しない場合
+	 */
+	public ReservationCancelResponseDTO cancel(Long reservationId) {
+		Long doctorId = reservationRepository.findDoctorIdById(reservationId)
+			.orElseThrow(() -> new ReservationNotFoundException(reservationId));
+
+		return submit(doctorId, () -> reservationService.applyCancel(reservationId));
+	}
+
+	/**
+	 * シャードごとの未処理コマンド数を返す。
+	 */
+	public List<Integer> queueDepths() {
+		return shards.stream().map(shard -> shard.queue.size()).toList();
+	}
+
+	<T> T submit(long shardKey, Supplier<T> work) {
+		if (!enabled) {
+			throw new IllegalStateException("BookingPipeline is disabled");
+		}
+		Command<T> command = new Command<>(work);
+		Shard shard = shards.get(Math.floorMod(Long.hashCode(shardKey), shards.size()));
+		if (!shard.queue.offer(command)) {
+			throw new BookingOverloadedException("予約が混み合っています。しばらくしてから再度お試しください。", 1);
+		}
+
+		try {
+			return command.future.get(submitTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (TimeoutException e) {
+			if (command.abandon()) {
+				throw new BookingOverloadedException("予約が混み合っています。しばらくしてから再度お試しください。", 1);
+			}
+			// 実行が始まっているため、コミットの結果を待つ
+			return awaitStarted(command);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private <T> T awaitStarted(Command<T> command) {
+		try {
+			return command.future.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * まとめて取り出したコマンドを1トランザクションで実行する。
+	 */
+	void commit(List<Command<?>> batch) {
+		try {
+			transactionOperations.executeWithoutResult(status -> batch.forEach(Command::runInBatch));
+		} catch (RuntimeException e) {
+			// DBエラーでバッチ全体がロールバックされた場合は1件ずつ実行して失敗したコマンドを切り分ける
+			log.warn("Batch of {} commands rolled back, retrying one by one: {}", batch.size(), e.toString());
+			for (Command<?> command : batch) {
+				command.runAlone(transactionOperations);
+			}
+		}
+		batch.forEach(Command::complete);
+	}
+
+	/**
+	 * キューに積まれる1件分の処理。結果はバッチのコミット後に future へ反映する。
+	 */
+	static final class Command<T> {
+		private static final int QUEUED = 0;
+		private static final int STARTED = 1;
+		private static final int ABANDONED = 2;
+
+		private final Supplier<T> work;
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		private final AtomicInteger state = new AtomicInteger(QUEUED);
+		private T result;
+		private RuntimeException failure;
+
+		Command(Supplier<T> work) {
+			this.work = work;
+		}
+
+		/**
+		 * 呼び出し元が待つのをやめる。まだ実行されていなければ true を返し、以降シャードはこのコマンドを読み飛ばす。
+		 */
+		boolean abandon() {
+			return state.compareAndSet(QUEUED, ABANDONED);
+		}
+
+		void runInBatch() {
+			if (!state.compareAndSet(QUEUED, STARTED) && state.get() == ABANDONED) {
+				return;
+			}
+			try {
+				result = work.get();
+				failure = null;
+			} catch (DataAccessException | PersistenceException e) {
+				// バッチ全体をロールバックさせる
+				throw e;
+			} catch (RuntimeException e) {
+				// 業務例外は書き込み前に投げられるため、このコマンドだけを失敗とする
+				result = null;
+				failure = e;
+			}
+		}
+
+		void runAlone(TransactionOperations transactionOperations) {
+			if (state.get() == ABANDONED) {
+				return;
+			}
+			try {
+				result = transactionOperations.execute(status -> work.get());
+				failure = null;
+			} catch (RuntimeException e) {
+				result = null;
+				failure = e;
+			}
+		}
+
+		void complete() {
+			if (failure != null) {
+				future.completeExceptionally(failure);
+			} else {
+				future.complete(result);
+			}
+		}
+	}
+
+	private final class Shard implements Runnable {
+		private final int index;
+		private final BlockingQueue<Command<?>> queue;
+		private volatile boolean running = true;
+
+		Shard(int index, BlockingQueue<Command<?>> queue) {
+			this.index = index;
+			this.queue = queue;
+		}
+
+		@Override
+		public void run() {
+			List<Command<?>> batch = new ArrayList<>(batchSize);
+			while (running) {
+				try {
+					Command<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+					if (first == null) {
+						continue;
+					}
+					batch.add(first);
+					fill(batch);
+					commit(batch);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				} catch (RuntimeException e) {
+					log.error("booking-shard-{} failed to process batch", index, e);
+					batch.forEach(command -> command.future.completeExceptionally(e));
+				} finally {
+					batch.clear();
+				}
+			}
+		}
+
+		/**
+		 * 既にキューにあるものを取り出し、足りなければ maxLinger まで追加を待つ。
+		 */
+		private void fill(List<Command<?>> batch) throws InterruptedException {
+			queue.drainTo(batch, batchSize - batch.size());
+			long deadline = System.nanoTime() + maxLingerNanos;
+			while (batch.size() < batchSize) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return;
+				}
+				Command<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+				if (next == null) {
+					return;
+				}
+				batch.add(next);
+				queue.drainTo(batch, batchSize - batch.size());
+			}
+		}
+
+		void stop() {
+			running = false;
+			List<Command<?>> pending = new ArrayList<>();
+			queue.drainTo(pending);
+			pending.forEach(command -> command.future.completeExceptionally(
+					new BookingOverloadedException("サーバーを停止しています。", 5)));
+		}
+	}
+}
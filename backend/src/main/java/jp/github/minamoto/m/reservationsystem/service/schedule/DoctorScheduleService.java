@@ -0,0 +1,161 @@
+package jp.github.minamoto.m.reservationsystem.service.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.github.minamoto.m.reservationsystem.dto.DoctorScheduleDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ScheduleExceptionDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ScheduleRuleDTO;
+import jp.github.minamoto.m.reservationsystem.entity.ScheduleException;
+import jp.github.minamoto.m.reservationsystem.entity.ScheduleRule;
+import jp.github.minamoto.m.reservationsystem.repository.DoctorRepository;
+import jp.github.minamoto.m.reservationsystem.repository.ScheduleExceptionRepository;
+import jp.github.minamoto.m.reservationsystem.repository.ScheduleRuleRepository;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidScheduleException;
+
+/*
+ * 医師の勤務時間（週単位の勤務時間と、休診日・特定の日の勤務時間）の登録。
+ *
+ * <p>登録するだけで予約枠は作らない。予約枠は SlotGenerator が勤務時間から作る。</p>
+ */
+@Service
+public class DoctorScheduleService {
+	private static final int MIN_SLOT_MINUTES = 5;
+
+	private final DoctorRepository doctorRepository;
+	private final ScheduleRuleRepository scheduleRuleRepository;
+	private final ScheduleExceptionRepository scheduleExceptionRepository;
+
+	public DoctorScheduleService(DoctorRepository doctorRepository, ScheduleRuleRepository scheduleRuleRepository,
+			ScheduleExceptionRepository scheduleExceptionRepository) {
+		this.doctorRepository = doctorRepository;
+		this.scheduleRuleRepository = scheduleRuleRepository;
+		this.scheduleExceptionRepository = scheduleExceptionRepository;
+	}
+
+	/*
+	 * 医師の勤務時間を取得する。
+	 *
+	 * @param doctorId 医師ID
+	 * @return 勤務時間（曜日・開始時刻順、日付・開始時刻順）
+	 * @throws InvalidScheduleException 医師が存在しない場合
+	 */
+	@Transactional(readOnly = true)
+	public DoctorScheduleDTO find(Long doctorId) {
+		requireDoctor(doctorId);
+		List<ScheduleRuleDTO> rules = scheduleRuleRepository.findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(doctorId)
+			.stream()
+			.map(rule -> new ScheduleRuleDTO(DayOfWeek.of(rule.getDayOfWeek()), rule.getStartTime(), rule.getEndTime(),
+					rule.getSlotMinutes()))
+			.toList();
+		List<ScheduleExceptionDTO> exceptions = scheduleExceptionRepository.findByDoctorIdOrderByDateAscStartTimeAsc(doctorId)
+			.stream()
+			.map(exception -> new ScheduleExceptionDTO(exception.getDate(), exception.getStartTime(),
+					exception.getEndTime(), exception.getSlotMinutes()))
+			.toList();
+		return new DoctorScheduleDTO(rules, exceptions);
+	}
+
+	/*
+	 * 医師の勤務時間をまとめて置き換える。
+	 *
+	 * 同じ曜日（例外は同じ日）の時間帯は重ならないこと
+	 * 例外で時間帯を省略した日は休診日とし、同じ日に時間帯のある例外は置けない
+	 *
+	 * @param doctorId 医師ID
+	 * @param dto 勤務時間
+	 * @throws InvalidScheduleException 医師が存在しない場合、勤務時間が不正な場合
+	 */
+	@Transactional
+	public void replace(Long doctorId, DoctorScheduleDTO dto) {
+		requireDoctor(doctorId);
+		List<ScheduleRuleDTO> rules = dto.getRules() != null ? dto.getRules() : List.of();
+		List<ScheduleExceptionDTO> exceptions = dto.getExceptions() != null ? dto.getExceptions() : List.of();
+
+		Map<DayOfWeek, List<LocalTime[]>> ruleHours = new HashMap<>();
+		List<ScheduleRule> ruleEntities = new ArrayList<>(rules.size());
+		for (ScheduleRuleDTO rule : rules) {
+			if (rule.getDayOfWeek() == null) {
+				throw new InvalidScheduleException("曜日を指定してください。");
+			}
+			checkHours(rule.getStartTime(), rule.getEndTime(), rule.getSlotMinutes());
+			addHours(ruleHours.computeIfAbsent(rule.getDayOfWeek(), d -> new ArrayList<>()),
+					rule.getStartTime(), rule.getEndTime());
+
+			ScheduleRule entity = new ScheduleRule();
+			entity.setDoctorId(doctorId);
+			entity.setDayOfWeek(rule.getDayOfWeek().getValue());
+			entity.setStartTime(rule.getStartTime());
+			entity.setEndTime(rule.getEndTime());
+			entity.setSlotMinutes(rule.getSlotMinutes());
+			ruleEntities.add(entity);
+		}
+
+		Map<LocalDate, List<LocalTime[]>> exceptionHours = new HashMap<>();
+		List<ScheduleException> exceptionEntities = new ArrayList<>(exceptions.size());
+		for (ScheduleExceptionDTO exception : exceptions) {
+			if (exception.getDate() == null) {
+				throw new InvalidScheduleException("例外の日付を指定してください。");
+			}
+			boolean dayOff = exception.getStartTime() == null && exception.getEndTime() == null;
+			List<LocalTime[]> hours = exceptionHours.get(exception.getDate());
+			if (hours != null && (dayOff || hours.isEmpty())) {
+				throw new InvalidScheduleException(exception.getDate() + " に休診日と勤務時間が重複しています。");
+			}
+			hours = exceptionHours.computeIfAbsent(exception.getDate(), d -> new ArrayList<>());
+			if (!dayOff) {
+				checkHours(exception.getStartTime(), exception.getEndTime(), exception.getSlotMinutes());
+				addHours(hours, exception.getStartTime(), exception.getEndTime());
+			}
+
+			ScheduleException entity = new ScheduleException();
+			entity.setDoctorId(doctorId);
+			entity.setDate(exception.getDate());
+			entity.setStartTime(dayOff ? null : exception.getStartTime());
+			entity.setEndTime(dayOff ? null : exception.getEndTime());
+			entity.setSlotMinutes(dayOff ? null : exception.getSlotMinutes());
+			exceptionEntities.add(entity);
+		}
+
+		scheduleRuleRepository.deleteByDoctorId(doctorId);
+		scheduleExceptionRepository.deleteByDoctorId(doctorId);
+		scheduleRuleRepository.saveAll(ruleEntities);
+		scheduleExceptionRepository.saveAll(exceptionEntities);
+	}
+
+	private void requireDoctor(Long doctorId) {
+		if (doctorId == null || !doctorRepository.existsById(doctorId)) {
+			throw new InvalidScheduleException("医師が見つかりません。");
+		}
+	}
+
+	private static void checkHours(LocalTime start, LocalTime end, Integer slotMinutes) {
+		if (start == null || end == null || !start.isBefore(end)) {
+			throw new InvalidScheduleException("勤務時間の指定が不正です。");
+		}
+		if (slotMinutes == null || slotMinutes < MIN_SLOT_MINUTES
+				|| start.plusMinutes(slotMinutes).isAfter(end) || !start.plusMinutes(slotMinutes).isAfter(start)) {
+			throw new InvalidScheduleException("枠の長さは" + MIN_SLOT_MINUTES + "分以上、勤務時間以内で指定してください。");
+		}
+	}
+
+	/**
+	 * 既存の時間帯と重ならないことを確かめてから追加する。
+	 */
+	private static void addHours(List<LocalTime[]> hours, LocalTime start, LocalTime end) {
+		for (LocalTime[] other : hours) {
+			if (start.isBefore(other[1]) && other[0].isBefore(end)) {
+				throw new InvalidScheduleException("勤務時間が重複しています（" + start + "〜" + end + "）。");
+			}
+		}
+		hours.add(new LocalTime[] { start, end });
+	}
+}
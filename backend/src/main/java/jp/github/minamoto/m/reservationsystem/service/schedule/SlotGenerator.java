@@ -0,0 +1,441 @@
+package jp.github.minamoto.m.reservationsystem.service.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.SlotGenerationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.ScheduleException;
+import jp.github.minamoto.m.reservationsystem.entity.ScheduleRule;
+import jp.github.minamoto.m.reservationsystem.repository.ScheduleExceptionRepository;
+import jp.github.minamoto.m.reservationsystem.repository.ScheduleRuleRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotKeys;
+import jp.github.minamoto.m.reservationsystem.service.calendar.OpenSlotCounterService;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotsGeneratedEvent;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidScheduleException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+/**
+ * 医師の勤務時間（schedule_rule・schedule_exception）から予約枠（time_slot）を作る。
+ *
+ * <p>医師×日ごとに「あるべき枠の一覧」を求め、そのフィンガープリントを前回反映した値（schedule_day）と比べる。
+ * 変わった日だけ既存の枠を読み、足りない枠を追加し、勤務時間から外れた枠を削除する。
+ * 変わらない日は time_slot を読みも書きもしないため、勤務時間を1日変えて作り直しても触れるのはその日だけになる。</p>
+ *
+ * <p>枠の追加は複数行の INSERT（{@value #INSERT_ROWS} 行ずつ）で行う。医師ごとに1トランザクションとし、
+ * 同じトランザクションで医師の空き枠カウンタを作り直す。予約・仮押さえ・順番待ちがある枠、
+ * OPEN・DOCTOR_UNAVAILABLE 以外の枠は勤務時間から外れても削除しない（その日は次回も作り直す）。</p>
+ *
+ * <p>勤務時間の更新・手動の反映・定期実行が同時に走っても同じ枠を二重に追加しないよう、
+ * 医師ごとのトランザクションの最初に doctor の行をロックし、同じ医師の反映を直列にする。</p>
+ */
+@Component
+public class SlotGenerator {
+	private static final Logger log = LoggerFactory.getLogger(SlotGenerator.class);
+
+	static final int INSERT_ROWS = 500;
+	/** IN 句に並べるIDの上限 */
+	private static final int IN_CHUNK = 1000;
+	private static final String INSERT_SQL = "INSERT INTO time_slot (date, start_time, end_time, doctor_id, status) VALUES ";
+	private static final String INSERT_ROW = "(?, ?, ?, ?, 'OPEN')";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ScheduleRuleRepository scheduleRuleRepository;
+	private final ScheduleExceptionRepository scheduleExceptionRepository;
+	private final OpenSlotCounterService openSlotCounterService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final int horizonDays;
+	private final int maxDays;
+
+	public SlotGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			ScheduleRuleRepository scheduleRuleRepository, ScheduleExceptionRepository scheduleExceptionRepository,
+			OpenSlotCounterService openSlotCounterService, ApplicationEventPublisher eventPublisher,
+			@Value("${app.schedule.generation.horizon-days:365}") int horizonDays,
+			@Value("${app.schedule.generation.max-days:400}") int maxDays) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.scheduleRuleRepository = scheduleRuleRepository;
+		this.scheduleExceptionRepository = scheduleExceptionRepository;
+		this.openSlotCounterService = openSlotCounterService;
+		this.eventPublisher = eventPublisher;
+		this.horizonDays = horizonDays;
+		this.maxDays = maxDays;
+	}
+
+	/**
+	 * 予約枠1つ分の時間帯。開始時刻順に並ぶ。
+	 */
+	record Slot(LocalTime start, LocalTime end) implements Comparable<Slot> {
+		@Override
+		public int compareTo(Slot other) {
+			int byStart = start.compareTo(other.start);
+			return byStart != 0 ? byStart : end.compareTo(other.end);
+		}
+
+		boolean overlaps(Slot other) {
+			return start.isBefore(other.end) && other.start.isBefore(end);
+		}
+	}
+
+	private record ExistingSlot(long id, LocalDate date, Slot slot, TimeSlotStatus status) {
+	}
+
+	private record DoctorResult(List<LocalDate> changedDays, int inserted, int deleted, int kept) {
+		static final DoctorResult UNCHANGED = new DoctorResult(List.of(), 0, 0, 0);
+	}
+
+	/**
+	 * 毎日、本日から horizonDays 日分の予約枠を全医師について作る（前日までに反映済みの日は読み飛ばす）。
+	 */
+	@Scheduled(cron = "${app.schedule.generation.cron:0 15 3 * * *}")
+	public void generateHorizon() {
+		generateHorizon(null);
+	}
+
+	/**
+	 * 本日から horizonDays 日分の予約枠を作る。
+	 *
+	 * @param doctorId 医師ID（null の場合は全医師）
+	 */
+	public SlotGenerationResponseDTO generateHorizon(Long doctorId) {
+		LocalDate today = LocalDate.now();
+		return generateUnchecked(doctorId, today, today.plusDays(horizonDays - 1L));
+	}
+
+	/*
+	 * 期間内の予約枠を勤務時間に合わせる。
+	 *
+	 * 医師を省略した場合は、勤務時間が登録されている医師と、期間内に前回反映した日がある医師が対象
+	 * 医師ごとにコミットするため、途中で失敗した場合もそれまでの医師の分は反映される（再実行すると続きから反映される）
+	 *
+	 * @param doctorId 医師ID（null の場合は全医師）
+	 * @param from 開始日
+	 * @param to 終了日
+	 * @return 反映結果
+	 * @throws InvalidScheduleException 期間の指定が不正な場合
+	 * @throws RequestLimitExceededException 期間が上限の日数を超える場合
+	 */
+	public SlotGenerationResponseDTO generate(Long doctorId, LocalDate from, LocalDate to) {
+		if (from == null || to == null || from.isAfter(to)) {
+			throw new InvalidScheduleException("期間の指定が不正です。");
+		}
+		if (ChronoUnit.DAYS.between(from, to) + 1 > maxDays) {
+			throw new RequestLimitExceededException("期間は" + maxDays + "日までです。");
+		}
+		return generateUnchecked(doctorId, from, to);
+	}
+
+	private SlotGenerationResponseDTO generateUnchecked(Long doctorId, LocalDate from, LocalDate to) {
+		long started = System.nanoTime();
+		Collection<Long> doctorIds;
+		if (doctorId != null) {
+			doctorIds = List.of(doctorId);
+		} else {
+			TreeSet<Long> ids = new TreeSet<>(scheduleRuleRepository.findDoctorIds());
+			ids.addAll(jdbcTemplate.queryForList(
+					"SELECT DISTINCT doctor_id FROM schedule_day WHERE date BETWEEN ? AND ?", Long.class, from, to));
+			doctorIds = ids;
+		}
+
+		Map<Long, List<LocalDate>> changedDays = new LinkedHashMap<>();
+		int days = 0;
+		int inserted = 0;
+		int deleted = 0;
+		int kept = 0;
+		for (Long id : doctorIds) {
+			DoctorResult result = transactionTemplate.execute(status -> generateDoctor(id, from, to));
+			if (!result.changedDays().isEmpty()) {
+				changedDays.put(id, result.changedDays());
+			}
+			days += result.changedDays().size();
+			inserted += result.inserted();
+			deleted += result.deleted();
+			kept += result.kept();
+		}
+
+		if (!changedDays.isEmpty()) {
+			eventPublisher.publishEvent(new TimeSlotsGeneratedEvent(changedDays));
+		}
+		log.info("Time slots generated: from={} to={} doctors={} changedDays={} inserted={} deleted={} kept={} elapsedMs={}",
+				from, to, doctorIds.size(), days, inserted, deleted, kept, (System.nanoTime() - started) / 1_000_000);
+		return new SlotGenerationResponseDTO(from, to, doctorIds.size(), days, inserted, deleted, kept);
+	}
+
+	private DoctorResult generateDoctor(long doctorId, LocalDate from, LocalDate to) {
+		// 同じ医師の反映を直列にする。以降の読み取りは先に反映したトランザクションのコミット後の状態になる
+		jdbcTemplate.queryForList("SELECT id FROM doctor WHERE id = ? FOR UPDATE", Long.class, doctorId);
+
+		// あるべき枠とそのフィンガープリント（枠のない日は持たない）。前回、枠を残した日はフィンガープリントが NULL
+		Map<LocalDate, List<Slot>> wanted = wantedSlots(scheduleRuleRepository.findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(doctorId),
+				scheduleExceptionRepository.findByDoctorIdAndDateBetween(doctorId, from, to), from, to);
+		Map<LocalDate, Long> stored = new HashMap<>();
+		jdbcTemplate.query("SELECT date, fingerprint FROM schedule_day WHERE doctor_id = ? AND date BETWEEN ? AND ?",
+				rs -> {
+					stored.put(rs.getObject(1, LocalDate.class), rs.getObject(2, Long.class));
+				},
+				doctorId, from, to);
+
+		TreeSet<LocalDate> changed = new TreeSet<>();
+		Set<LocalDate> candidates = new HashSet<>(stored.keySet());
+		candidates.addAll(wanted.keySet());
+		for (LocalDate date : candidates) {
+			List<Slot> slots = wanted.get(date);
+			Long storedFingerprint = stored.get(date);
+			if (storedFingerprint == null || slots == null || storedFingerprint != fingerprint(slots)) {
+				changed.add(date);
+			}
+		}
+		if (changed.isEmpty()) {
+			return DoctorResult.UNCHANGED;
+		}
+
+		// 変わった日の既存の枠
+		Map<LocalDate, List<ExistingSlot>> existing = new HashMap<>();
+		jdbcTemplate.query("SELECT id, date, start_time, end_time, status FROM time_slot "
+				+ "WHERE doctor_id = ? AND date BETWEEN ? AND ?",
+				rs -> {
+					LocalDate date = rs.getObject(2, LocalDate.class);
+					if (changed.contains(date)) {
+						existing.computeIfAbsent(date, d -> new ArrayList<>()).add(new ExistingSlot(rs.getLong(1), date,
+								new Slot(rs.getObject(3, LocalTime.class), rs.getObject(4, LocalTime.class)),
+								TimeSlotStatus.valueOf(rs.getString(5))));
+					}
+				},
+				doctorId, changed.first(), changed.last());
+
+		// あるべき枠と一致しない既存の枠は削除の候補
+		Map<LocalDate, Set<Slot>> missing = new HashMap<>();
+		List<ExistingSlot> extra = new ArrayList<>();
+		for (LocalDate date : changed) {
+			Set<Slot> slots = new TreeSet<>(wanted.getOrDefault(date, List.of()));
+			for (ExistingSlot slot : existing.getOrDefault(date, List.of())) {
+				if (!slots.remove(slot.slot())) {
+					extra.add(slot);
+				}
+			}
+			missing.put(date, slots);
+		}
+		Set<Long> removable = removable(extra);
+
+		List<ExistingSlot> deleteSlots = new ArrayList<>();
+		Map<LocalDate, List<Slot>> keptSlots = new HashMap<>();
+		for (ExistingSlot slot : extra) {
+			if (removable.contains(slot.id())) {
+				deleteSlots.add(slot);
+			} else {
+				keptSlots.computeIfAbsent(slot.date(), d -> new ArrayList<>()).add(slot.slot());
+			}
+		}
+
+		// 残した枠と重なる枠は追加しない。残した枠のある日はフィンガープリントを NULL にして、次回も作り直す
+		List<Object[]> insertRows = new ArrayList<>();
+		List<Object[]> fingerprints = new ArrayList<>();
+		for (LocalDate date : changed) {
+			List<Slot> blocking = keptSlots.getOrDefault(date, List.of());
+			for (Slot slot : missing.get(date)) {
+				if (blocking.stream().noneMatch(slot::overlaps)) {
+					insertRows.add(new Object[] { date, slot.start(), slot.end(), doctorId });
+				}
+			}
+			List<Slot> slots = wanted.get(date);
+			if (!blocking.isEmpty()) {
+				fingerprints.add(new Object[] { doctorId, date, null });
+			} else if (slots != null) {
+				fingerprints.add(new Object[] { doctorId, date, fingerprint(slots) });
+			}
+		}
+
+		for (List<ExistingSlot> chunk : chunks(deleteSlots)) {
+			List<Object> args = new ArrayList<>();
+			jdbcTemplate.update("DELETE FROM time_slot WHERE " + TimeSlotKeys.where("", byDate(chunk), args),
+					args.toArray());
+		}
+		insert(insertRows);
+
+		List<Object[]> changedArgs = changed.stream().map(date -> new Object[] { doctorId, date }).toList();
+		jdbcTemplate.batchUpdate("DELETE FROM schedule_day WHERE doctor_id = ? AND date = ?", changedArgs);
+		jdbcTemplate.batchUpdate("INSERT INTO schedule_day (doctor_id, date, fingerprint) VALUES (?, ?, ?)",
+				fingerprints);
+		openSlotCounterService.rebuildDoctor(doctorId, changed.first(), changed.last());
+
+		int keptCount = keptSlots.values().stream().mapToInt(List::size).sum();
+		if (keptCount > 0) {
+			log.warn("Time slots outside the schedule were kept: doctor={} slots={}", doctorId, keptCount);
+		}
+		return new DoctorResult(List.copyOf(changed), insertRows.size(), deleteSlots.size(), keptCount);
+	}
+
+	/**
+	 * 週単位の勤務時間と例外から、日ごとのあるべき枠（開始時刻順）を求める。枠のない日は含めない。
+	 */
+	static Map<LocalDate, List<Slot>> wantedSlots(List<ScheduleRule> rules, List<ScheduleException> exceptions,
+			LocalDate from, LocalDate to) {
+		Map<Integer, List<ScheduleRule>> rulesByDay = new HashMap<>();
+		for (ScheduleRule rule : rules) {
+			rulesByDay.computeIfAbsent(rule.getDayOfWeek(), d -> new ArrayList<>()).add(rule);
+		}
+		Map<LocalDate, List<ScheduleException>> exceptionsByDate = new HashMap<>();
+		for (ScheduleException exception : exceptions) {
+			exceptionsByDate.computeIfAbsent(exception.getDate(), d -> new ArrayList<>()).add(exception);
+		}
+
+		Map<LocalDate, List<Slot>> wanted = new HashMap<>();
+		for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+			List<Slot> slots = new ArrayList<>();
+			List<ScheduleException> dayExceptions = exceptionsByDate.get(date);
+			if (dayExceptions != null) {
+				for (ScheduleException exception : dayExceptions) {
+					if (exception.getStartTime() != null) {
+						addSlots(slots, exception.getStartTime(), exception.getEndTime(), exception.getSlotMinutes());
+					}
+				}
+			} else {
+				for (ScheduleRule rule : rulesByDay.getOrDefault(date.getDayOfWeek().getValue(), List.of())) {
+					addSlots(slots, rule.getStartTime(), rule.getEndTime(), rule.getSlotMinutes());
+				}
+			}
+			if (!slots.isEmpty()) {
+				Collections.sort(slots);
+				wanted.put(date, slots);
+			}
+		}
+		return wanted;
+	}
+
+	private static void addSlots(List<Slot> slots, LocalTime start, LocalTime end, int minutes) {
+		for (LocalTime t = start; ; ) {
+			LocalTime next = t.plusMinutes(minutes);
+			// 終了時刻を超える枠、日付をまたぐ枠は作らない
+			if (next.isAfter(end) || !next.isAfter(t)) {
+				return;
+			}
+			slots.add(new Slot(t, next));
+			t = next;
+		}
+	}
+
+	/**
+	 * 枠の一覧のフィンガープリント（開始・終了時刻の列のハッシュ）。
+	 */
+	static long fingerprint(List<Slot> slots) {
+		long hash = 1125899906842597L;
+		for (Slot slot : slots) {
+			hash = 31 * hash + slot.start().toSecondOfDay();
+			hash = 31 * hash + slot.end().toSecondOfDay();
+		}
+		return hash;
+	}
+
+	/*
+	 * 削除の候補のうち、削除してよい枠のIDを返す。
+	 *
+	 * 候補の行をロックしてからステータスと参照を確かめるため、確認の後に予約されることはない
+	 */
+	private Set<Long> removable(List<ExistingSlot> candidates) {
+		Set<Long> removable = new HashSet<>();
+		if (candidates.isEmpty()) {
+			return removable;
+		}
+		for (List<ExistingSlot> chunk : chunks(candidates)) {
+			String in = placeholders(chunk.size());
+			Object[] args = chunk.stream().map(ExistingSlot::id).toArray();
+			List<Object> keyArgs = new ArrayList<>();
+			jdbcTemplate.query("SELECT id, status FROM time_slot WHERE " + TimeSlotKeys.where("", byDate(chunk), keyArgs)
+					+ " FOR UPDATE",
+					rs -> {
+						TimeSlotStatus status = TimeSlotStatus.valueOf(rs.getString(2));
+						if (status == TimeSlotStatus.OPEN || status == TimeSlotStatus.DOCTOR_UNAVAILABLE) {
+							removable.add(rs.getLong(1));
+						}
+					},
+					keyArgs.toArray());
+			Object[] referencedArgs = new Object[args.length * 3];
+			for (int i = 0; i < 3; i++) {
+				System.arraycopy(args, 0, referencedArgs, i * args.length, args.length);
+			}
+			removable.removeAll(jdbcTemplate.queryForList(
+					"SELECT time_slot_id FROM reservation WHERE time_slot_id IN (" + in + ") "
+					+ "UNION SELECT time_slot_id FROM slot_hold WHERE time_slot_id IN (" + in + ") "
+					+ "UNION SELECT time_slot_id FROM waitlist_entry WHERE time_slot_id IN (" + in + ")",
+					Long.class, referencedArgs));
+		}
+		return removable;
+	}
+
+	/**
+	 * 枠を {@value #INSERT_ROWS} 行ずつ、複数行の INSERT で追加する。
+	 */
+	private void insert(List<Object[]> rows) {
+		String fullSql = null;
+		for (int from = 0; from < rows.size(); from += INSERT_ROWS) {
+			List<Object[]> chunk = rows.subList(from, Math.min(from + INSERT_ROWS, rows.size()));
+			String sql;
+			if (chunk.size() == INSERT_ROWS) {
+				if (fullSql == null) {
+					fullSql = insertSql(INSERT_ROWS);
+				}
+				sql = fullSql;
+			} else {
+				sql = insertSql(chunk.size());
+			}
+			Object[] args = new Object[chunk.size() * 4];
+			int i = 0;
+			for (Object[] row : chunk) {
+				for (Object value : row) {
+					args[i++] = value;
+				}
+			}
+			jdbcTemplate.update(sql, args);
+		}
+	}
+
+	private static String insertSql(int rows) {
+		return INSERT_SQL + String.join(", ", Collections.nCopies(rows, INSERT_ROW));
+	}
+
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+
+	private static <T> List<List<T>> chunks(List<T> items) {
+		List<List<T>> chunks = new ArrayList<>();
+		for (int from = 0; from < items.size(); from += IN_CHUNK) {
+			chunks.add(items.subList(from, Math.min(from + IN_CHUNK, items.size())));
+		}
+		return chunks;
+	}
+
+	/**
+	 * 枠のIDを日付ごとにまとめる（主キー（id, date）での指定に使う）。
+	 */
+	private static Map<LocalDate, List<Long>> byDate(List<ExistingSlot> slots) {
+		Map<LocalDate, List<Long>> idsByDate = new TreeMap<>();
+		for (ExistingSlot slot : slots) {
+			idsByDate.computeIfAbsent(slot.date(), d -> new ArrayList<>()).add(slot.id());
+		}
+		return idsByDate;
+	}
+}
@@ -0,0 +1,381 @@
+package jp.github.minamoto.m.reservationsystem.service.stream;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotChangeDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotChangeEventDTO;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotStateView;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.exception.SubscriberLimitExceededException;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * 医師×日を購読している SSE クライアントへ、予約枠のステータス変更を配信する。
+ *
+ * <ul>
+ *   <li>コミット後の {@link TimeSlotStatusChangedEvent} を1本のスレッドで受け取り、予約枠IDから医師×日を引いて
+ *       購読者がいるものだけを溜める（同じ枠の変更は最後のものに上書き）</li>
+ *   <li>flush-interval ごとに溜まった変更を医師×日ごとに1件のイベントにまとめ、JSON は1回だけ作って全購読者で共有する</li>
+ *   <li>購読者ごとの送信は仮想スレッドで行い、前の送信が終わっていない購読者には未送信分をまとめて次に送る。
+ *       遅いクライアントが配信全体や予約処理を待たせることはない</li>
+ * </ul>
+ *
+ * <p>待機中の購読者は非同期リクエスト（スレッドを持たない）と小さなオブジェクトだけで、
+ * 変更がない間は heartbeat 以外の処理を行わない。接続直後に {@code ready} イベントを送るので、
+ * クライアントはそれを受け取ってから GET /v1/timeslots（ETag 付き）で現在の状態を取得する。
+ * 再接続時も同様にして、切断中の変更を取りこぼさないようにする。</p>
+ *
+ * <p>受け取りのキューが溢れて変更を捨てた場合は、どの医師×日の変更かを引けないため、次の flush で全購読者に
+ * {@code resync} イベントを送る（未送信の slots は送らない）。クライアントは ready と同様に現在の状態を取得し直す。</p>
+ *
+ * <p>配信はこのノードでコミットされた変更のみ。複数ノード構成では各ノードの変更が他ノードの購読者に届かない。</p>
+ */
+@Component
+public class SlotChangeHub {
+	private static final Logger log = LoggerFactory.getLogger(SlotChangeHub.class);
+	private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+	private final TimeSlotRepository timeSlotRepository;
+	private final ObjectMapper objectMapper;
+	private final int maxSubscribers;
+	private final long timeoutMillis;
+
+	private final Map<Topic, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+	private final AtomicInteger subscriberCount = new AtomicInteger();
+	/** 次の flush で送る変更。医師×日ごとに、予約枠ID→変更（compute の中でのみ更新する） */
+	private final Map<Topic, Map<Long, TimeSlotChangeDTO>> pending = new ConcurrentHashMap<>();
+
+	/** イベントの受け取り順を保つため1スレッドで処理する */
+	private final ThreadPoolExecutor collector;
+	private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+	/** 変更を捨てた後、次の flush で全購読者に resync を送る */
+	private final AtomicBoolean resyncRequired = new AtomicBoolean();
+
+	private final Counter eventsSent;
+	private final Counter eventsDropped;
+
+	public SlotChangeHub(TimeSlotRepository timeSlotRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+			@Value("${app.stream.max-subscribers:50000}") int maxSubscribers,
+			@Value("${app.stream.timeout:30m}") Duration timeout,
+			@Value("${app.stream.collector-queue-capacity:10000}") int collectorQueueCapacity) {
+		this.timeSlotRepository = timeSlotRepository;
+		this.objectMapper = objectMapper;
+		this.maxSubscribers = maxSubscribers;
+		this.timeoutMillis = timeout.toMillis();
+
+		Gauge.builder("timeslot.stream.subscribers", subscriberCount, AtomicInteger::get)
+			.description("予約枠の変更通知（SSE）の購読者数")
+			.register(meterRegistry);
+		this.eventsSent = Counter.builder("timeslot.stream.events")
+			.description("購読者へ送信した変更イベント数")
+			.tag("outcome", "sent")
+			.register(meterRegistry);
+		this.eventsDropped = Counter.builder("timeslot.stream.events")
+			.description("購読者へ送信した変更イベント数")
+			.tag("outcome", "dropped")
+			.register(meterRegistry);
+		// 溢れた場合は捨てる（予約処理を待たせない）。購読者には次の flush で resync を送り、再取得させる
+		this.collector = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(collectorQueueCapacity),
+				Thread.ofPlatform().name("slot-change-collector").daemon().factory(),
+				(task, executor) -> {
+					eventsDropped.increment();
+					resyncRequired.set(true);
+				});
+	}
+
+	/**
+	 * 医師×日の変更通知を購読する。
+	 *
+	 * @throws SubscriberLimitExceededException 購読者数が上限に達している場合
+	 */
+	public SseEmitter subscribe(Long doctorId, LocalDate date) {
+		if (subscriberCount.incrementAndGet() > maxSubscribers) {
+			subscriberCount.decrementAndGet();
+			throw new SubscriberLimitExceededException("接続が混み合っています。しばらくしてから再度お試しください。", 5);
+		}
+
+		Topic topic = new Topic(doctorId, date);
+		SseEmitter emitter = new SseEmitter(timeoutMillis);
+		Subscriber subscriber = new Subscriber(topic, emitter);
+		topics.compute(topic, (t, subscribers) -> {
+			Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+			set.add(subscriber);
+			return set;
+		});
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onError(e -> remove(subscriber));
+
+		try {
+			emitter.send(SseEmitter.event().name("ready").data(""));
+		} catch (IOException e) {
+			remove(subscriber);
+		}
+		return emitter;
+	}
+
+	/**
+	 * コミット後にステータス変更を受け取る。購読者がいなければ何もしない。
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onStatusChanged(TimeSlotStatusChangedEvent event) {
+		if (subscriberCount.get() == 0) {
+			return;
+		}
+		collector.execute(() -> collect(event));
+	}
+
+	/**
+	 * 予約枠IDから医師×日を引き、購読者がいる医師×日の変更として溜める。
+	 */
+	void collect(TimeSlotStatusChangedEvent event) {
+		try {
+			for (TimeSlotStateView slot : timeSlotRepository.findStatesByIdIn(event.timeSlotIds())) {
+				Topic topic = new Topic(slot.getDoctorId(), slot.getDate());
+				if (!topics.containsKey(topic)) {
+					continue;
+				}
+				// ステータスはイベントの値を使う（レプリカから読んだ値は古い場合がある）
+				TimeSlotChangeDTO change = new TimeSlotChangeDTO(
+						slot.getId(), slot.getStartTime().format(TIME_FORMATTER), event.status());
+				pending.compute(topic, (t, changes) -> {
+					Map<Long, TimeSlotChangeDTO> map = changes != null ? changes : new LinkedHashMap<>();
+					map.put(change.getTimeSlotId(), change);
+					return map;
+				});
+			}
+		} catch (RuntimeException e) {
+			log.warn("Failed to collect slot changes {}: {}", event.timeSlotIds(), e.toString());
+		}
+	}
+
+	/**
+	 * 溜まった変更を医師×日ごとに1件のイベントにまとめて購読者へ送る。
+	 * 変更を捨てていた場合は、代わりに全購読者へ resync を送る。
+	 */
+	@Scheduled(fixedDelayString = "${app.stream.flush-interval-ms:200}")
+	public void flush() {
+		if (resyncRequired.getAndSet(false)) {
+			pending.clear();
+			for (Set<Subscriber> subscribers : topics.values()) {
+				for (Subscriber subscriber : subscribers) {
+					subscriber.resync();
+				}
+			}
+			return;
+		}
+		for (Topic topic : pending.keySet()) {
+			Map<Long, TimeSlotChangeDTO> changes = pending.remove(topic);
+			Set<Subscriber> subscribers = topics.get(topic);
+			if (changes == null || subscribers == null) {
+				continue;
+			}
+			Batch batch = new Batch(topic, changes);
+			for (Subscriber subscriber : subscribers) {
+				subscriber.offer(batch);
+			}
+		}
+	}
+
+	/**
+	 * 切断を検知し、プロキシにアイドル接続を切られないよう定期的にコメント行を送る。
+	 */
+	@Scheduled(fixedDelayString = "${app.stream.heartbeat-interval-ms:30000}")
+	public void heartbeat() {
+		for (Set<Subscriber> subscribers : topics.values()) {
+			for (Subscriber subscriber : subscribers) {
+				subscriber.ping();
+			}
+		}
+	}
+
+	/**
+	 * 現在の購読者数。
+	 */
+	public int subscriberCount() {
+		return subscriberCount.get();
+	}
+
+	/**
+	 * 停止時は Web サーバーの graceful shutdown より先に接続を閉じる（SSE の接続が終わるのを待たせない）。
+	 */
+	@EventListener(ContextClosedEvent.class)
+	public void onContextClosed() {
+		List<Subscriber> all = new ArrayList<>();
+		topics.values().forEach(all::addAll);
+		all.forEach(subscriber -> subscriber.emitter.complete());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		collector.shutdownNow();
+		senders.shutdown();
+	}
+
+	private void remove(Subscriber subscriber) {
+		if (!subscriber.removed.compareAndSet(false, true)) {
+			return;
+		}
+		topics.computeIfPresent(subscriber.topic, (t, subscribers) -> {
+			subscribers.remove(subscriber);
+			return subscribers.isEmpty() ? null : subscribers;
+		});
+		subscriberCount.decrementAndGet();
+	}
+
+	private record Topic(Long doctorId, LocalDate date) {
+	}
+
+	/**
+	 * 1件の送信単位。JSON は最初に必要になったときに1回だけ作り、同じ Batch を受け取った購読者で共有する。
+	 */
+	private final class Batch {
+		final Topic topic;
+		final Map<Long, TimeSlotChangeDTO> changes;
+		private volatile String json;
+
+		Batch(Topic topic, Map<Long, TimeSlotChangeDTO> changes) {
+			this.topic = topic;
+			this.changes = changes;
+		}
+
+		/**
+		 * 未送信の Batch に新しい Batch を重ねる（同じ枠は新しい方で上書き）。
+		 */
+		Batch merge(Batch newer) {
+			Map<Long, TimeSlotChangeDTO> merged = new HashMap<>(changes);
+			merged.putAll(newer.changes);
+			return new Batch(topic, merged);
+		}
+
+		String json() {
+			String value = json;
+			if (value == null) {
+				value = objectMapper.writeValueAsString(
+						new TimeSlotChangeEventDTO(topic.doctorId(), topic.date(), List.copyOf(changes.values())));
+				json = value;
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * 購読者ごとの未送信分。送信中に届いたものは pending にまとめ、送信が終わったら続けて送る。
+	 * resync は未送信の変更より優先し、それまでの変更は送らない（クライアントが取得し直すため）。
+	 */
+	private final class Subscriber {
+		final Topic topic;
+		final SseEmitter emitter;
+		final AtomicBoolean removed = new AtomicBoolean();
+
+		private Batch pending;
+		private boolean pingPending;
+		private boolean resyncPending;
+		private boolean sending;
+
+		Subscriber(Topic topic, SseEmitter emitter) {
+			this.topic = topic;
+			this.emitter = emitter;
+		}
+
+		void offer(Batch batch) {
+			synchronized (this) {
+				pending = pending == null ? batch : pending.merge(batch);
+				if (sending) {
+					return;
+				}
+				sending = true;
+			}
+			senders.execute(this::drain);
+		}
+
+		void ping() {
+			synchronized (this) {
+				pingPending = true;
+				if (sending) {
+					return;
+				}
+				sending = true;
+			}
+			senders.execute(this::drain);
+		}
+
+		void resync() {
+			synchronized (this) {
+				resyncPending = true;
+				pending = null;
+				if (sending) {
+					return;
+				}
+				sending = true;
+			}
+			senders.execute(this::drain);
+		}
+
+		private void drain() {
+			while (true) {
+				Batch batch;
+				boolean ping;
+				boolean resync;
+				synchronized (this) {
+					resync = resyncPending;
+					batch = resync ? null : pending;
+					ping = pingPending && batch == null && !resync;
+					pending = null;
+					pingPending = false;
+					resyncPending = false;
+					if (batch == null && !ping && !resync) {
+						sending = false;
+						return;
+					}
+				}
+				try {
+					if (resync) {
+						emitter.send(SseEmitter.event().name("resync").data(""));
+					} else if (batch != null) {
+						emitter.send(SseEmitter.event().name("slots").data(batch.json()));
+						eventsSent.increment();
+					} else {
+						emitter.send(SseEmitter.event().comment("ping"));
+					}
+				} catch (IOException | IllegalStateException e) {
+					// 切断済み。コンテナ側のエラー通知を待たずに配信対象から外す
+					remove(this);
+					return;
+				}
+			}
+		}
+	}
+}
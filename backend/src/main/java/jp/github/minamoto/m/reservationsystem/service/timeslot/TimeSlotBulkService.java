@@ -0,0 +1,175 @@
+package jp.github.minamoto.m.reservationsystem.service.timeslot;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotBulkStatusRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotBulkStatusResponseDTO;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotKeys;
+import jp.github.minamoto.m.reservationsystem.service.engine.SlotStateEngine;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidTimeSlotRangeException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+/*
+ * 医師・期間（・時間帯）を指定して予約枠をまとめて閉じる・開く。
+ *
+ * <p>対象の枠を1本の SELECT … FOR UPDATE で（ID順に）ロックし、1本の UPDATE（主キー（id, date）を日付ごとにまとめた条件）で更新する。
+ * 枠ごとにトランザクションやロックを取り直さない。OPEN に戻す場合の「予約がある枠は戻せない」は、
+ * 枠ごとの存在確認ではなく reservation との反結合（NOT EXISTS）で判定する。</p>
+ *
+ * <p>変更はステータスの変更前の値ごとに1つの TimeSlotStatusChangedEvent で通知する
+ * （空き枠カウンタ・ETag・空き枠インデックスはこのイベントで更新される）。</p>
+ */
+@Service
+public class TimeSlotBulkService {
+	/** IN 句に並べるIDの上限 */
+	private static final int IN_CHUNK = 1000;
+	private static final String RESERVED_SQL = "SELECT 1 FROM reservation r WHERE r.time_slot_id = t.id";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final SlotStateEngine slotStateEngine;
+	private final ApplicationEventPublisher eventPublisher;
+	private final int maxDays;
+
+	public TimeSlotBulkService(JdbcTemplate jdbcTemplate, SlotStateEngine slotStateEngine,
+			ApplicationEventPublisher eventPublisher,
+			@Value("${app.time-slot.bulk.max-days:92}") int maxDays) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.slotStateEngine = slotStateEngine;
+		this.eventPublisher = eventPublisher;
+		this.maxDays = maxDays;
+	}
+
+	/*
+	 * 範囲内の予約枠を DOCTOR_UNAVAILABLE に更新する。
+	 *
+	 * 既に DOCTOR_UNAVAILABLE の枠は対象外（更新件数に含めない）
+	 *
+	 * @param dto 医師・期間・時間帯
+	 * @return 更新した枠のID（ID順）と件数
+	 * @throws InvalidTimeSlotRangeException 範囲の指定が不正な場合
+	 * @throws RequestLimitExceededException 期間が上限の日数を超える場合
+	 */
+	@Transactional
+	public TimeSlotBulkStatusResponseDTO close(TimeSlotBulkStatusRequestDTO dto) {
+		List<Object> args = new ArrayList<>();
+		String where = where(dto, args);
+
+		Map<Long, LocalDate> dates = new HashMap<>();
+		Map<TimeSlotStatus, List<Long>> byPrevious = lock(where + " AND t.status <> 'DOCTOR_UNAVAILABLE'", args, dates);
+		List<Long> ids = update(byPrevious, dates, TimeSlotStatus.DOCTOR_UNAVAILABLE);
+		// 閉じた枠への予約はメモリ上で即座に拒否させる（ロールバック時は元に戻る）
+		slotStateEngine.forceAll(ids, TimeSlotStatus.DOCTOR_UNAVAILABLE);
+
+		return new TimeSlotBulkStatusResponseDTO(TimeSlotStatus.DOCTOR_UNAVAILABLE.name(), ids.size(), ids, 0,
+				List.of());
+	}
+
+	/*
+	 * 範囲内の予約枠を OPEN に更新する。
+	 *
+	 * 予約がある枠は OPEN に戻さず、skipped として返す
+	 * 既に OPEN の枠は対象外（更新件数に含めない）
+	 *
+	 * @param dto 医師・期間・時間帯
+	 * @return 更新した枠・戻せなかった枠のID（ID順）と件数
+	 * @throws InvalidTimeSlotRangeException 範囲の指定が不正な場合
+	 * @throws RequestLimitExceededException 期間が上限の日数を超える場合
+	 */
+	@Transactional
+	public TimeSlotBulkStatusResponseDTO open(TimeSlotBulkStatusRequestDTO dto) {
+		List<Object> args = new ArrayList<>();
+		String where = where(dto, args) + " AND t.status <> 'OPEN'";
+
+		// 予約は OPEN の枠にしか入らないため、ロックした後に予約が増えることはない
+		Map<Long, LocalDate> dates = new HashMap<>();
+		Map<TimeSlotStatus, List<Long>> byPrevious = lock(where + " AND NOT EXISTS (" + RESERVED_SQL + ")", args, dates);
+		List<Long> skipped = jdbcTemplate.queryForList(
+				"SELECT t.id FROM time_slot t WHERE " + where + " AND EXISTS (" + RESERVED_SQL + ") ORDER BY t.id",
+				Long.class, args.toArray());
+		List<Long> ids = update(byPrevious, dates, TimeSlotStatus.OPEN);
+		// 予約可能になるのはコミット後
+		slotStateEngine.releaseAll(ids, TimeSlotStatus.OPEN);
+
+		return new TimeSlotBulkStatusResponseDTO(TimeSlotStatus.OPEN.name(), ids.size(), ids, skipped.size(), skipped);
+	}
+
+	private String where(TimeSlotBulkStatusRequestDTO dto, List<Object> args) {
+		if (dto.getDoctorId() == null) {
+			throw new InvalidTimeSlotRangeException("医師を指定してください。");
+		}
+		if (dto.getFrom() == null || dto.getTo() == null || dto.getFrom().isAfter(dto.getTo())) {
+			throw new InvalidTimeSlotRangeException("期間の指定が不正です。");
+		}
+		if (ChronoUnit.DAYS.between(dto.getFrom(), dto.getTo()) + 1 > maxDays) {
+			throw new RequestLimitExceededException("期間は" + maxDays + "日までです。");
+		}
+		StringBuilder where = new StringBuilder("t.doctor_id = ? AND t.date BETWEEN ? AND ?");
+		args.add(dto.getDoctorId());
+		args.add(dto.getFrom());
+		args.add(dto.getTo());
+		if (dto.getStartTime() != null || dto.getEndTime() != null) {
+			if (dto.getStartTime() == null || dto.getEndTime() == null || !dto.getStartTime().isBefore(dto.getEndTime())) {
+				throw new InvalidTimeSlotRangeException("時間帯の指定が不正です。");
+			}
+			// 時間帯に収まる枠のみ（一部が重なる枠は対象外）
+			where.append(" AND t.start_time >= ? AND t.end_time <= ?");
+			args.add(dto.getStartTime());
+			args.add(dto.getEndTime());
+		}
+		return where.toString();
+	}
+
+	/**
+	 * 条件に合う枠をID順にロックし、変更前のステータスごとに分けて返す。枠の日付は dates に入れる。
+	 */
+	private Map<TimeSlotStatus, List<Long>> lock(String where, List<Object> args, Map<Long, LocalDate> dates) {
+		Map<TimeSlotStatus, List<Long>> byPrevious = new EnumMap<>(TimeSlotStatus.class);
+		jdbcTemplate.query("SELECT t.id, t.status, t.date FROM time_slot t WHERE " + where + " ORDER BY t.id FOR UPDATE",
+				rs -> {
+					byPrevious.computeIfAbsent(TimeSlotStatus.valueOf(rs.getString(2)), s -> new ArrayList<>())
+						.add(rs.getLong(1));
+					dates.put(rs.getLong(1), rs.getObject(3, LocalDate.class));
+				},
+				args.toArray());
+		return byPrevious;
+	}
+
+	/**
+	 * ロックした枠を next に更新し、変更前のステータスごとにイベントを発行する。更新した枠のIDをID順に返す。
+	 */
+	private List<Long> update(Map<TimeSlotStatus, List<Long>> byPrevious, Map<Long, LocalDate> dates,
+			TimeSlotStatus next) {
+		List<Long> ids = new ArrayList<>();
+		byPrevious.values().forEach(ids::addAll);
+		Collections.sort(ids);
+		for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+			Map<LocalDate, List<Long>> idsByDate = new TreeMap<>();
+			for (Long id : ids.subList(from, Math.min(from + IN_CHUNK, ids.size()))) {
+				idsByDate.computeIfAbsent(dates.get(id), d -> new ArrayList<>()).add(id);
+			}
+			List<Object> args = new ArrayList<>();
+			args.add(next.name());
+			jdbcTemplate.update("UPDATE time_slot SET status = ? WHERE " + TimeSlotKeys.where("", idsByDate, args),
+					args.toArray());
+		}
+		byPrevious.forEach((previous, changed) ->
+				eventPublisher.publishEvent(new TimeSlotStatusChangedEvent(List.copyOf(changed), previous, next)));
+		return ids;
+	}
+}
@@ -0,0 +1,208 @@
+package jp.github.minamoto.m.reservationsystem.service.version;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotKeys;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotsGeneratedEvent;
+
+/**
+ * 医師×日ごとの予約枠のバージョンを管理し、GET /v1/timeslots の ETag を作る。
+ *
+ * <p>予約枠のステータスを変更したトランザクションのコミット直前に time_slot.version を +1 し、
+ * 医師×日の version の合計をその日のバージョンとする。カウンタはDBにあるため、どのノードで
+ * 変更されても他のノードから同じ値が見える。変更対象の行はステータス更新で既にロック済みのため、
+ * 行ロックの待ちは増えない。</p>
+ *
+ * <p>{@code app.http-cache.version-cache=local}（デフォルト）の場合は読み取ったバージョンをメモリに保持し、
+ * 自ノードでのコミット後に破棄する。他のノードでの変更は検知できないため、複数ノード構成では
+ * {@code none} を指定して毎回DBから読む（医師×日の version を集計するだけで、一覧の組み立て・JSON化は行わない）。</p>
+ *
+ * <p>予約枠の追加・削除でも値が変わるよう、ETag には枠の件数と最大の予約枠IDも含める
+ * （枠を削除して同じ数だけ追加した場合も、新しい枠のIDは既存のIDより大きいため値が変わる）。</p>
+ *
+ * <p>200 で返す一覧に付ける ETag は、一覧と同じ読み取り元から作る。DBから読む場合は一覧と同じトランザクション
+ * （{@link #etagInTransaction}）、空き枠インデックスから返す場合は一覧の内容（{@link #contentEtag}）から作る。
+ * {@link #etag} はプライマリの値で、一覧を読む前の 304 判定にだけ使う。</p>
+ */
+@Component
+public class SlotVersionService {
+	/** IN 句に並べるIDの上限 */
+	private static final int IN_CHUNK = 1000;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final boolean localCache;
+	private final int maxEntries;
+	private final CacheControl cacheControl;
+
+	private final Map<DoctorDay, DayVersion> versions = new ConcurrentHashMap<>();
+	private final Map<Long, DoctorDay> dayOfSlot = new ConcurrentHashMap<>();
+	/** 破棄のたびに進める。読み取り中に破棄があった場合は読み取った値をキャッシュしない */
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public SlotVersionService(JdbcTemplate jdbcTemplate,
+			@Value("${app.http-cache.version-cache:local}") String versionCache,
+			@Value("${app.http-cache.version-cache-max-entries:100000}") int maxEntries,
+			@Value("${app.http-cache.timeslots-max-age:1s}") Duration maxAge) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.localCache = "local".equals(versionCache);
+		this.maxEntries = maxEntries;
+		this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+	}
+
+	/**
+	 * ステータスを変更したトランザクション内で、コミット直前に予約枠の version を進め、進めた値をイベントに記録する。
+	 *
+	 * <p>更新は主キー（id, date）を指定して行い、パーティションをまたいだギャップロックを取らない。</p>
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+	public void bump(TimeSlotStatusChangedEvent event) {
+		List<Long> ids = event.timeSlotIds();
+		for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+			Map<LocalDate, List<Long>> idsByDate = TimeSlotKeys.byDate(jdbcTemplate,
+					ids.subList(from, Math.min(from + IN_CHUNK, ids.size())));
+			if (idsByDate.isEmpty()) {
+				continue;
+			}
+			List<Object> args = new ArrayList<>();
+			String keys = TimeSlotKeys.where("", idsByDate, args);
+			jdbcTemplate.update("UPDATE time_slot SET version = version + 1 WHERE " + keys, args.toArray());
+			// 更新した行は自分の変更が見え、コミットまで他のトランザクションに進められない
+			jdbcTemplate.query("SELECT id, version FROM time_slot WHERE " + keys,
+					rs -> {
+						event.versions().put(rs.getLong(1), rs.getLong(2));
+					},
+					args.toArray());
+		}
+	}
+
+	/**
+	 * コミット後に、変更された予約枠を含む日のキャッシュを破棄する。
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void invalidate(TimeSlotStatusChangedEvent event) {
+		invalidations.incrementAndGet();
+		for (Long timeSlotId : event.timeSlotIds()) {
+			DoctorDay day = dayOfSlot.get(timeSlotId);
+			if (day != null) {
+				versions.remove(day);
+			}
+		}
+	}
+
+	/**
+	 * 勤務時間から予約枠が追加・削除された医師×日のキャッシュを破棄する。
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void invalidateDays(TimeSlotsGeneratedEvent event) {
+		invalidations.incrementAndGet();
+		event.changedDays().forEach((doctorId, dates) ->
+				dates.forEach(date -> versions.remove(new DoctorDay(doctorId, date))));
+	}
+
+	/**
+	 * 医師×日のバージョン（予約枠の件数・最大の予約枠ID・version の合計）を返す。
+	 */
+	DayVersion version(Long doctorId, LocalDate date) {
+		DoctorDay day = new DoctorDay(doctorId, date);
+		if (localCache) {
+			DayVersion cached = versions.get(day);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		long generation = invalidations.get();
+		List<Long> ids = new ArrayList<>();
+		DayVersion version = read(doctorId, date, ids);
+
+		if (localCache) {
+			if (versions.size() >= maxEntries) {
+				versions.clear();
+				dayOfSlot.clear();
+			}
+			ids.forEach(id -> dayOfSlot.put(id, day));
+			if (invalidations.get() == generation) {
+				versions.put(day, version);
+			}
+		}
+		return version;
+	}
+
+	/**
+	 * time_slot から医師×日のバージョンを読み、予約枠IDを ids に追加する。
+	 * 呼び出し側のトランザクション内であれば同じ接続で読む。
+	 */
+	private DayVersion read(Long doctorId, LocalDate date, List<Long> ids) {
+		long[] sum = new long[1];
+		long[] maxId = new long[1];
+		jdbcTemplate.query(
+				"SELECT id, version FROM time_slot WHERE doctor_id = ? AND date = ?",
+				rs -> {
+					sum[0] += rs.getLong("version");
+					maxId[0] = Math.max(maxId[0], rs.getLong("id"));
+					ids.add(rs.getLong("id"));
+				},
+				doctorId, Date.valueOf(date));
+		return new DayVersion(ids.size(), maxId[0], sum[0]);
+	}
+
+	/**
+	 * GET /v1/timeslots の現在の ETag（強い ETag）。プライマリ（またはキャッシュ）の値で、304 の判定に使う。
+	 */
+	public String etag(Long doctorId, LocalDate date) {
+		return format(doctorId, date, version(doctorId, date));
+	}
+
+	/**
+	 * 呼び出し側のトランザクション内で、一覧と同じ接続からバージョンを読んで ETag を返す。
+	 *
+	 * <p>レプリカから読んだ値はプライマリより古い場合があるため、キャッシュには入れない。</p>
+	 */
+	public String etagInTransaction(Long doctorId, LocalDate date) {
+		return format(doctorId, date, read(doctorId, date, new ArrayList<>()));
+	}
+
+	/**
+	 * 空き枠インデックスから返す一覧の ETag。一覧の内容（予約枠IDの並び）から作る。
+	 */
+	public String contentEtag(Long doctorId, LocalDate date, List<TimeSlotAvailableResponseDTO> slots) {
+		long hash = 1125899906842597L;
+		for (TimeSlotAvailableResponseDTO slot : slots) {
+			hash = 31 * hash + slot.getTimeSlotId();
+		}
+		return "\"ts-" + doctorId + "-" + date + "-o" + slots.size() + "-" + Long.toHexString(hash) + "\"";
+	}
+
+	private static String format(Long doctorId, LocalDate date, DayVersion version) {
+		return "\"ts-" + doctorId + "-" + date + "-" + version.slots() + "-" + version.maxId() + "-" + version.sum() + "\"";
+	}
+
+	/**
+	 * GET /v1/timeslots の Cache-Control。nginx は max-age の間キャッシュし、期限後は If-None-Match で再検証する。
+	 */
+	public CacheControl cacheControl() {
+		return cacheControl;
+	}
+
+	private record DoctorDay(Long doctorId, LocalDate date) {
+	}
+
+	record DayVersion(int slots, long maxId, long sum) {
+	}
+}
@@ -1,3 +1,12 @@
+DROP TABLE IF EXISTS reservation_archive;
+DROP TABLE IF EXISTS time_slot_archive;
+DROP TABLE IF EXISTS schedule_day;
+DROP TABLE IF EXISTS schedule_exception;
+DROP TABLE IF EXISTS schedule_rule;
+DROP TABLE IF EXISTS doctor_day_counter;
+DROP TABLE IF EXISTS idempotency_key;
+DROP TABLE IF EXISTS waitlist_entry;
+DROP TABLE IF EXISTS slot_hold;
 DROP TABLE IF EXISTS reservation;
 DROP TABLE IF EXISTS time_slot;
 DROP TABLE IF EXISTS doctor;
@@ -25,26 +34,151 @@ CREATE TABLE IF NOT EXISTS doctor (
 		REFERENCES department(id)
 );
 
+-- time_slot は date で月ごとにレンジパーティション分割する（パーティションは TimeSlotPartitionManager が先の月まで追加する）。
+-- パーティション分割したテーブルは外部キーを持てず、参照もされないため、time_slot に関わる外部キーは置かない。
+-- 主キーにはパーティションキー（date）を含める必要がある。id だけの検索は主キーの先頭列で引けるが、すべてのパーティションを探し、
+-- ロックを取る読み取りや UPDATE・DELETE ではパーティションごとにギャップロックも取る。ロック・更新は主キー（id, date）で行う（TimeSlotKeys）。
 CREATE TABLE IF NOT EXISTS time_slot (
-	id BIGINT AUTO_INCREMENT PRIMARY KEY,
+	id BIGINT AUTO_INCREMENT,
 	date DATE NOT NULL,
 	start_time TIME NOT NULL,
 	end_time TIME NOT NULL,
 	doctor_id BIGINT NOT NULL,
 	status VARCHAR(20) NOT NULL,
-	CONSTRAINT fk_time_slot_doctor
+	-- ステータスを変更するたびに +1 する（医師×日ごとの合計を ETag に使う）。エンティティにはマッピングしない
+	version BIGINT NOT NULL DEFAULT 0,
+	PRIMARY KEY (id, date),
+	-- 医師×日の空き枠（開始時刻順）、医師×期間の空き枠。主キー（id, date）と合わせて状態の読み出しはインデックスだけで済む
+	INDEX idx_time_slot_doctor_date_status (doctor_id, date, status, start_time),
+	-- 診療科の最も早い空き枠（OPEN を日付・開始時刻順に走査して先頭 N 件で止める）
+	INDEX idx_time_slot_status_date (status, date, start_time, doctor_id),
+	-- 予約一覧（日付・開始時刻順のキーセットページング）。予約は idx_reservation_time_slot で結合する
+	INDEX idx_time_slot_date_start (date, start_time, doctor_id)
+)
+PARTITION BY RANGE COLUMNS(date) (
+	PARTITION p_max VALUES LESS THAN (MAXVALUE)
+);
+
+-- 医師×日ごとの空き枠（OPEN）の件数。予約枠のステータス変更と同じトランザクションで増減する（OpenSlotCounterService）。
+-- time_slot から作り直せるため、time_slot と同じく外部キーは置かない
+CREATE TABLE IF NOT EXISTS doctor_day_counter (
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
+	open_slots INT NOT NULL,
+	PRIMARY KEY (doctor_id, date)
+);
+
+-- 医師の週単位の勤務時間（曜日ごとに複数の時間帯を持てる）。SlotGenerator が予約枠を作る元になる
+CREATE TABLE IF NOT EXISTS schedule_rule (
+	id BIGINT AUTO_INCREMENT PRIMARY KEY,
+	doctor_id BIGINT NOT NULL,
+	-- 1（月曜）〜 7（日曜）
+	day_of_week INT NOT NULL,
+	start_time TIME NOT NULL,
+	end_time TIME NOT NULL,
+	slot_minutes INT NOT NULL,
+	INDEX idx_schedule_rule_doctor (doctor_id),
+	CONSTRAINT fk_schedule_rule_doctor
+		FOREIGN KEY (doctor_id)
+		REFERENCES doctor(id)
+);
+
+-- 特定の日の例外。時間帯が NULL の行は休診日、それ以外はその日の勤務時間を週単位の設定の代わりに使う
+CREATE TABLE IF NOT EXISTS schedule_exception (
+	id BIGINT AUTO_INCREMENT PRIMARY KEY,
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
+	start_time TIME NULL,
+	end_time TIME NULL,
+	slot_minutes INT NULL,
+	INDEX idx_schedule_exception_doctor_date (doctor_id, date),
+	CONSTRAINT fk_schedule_exception_doctor
 		FOREIGN KEY (doctor_id)
 		REFERENCES doctor(id)
 );
 
+-- 医師×日ごとに、最後に予約枠へ反映した勤務時間のフィンガープリント。変わらない日は生成時に読み飛ばす
+CREATE TABLE IF NOT EXISTS schedule_day (
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
+	fingerprint BIGINT,
+	PRIMARY KEY (doctor_id, date)
+);
+
 CREATE TABLE IF NOT EXISTS reservation (
 	id BIGINT AUTO_INCREMENT PRIMARY KEY,
-	time_slot_id BIGINT NOT NULL UNIQUE,
+	time_slot_id BIGINT NOT NULL,
+	-- 有効な予約（CONFIRMED）の場合のみ time_slot_id と同じ値。キャンセル時に NULL にする
+	active_time_slot_id BIGINT UNIQUE,
+	status VARCHAR(20) NOT NULL,
+	name VARCHAR(255),
+	phone_number VARCHAR(255),
+	created_at TIMESTAMP NULL,
+	INDEX idx_reservation_time_slot (time_slot_id),
+	-- ステータス別の一覧（ID順）
+	INDEX idx_reservation_status (status, id)
+);
+
+
+CREATE TABLE IF NOT EXISTS slot_hold (
+	id BIGINT AUTO_INCREMENT PRIMARY KEY,
+	token VARCHAR(36) NOT NULL UNIQUE,
+	time_slot_id BIGINT NOT NULL,
+	expires_at TIMESTAMP NOT NULL,
+	INDEX idx_slot_hold_time_slot (time_slot_id)
+);
+
+CREATE TABLE IF NOT EXISTS waitlist_entry (
+	id BIGINT AUTO_INCREMENT PRIMARY KEY,
+	-- 予約枠単位の順番待ちの場合のみ設定（NULL は医師・日付単位）
+	time_slot_id BIGINT,
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
 	status VARCHAR(20) NOT NULL,
 	name VARCHAR(255),
 	phone_number VARCHAR(255),
+	reservation_id BIGINT,
 	created_at TIMESTAMP NULL,
-	CONSTRAINT fk_reservation_time_slot
-		FOREIGN KEY (time_slot_id)
-		REFERENCES time_slot(id)
+	-- 順番待ちの先頭1件をインデックスだけで引けるようにする
+	INDEX idx_waitlist_slot_head (time_slot_id, status, id),
+	INDEX idx_waitlist_doctor_date_head (doctor_id, date, status, id)
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_key (
+	idem_key VARCHAR(255) PRIMARY KEY,
+	fingerprint VARCHAR(64) NOT NULL,
+	status_code INT NULL,
+	response_body TEXT NULL,
+	created_at TIMESTAMP NOT NULL,
+	expires_at TIMESTAMP NOT NULL,
+	INDEX idx_idempotency_key_expires_at (expires_at)
 );
+
+-- 保存期間を過ぎた予約枠・予約の移動先（RetentionArchiver）。書き込みは追記だけで読み出しも少ないため圧縮して持つ。
+-- 外部キーは置かない
+CREATE TABLE IF NOT EXISTS time_slot_archive (
+	id BIGINT PRIMARY KEY,
+	date DATE NOT NULL,
+	start_time TIME NOT NULL,
+	end_time TIME NOT NULL,
+	doctor_id BIGINT NOT NULL,
+	status VARCHAR(20) NOT NULL,
+	archived_at TIMESTAMP NOT NULL,
+	INDEX idx_time_slot_archive_doctor_date (doctor_id, date)
+) ROW_FORMAT=COMPRESSED;
+
+-- 予約枠の日付・時刻を持たせ、予約IDの1行だけで参照できるようにする
+CREATE TABLE IF NOT EXISTS reservation_archive (
+	id BIGINT PRIMARY KEY,
+	time_slot_id BIGINT NOT NULL,
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
+	start_time TIME NOT NULL,
+	end_time TIME NOT NULL,
+	status VARCHAR(20) NOT NULL,
+	name VARCHAR(255),
+	phone_number VARCHAR(255),
+	created_at TIMESTAMP NULL,
+	archived_at TIMESTAMP NOT NULL,
+	INDEX idx_reservation_archive_time_slot (time_slot_id)
+) ROW_FORMAT=COMPRESSED;
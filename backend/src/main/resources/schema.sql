@@ -26,14 +26,70 @@ CREATE TABLE time_slot (
 	end_time TIME NOT NULL,
 	doctor_id BIGINT NOT NULL,
 	status VARCHAR(20) NOT NULL,
+	-- ステータスを変更するたびに +1 する（医師×日ごとの合計を ETag に使う）。エンティティにはマッピングしない
+	version BIGINT NOT NULL DEFAULT 0,
 	CONSTRAINT fk_time_slot_doctor
 		FOREIGN KEY (doctor_id)
 		REFERENCES doctor(id)
 );
 
+-- 本番（schema-mysql.sql）と同じ検索用インデックス。H2 ではパーティション分割は行わない
+CREATE INDEX idx_time_slot_doctor_date_status ON time_slot (doctor_id, date, status, start_time);
+CREATE INDEX idx_time_slot_status_date ON time_slot (status, date, start_time, doctor_id);
+CREATE INDEX idx_time_slot_date_start ON time_slot (date, start_time, doctor_id);
+
+-- 医師×日ごとの空き枠（OPEN）の件数（schema-mysql.sql と同じ）
+CREATE TABLE doctor_day_counter (
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
+	open_slots INT NOT NULL,
+	PRIMARY KEY (doctor_id, date)
+);
+
+-- 医師の週単位の勤務時間（曜日ごとに複数の時間帯を持てる）。SlotGenerator が予約枠を作る元になる
+CREATE TABLE schedule_rule (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	doctor_id BIGINT NOT NULL,
+	-- 1（月曜）〜 7（日曜）
+	day_of_week INT NOT NULL,
+	start_time TIME NOT NULL,
+	end_time TIME NOT NULL,
+	slot_minutes INT NOT NULL,
+	CONSTRAINT fk_schedule_rule_doctor
+		FOREIGN KEY (doctor_id)
+		REFERENCES doctor(id)
+);
+
+CREATE INDEX idx_schedule_rule_doctor ON schedule_rule (doctor_id);
+
+-- 特定の日の例外。時間帯が NULL の行は休診日、それ以外はその日の勤務時間を週単位の設定の代わりに使う
+CREATE TABLE schedule_exception (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
+	start_time TIME,
+	end_time TIME,
+	slot_minutes INT,
+	CONSTRAINT fk_schedule_exception_doctor
+		FOREIGN KEY (doctor_id)
+		REFERENCES doctor(id)
+);
+
+CREATE INDEX idx_schedule_exception_doctor_date ON schedule_exception (doctor_id, date);
+
+-- 医師×日ごとに、最後に予約枠へ反映した勤務時間のフィンガープリント。変わらない日は生成時に読み飛ばす
+CREATE TABLE schedule_day (
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
+	fingerprint BIGINT,
+	PRIMARY KEY (doctor_id, date)
+);
+
 CREATE TABLE reservation (
 	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-	time_slot_id BIGINT NOT NULL UNIQUE,
+	time_slot_id BIGINT NOT NULL,
+	-- 有効な予約（CONFIRMED）の場合のみ time_slot_id と同じ値。キャンセル時に NULL にする
+	active_time_slot_id BIGINT UNIQUE,
 	status VARCHAR(20) NOT NULL,
 	name VARCHAR(255),
 	phone_number VARCHAR(255),
@@ -41,4 +97,74 @@ CREATE TABLE reservation (
 	CONSTRAINT fk_reservation_time_slot
 		FOREIGN KEY (time_slot_id)
 		REFERENCES time_slot(id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX idx_reservation_status ON reservation (status, id);
+
+CREATE TABLE slot_hold (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	token VARCHAR(36) NOT NULL UNIQUE,
+	time_slot_id BIGINT NOT NULL,
+	expires_at TIMESTAMP NOT NULL,
+	CONSTRAINT fk_slot_hold_time_slot
+		FOREIGN KEY (time_slot_id)
+		REFERENCES time_slot(id)
+);
+
+CREATE TABLE waitlist_entry (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	-- 予約枠単位の順番待ちの場合のみ設定（NULL は医師・日付単位）
+	time_slot_id BIGINT,
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
+	status VARCHAR(20) NOT NULL,
+	name VARCHAR(255),
+	phone_number VARCHAR(255),
+	reservation_id BIGINT,
+	created_at TIMESTAMP
+);
+
+-- 順番待ちの先頭1件をインデックスだけで引けるようにする
+CREATE INDEX idx_waitlist_slot_head ON waitlist_entry (time_slot_id, status, id);
+CREATE INDEX idx_waitlist_doctor_date_head ON waitlist_entry (doctor_id, date, status, id);
+
+CREATE TABLE idempotency_key (
+	idem_key VARCHAR(255) PRIMARY KEY,
+	fingerprint VARCHAR(64) NOT NULL,
+	status_code INT,
+	response_body TEXT,
+	created_at TIMESTAMP NOT NULL,
+	expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_idempotency_key_expires_at ON idempotency_key (expires_at);
+
+-- 保存期間を過ぎた予約枠・予約の移動先（RetentionArchiver）。外部キーは置かない
+CREATE TABLE time_slot_archive (
+	id BIGINT PRIMARY KEY,
+	date DATE NOT NULL,
+	start_time TIME NOT NULL,
+	end_time TIME NOT NULL,
+	doctor_id BIGINT NOT NULL,
+	status VARCHAR(20) NOT NULL,
+	archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_time_slot_archive_doctor_date ON time_slot_archive (doctor_id, date);
+
+-- 予約枠の日付・時刻を持たせ、予約IDの1行だけで参照できるようにする
+CREATE TABLE reservation_archive (
+	id BIGINT PRIMARY KEY,
+	time_slot_id BIGINT NOT NULL,
+	doctor_id BIGINT NOT NULL,
+	date DATE NOT NULL,
+	start_time TIME NOT NULL,
+	end_time TIME NOT NULL,
+	status VARCHAR(20) NOT NULL,
+	name VARCHAR(255),
+	phone_number VARCHAR(255),
+	created_at TIMESTAMP,
+	archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_reservation_archive_time_slot ON reservation_archive (time_slot_id);
@@ -0,0 +1,114 @@
+package jp.github.minamoto.m.reservationsystem.controller.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * 一覧の JSON 出力を Jackson と JsonListWriter で比較する JMH ベンチマーク。
+ *
+ * <p>{@code ./mvnw test -Dtest=JsonListWriterBenchmarkTest -Djmh=true} で実行する。
+ * 結果の gc.alloc.rate.norm が1回の出力あたりの割り当てバイト数。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonListWriterBenchmarkTest {
+
+    @Param({ "18", "1000", "10000" })
+    public int rows;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    // Jackson は書き終えると出力先を閉じるため、閉じても書き込める出力先にする（レスポンスの出力ストリームと同じ条件）
+    private final OutputStream out = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private List<TimeSlotAvailableResponseDTO> slots;
+    private List<ReservationResponseDTO> reservations;
+
+    @Setup
+    public void setUp() {
+        slots = new ArrayList<>(rows);
+        reservations = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalTime start = LocalTime.of(9, 0).plusMinutes(30L * (i % 18));
+            slots.add(new TimeSlotAvailableResponseDTO(100_000L + i, "%02d:%02d".formatted(start.getHour(), start.getMinute())));
+
+            ReservationResponseDTO reservation = new ReservationResponseDTO();
+            reservation.setReservationId(50_000L + i);
+            reservation.setTimeSlotId(100_000L + i);
+            reservation.setDate(LocalDate.of(2026, 10, 19).plusDays(i / 18));
+            reservation.setStartTime(start);
+            reservation.setEndTime(start.plusMinutes(30));
+            reservation.setStatus("CONFIRMED");
+            reservation.setName("予約者" + i);
+            reservations.add(reservation);
+        }
+    }
+
+    @Benchmark
+    public void timeSlotsJackson() {
+        objectMapper.writeValue(out, slots);
+    }
+
+    @Benchmark
+    public void timeSlotsWriter() throws IOException {
+        JsonListWriter.writeTimeSlots(slots, out);
+    }
+
+    @Benchmark
+    public void reservationsJackson() {
+        objectMapper.writeValue(out, reservations);
+    }
+
+    @Benchmark
+    public void reservationsWriter() throws IOException {
+        JsonListWriter.writeReservations(reservations, out);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "jmh", matches = "true")
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonListWriterBenchmarkTest.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+package jp.github.minamoto.m.reservationsystem.controller.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.SmartHttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * JsonListWriter の出力がアプリケーションの Jackson の出力と同じバイト列になることを確認する。
+ */
+@SpringBootTest
+class JsonListWriterTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Test
+    void writeTimeSlots_sameBytesAsJackson() throws Exception {
+        // Given: 1日分の時刻、"HH:mm" 以外の文字列、null を含む一覧
+        List<TimeSlotAvailableResponseDTO> slots = new ArrayList<>();
+        for (int minute = 0; minute < 24 * 60; minute += 7) {
+            slots.add(new TimeSlotAvailableResponseDTO((long) minute * 1_000_003, "%02d:%02d".formatted(minute / 60, minute % 60)));
+        }
+        slots.add(new TimeSlotAvailableResponseDTO(-1L, "24:00"));
+        slots.add(new TimeSlotAvailableResponseDTO(Long.MAX_VALUE, "9:5"));
+        slots.add(new TimeSlotAvailableResponseDTO(Long.MIN_VALUE, null));
+        slots.add(new TimeSlotAvailableResponseDTO(null, "1a:00"));
+        slots.add(null);
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonListWriter.writeTimeSlots(slots, out);
+
+        // Then
+        assertThat(out.toByteArray()).isEqualTo(objectMapper.writeValueAsBytes(slots));
+    }
+
+    @Test
+    void writeReservations_sameBytesAsJackson() throws Exception {
+        // Given: エスケープが必要な名前、マルチバイト文字、秒のある時刻、未知のステータス、バッファより長い一覧
+        List<ReservationResponseDTO> reservations = new ArrayList<>();
+        reservations.add(reservation(1L, "山田 太郎", LocalTime.of(9, 0), "CONFIRMED"));
+        reservations.add(reservation(2L, "\"quoted\" \\ back\nslash\t\u0001\u001f\b\f\r", LocalTime.of(23, 59), "CANCELED"));
+        reservations.add(reservation(3L, "絵文字😀と制御文字\u007f", LocalTime.of(10, 15, 30), "PENDING"));
+        reservations.add(reservation(4L, null, LocalTime.of(0, 0, 0, 1_000_000), null));
+        ReservationResponseDTO empty = new ReservationResponseDTO();
+        reservations.add(empty);
+        char[] longName = new char[20_000];
+        Arrays.fill(longName, 'あ');
+        reservations.add(reservation(5L, new String(longName), LocalTime.of(12, 30), "CONFIRMED"));
+        for (long id = 6; id < 600; id++) {
+            reservations.add(reservation(id, "予約者" + id, LocalTime.of((int) (id % 24), (int) (id % 60)), "CONFIRMED"));
+        }
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonListWriter.writeReservations(reservations, out);
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo(objectMapper.writeValueAsString(reservations));
+    }
+
+    @Test
+    void writeReservations_singleRowLongerThanBuffer_sameBytesAsJackson() throws Exception {
+        // Given: 1件だけ（バッファは小さく確保される）で、名前がバッファより長い
+        List<ReservationResponseDTO> reservations = List.of(
+                reservation(1L, "\"長い名前\"\n".repeat(500), LocalTime.of(9, 0), "CONFIRMED"));
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonListWriter.writeReservations(reservations, out);
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo(objectMapper.writeValueAsString(reservations));
+    }
+
+    @Test
+    void converter_isSelectedBeforeJacksonForTargetListsOnly() {
+        ResolvableType slots = ResolvableType.forClassWithGenerics(List.class, TimeSlotAvailableResponseDTO.class);
+        ResolvableType reservations = ResolvableType.forClassWithGenerics(List.class, ReservationResponseDTO.class);
+        ResolvableType others = ResolvableType.forClassWithGenerics(List.class, String.class);
+
+        assertThat(firstWriter(slots)).isInstanceOf(JsonListHttpMessageConverter.class);
+        assertThat(firstWriter(reservations)).isInstanceOf(JsonListHttpMessageConverter.class);
+        assertThat(firstWriter(others)).isNotInstanceOf(JsonListHttpMessageConverter.class);
+    }
+
+    private HttpMessageConverter<?> firstWriter(ResolvableType type) {
+        for (HttpMessageConverter<?> converter : handlerAdapter.getMessageConverters()) {
+            boolean canWrite = converter instanceof SmartHttpMessageConverter<?> smart
+                    ? smart.canWrite(type, ArrayList.class, MediaType.APPLICATION_JSON)
+                    : converter.canWrite(ArrayList.class, MediaType.APPLICATION_JSON);
+            if (canWrite) {
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    private static ReservationResponseDTO reservation(Long id, String name, LocalTime startTime, String status) {
+        ReservationResponseDTO dto = new ReservationResponseDTO();
+        dto.setReservationId(id);
+        dto.setTimeSlotId(id * 18);
+        dto.setDate(LocalDate.of(2026, 1, 1).plusDays(id));
+        dto.setStartTime(startTime);
+        dto.setEndTime(startTime.plusMinutes(30));
+        dto.setStatus(status);
+        dto.setName(name);
+        return dto;
+    }
+}
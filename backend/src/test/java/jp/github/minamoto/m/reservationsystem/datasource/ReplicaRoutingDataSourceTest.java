@@ -0,0 +1,95 @@
+package jp.github.minamoto.m.reservationsystem.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * プライマリとレプリカを別々の H2 メモリDBで用意し、トランザクションの種類で接続先が変わることを確認する。
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private ReplicaRoutingDataSource router;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("routing_primary");
+        HikariDataSource replica = h2("routing_replica");
+        new JdbcTemplate(primary).execute("CREATE TABLE marker (name VARCHAR(20)); INSERT INTO marker VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE marker (name VARCHAR(20)); INSERT INTO marker VALUES ('replica')");
+
+        router = new ReplicaRoutingDataSource(primary, List.of(replica));
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(router);
+
+        jdbcTemplate = new JdbcTemplate(proxy);
+        transactionManager = new DataSourceTransactionManager(proxy);
+    }
+
+    @AfterEach
+    void tearDown() {
+        PrimaryPin.clear();
+        router.close();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransaction_routedToReplica() {
+        assertThat(marker(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransaction_routedToPrimary() {
+        assertThat(marker(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_pinned_routedToPrimary() {
+        // Given: 直前に書き込みを行ったリクエスト
+        PrimaryPin.pin();
+
+        // When & Then: 読み取り専用でもプライマリを参照する
+        assertThat(marker(true)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_noReplicas_routedToPrimary() {
+        // Given: レプリカ未設定
+        ReplicaRoutingDataSource primaryOnly = new ReplicaRoutingDataSource(primary, List.of());
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(primaryOnly);
+        jdbcTemplate = new JdbcTemplate(proxy);
+        transactionManager = new DataSourceTransactionManager(proxy);
+
+        // When & Then
+        assertThat(marker(true)).isEqualTo("primary");
+    }
+
+    private String marker(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+}
@@ -0,0 +1,111 @@
+package jp.github.minamoto.m.reservationsystem.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import jakarta.servlet.http.Cookie;
+import jp.github.minamoto.m.reservationsystem.dto.WaitlistEntryResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.WaitlistService;
+import jp.github.minamoto.m.reservationsystem.service.exception.WaitlistEntryNotFoundException;
+
+/**
+ * replica-local プロファイルでアプリケーションを起動し、サービスの {@code @Transactional} から接続先が選ばれることを確認する。
+ *
+ * <p>プライマリとレプリカを別々の H2 メモリDBにし、レプリカにだけ順番待ちを1件入れておく。
+ * その順番待ちが見えればレプリカ、見えなければプライマリから読んでいる。</p>
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:routingprimarydb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles({ "local", "replica-local" })
+class ReplicaRoutingIntegrationTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:routingreplicadb;DB_CLOSE_DELAY=-1";
+    // レプリカにだけ存在する順番待ち
+    private static final Long REPLICA_ONLY_ENTRY_ID = 900001L;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private ReadYourWritesFilter readYourWritesFilter;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        // 起動時の読み取り専用の読み込みもレプリカへ行くため、コンテキストより先にスキーマと初期データを用意する
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(REPLICA_URL, "sa", "", true);
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            if (jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'WAITLIST_ENTRY'",
+                    Integer.class) == 0) {
+                new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                        .execute(dataSource);
+                jdbc.update("INSERT INTO waitlist_entry (id, doctor_id, date, status, name, phone_number) "
+                        + "VALUES (?, 1, CURRENT_DATE, 'WAITING', 'レプリカ', '09000000000')", REPLICA_ONLY_ENTRY_ID);
+            }
+        } finally {
+            dataSource.destroy();
+        }
+        registry.add("app.datasource.routing.replicas[0].url", () -> REPLICA_URL);
+        registry.add("app.datasource.routing.replicas[0].username", () -> "sa");
+        registry.add("app.datasource.routing.replicas[0].password", () -> "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        PrimaryPin.clear();
+    }
+
+    @Test
+    void readOnlyServiceMethod_routedToReplica() {
+        // When: @Transactional(readOnly = true) のサービスメソッド
+        WaitlistEntryResponseDTO entry = waitlistService.findById(REPLICA_ONLY_ENTRY_ID);
+
+        // Then: レプリカから読む
+        assertThat(entry.getStatus()).isEqualTo("WAITING");
+    }
+
+    @Test
+    void readWriteServiceMethod_routedToPrimary() {
+        // When & Then: 読み書きのトランザクションはプライマリを使うため、レプリカにだけある順番待ちは見えない
+        assertThatThrownBy(() -> waitlistService.cancel(REPLICA_ONLY_ENTRY_ID))
+                .isInstanceOf(WaitlistEntryNotFoundException.class);
+    }
+
+    @Test
+    void writeRequest_pinnedToPrimary() throws Exception {
+        // When: 書き込みリクエストの中で読み取り専用のサービスメソッドを呼ぶ
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThatThrownBy(() -> readYourWritesFilter.doFilter(new MockHttpServletRequest("POST", "/v1/waitlist"),
+                response, (req, res) -> waitlistService.findById(REPLICA_ONLY_ENTRY_ID)))
+                .isInstanceOf(WaitlistEntryNotFoundException.class);
+
+        // Then: プライマリから読み、以降の参照を固定する Cookie を返す。リクエストが終われば固定は解除される
+        Cookie pin = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertThat(pin).isNotNull();
+        assertThat(PrimaryPin.isPinned()).isFalse();
+
+        // Cookie を持つ GET もプライマリ、持たない GET はレプリカから読む
+        MockHttpServletRequest pinnedGet = new MockHttpServletRequest("GET", "/v1/waitlist/" + REPLICA_ONLY_ENTRY_ID);
+        pinnedGet.setCookies(pin);
+        assertThatThrownBy(() -> readYourWritesFilter.doFilter(pinnedGet, new MockHttpServletResponse(),
+                (req, res) -> waitlistService.findById(REPLICA_ONLY_ENTRY_ID)))
+                .isInstanceOf(WaitlistEntryNotFoundException.class);
+        String[] status = new String[1];
+        readYourWritesFilter.doFilter(new MockHttpServletRequest("GET", "/v1/waitlist/" + REPLICA_ONLY_ENTRY_ID),
+                new MockHttpServletResponse(), (req, res) -> status[0] = waitlistService.findById(REPLICA_ONLY_ENTRY_ID).getStatus());
+        assertThat(status[0]).isEqualTo("WAITING");
+    }
+}
@@ -0,0 +1,52 @@
+package jp.github.minamoto.m.reservationsystem.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * JsonEscapes のエスケープが Jackson と同じになることを確認する。
+ */
+class JsonEscapesTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    void writeString_sameAsJackson() throws IOException {
+        // Given: ASCII の全文字と、日本語・サロゲートペアを含む文字列
+        StringBuilder ascii = new StringBuilder();
+        for (char c = 0; c < 0x80; c++) {
+            ascii.append(c);
+        }
+        for (String value : new String[] { ascii.toString(), "山田 \"太郎\"\n\\様", "😀 絵文字", "", "plain" }) {
+            // When
+            StringWriter writer = new StringWriter();
+            JsonEscapes.writeString(writer, value);
+
+            // Then
+            assertThat(writer.toString()).isEqualTo(objectMapper.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    void writeString_null_writesNull() throws IOException {
+        StringWriter writer = new StringWriter();
+        JsonEscapes.writeString(writer, null);
+        assertThat(writer.toString()).isEqualTo("null");
+    }
+
+    @Test
+    void escape_onlyQuotesBackslashAndControlCharacters() {
+        assertThat(JsonEscapes.escape('a')).isNull();
+        assertThat(JsonEscapes.escape('あ')).isNull();
+        assertThat(JsonEscapes.escape('"')).isEqualTo("\\\"");
+        assertThat(JsonEscapes.escape('\n')).isEqualTo("\\n");
+        assertThat(JsonEscapes.escape((char) 0x1F)).isEqualTo("\\u001F");
+    }
+}
@@ -0,0 +1,184 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sun.management.ThreadMXBean;
+
+import jakarta.persistence.EntityManager;
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+import jp.github.minamoto.m.reservationsystem.service.ReservationSearchService;
+import jp.github.minamoto.m.reservationsystem.service.TimeSlotService;
+
+/**
+ * 一覧の読み出しを、エンティティを生成する従来の方法とプロジェクションで比較する（1スレッドあたりの割り当てバイト数と所要時間）。
+ *
+ * <p>{@code ./mvnw test -Dtest=ProjectionReadComparisonTest -Dbench=true} で実行する（通常のテストでは実行しない）。
+ * 件数は {@code -Dprojection.rows=N} で指定する（デフォルト 10,000 件）。</p>
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:projectiondb;DB_CLOSE_DELAY=-1",
+        // 全件を1ページで読み出して比較する
+        "app.reservation.list.max-page-size=1000000" })
+class ProjectionReadComparisonTest {
+    private static final Logger log = LoggerFactory.getLogger(ProjectionReadComparisonTest.class);
+
+    private static final int ROWS = Integer.getInteger("projection.rows", 10_000);
+    private static final int ITERATIONS = 5;
+
+    // 空き枠インデックスの対象外になる日付に、医師1の枠をまとめて作る
+    private static final Long DOCTOR_ID = 1L;
+    private static final LocalDate OPEN_DATE = LocalDate.of(2099, 1, 1);
+    private static final LocalDate RESERVED_DATE = LocalDate.of(2099, 1, 2);
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Autowired
+    private ReservationSearchService reservationSearchService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_slot WHERE date = ?", Integer.class,
+                    OPEN_DATE) > 0) {
+                return;
+            }
+            for (LocalDate date : List.of(OPEN_DATE, RESERVED_DATE)) {
+                jdbcTemplate.update("INSERT INTO time_slot (date, start_time, end_time, doctor_id, status) "
+                        + "SELECT ?, CAST(DATEADD(SECOND, MOD(X, 86400), TIMESTAMP '2099-01-01 00:00:00') AS TIME), "
+                        + "CAST(DATEADD(SECOND, MOD(X, 86400) + 1800, TIMESTAMP '2099-01-01 00:00:00') AS TIME), ?, ? "
+                        + "FROM SYSTEM_RANGE(1, ?)",
+                        date, DOCTOR_ID, date.equals(OPEN_DATE) ? "OPEN" : "RESERVED", ROWS);
+            }
+            jdbcTemplate.update("INSERT INTO reservation (time_slot_id, active_time_slot_id, status, name, phone_number, created_at) "
+                    + "SELECT id, id, 'CONFIRMED', '比較', '09000000000', CURRENT_TIMESTAMP FROM time_slot WHERE date = ?",
+                    RESERVED_DATE);
+        });
+    }
+
+    @Test
+    void findAvailable_projection_allocatesLessThanEntities() {
+        TransactionTemplate readOnly = readOnlyTransaction();
+
+        // 従来の方法: TimeSlot エンティティ（医師のプロキシ・スナップショット付き）を読み込んでから DTO に変換する
+        Measurement entities = measure(() -> readOnly.execute(status -> {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
+            return entityManager.createQuery("SELECT t FROM TimeSlot t WHERE t.doctor.id = :doctorId "
+                    + "AND t.date = :date AND t.status = :status ORDER BY t.startTime", TimeSlot.class)
+                    .setParameter("doctorId", DOCTOR_ID)
+                    .setParameter("date", OPEN_DATE)
+                    .setParameter("status", TimeSlotStatus.OPEN)
+                    .getResultList().stream()
+                    .map(ts -> new TimeSlotAvailableResponseDTO(ts.getId(), ts.getStartTime().format(formatter)))
+                    .toList();
+        }));
+        Measurement projection = measure(() -> timeSlotService.findAvailable(OPEN_DATE, DOCTOR_ID));
+
+        report("findAvailable", entities, projection);
+        assertThat(projection.rows()).isEqualTo(entities.rows()).isEqualTo(ROWS);
+        assertThat(projection.bytes()).isLessThan(entities.bytes());
+    }
+
+    @Test
+    void findConfirmedPage_projection_allocatesLessThanEntities() {
+        TransactionTemplate readOnly = readOnlyTransaction();
+
+        // 従来の方法: Reservation と（EAGER の）TimeSlot エンティティを読み込んでから DTO に変換する
+        Measurement entities = measure(() -> readOnly.execute(status ->
+                entityManager.createQuery("SELECT r FROM Reservation r WHERE r.status = :status", Reservation.class)
+                        .setParameter("status", ReservationStatus.CONFIRMED)
+                        .getResultList().stream()
+                        .map(ProjectionReadComparisonTest::toResponseDto)
+                        .toList()));
+        Measurement projection = measure(() -> reservationSearchService
+                .findPage(ReservationStatus.CONFIRMED, null, null, null, null, null, ROWS * 2).reservations());
+
+        report("findConfirmedPage", entities, projection);
+        assertThat(projection.rows()).isEqualTo(entities.rows()).isGreaterThanOrEqualTo(ROWS);
+        assertThat(projection.bytes()).isLessThan(entities.bytes());
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    /**
+     * 2回空回ししてから ITERATIONS 回実行し、1回あたりの割り当てバイト数と所要時間の中央値を返す。
+     */
+    private static Measurement measure(Supplier<List<?>> query) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        int rows = 0;
+        for (int i = 0; i < 2; i++) {
+            rows = query.get().size();
+        }
+        long[] bytes = new long[ITERATIONS];
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long startedAt = System.nanoTime();
+            rows = query.get().size();
+            nanos[i] = System.nanoTime() - startedAt;
+            bytes[i] = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        Arrays.sort(bytes);
+        Arrays.sort(nanos);
+        return new Measurement(rows, bytes[ITERATIONS / 2], nanos[ITERATIONS / 2]);
+    }
+
+    private static void report(String name, Measurement entities, Measurement projection) {
+        log.info(String.format("%s rows=%d entity: %,dB %.1fms / projection: %,dB %.1fms (%.1fx less allocation)",
+                name, projection.rows(), entities.bytes(), entities.nanos() / 1e6,
+                projection.bytes(), projection.nanos() / 1e6, (double) entities.bytes() / projection.bytes()));
+    }
+
+    private static ReservationResponseDTO toResponseDto(Reservation entity) {
+        ReservationResponseDTO dto = new ReservationResponseDTO();
+        dto.setReservationId(entity.getId());
+        dto.setTimeSlotId(entity.getTimeSlot().getId());
+        dto.setDate(entity.getTimeSlot().getDate());
+        dto.setStartTime(entity.getTimeSlot().getStartTime());
+        dto.setEndTime(entity.getTimeSlot().getEndTime());
+        dto.setStatus(entity.getStatus().name());
+        dto.setName(entity.getName());
+        return dto;
+    }
+
+    private record Measurement(int rows, long bytes, long nanos) {
+    }
+}
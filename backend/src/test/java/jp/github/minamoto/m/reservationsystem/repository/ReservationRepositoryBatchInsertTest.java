@@ -0,0 +1,52 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+
+@SpringBootTest
+@Transactional
+class ReservationRepositoryBatchInsertTest {
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Test
+    void batchInsert_twoReservations_assignsGeneratedIds() {
+        // Given: data.sql の予約枠ID=3, 4 に対する予約
+        List<TimeSlot> slots = timeSlotRepository.findAllByIdForUpdate(List.of(4L, 3L));
+        Reservation r1 = reservation(slots.get(0), "一括1");
+        Reservation r2 = reservation(slots.get(1), "一括2");
+
+        // When: JDBCバッチで登録する
+        reservationRepository.batchInsert(List.of(r1, r2));
+
+        // Then: 採番されたIDが設定され、JPA からも読み出せる
+        assertThat(slots).extracting(TimeSlot::getId).containsExactly(3L, 4L);
+        assertThat(r1.getId()).isNotNull();
+        assertThat(r2.getId()).isGreaterThan(r1.getId());
+        assertThat(reservationRepository.findById(r2.getId()))
+                .get().extracting(Reservation::getName).isEqualTo("一括2");
+    }
+
+    private static Reservation reservation(TimeSlot slot, String name) {
+        Reservation r = new Reservation();
+        r.setTimeSlot(slot);
+        r.setStatus(ReservationStatus.CONFIRMED);
+        r.setName(name);
+        r.setPhoneNumber("0312345678");
+        return r;
+    }
+}
@@ -0,0 +1,274 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import jp.github.minamoto.m.reservationsystem.service.partition.TimeSlotPartitionManager;
+
+/**
+ * time_slot・reservation のデータ量を変えて、リポジトリのクエリの実行計画とレイテンシを
+ * 変更前のスキーマ（インデックスなし）と本番スキーマ（schema-mysql.sql）で比較する。
+ *
+ * <p>MySQL が必要なため、接続先を指定した場合のみ実行する。指定したデータベースのテーブルは作り直される。</p>
+ * <pre>
+ * ./mvnw test -Dtest=SchemaBenchmarkTest \
+ *     -Dbench.mysql.url=jdbc:mysql://localhost:3306/bench -Dbench.mysql.user=root -Dbench.mysql.password=secret \
+ *     -Dbench.slots=1000000,10000000,50000000
+ * </pre>
+ * <p>結果（EXPLAIN と p50/p95/p99）は target/benchmark/schema-{baseline|production}-{件数}.md に出力する。</p>
+ */
+@EnabledIfSystemProperty(named = "bench.mysql.url", matches = ".+")
+class SchemaBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(SchemaBenchmarkTest.class);
+
+    private static final int DEPARTMENTS = 20;
+    private static final int DAYS = 365;
+    private static final int SLOTS_PER_DAY = 18;
+    private static final int DOCTORS_PER_INSERT = 20;
+
+    /** 変更前の schema-mysql.sql（time_slot・reservation にインデックスなし） */
+    private static final String BASELINE_SCHEMA = """
+            DROP TABLE IF EXISTS idempotency_key;
+            DROP TABLE IF EXISTS waitlist_entry;
+            DROP TABLE IF EXISTS slot_hold;
+            DROP TABLE IF EXISTS reservation;
+            DROP TABLE IF EXISTS time_slot;
+            DROP TABLE IF EXISTS doctor;
+            DROP TABLE IF EXISTS department;
+            CREATE TABLE department (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                name VARCHAR(100) NOT NULL
+            );
+            CREATE TABLE doctor (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                name VARCHAR(100) NOT NULL,
+                department_id BIGINT NOT NULL,
+                CONSTRAINT fk_doctor_department FOREIGN KEY (department_id) REFERENCES department(id)
+            );
+            CREATE TABLE time_slot (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                date DATE NOT NULL,
+                start_time TIME NOT NULL,
+                end_time TIME NOT NULL,
+                doctor_id BIGINT NOT NULL,
+                status VARCHAR(20) NOT NULL,
+                version BIGINT NOT NULL DEFAULT 0,
+                CONSTRAINT fk_time_slot_doctor FOREIGN KEY (doctor_id) REFERENCES doctor(id)
+            );
+            CREATE TABLE reservation (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                time_slot_id BIGINT NOT NULL,
+                active_time_slot_id BIGINT UNIQUE,
+                status VARCHAR(20) NOT NULL,
+                name VARCHAR(255),
+                phone_number VARCHAR(255),
+                created_at TIMESTAMP NULL,
+                CONSTRAINT fk_reservation_time_slot FOREIGN KEY (time_slot_id) REFERENCES time_slot(id)
+            );
+            """;
+
+    private final LocalDate firstDay = LocalDate.now();
+
+    @Test
+    void compareBaselineAndProductionSchema() throws IOException {
+        String url = System.getProperty("bench.mysql.url");
+        String user = System.getProperty("bench.mysql.user", "root");
+        String password = System.getProperty("bench.mysql.password", "");
+        int iterations = Integer.getInteger("bench.iterations", 200);
+        long[] sizes = Arrays.stream(System.getProperty("bench.slots", "1000000").split(","))
+                .mapToLong(size -> Long.parseLong(size.trim())).toArray();
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url, user, password, true);
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            for (long slots : sizes) {
+                for (String variant : List.of("baseline", "production")) {
+                    createSchema(jdbc, dataSource, variant);
+                    int doctors = generate(jdbc, slots);
+                    String report = measure(jdbc, variant, slots, doctors, iterations);
+                    Path file = Path.of("target", "benchmark", "schema-" + variant + "-" + slots + ".md");
+                    Files.createDirectories(file.getParent());
+                    Files.writeString(file, report);
+                    log.info("{}\n{}", file, report);
+                }
+            }
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private void createSchema(JdbcTemplate jdbc, SingleConnectionDataSource dataSource, String variant) {
+        jdbc.execute("SET FOREIGN_KEY_CHECKS = 0");
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(variant.equals("baseline")
+                ? new ByteArrayResource(BASELINE_SCHEMA.getBytes())
+                : new ClassPathResource("schema-mysql.sql"));
+        populator.execute(dataSource);
+        jdbc.execute("SET FOREIGN_KEY_CHECKS = 1");
+
+        if (variant.equals("production")) {
+            // データの期間を覆う月パーティションを用意する（アプリでは TimeSlotPartitionManager が行う）
+            String ddl = TimeSlotPartitionManager.reorganizeStatement(List.of("MAXVALUE"), firstDay, DAYS / 30 + 1);
+            jdbc.execute(ddl);
+        }
+    }
+
+    /**
+     * 医師 × DAYS 日 × SLOTS_PER_DAY 枠の予約枠を作る。2割を RESERVED（予約あり）、OPEN の2%にキャンセル済みの予約を付ける。
+     *
+     * @return 医師数
+     */
+    private int generate(JdbcTemplate jdbc, long slots) {
+        int doctors = (int) Math.max(1, slots / ((long) DAYS * SLOTS_PER_DAY));
+        long startedAt = System.nanoTime();
+
+        jdbc.execute("SET SESSION cte_max_recursion_depth = 100000");
+        jdbc.update("INSERT INTO department (name) WITH RECURSIVE n (i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < ?) "
+                + "SELECT CONCAT('dept-', i) FROM n", DEPARTMENTS);
+        jdbc.update("INSERT INTO doctor (name, department_id) WITH RECURSIVE n (i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < ?) "
+                + "SELECT CONCAT('doctor-', i), MOD(i, ?) + 1 FROM n", doctors, DEPARTMENTS);
+
+        for (int from = 1; from <= doctors; from += DOCTORS_PER_INSERT) {
+            int to = Math.min(doctors, from + DOCTORS_PER_INSERT - 1);
+            jdbc.update("INSERT INTO time_slot (date, start_time, end_time, doctor_id, status) "
+                    + "WITH RECURSIVE days (d) AS (SELECT 0 UNION ALL SELECT d + 1 FROM days WHERE d < ?), "
+                    + "slots (s) AS (SELECT 0 UNION ALL SELECT s + 1 FROM slots WHERE s < ?) "
+                    + "SELECT DATE_ADD(?, INTERVAL days.d DAY), ADDTIME('09:00:00', SEC_TO_TIME(slots.s * 1800)), "
+                    + "ADDTIME('09:30:00', SEC_TO_TIME(slots.s * 1800)), doctor.id, "
+                    + "IF(MOD(doctor.id * 31 + days.d * 7 + slots.s, 5) = 0, 'RESERVED', 'OPEN') "
+                    + "FROM doctor JOIN days JOIN slots WHERE doctor.id BETWEEN ? AND ? "
+                    + "ORDER BY days.d, doctor.id, slots.s",
+                    DAYS - 1, SLOTS_PER_DAY - 1, Date.valueOf(firstDay), from, to);
+        }
+        jdbc.update("INSERT INTO reservation (time_slot_id, active_time_slot_id, status, name, phone_number, created_at) "
+                + "SELECT id, id, 'CONFIRMED', 'bench', '09000000000', NOW() FROM time_slot WHERE status = 'RESERVED'");
+        jdbc.update("INSERT INTO reservation (time_slot_id, active_time_slot_id, status, name, phone_number, created_at) "
+                + "SELECT id, NULL, 'CANCELLED', 'bench', '09000000000', NOW() FROM time_slot WHERE status = 'OPEN' AND MOD(id, 50) = 0");
+        jdbc.execute("ANALYZE TABLE time_slot, reservation, doctor");
+
+        log.info("generated doctors={} slots={} in {}s", doctors,
+                jdbc.queryForObject("SELECT COUNT(*) FROM time_slot", Long.class),
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt));
+        return doctors;
+    }
+
+    private String measure(JdbcTemplate jdbc, String variant, long slots, int doctors, int iterations) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Supplier<Long> doctor = () -> random.nextLong(1, doctors + 1);
+        Supplier<Long> department = () -> random.nextLong(1, DEPARTMENTS + 1);
+        Supplier<Date> day = () -> Date.valueOf(firstDay.plusDays(random.nextInt(DAYS - 7)));
+
+        List<BenchQuery> queries = List.of(
+                new BenchQuery("findByDoctorIdAndDateAndStatus（医師×日の空き枠）",
+                        "SELECT id, date, start_time, end_time, doctor_id, status FROM time_slot "
+                                + "WHERE doctor_id = ? AND date = ? AND status = 'OPEN' ORDER BY start_time",
+                        () -> new Object[] { doctor.get(), day.get() }, iterations),
+                new BenchQuery("findStatesByDoctorIdsAndDateRange（5人×7日）",
+                        "SELECT id, doctor_id, date, start_time, status FROM time_slot "
+                                + "WHERE doctor_id IN (?, ?, ?, ?, ?) AND date BETWEEN ? AND ? AND status = 'OPEN' "
+                                + "ORDER BY doctor_id, date, start_time",
+                        () -> {
+                            Date from = day.get();
+                            return new Object[] { doctor.get(), doctor.get(), doctor.get(), doctor.get(), doctor.get(),
+                                    from, Date.valueOf(from.toLocalDate().plusDays(6)) };
+                        }, iterations),
+                new BenchQuery("findStatesByDepartmentIdAndDateRange（診療科×7日）",
+                        "SELECT t.id, t.doctor_id, t.date, t.start_time, t.status FROM time_slot t "
+                                + "JOIN doctor d ON d.id = t.doctor_id WHERE d.department_id = ? "
+                                + "AND t.date BETWEEN ? AND ? AND t.status = 'OPEN' ORDER BY t.doctor_id, t.date, t.start_time",
+                        () -> {
+                            Date from = day.get();
+                            return new Object[] { department.get(), from, Date.valueOf(from.toLocalDate().plusDays(6)) };
+                        }, Math.max(10, iterations / 10)),
+                new BenchQuery("findEarliestByDepartmentId（先頭5件）",
+                        "SELECT t.id, t.doctor_id, t.date, t.start_time, t.status FROM time_slot t "
+                                + "JOIN doctor d ON d.id = t.doctor_id WHERE d.department_id = ? AND t.status = 'OPEN' "
+                                + "AND (t.date > ? OR (t.date = ? AND t.start_time >= ?)) "
+                                + "ORDER BY t.date, t.start_time, t.id LIMIT 5",
+                        () -> {
+                            Date from = day.get();
+                            return new Object[] { department.get(), from, from, LocalTime.of(12, 0).toString() };
+                        }, iterations),
+                new BenchQuery("SlotVersionService（医師×日の version）",
+                        "SELECT id, version FROM time_slot WHERE doctor_id = ? AND date = ?",
+                        () -> new Object[] { doctor.get(), day.get() }, iterations),
+                new BenchQuery("findById（ID指定）",
+                        "SELECT id, date, start_time, end_time, doctor_id, status FROM time_slot WHERE id = ?",
+                        () -> new Object[] { random.nextLong(1, slots + 1) }, iterations),
+                new BenchQuery("findByStatus（キャンセル済みの予約、先頭100件）",
+                        "SELECT id, time_slot_id, status, name, phone_number, created_at FROM reservation "
+                                + "WHERE status = 'CANCELLED' ORDER BY id LIMIT 100",
+                        () -> new Object[0], iterations),
+                new BenchQuery("findStatesByDateRange（エンジン再構築、7日分の件数）",
+                        "SELECT COUNT(*) FROM time_slot WHERE date >= ? AND date < ?",
+                        () -> {
+                            Date from = day.get();
+                            return new Object[] { from, Date.valueOf(from.toLocalDate().plusDays(7)) };
+                        }, Math.max(5, iterations / 20)));
+
+        StringBuilder report = new StringBuilder()
+                .append("# schema=").append(variant).append(" slots=").append(slots)
+                .append(" doctors=").append(doctors).append("\n\n")
+                .append("| query | p50 ms | p95 ms | p99 ms | type | key | rows | Extra |\n")
+                .append("|---|---|---|---|---|---|---|---|\n");
+        StringBuilder plans = new StringBuilder("\n## EXPLAIN FORMAT=TREE\n");
+
+        for (BenchQuery query : queries) {
+            Object[] sample = query.params().get();
+            List<Map<String, Object>> explain = jdbc.queryForList("EXPLAIN " + query.sql(), sample);
+            Map<String, Object> first = explain.get(0);
+            plans.append("\n### ").append(query.name()).append("\n```\n")
+                    .append(jdbc.queryForObject("EXPLAIN FORMAT=TREE " + query.sql(), String.class, sample))
+                    .append("\n```\n");
+
+            for (int i = 0; i < Math.min(10, query.iterations()); i++) {
+                jdbc.queryForList(query.sql(), query.params().get());
+            }
+            long[] nanos = new long[query.iterations()];
+            for (int i = 0; i < nanos.length; i++) {
+                Object[] params = query.params().get();
+                long startedAt = System.nanoTime();
+                jdbc.queryForList(query.sql(), params);
+                nanos[i] = System.nanoTime() - startedAt;
+            }
+            Arrays.sort(nanos);
+            report.append("| ").append(query.name())
+                    .append(" | ").append(millis(nanos, 0.50))
+                    .append(" | ").append(millis(nanos, 0.95))
+                    .append(" | ").append(millis(nanos, 0.99))
+                    .append(" | ").append(explain.stream().map(row -> String.valueOf(row.get("type"))).toList())
+                    .append(" | ").append(explain.stream().map(row -> String.valueOf(row.get("key"))).toList())
+                    .append(" | ").append(first.get("rows"))
+                    .append(" | ").append(first.get("Extra"))
+                    .append(" |\n");
+        }
+        return report.append(plans).toString();
+    }
+
+    private static String millis(long[] sortedNanos, double percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile * sortedNanos.length) - 1);
+        return String.format("%.2f", sortedNanos[Math.max(0, index)] / 1_000_000.0);
+    }
+
+    private record BenchQuery(String name, String sql, Supplier<Object[]> params, int iterations) {
+    }
+}
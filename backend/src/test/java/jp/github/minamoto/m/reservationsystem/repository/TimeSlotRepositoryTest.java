@@ -0,0 +1,80 @@
+package jp.github.minamoto.m.reservationsystem.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+
+/**
+ * 予約枠のロック・更新が主キー（id, date）で正しい行を対象にすることを確認する。
+ */
+@SpringBootTest
+@Transactional
+class TimeSlotRepositoryTest {
+
+    // data.sql の本日の予約枠と、翌日の予約枠（医師9の最初の枠）
+    private static final Long TODAY_SLOT_ID = 3L;
+    private static final Long TOMORROW_SLOT_ID = 325L;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findByIdForUpdate_byIdOnly_findsSlot() {
+        assertThat(timeSlotRepository.findByIdForUpdate(TOMORROW_SLOT_ID)).get()
+                .extracting(TimeSlot::getDate).isEqualTo(LocalDate.now().plusDays(1));
+        assertThat(timeSlotRepository.findByIdForUpdate(999999L)).isEmpty();
+    }
+
+    @Test
+    void findAllByIdForUpdate_slotsOnDifferentDays_returnsInIdOrder() {
+        // When: 日付の違う枠と、存在しないIDを含めて指定する
+        List<TimeSlot> slots = timeSlotRepository.findAllByIdForUpdate(List.of(TOMORROW_SLOT_ID, 999999L, TODAY_SLOT_ID));
+
+        // Then
+        assertThat(slots).extracting(TimeSlot::getId).containsExactly(TODAY_SLOT_ID, TOMORROW_SLOT_ID);
+    }
+
+    @Test
+    void updateAllStatusIfMatches_onlyMatchingStatusUpdated() {
+        // Given: 翌日の枠だけ閉じておく
+        timeSlotRepository.updateStatusIfMatches(TOMORROW_SLOT_ID, TimeSlotStatus.OPEN, TimeSlotStatus.DOCTOR_UNAVAILABLE);
+
+        // When
+        int updated = timeSlotRepository.updateAllStatusIfMatches(List.of(TODAY_SLOT_ID, TOMORROW_SLOT_ID),
+                TimeSlotStatus.DOCTOR_UNAVAILABLE, TimeSlotStatus.OPEN);
+
+        // Then: 閉じていた翌日の枠だけが戻る
+        assertThat(updated).isEqualTo(1);
+        assertThat(status(TOMORROW_SLOT_ID)).isEqualTo("OPEN");
+    }
+
+    @Test
+    void where_groupsIdsByDate() {
+        List<Object> args = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+
+        String where = TimeSlotKeys.where("t", Map.of(today, List.of(1L, 2L)), args);
+
+        assertThat(where).isEqualTo("((t.date = ? AND t.id IN (?, ?)))");
+        assertThat(args).containsExactly(today, 1L, 2L);
+    }
+
+    private String status(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM time_slot WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,162 @@
+package jp.github.minamoto.m.reservationsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationBatchMode;
+import jp.github.minamoto.m.reservationsystem.domain.ReservationClaimStrategy;
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationBatchRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationBatchResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationArchiveRepository;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.SlotHoldRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.engine.SlotStateEngine;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationBatchServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private ReservationArchiveRepository reservationArchiveRepository;
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    @Mock
+    private SlotHoldRepository slotHoldRepository;
+
+    @Mock
+    private SlotStateEngine slotStateEngine;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ReservationBatchService reservationBatchService;
+
+    @BeforeEach
+    void setUp() {
+        ReservationService reservationService = new ReservationService(
+                reservationRepository, reservationArchiveRepository, timeSlotRepository, slotHoldRepository, slotStateEngine, waitlistService, eventPublisher, ReservationClaimStrategy.PESSIMISTIC_LOCK);
+        reservationBatchService = new ReservationBatchService(
+                reservationService, reservationRepository, timeSlotRepository, slotStateEngine, eventPublisher, 4);
+    }
+
+    @Test
+    void createBatch_bestEffort_createsOnlyAvailableSlots() {
+        // Given: 予約枠1（OPEN）、2（RESERVED）があり、3は存在しない。1は同一リクエスト内で重複している
+        when(timeSlotRepository.findAllByIdForUpdate(any()))
+                .thenReturn(List.of(slot(1L, TimeSlotStatus.OPEN), slot(2L, TimeSlotStatus.RESERVED)));
+        doAnswer(invocation -> {
+            List<Reservation> reservations = invocation.getArgument(0);
+            long id = 100;
+            for (Reservation r : reservations) {
+                r.setId(id++);
+            }
+            return null;
+        }).when(reservationRepository).batchInsert(anyList());
+
+        ReservationBatchRequestDTO dto = request(ReservationBatchMode.BEST_EFFORT, 2L, 1L, 3L);
+        dto.getItems().add(item(1L));
+
+        // When: 一括予約する
+        ReservationBatchResponseDTO result = reservationBatchService.createBatch(dto);
+
+        // Then: 予約枠1だけが登録され、他は明細ごとの理由が返る
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getResults()).extracting("result")
+                .containsExactly("CONFLICT", "CREATED", "NOT_FOUND", "CONFLICT");
+        assertThat(result.getResults().get(1).getReservation().getReservationId()).isEqualTo(100L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Reservation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reservationRepository).batchInsert(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+        assertThat(captor.getValue().get(0).getTimeSlot().getStatus()).isEqualTo(TimeSlotStatus.RESERVED);
+    }
+
+    @Test
+    void createBatch_allOrNothingWithConflict_createsNothing() {
+        // Given: 予約枠1（OPEN）、2（RESERVED）
+        TimeSlot open = slot(1L, TimeSlotStatus.OPEN);
+        when(timeSlotRepository.findAllByIdForUpdate(any()))
+                .thenReturn(List.of(open, slot(2L, TimeSlotStatus.RESERVED)));
+
+        // When: ALL_OR_NOTHING で一括予約する
+        ReservationBatchResponseDTO result = reservationBatchService.createBatch(
+                request(ReservationBatchMode.ALL_OR_NOTHING, 1L, 2L));
+
+        // Then: 何も登録されず、予約可能だった明細は SKIPPED になる
+        assertThat(result.getCreated()).isZero();
+        assertThat(result.getResults()).extracting("result").containsExactly("SKIPPED", "CONFLICT");
+        assertThat(open.getStatus()).isEqualTo(TimeSlotStatus.OPEN);
+        verify(reservationRepository, never()).batchInsert(anyList());
+    }
+
+    @Test
+    void createBatch_tooManyItems_throwsRequestLimitExceededException() {
+        // When & Then: 上限（4件）を超えると例外になり、ロックも取得しない
+        assertThrows(RequestLimitExceededException.class, () -> reservationBatchService.createBatch(
+                request(ReservationBatchMode.BEST_EFFORT, 1L, 2L, 3L, 4L, 5L)));
+
+        verify(timeSlotRepository, never()).findAllByIdForUpdate(any());
+    }
+
+    private static ReservationBatchRequestDTO request(ReservationBatchMode mode, Long... timeSlotIds) {
+        ReservationBatchRequestDTO dto = new ReservationBatchRequestDTO();
+        dto.setMode(mode);
+        dto.setItems(new ArrayList<>());
+        for (Long id : timeSlotIds) {
+            dto.getItems().add(item(id));
+        }
+        return dto;
+    }
+
+    private static ReservationCreateRequestDTO item(Long timeSlotId) {
+        ReservationCreateRequestDTO item = new ReservationCreateRequestDTO();
+        item.setTimeSlotId(timeSlotId);
+        item.setName("窓口一括");
+        item.setPhoneNumber("0312345678");
+        return item;
+    }
+
+    private static TimeSlot slot(Long id, TimeSlotStatus status) {
+        TimeSlot slot = new TimeSlot();
+        slot.setId(id);
+        slot.setDate(LocalDate.of(2025, 2, 10));
+        slot.setStartTime(LocalTime.of(9, 0));
+        slot.setEndTime(LocalTime.of(9, 30));
+        slot.setStatus(status);
+        return slot;
+    }
+}
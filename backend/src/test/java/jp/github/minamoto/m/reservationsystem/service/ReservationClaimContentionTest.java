@@ -0,0 +1,157 @@
+package jp.github.minamoto.m.reservationsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationClaimStrategy;
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationArchiveRepository;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.SlotHoldRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.engine.SlotStateEngine;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotAlreadyTakenException;
+
+/**
+ * 同一の予約枠に同時に予約が集中した場合の、確保方式ごとの比較。
+ *
+ * <p>どちらの方式でも成功は1件のみであることを確認し、所要時間をログに出力する。</p>
+ */
+@SpringBootTest
+class ReservationClaimContentionTest {
+    private static final Logger log = LoggerFactory.getLogger(ReservationClaimContentionTest.class);
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 4;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationArchiveRepository reservationArchiveRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private SlotHoldRepository slotHoldRepository;
+
+    @Autowired
+    private SlotStateEngine slotStateEngine;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        // data.sql の予約枠ID=1, 2 を OPEN に戻す（空き枠カウンタ・ETag も戻るようイベントを発行する）
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (Long timeSlotId : List.of(1L, 2L)) {
+                jdbcTemplate.update("DELETE FROM reservation WHERE time_slot_id = ?", timeSlotId);
+                if (jdbcTemplate.update("UPDATE time_slot SET status = 'OPEN' WHERE id = ? AND status = 'RESERVED'",
+                        timeSlotId) > 0) {
+                    eventPublisher.publishEvent(
+                            TimeSlotStatusChangedEvent.of(timeSlotId, TimeSlotStatus.RESERVED, TimeSlotStatus.OPEN));
+                }
+            }
+        });
+    }
+
+    @Test
+    void hotSlot_pessimisticLock_onlyOneReservationSucceeds() throws Exception {
+        // Given: data.sql の予約枠ID=1（OPEN）に同時に予約が集中する
+        // When & Then: 成功は1件のみ
+        runContention(ReservationClaimStrategy.PESSIMISTIC_LOCK, 1L);
+    }
+
+    @Test
+    void hotSlot_conditionalUpdate_onlyOneReservationSucceeds() throws Exception {
+        // Given: data.sql の予約枠ID=2（OPEN）に同時に予約が集中する
+        // When & Then: 成功は1件のみ
+        runContention(ReservationClaimStrategy.CONDITIONAL_UPDATE, 2L);
+    }
+
+    private void runContention(ReservationClaimStrategy strategy, Long timeSlotId) throws Exception {
+        ReservationService service = new ReservationService(
+                reservationRepository, reservationArchiveRepository, timeSlotRepository, slotHoldRepository, slotStateEngine, waitlistService, eventPublisher, strategy);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int threadNo = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int n = 0; n < ATTEMPTS_PER_THREAD; n++) {
+                    ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+                    dto.setTimeSlotId(timeSlotId);
+                    dto.setName("contention-" + threadNo + "-" + n);
+                    dto.setPhoneNumber("09000000000");
+                    try {
+                        tx.executeWithoutResult(status -> service.create(dto));
+                        succeeded.incrementAndGet();
+                    } catch (TimeSlotAlreadyTakenException e) {
+                        rejected.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // ロック待ちタイムアウトなど
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt);
+        executor.shutdown();
+
+        log.info("strategy={} attempts={} succeeded={} rejected={} failed={} elapsed={}us",
+                strategy, THREADS * ATTEMPTS_PER_THREAD, succeeded.get(), rejected.get(), failed.get(), elapsedMicros);
+
+        Integer reservations = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservation WHERE time_slot_id = ?", Integer.class, timeSlotId);
+
+        assertThat(succeeded.get()).isEqualTo(1);
+        assertThat(reservations).isEqualTo(1);
+        assertThat(succeeded.get() + rejected.get() + failed.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD);
+    }
+}
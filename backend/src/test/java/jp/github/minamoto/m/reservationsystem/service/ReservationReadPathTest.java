@@ -0,0 +1,100 @@
+package jp.github.minamoto.m.reservationsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+
+/**
+ * 予約の参照がキャンセル処理（行ロック）を待たないことを確認する。
+ */
+@SpringBootTest
+class ReservationReadPathTest {
+
+    private static final Long TIME_SLOT_ID = 8L;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM reservation WHERE time_slot_id = ?", TIME_SLOT_ID);
+            jdbcTemplate.update("UPDATE time_slot SET status = 'OPEN' WHERE id = ?", TIME_SLOT_ID);
+        });
+    }
+
+    @Test
+    void findById_whileReservationLockedByWriter_doesNotWait() throws Exception {
+        // Given: data.sql の予約枠ID=8 の予約があり、別トランザクションがその行をロックしたままになっている
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(TIME_SLOT_ID);
+        dto.setName("参照テスト");
+        dto.setPhoneNumber("09000000000");
+        Long reservationId = tx.execute(status -> reservationService.create(dto)).getReservationId();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> writer = executor.submit(() -> tx.executeWithoutResult(status -> {
+            reservationRepository.findByIdForUpdate(reservationId).orElseThrow();
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            status.setRollbackOnly();
+        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            // When: ロック中に参照する
+            Future<ReservationResponseDTO> reader = executor.submit(() -> reservationService.findById(reservationId));
+
+            // Then: 参照はロック解放を待たずに返る
+            assertThat(reader.get(1, TimeUnit.SECONDS).getReservationId()).isEqualTo(reservationId);
+
+            // 比較: ロック付きの取得はロック解放まで待たされる
+            Future<?> lockingReader = executor.submit(() -> tx.executeWithoutResult(
+                    status -> reservationRepository.findByIdForUpdate(reservationId)));
+            assertThatThrownBy(() -> lockingReader.get(300, TimeUnit.MILLISECONDS))
+                    .isInstanceOf(TimeoutException.class);
+
+            release.countDown();
+            lockingReader.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package jp.github.minamoto.m.reservationsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.ReservationSearchService.ReservationPage;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidReservationQueryException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:searchdb;DB_CLOSE_DELAY=-1",
+        "app.reservation.list.max-page-size=50" })
+class ReservationSearchServiceTest {
+
+    // data.sql の予約枠と重ならない日付に、医師1（小児科）・医師3・医師7（内科）の予約を作る
+    private static final LocalDate DAY1 = LocalDate.of(2098, 3, 1);
+    private static final LocalDate DAY2 = LocalDate.of(2098, 3, 2);
+    private static final LocalDate DAY3 = LocalDate.of(2098, 3, 3);
+    private static final Long INTERNAL_MEDICINE = 1L;
+
+    @Autowired
+    private ReservationSearchService reservationSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_slot WHERE date = ?", Integer.class, DAY1) > 0) {
+                return;
+            }
+            // 同じ日付・開始時刻の枠が医師ごとにあるため、並び順は予約IDで決まる行を含む
+            for (LocalDate date : List.of(DAY2, DAY1)) {
+                for (String start : List.of("09:30", "09:00")) {
+                    for (long doctorId : List.of(7L, 1L, 3L)) {
+                        insertReservation(date, start, doctorId, "CONFIRMED");
+                    }
+                }
+            }
+            insertReservation(DAY1, "10:00", 3L, "CANCELED");
+        });
+    }
+
+    @Test
+    void findPage_followingCursors_returnsEveryRowOnceInOrder() {
+        // When: 5件ずつカーソルをたどる
+        List<ReservationResponseDTO> paged = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            ReservationPage page = reservationSearchService.findPage(null, DAY1, DAY2, null, null, cursor, 5);
+            paged.addAll(page.reservations());
+            cursor = page.nextCursor();
+            cursors.add(cursor);
+        } while (cursor != null);
+
+        // Then: 1ページで取得した場合と同じ行が同じ順に並ぶ（日付・開始時刻・予約ID順）
+        List<ReservationResponseDTO> all = reservationSearchService.findPage(null, DAY1, DAY2, null, null, null, 50)
+                .reservations();
+        assertThat(all).hasSize(12);
+        assertThat(paged).extracting(ReservationResponseDTO::getReservationId)
+                .containsExactlyElementsOf(all.stream().map(ReservationResponseDTO::getReservationId).toList());
+        assertThat(cursors).hasSize(3).last().isNull();
+        for (int i = 1; i < all.size(); i++) {
+            ReservationResponseDTO prev = all.get(i - 1);
+            ReservationResponseDTO next = all.get(i);
+            assertThat(next.getDate()).isAfterOrEqualTo(prev.getDate());
+            if (next.getDate().equals(prev.getDate()) && next.getStartTime().equals(prev.getStartTime())) {
+                assertThat(next.getReservationId()).isGreaterThan(prev.getReservationId());
+            }
+        }
+        assertThat(all).extracting(ReservationResponseDTO::getStatus).containsOnly("CONFIRMED");
+    }
+
+    @Test
+    void findPage_rowAddedBeforeCursor_nextPageUnaffected() {
+        // Given: 1ページ目を取得した後に、1ページ目より前の位置に予約が追加される
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> insertReservation(DAY3, "10:00", 1L, "CONFIRMED"));
+        Long second = tx.execute(status -> insertReservation(DAY3, "11:00", 1L, "CONFIRMED"));
+        String cursor = reservationSearchService.findPage(null, DAY3, DAY3, null, null, null, 1).nextCursor();
+        tx.executeWithoutResult(status -> insertReservation(DAY3, "09:00", 3L, "CONFIRMED"));
+
+        // When
+        ReservationPage page = reservationSearchService.findPage(null, DAY3, DAY3, null, null, cursor, 1);
+
+        // Then: OFFSET と違い、カーソルの後ろの行がずれずに返る
+        assertThat(page.reservations()).extracting(ReservationResponseDTO::getReservationId).containsExactly(second);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void findPage_filters_narrowRows() {
+        // 医師
+        assertThat(reservationSearchService.findPage(null, DAY1, DAY2, 3L, null, null, 50).reservations())
+                .hasSize(4);
+        // 診療科（医師3・医師7）
+        assertThat(reservationSearchService.findPage(null, DAY1, DAY2, null, INTERNAL_MEDICINE, null, 50).reservations())
+                .hasSize(8);
+        // 期間
+        assertThat(reservationSearchService.findPage(null, DAY2, DAY2, null, null, null, 50).reservations())
+                .extracting(ReservationResponseDTO::getDate).hasSize(6).containsOnly(DAY2);
+        // ステータス
+        assertThat(reservationSearchService.findPage(ReservationStatus.CANCELED, DAY1, DAY2, null, null, null, 50)
+                .reservations())
+                .singleElement().satisfies(r -> {
+                    assertThat(r.getStatus()).isEqualTo("CANCELED");
+                    assertThat(r.getStartTime()).hasToString("10:00");
+                });
+    }
+
+    @Test
+    void findPage_invalidQuery_throws() {
+        assertThatThrownBy(() -> reservationSearchService.findPage(null, null, null, null, null, "not-a-cursor", null))
+                .isInstanceOf(InvalidReservationQueryException.class);
+        assertThatThrownBy(() -> reservationSearchService.findPage(null, DAY2, DAY1, null, null, null, null))
+                .isInstanceOf(InvalidReservationQueryException.class);
+        assertThatThrownBy(() -> reservationSearchService.findPage(null, null, null, null, null, null, 0))
+                .isInstanceOf(InvalidReservationQueryException.class);
+        assertThatThrownBy(() -> reservationSearchService.findPage(null, null, null, null, null, null, 51))
+                .isInstanceOf(RequestLimitExceededException.class);
+    }
+
+    private Long insertReservation(LocalDate date, String start, long doctorId, String status) {
+        jdbcTemplate.update("INSERT INTO time_slot (date, start_time, end_time, doctor_id, status) "
+                + "VALUES (?, CAST(? AS TIME), DATEADD(MINUTE, 30, CAST(? AS TIME)), ?, ?)",
+                date, start, start, doctorId, "CONFIRMED".equals(status) ? "RESERVED" : "OPEN");
+        Long slotId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM time_slot", Long.class);
+        jdbcTemplate.update("INSERT INTO reservation (time_slot_id, active_time_slot_id, status, name, phone_number, created_at) "
+                + "VALUES (?, ?, ?, '検索', '09000000000', CURRENT_TIMESTAMP)",
+                slotId, "CONFIRMED".equals(status) ? slotId : null, status);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM reservation", Long.class);
+    }
+}
@@ -6,9 +6,11 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
@@ -18,16 +20,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
 
+import jp.github.minamoto.m.reservationsystem.domain.ReservationClaimStrategy;
 import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
 import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
 import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
 import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
 import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+import jp.github.minamoto.m.reservationsystem.entity.ReservationArchive;
+import jp.github.minamoto.m.reservationsystem.entity.SlotHold;
 import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationArchiveRepository;
 import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.SlotHoldRepository;
 import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.engine.SlotStateEngine;
 import jp.github.minamoto.m.reservationsystem.service.exception.ReservationNotFoundException;
+import jp.github.minamoto.m.reservationsystem.service.exception.SlotHoldExpiredException;
 import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotAlreadyTakenException;
 import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotNotFoundException;
 
@@ -37,8 +47,23 @@ class ReservationServiceTest {
 	@Mock
 	private ReservationRepository reservationRepository;
 
+	@Mock
+	private ReservationArchiveRepository reservationArchiveRepository;
+
 	@Mock
 	private TimeSlotRepository timeSlotRepository;
+
+	@Mock
+	private SlotHoldRepository slotHoldRepository;
+
+	@Mock
+	private SlotStateEngine slotStateEngine;
+
+	@Mock
+	private WaitlistService waitlistService;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
 	
     @InjectMocks
     private ReservationService reservationService;
@@ -53,7 +78,7 @@ class ReservationServiceTest {
         timeSlot.setEndTime(LocalTime.of(9, 30));
         timeSlot.setStatus(TimeSlotStatus.OPEN);
 
-        when(timeSlotRepository.findById(1L)).thenReturn(Optional.of(timeSlot));
+        when(timeSlotRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(timeSlot));
 
         ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
         dto.setTimeSlotId(1L);
@@ -84,7 +109,150 @@ class ReservationServiceTest {
         assertThat(timeSlot.getStatus()).isEqualTo(TimeSlotStatus.RESERVED);
 
         verify(reservationRepository).save(any(Reservation.class));
-        verify(timeSlotRepository).findById(1L);
+        verify(timeSlotRepository).findByIdForUpdate(1L);
+    }
+
+    @Test
+    void create_conditionalUpdateClaimed_success() {
+        // Given: 条件付きUPDATE方式で、OPEN の予約枠が1件更新できる
+        ReservationService service = new ReservationService(
+                reservationRepository, reservationArchiveRepository, timeSlotRepository, slotHoldRepository, slotStateEngine, waitlistService, eventPublisher, ReservationClaimStrategy.CONDITIONAL_UPDATE);
+
+        TimeSlot timeSlot = new TimeSlot();
+        timeSlot.setId(1L);
+        timeSlot.setDate(LocalDate.of(2025, 2, 10));
+        timeSlot.setStartTime(LocalTime.of(9, 0));
+        timeSlot.setEndTime(LocalTime.of(9, 30));
+        timeSlot.setStatus(TimeSlotStatus.RESERVED);
+
+        when(timeSlotRepository.updateStatusIfMatches(1L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED)).thenReturn(1);
+        when(timeSlotRepository.getReferenceById(1L)).thenReturn(timeSlot);
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation r = invocation.getArgument(0);
+            r.setId(1L);
+            return r;
+        });
+
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(1L);
+        dto.setName("テストユーザー");
+        dto.setPhoneNumber("09012345678");
+
+        // When: 予約を作成する
+        ReservationResponseDTO result = service.create(dto);
+
+        // Then: ロック付きの findByIdForUpdate は呼ばれずに予約が作成される
+        assertThat(result.getReservationId()).isEqualTo(1L);
+        assertThat(result.getTimeSlotId()).isEqualTo(1L);
+        assertThat(result.getStatus()).isEqualTo("CONFIRMED");
+
+        verify(timeSlotRepository, never()).findByIdForUpdate(any());
+        verify(reservationRepository).save(any(Reservation.class));
+    }
+
+    @Test
+    void create_conditionalUpdateNotClaimed_TimeSlotAlreadyTakenException() {
+        // Given: 条件付きUPDATE方式で、予約枠はあるが OPEN ではない（更新件数0）
+        ReservationService service = new ReservationService(
+                reservationRepository, reservationArchiveRepository, timeSlotRepository, slotHoldRepository, slotStateEngine, waitlistService, eventPublisher, ReservationClaimStrategy.CONDITIONAL_UPDATE);
+
+        when(timeSlotRepository.updateStatusIfMatches(1L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED)).thenReturn(0);
+        when(timeSlotRepository.existsById(1L)).thenReturn(true);
+
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(1L);
+
+        // When & Then: TimeSlotAlreadyTakenException がスローされ、予約は保存されない
+        assertThrows(TimeSlotAlreadyTakenException.class, () -> service.create(dto));
+
+        verify(reservationRepository, never()).save(any(Reservation.class));
+    }
+
+    @Test
+    void create_conditionalUpdateTimeSlotNotExists_TimeSlotNotFoundException() {
+        // Given: 条件付きUPDATE方式で、予約枠が存在しない
+        ReservationService service = new ReservationService(
+                reservationRepository, reservationArchiveRepository, timeSlotRepository, slotHoldRepository, slotStateEngine, waitlistService, eventPublisher, ReservationClaimStrategy.CONDITIONAL_UPDATE);
+
+        when(timeSlotRepository.updateStatusIfMatches(999L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED)).thenReturn(0);
+        when(timeSlotRepository.existsById(999L)).thenReturn(false);
+
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(999L);
+
+        // When & Then: TimeSlotNotFoundException がスローされる
+        assertThrows(TimeSlotNotFoundException.class, () -> service.create(dto));
+
+        verify(reservationRepository, never()).save(any(Reservation.class));
+    }
+
+    @Test
+    void create_engineConflict_rejectedWithoutRepositoryAccess() {
+        // Given: インメモリエンジン上で予約枠がすでに確保されている
+        when(slotStateEngine.claim(1L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED))
+                .thenReturn(SlotStateEngine.Transition.CONFLICT);
+
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(1L);
+
+        // When & Then: TimeSlotAlreadyTakenException がスローされ、リポジトリには一切アクセスしない
+        assertThrows(TimeSlotAlreadyTakenException.class, () -> reservationService.create(dto));
+
+        verifyNoInteractions(timeSlotRepository, reservationRepository);
+    }
+
+    @Test
+    void create_validHold_confirmsHeldSlot() {
+        // Given: 予約枠1に有効な仮押さえがある
+        TimeSlot timeSlot = new TimeSlot();
+        timeSlot.setId(1L);
+        timeSlot.setStatus(TimeSlotStatus.RESERVED);
+
+        SlotHold hold = new SlotHold();
+        hold.setId(10L);
+        hold.setToken("hold-token");
+        hold.setTimeSlot(timeSlot);
+        hold.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+
+        when(slotHoldRepository.findByToken("hold-token")).thenReturn(Optional.of(hold));
+        when(timeSlotRepository.updateStatusIfMatches(1L, TimeSlotStatus.HELD, TimeSlotStatus.RESERVED)).thenReturn(1);
+        when(timeSlotRepository.getReferenceById(1L)).thenReturn(timeSlot);
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(1L);
+        dto.setHoldToken("hold-token");
+
+        // When: 仮押さえトークン付きで予約を作成する
+        ReservationResponseDTO result = reservationService.create(dto);
+
+        // Then: HELD → RESERVED に更新され、仮押さえは削除される
+        assertThat(result.getStatus()).isEqualTo("CONFIRMED");
+        verify(slotHoldRepository).delete(hold);
+        verify(timeSlotRepository, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    void create_expiredHold_SlotHoldExpiredException() {
+        // Given: 仮押さえの期限が切れている
+        TimeSlot timeSlot = new TimeSlot();
+        timeSlot.setId(1L);
+
+        SlotHold hold = new SlotHold();
+        hold.setToken("hold-token");
+        hold.setTimeSlot(timeSlot);
+        hold.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+
+        when(slotHoldRepository.findByToken("hold-token")).thenReturn(Optional.of(hold));
+
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(1L);
+        dto.setHoldToken("hold-token");
+
+        // When & Then: SlotHoldExpiredException がスローされ、予約枠は更新されない
+        assertThrows(SlotHoldExpiredException.class, () -> reservationService.create(dto));
+
+        verifyNoInteractions(timeSlotRepository, reservationRepository);
     }
 
     @Test
@@ -101,7 +269,7 @@ class ReservationServiceTest {
     	reservation.setStatus(ReservationStatus.CONFIRMED);
         reservation.setTimeSlot(timeSlot);
     	
-    	when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
+    	when(reservationRepository.findByIdForUpdate(reservationId)).thenReturn(Optional.of(reservation));
     	
     	// When: 予約をキャンセルする
     	reservationService.cancel(reservationId);
@@ -109,7 +277,33 @@ class ReservationServiceTest {
     	// Then: 予約のステータスがキャンセルされている
     	assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.CANCELED);
     	
-    	verify(reservationRepository, times(1)).findById(reservationId);
+    	verify(reservationRepository, times(1)).findByIdForUpdate(reservationId);
+    }
+
+    @Test
+    void cancel_waitlistHasEntry_promotedAndSlotStaysReserved() {
+        // Given: 予約済みの予約と、その枠の順番待ちが存在する
+        TimeSlot timeSlot = new TimeSlot();
+        timeSlot.setId(1L);
+        timeSlot.setStatus(TimeSlotStatus.RESERVED);
+
+        Reservation reservation = new Reservation();
+        reservation.setId(1L);
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        reservation.setTimeSlot(timeSlot);
+        reservation.setActiveTimeSlotId(1L);
+
+        when(reservationRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reservation));
+        when(waitlistService.promote(timeSlot)).thenReturn(Optional.of(new Reservation()));
+
+        // When: 予約をキャンセルする
+        reservationService.cancel(1L);
+
+        // Then: 予約はキャンセルされるが、予約枠は繰り上げた予約のため RESERVED のまま
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.CANCELED);
+        assertThat(reservation.getActiveTimeSlotId()).isNull();
+        assertThat(timeSlot.getStatus()).isEqualTo(TimeSlotStatus.RESERVED);
+        verify(slotStateEngine, never()).release(any(), any());
     }
 
     @Test
@@ -117,7 +311,7 @@ class ReservationServiceTest {
         // Given: 存在しない予約枠IDを指定する
         Long timeSlotId = 999L;
 
-        when(timeSlotRepository.findById(timeSlotId)).thenReturn(Optional.empty());
+        when(timeSlotRepository.findByIdForUpdate(timeSlotId)).thenReturn(Optional.empty());
 
         ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
         dto.setTimeSlotId(timeSlotId);
@@ -130,7 +324,7 @@ class ReservationServiceTest {
             reservationService.create(dto);
         });
 
-        verify(timeSlotRepository).findById(timeSlotId);
+        verify(timeSlotRepository).findByIdForUpdate(timeSlotId);
         verify(reservationRepository, never()).save(any(Reservation.class));
     }
 
@@ -144,7 +338,7 @@ class ReservationServiceTest {
         timeSlot.setEndTime(LocalTime.of(9, 30));
         timeSlot.setStatus(TimeSlotStatus.RESERVED);
 
-        when(timeSlotRepository.findById(1L)).thenReturn(Optional.of(timeSlot));
+        when(timeSlotRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(timeSlot));
 
         ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
         dto.setTimeSlotId(1L);
@@ -157,7 +351,7 @@ class ReservationServiceTest {
             reservationService.create(dto);
         });
 
-        verify(timeSlotRepository).findById(1L);
+        verify(timeSlotRepository).findByIdForUpdate(1L);
         verify(reservationRepository, never()).save(any(Reservation.class));
     }
     
@@ -201,50 +395,6 @@ class ReservationServiceTest {
         verify(reservationRepository, times(1)).findAll();
     }
 
-    @Test
-    void findAllConfirmed_twoConfirmedReservationsExist_returnsTwoConfirmedDtos() {
-        // Given: CONFIRMED の予約が2件存在する
-        TimeSlot timeSlot1 = new TimeSlot();
-        timeSlot1.setId(100L);
-        timeSlot1.setDate(LocalDate.of(2025, 2, 10));
-        timeSlot1.setStartTime(LocalTime.of(9, 0));
-        timeSlot1.setEndTime(LocalTime.of(9, 30));
-        timeSlot1.setStatus(TimeSlotStatus.RESERVED);
-
-        Reservation r1 = new Reservation();
-        r1.setId(1L);
-        r1.setName("ユーザー1");
-        r1.setStatus(ReservationStatus.CONFIRMED);
-        r1.setTimeSlot(timeSlot1);
-
-        TimeSlot timeSlot2 = new TimeSlot();
-        timeSlot2.setId(200L);
-        timeSlot2.setDate(LocalDate.of(2025, 2, 11));
-        timeSlot2.setStartTime(LocalTime.of(10, 0));
-        timeSlot2.setEndTime(LocalTime.of(10, 30));
-        timeSlot2.setStatus(TimeSlotStatus.RESERVED);
-
-		 Reservation r2 = new Reservation();
-	     r2.setId(2L);
-	     r2.setName("ユーザー2");
-	     r2.setStatus(ReservationStatus.CONFIRMED);
-	     r2.setTimeSlot(timeSlot2);
-         timeSlot2.setStatus(TimeSlotStatus.RESERVED);
-	     
-	     when(reservationRepository.findByStatus(ReservationStatus.CONFIRMED))
-	    		 .thenReturn(List.of(r1, r2));
-	     
-	    // When: 予約済み一覧を取得する
-	     List<ReservationResponseDTO> result = reservationService.findAllConfirmed();
-	     
-        // Then: CONFIRMED の2件がDTOとして返る
-	     assertThat(result).hasSize(2);
-	     assertThat(result.get(0).getStatus()).isEqualTo("CONFIRMED");
-	     assertThat(result.get(1).getStatus()).isEqualTo("CONFIRMED");
-	     
-	     verify(reservationRepository, times(1)).findByStatus(ReservationStatus.CONFIRMED);
-    }
-
     @Test
     void findById_reservationExists_returnsReservationDto() {
     	// Given: 予約IDが1の予約が存在する
@@ -283,6 +433,8 @@ class ReservationServiceTest {
 		
 		when(reservationRepository.findById(reservationId))
             .thenReturn(Optional.empty());
+		when(reservationArchiveRepository.findById(reservationId))
+            .thenReturn(Optional.empty());
 		
 		// When: 予約情報を取得する
 		// Then: ReservationNotFoundExceptionがスローされる
@@ -292,4 +444,31 @@ class ReservationServiceTest {
 		
 		verify(reservationRepository, times(1)).findById(reservationId);
     }
+
+    @Test
+    void findById_reservationArchived_returnsArchivedReservationDto() {
+    	// Given: 予約IDが5の予約はアーカイブに移されている
+    	Long reservationId = 5L;
+
+    	ReservationArchive archived = new ReservationArchive();
+    	archived.setId(reservationId);
+    	archived.setTimeSlotId(200L);
+    	archived.setDate(LocalDate.of(2024, 1, 10));
+    	archived.setStartTime(LocalTime.of(9, 0));
+    	archived.setEndTime(LocalTime.of(9, 30));
+    	archived.setStatus(ReservationStatus.CONFIRMED);
+    	archived.setName("ユーザー5");
+
+    	when(reservationRepository.findById(reservationId)).thenReturn(Optional.empty());
+    	when(reservationArchiveRepository.findById(reservationId)).thenReturn(Optional.of(archived));
+
+    	// When: 予約情報を取得する
+    	ReservationResponseDTO result = reservationService.findById(reservationId);
+
+    	// Then: アーカイブの内容がDTOに変換されて返る
+    	assertThat(result.getReservationId()).isEqualTo(reservationId);
+    	assertThat(result.getTimeSlotId()).isEqualTo(200L);
+    	assertThat(result.getDate()).isEqualTo(LocalDate.of(2024, 1, 10));
+    	assertThat(result.getName()).isEqualTo("ユーザー5");
+    }
 }
\ No newline at end of file
@@ -11,12 +11,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
 import jp.github.minamoto.m.reservationsystem.dto.TimeSlotStatusResponseDTO;
 import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
 import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
 import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.availability.AvailabilityIndex;
+import jp.github.minamoto.m.reservationsystem.service.engine.SlotStateEngine;
+import jp.github.minamoto.m.reservationsystem.service.version.SlotVersionService;
 
 @ExtendWith(MockitoExtension.class)
 public class TimeSlotServiceTest {
@@ -27,6 +32,21 @@ public class TimeSlotServiceTest {
     @Mock
     private ReservationRepository reservationRepository;
 
+    @Mock
+    private SlotStateEngine slotStateEngine;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SlotVersionService slotVersionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private TimeSlotService timeSlotService;
 
@@ -40,7 +60,7 @@ public class TimeSlotServiceTest {
         timeSlot.setId(1L);
         timeSlot.setStatus(TimeSlotStatus.OPEN);
 
-        when(timeSlotRepository.findById(timeSlotId)).thenReturn(Optional.of(timeSlot));
+        when(timeSlotRepository.findByIdForUpdate(timeSlotId)).thenReturn(Optional.of(timeSlot));
 
         // When: ステータスを更新する
         TimeSlotStatusResponseDTO result = timeSlotService.close(timeSlotId);
@@ -55,7 +75,7 @@ public class TimeSlotServiceTest {
 
         // Given: 予約枠が存在しない
         Long timeSlotId = 999L;
-        when(timeSlotRepository.findById(timeSlotId)).thenReturn(Optional.empty());
+        when(timeSlotRepository.findByIdForUpdate(timeSlotId)).thenReturn(Optional.empty());
 
         // When & Then: 予約枠が見つからないため例外がスローされる
         assertThrows(IllegalArgumentException.class, () -> timeSlotService.close(timeSlotId));
@@ -71,7 +91,7 @@ public class TimeSlotServiceTest {
         timeSlot.setId(1L);
         timeSlot.setStatus(TimeSlotStatus.RESERVED);
 
-        when(timeSlotRepository.findById(timeSlotId)).thenReturn(Optional.of(timeSlot));
+        when(timeSlotRepository.findByIdForUpdate(timeSlotId)).thenReturn(Optional.of(timeSlot));
 
         // When: ステータスを更新する
         TimeSlotStatusResponseDTO result = timeSlotService.open(timeSlotId);
@@ -91,7 +111,7 @@ public class TimeSlotServiceTest {
         timeSlot.setId(1L);
         timeSlot.setStatus(TimeSlotStatus.RESERVED);
 
-        when(timeSlotRepository.findById(timeSlotId)).thenReturn(Optional.of(timeSlot));
+        when(timeSlotRepository.findByIdForUpdate(timeSlotId)).thenReturn(Optional.of(timeSlot));
         when(reservationRepository.existsByTimeSlotId(timeSlotId)).thenReturn(true);
 
         // When & Then: 予約が存在するため例外がスローされる
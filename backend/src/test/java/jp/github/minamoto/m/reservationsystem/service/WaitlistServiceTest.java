@@ -0,0 +1,123 @@
+package jp.github.minamoto.m.reservationsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.WaitlistEntryRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.WaitlistEntryResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.Reservation;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidWaitlistRequestException;
+
+@SpringBootTest
+@Transactional
+class WaitlistServiceTest {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void cancel_slotWaitlisted_firstWaiterPromoted() {
+        // Given: data.sql の予約枠ID=6 が予約済みで、2人が順番待ちしている
+        ReservationResponseDTO original = reservationService.create(reservationRequest(6L, "元の予約者"));
+        WaitlistEntryResponseDTO first = waitlistService.enqueue(waitlistRequest(6L, "待ち1"));
+        WaitlistEntryResponseDTO second = waitlistService.enqueue(waitlistRequest(6L, "待ち2"));
+
+        // When: 元の予約をキャンセルする
+        reservationService.cancel(original.getReservationId());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then: 先頭の順番待ちだけが繰り上げられ、予約枠は RESERVED のまま
+        WaitlistEntryResponseDTO promoted = waitlistService.findById(first.getWaitlistEntryId());
+        assertThat(promoted.getStatus()).isEqualTo("PROMOTED");
+        assertThat(waitlistService.findById(second.getWaitlistEntryId()).getStatus()).isEqualTo("WAITING");
+
+        Reservation reservation = reservationRepository.findById(promoted.getReservationId()).orElseThrow();
+        assertThat(reservation.getName()).isEqualTo("待ち1");
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(timeSlotRepository.findById(6L).orElseThrow().getStatus()).isEqualTo(TimeSlotStatus.RESERVED);
+    }
+
+    @Test
+    void cancel_closedSlot_waiterNotPromoted() {
+        // Given: 予約枠ID=6 が予約済みで順番待ちがいるが、予約枠は医師の都合で閉じられた
+        ReservationResponseDTO original = reservationService.create(reservationRequest(6L, "元の予約者"));
+        WaitlistEntryResponseDTO waiter = waitlistService.enqueue(waitlistRequest(6L, "待ち1"));
+        timeSlotService.close(6L);
+
+        // When: 元の予約をキャンセルする
+        reservationService.cancel(original.getReservationId());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then: 閉じた枠には繰り上げない
+        assertThat(waitlistService.findById(waiter.getWaitlistEntryId()).getStatus()).isEqualTo("WAITING");
+    }
+
+    @Test
+    void cancelWaitlistEntry_alreadyPromoted_keepsPromoted() {
+        // Given: 繰り上げ済みの順番待ち
+        ReservationResponseDTO original = reservationService.create(reservationRequest(6L, "元の予約者"));
+        WaitlistEntryResponseDTO waiter = waitlistService.enqueue(waitlistRequest(6L, "待ち1"));
+        reservationService.cancel(original.getReservationId());
+        entityManager.flush();
+        entityManager.clear();
+
+        // When: 順番待ちを取り消す
+        WaitlistEntryResponseDTO result = waitlistService.cancel(waiter.getWaitlistEntryId());
+
+        // Then: PROMOTED のまま、予約IDも残る
+        assertThat(result.getStatus()).isEqualTo("PROMOTED");
+        assertThat(result.getReservationId()).isNotNull();
+    }
+
+    @Test
+    void enqueue_openSlot_rejected() {
+        // 空いている枠（data.sql の予約枠ID=7）は順番待ちできない
+        assertThrows(InvalidWaitlistRequestException.class,
+                () -> waitlistService.enqueue(waitlistRequest(7L, "待ち")));
+    }
+
+    private ReservationCreateRequestDTO reservationRequest(Long timeSlotId, String name) {
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(timeSlotId);
+        dto.setName(name);
+        dto.setPhoneNumber("09012345678");
+        return dto;
+    }
+
+    private WaitlistEntryRequestDTO waitlistRequest(Long timeSlotId, String name) {
+        WaitlistEntryRequestDTO dto = new WaitlistEntryRequestDTO();
+        dto.setTimeSlotId(timeSlotId);
+        dto.setName(name);
+        dto.setPhoneNumber("09012345678");
+        return dto;
+    }
+}
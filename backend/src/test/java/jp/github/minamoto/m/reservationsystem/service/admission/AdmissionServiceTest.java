@@ -0,0 +1,122 @@
+package jp.github.minamoto.m.reservationsystem.service.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.exception.BookingOverloadedException;
+import jp.github.minamoto.m.reservationsystem.service.exception.BookingQueuedException;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionServiceTest {
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** 1秒に2人、バースト2 */
+    private AdmissionService service(long maxQueueLength) {
+        return new AdmissionService(timeSlotRepository, new InMemoryAdmissionStateStore(), meterRegistry,
+                true, 2, 2, maxQueueLength, Duration.ofMinutes(10), "secret", now::get);
+    }
+
+    @Test
+    void admit_overBurst_queuedWithTicketInOrder() {
+        AdmissionService service = service(10);
+
+        // Given: バースト分はすぐに入場できる
+        service.admitDoctor(1L, null);
+        service.admitDoctor(1L, null);
+
+        // When & Then: 3人目以降は順番待ちになり、待ち人数が増えていく
+        BookingQueuedException third = catchThrowableOfType(BookingQueuedException.class,
+                () -> service.admitDoctor(1L, null));
+        BookingQueuedException fourth = catchThrowableOfType(BookingQueuedException.class,
+                () -> service.admitDoctor(1L, null));
+        assertThat(third.getPosition()).isEqualTo(1);
+        assertThat(fourth.getPosition()).isEqualTo(2);
+        assertThat(fourth.getRetryAfterSeconds()).isEqualTo(1);
+
+        // 0.5秒後（1人分のトークン）: 先に並んだチケットだけが入場できる
+        now.addAndGet(500);
+        assertThatThrownBy(() -> service.admitDoctor(1L, fourth.getTicket())).isInstanceOf(BookingQueuedException.class);
+        service.admitDoctor(1L, third.getTicket());
+
+        assertThat(meterRegistry.get("booking.admission.requests").tag("outcome", "admitted").counter().count())
+                .isEqualTo(3);
+        assertThat(meterRegistry.get("booking.admission.queue.length").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void admit_queueFull_rejectedWithoutTicket() {
+        AdmissionService service = service(1);
+        service.admitDoctor(1L, null);
+        service.admitDoctor(1L, null);
+        assertThatThrownBy(() -> service.admitDoctor(1L, null)).isInstanceOf(BookingQueuedException.class);
+
+        // When & Then: 待ち行列が上限に達していると 503 相当の例外になる
+        assertThatThrownBy(() -> service.admitDoctor(1L, null))
+                .isInstanceOf(BookingOverloadedException.class);
+    }
+
+    @Test
+    void admit_tamperedOrOtherDoctorTicket_queuedAsNew() {
+        AdmissionService service = service(10);
+        service.admitDoctor(1L, null);
+        service.admitDoctor(1L, null);
+        BookingQueuedException queued = catchThrowableOfType(BookingQueuedException.class,
+                () -> service.admitDoctor(1L, null));
+
+        // When: 番号を書き換えたチケット、他の医師のチケット
+        String tampered = queued.getTicket().replaceFirst("^1\\.2\\.", "1.0.");
+        BookingQueuedException forged = catchThrowableOfType(BookingQueuedException.class,
+                () -> service.admitDoctor(1L, tampered));
+
+        // Then: 無効なチケットとして扱われ、最後尾に並び直す
+        assertThat(forged.getPosition()).isEqualTo(2);
+        service.admitDoctor(2L, queued.getTicket());
+    }
+
+    @Test
+    void admit_redeemedTicketReplayed_queuedAsNew() {
+        AdmissionService service = service(10);
+        service.admitDoctor(1L, null);
+        service.admitDoctor(1L, null);
+        BookingQueuedException queued = catchThrowableOfType(BookingQueuedException.class,
+                () -> service.admitDoctor(1L, null));
+
+        // Given: 順番が来たチケットで1回入場した
+        now.addAndGet(500);
+        service.admitDoctor(1L, queued.getTicket());
+
+        // When: 同じチケットを再送する
+        BookingQueuedException replayed = catchThrowableOfType(BookingQueuedException.class,
+                () -> service.admitDoctor(1L, queued.getTicket()));
+
+        // Then: 使用済みとして扱われ、最後尾に並び直す
+        assertThat(replayed.getPosition()).isEqualTo(1);
+        assertThat(replayed.getTicket()).isNotEqualTo(queued.getTicket());
+    }
+
+    @Test
+    void admit_disabled_doesNothing() {
+        AdmissionService service = new AdmissionService(timeSlotRepository, new InMemoryAdmissionStateStore(),
+                meterRegistry, false, 2, 2, 10, Duration.ofMinutes(10), "", now::get);
+
+        for (int i = 0; i < 10; i++) {
+            service.admit(1L, null);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package jp.github.minamoto.m.reservationsystem.service.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.ReservationService;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archivedb;DB_CLOSE_DELAY=-1",
+        "app.archive.batch-size=50",
+        "app.archive.pause-ms=0" })
+class RetentionArchiverTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 6);
+    private static final int SLOTS_PER_DAY = 40;
+
+    @Autowired
+    private RetentionArchiver retentionArchiver;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void archiveBefore_movesExpiredSlotsAndReservationsInBatches() {
+        // Given: 過去の3日分の予約枠（1日40枠）と、初日の最初の枠の予約・2枠目の仮押さえ、日ごとのカウンタがある
+        Long reservationId = new TransactionTemplate(transactionManager).execute(status -> {
+            for (int day = 0; day < 3; day++) {
+                LocalDate date = FIRST_DAY.plusDays(day);
+                for (int i = 0; i < SLOTS_PER_DAY; i++) {
+                    LocalTime start = LocalTime.of(8, 0).plusMinutes(15L * i);
+                    jdbcTemplate.update("INSERT INTO time_slot (date, start_time, end_time, doctor_id, status) "
+                            + "VALUES (?, ?, ?, 2, 'OPEN')", date, start, start.plusMinutes(15));
+                }
+                jdbcTemplate.update("INSERT INTO doctor_day_counter (doctor_id, date, open_slots) VALUES (2, ?, ?)",
+                        date, SLOTS_PER_DAY);
+            }
+            Long first = slotId(FIRST_DAY, LocalTime.of(8, 0));
+            jdbcTemplate.update("UPDATE time_slot SET status = 'RESERVED' WHERE id = ?", first);
+            jdbcTemplate.update("INSERT INTO reservation (time_slot_id, active_time_slot_id, status, name, phone_number, created_at) "
+                    + "VALUES (?, ?, 'CONFIRMED', '過去', '09000000000', CURRENT_TIMESTAMP)", first, first);
+            jdbcTemplate.update("INSERT INTO slot_hold (token, time_slot_id, expires_at) "
+                    + "VALUES ('expired-hold', ?, TIMESTAMP '2020-01-05 10:00:00')", slotId(FIRST_DAY, LocalTime.of(8, 15)));
+            return jdbcTemplate.queryForObject("SELECT id FROM reservation WHERE time_slot_id = ?", Long.class, first);
+        });
+
+        // When: 3日目より前を移す
+        RetentionArchiver.Result result = retentionArchiver.archiveBefore(FIRST_DAY.plusDays(2));
+
+        // Then: 2日分（80枠）を50枠ずつ2回で移し、3日目はそのまま残る
+        assertThat(result.slots()).isEqualTo(80);
+        assertThat(result.reservations()).isEqualTo(1);
+        assertThat(result.batches()).isEqualTo(2);
+        assertThat(result.completed()).isTrue();
+        assertThat(count("SELECT COUNT(*) FROM time_slot WHERE date < ?", FIRST_DAY.plusDays(2))).isZero();
+        assertThat(count("SELECT COUNT(*) FROM time_slot WHERE date = ?", FIRST_DAY.plusDays(2))).isEqualTo(SLOTS_PER_DAY);
+        assertThat(count("SELECT COUNT(*) FROM time_slot_archive WHERE date < ?", FIRST_DAY.plusDays(2))).isEqualTo(80);
+        assertThat(count("SELECT COUNT(*) FROM slot_hold WHERE token = ?", "expired-hold")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM doctor_day_counter WHERE date < ?", FIRST_DAY.plusDays(3))).isEqualTo(1);
+
+        // アーカイブに移した予約も予約IDで参照できる
+        ReservationResponseDTO archived = reservationService.findById(reservationId);
+        assertThat(archived.getDate()).isEqualTo(FIRST_DAY);
+        assertThat(archived.getStartTime()).isEqualTo(LocalTime.of(8, 0));
+        assertThat(archived.getStatus()).isEqualTo("CONFIRMED");
+        assertThat(archived.getName()).isEqualTo("過去");
+
+        // 移し終えた後は何もしない
+        assertThat(retentionArchiver.archiveBefore(FIRST_DAY.plusDays(2)).slots()).isZero();
+    }
+
+    @Test
+    void archiveBefore_futureCutoff_throws() {
+        assertThatThrownBy(() -> retentionArchiver.archiveBefore(LocalDate.now().plusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Long slotId(LocalDate date, LocalTime startTime) {
+        return jdbcTemplate.queryForObject("SELECT id FROM time_slot WHERE doctor_id = 2 AND date = ? AND start_time = ?",
+                Long.class, date, startTime);
+    }
+
+    private int count(String sql, Object arg) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, arg);
+    }
+}
@@ -0,0 +1,221 @@
+package jp.github.minamoto.m.reservationsystem.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.NextAvailableSlotResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.Doctor;
+import jp.github.minamoto.m.reservationsystem.repository.DoctorRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotVersionedStateView;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityIndexTest {
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    private final LocalDate today = LocalDate.now();
+
+    /**
+     * 本日の医師1: 9:30（OPEN）、9:00（OPEN）、10:00（RESERVED）
+     * 翌日の医師2: 9:00（OPEN）
+     */
+    private List<TimeSlotVersionedStateView> rows() {
+        return List.of(
+                view(11L, 1L, today, LocalTime.of(9, 30), TimeSlotStatus.OPEN),
+                view(10L, 1L, today, LocalTime.of(9, 0), TimeSlotStatus.OPEN),
+                view(12L, 1L, today, LocalTime.of(10, 0), TimeSlotStatus.RESERVED),
+                view(20L, 2L, today.plusDays(1), LocalTime.of(9, 0), TimeSlotStatus.OPEN));
+    }
+
+    /** 医師1・医師2とも診療科1 */
+    private List<Doctor> doctors() {
+        return List.of(doctor(1L, 1L), doctor(2L, 1L));
+    }
+
+    private AvailabilityIndex rebuiltIndex() {
+        AvailabilityIndex index = new AvailabilityIndex(timeSlotRepository, doctorRepository, true, 7);
+        when(timeSlotRepository.findVersionedStatesByDateRange(any(), any())).thenReturn(rows());
+        when(doctorRepository.findAll()).thenReturn(doctors());
+        index.rebuild();
+        return index;
+    }
+
+    @Test
+    void findOpen_returnsOpenSlotsInStartTimeOrder() {
+        AvailabilityIndex index = rebuiltIndex();
+
+        assertThat(index.findOpen(1L, today)).containsExactly(
+                new TimeSlotAvailableResponseDTO(10L, "09:00"),
+                new TimeSlotAvailableResponseDTO(11L, "09:30"));
+    }
+
+    @Test
+    void onStatusChanged_updatesBitmap() {
+        AvailabilityIndex index = rebuiltIndex();
+
+        // When: 9:00 が予約され、10:00 がキャンセルで空く
+        index.onStatusChanged(TimeSlotStatusChangedEvent.of(10L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED));
+        index.onStatusChanged(TimeSlotStatusChangedEvent.of(12L, TimeSlotStatus.RESERVED, TimeSlotStatus.OPEN));
+
+        // Then
+        assertThat(index.findOpen(1L, today)).extracting(TimeSlotAvailableResponseDTO::getTimeSlotId)
+                .containsExactly(11L, 12L);
+    }
+
+    @Test
+    void findOpen_untracked_returnsNull() {
+        AvailabilityIndex index = rebuiltIndex();
+
+        // When & Then: 予約枠のない医師・保持期間外の日付はDBでの検索に任せる
+        assertThat(index.findOpen(3L, today)).isNull();
+        assertThat(index.findOpen(1L, today.plusDays(7))).isNull();
+        assertThat(index.findOpen(1L, today.minusDays(1))).isNull();
+
+        // 保持期間内で枠のない日は空
+        assertThat(index.findOpen(1L, today.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void rebuild_changeCommittedWhileLoading_reapplied() {
+        AvailabilityIndex index = new AvailabilityIndex(timeSlotRepository, doctorRepository, true, 7);
+
+        // Given: 読み込み中に 9:00 の予約がコミットされる（読み込み結果には含まれない）
+        when(timeSlotRepository.findVersionedStatesByDateRange(any(), any())).thenAnswer(invocation -> {
+            index.onStatusChanged(TimeSlotStatusChangedEvent.of(10L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED));
+            return rows();
+        });
+        when(doctorRepository.findAll()).thenReturn(doctors());
+
+        // When
+        index.rebuild();
+
+        // Then: 再構築後のインデックスにも反映されている
+        assertThat(index.findOpen(1L, today)).extracting(TimeSlotAvailableResponseDTO::getTimeSlotId)
+                .containsExactly(11L);
+    }
+
+    @Test
+    void onStatusChanged_eventsOutOfCommitOrder_staleEventIgnored() {
+        AvailabilityIndex index = rebuiltIndex();
+
+        // Given: 9:00 が仮押さえされる（version 1）
+        index.onStatusChanged(versioned(10L, TimeSlotStatus.OPEN, TimeSlotStatus.HELD, 1L));
+
+        // When: 仮押さえの期限切れ（version 2）の後に予約（version 3）がコミットされ、イベントが逆順に届く
+        index.onStatusChanged(versioned(10L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED, 3L));
+        index.onStatusChanged(versioned(10L, TimeSlotStatus.HELD, TimeSlotStatus.OPEN, 2L));
+
+        // Then: 古い期限切れのイベントは捨てられ、予約済みのまま
+        assertThat(index.findOpen(1L, today)).extracting(TimeSlotAvailableResponseDTO::getTimeSlotId)
+                .containsExactly(11L);
+        assertThat(index.findEarliest(1L, today.atStartOfDay(), 2)).extracting(NextAvailableSlotResponseDTO::getTimeSlotId)
+                .containsExactly(11L, 20L);
+    }
+
+    @Test
+    void rebuild_changeAlreadyLoaded_notReappliedOverNewerState() {
+        AvailabilityIndex index = new AvailabilityIndex(timeSlotRepository, doctorRepository, true, 7);
+
+        // Given: 読み込み中に 10:00 の予約（version 1）のイベントが届き、読み込み結果にはその後の
+        // キャンセル（version 2、OPEN）まで含まれている
+        when(timeSlotRepository.findVersionedStatesByDateRange(any(), any())).thenAnswer(invocation -> {
+            index.onStatusChanged(versioned(12L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED, 1L));
+            return List.of(
+                    view(10L, 1L, today, LocalTime.of(9, 0), TimeSlotStatus.OPEN),
+                    view(12L, 1L, today, LocalTime.of(10, 0), TimeSlotStatus.OPEN, 2L));
+        });
+        when(doctorRepository.findAll()).thenReturn(doctors());
+
+        // When
+        index.rebuild();
+
+        // Then: 読み込んだ状態より古いイベントは再適用しない
+        assertThat(index.findOpen(1L, today)).extracting(TimeSlotAvailableResponseDTO::getTimeSlotId)
+                .containsExactly(10L, 12L);
+    }
+
+    @Test
+    void findEarliest_returnsOpenSlotsAcrossDoctorsInStartOrder() {
+        AvailabilityIndex index = rebuiltIndex();
+        LocalDateTime midnight = today.atStartOfDay();
+
+        // When & Then: 診療科1の空き枠が医師をまたいで開始日時順に返る
+        assertThat(index.findEarliest(1L, midnight, 3)).extracting(NextAvailableSlotResponseDTO::getTimeSlotId)
+                .containsExactly(10L, 11L, 20L);
+
+        // 指定日時より前に始まる枠は含まない
+        assertThat(index.findEarliest(1L, today.atTime(9, 15), 2)).extracting(NextAvailableSlotResponseDTO::getTimeSlotId)
+                .containsExactly(11L, 20L);
+
+        // 予約されると集合から外れ、空くと戻る
+        index.onStatusChanged(TimeSlotStatusChangedEvent.of(10L, TimeSlotStatus.OPEN, TimeSlotStatus.HELD));
+        index.onStatusChanged(TimeSlotStatusChangedEvent.of(12L, TimeSlotStatus.RESERVED, TimeSlotStatus.OPEN));
+        assertThat(index.findEarliest(1L, midnight, 3)).extracting(NextAvailableSlotResponseDTO::getTimeSlotId)
+                .containsExactly(11L, 12L, 20L);
+    }
+
+    @Test
+    void findEarliest_fewerThanLimit_returnsNull() {
+        AvailabilityIndex index = rebuiltIndex();
+
+        // When & Then: 保持期間内に件数が足りない場合はDBでの検索に任せる
+        assertThat(index.findEarliest(1L, today.atStartOfDay(), 4)).isNull();
+        assertThat(index.findEarliest(9L, today.atStartOfDay(), 1)).isNull();
+    }
+
+    @Test
+    void findOpen_disabled_returnsNull() {
+        AvailabilityIndex index = new AvailabilityIndex(timeSlotRepository, doctorRepository, false, 7);
+
+        assertThat(index.findOpen(1L, today)).isNull();
+    }
+
+    private static Doctor doctor(Long id, Long departmentId) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setDepartmentId(departmentId);
+        return doctor;
+    }
+
+    private static TimeSlotStatusChangedEvent versioned(Long timeSlotId, TimeSlotStatus previous, TimeSlotStatus status,
+            long version) {
+        return new TimeSlotStatusChangedEvent(List.of(timeSlotId), previous, status, Map.of(timeSlotId, version));
+    }
+
+    private static TimeSlotVersionedStateView view(Long id, Long doctorId, LocalDate date, LocalTime startTime,
+            TimeSlotStatus status) {
+        return view(id, doctorId, date, startTime, status, 0L);
+    }
+
+    private static TimeSlotVersionedStateView view(Long id, Long doctorId, LocalDate date, LocalTime startTime,
+            TimeSlotStatus status, long version) {
+        return new TimeSlotVersionedStateView() {
+            public Long getId() { return id; }
+            public Long getDoctorId() { return doctorId; }
+            public LocalDate getDate() { return date; }
+            public LocalTime getStartTime() { return startTime; }
+            public TimeSlotStatus getStatus() { return status; }
+            public long getVersion() { return version; }
+        };
+    }
+}
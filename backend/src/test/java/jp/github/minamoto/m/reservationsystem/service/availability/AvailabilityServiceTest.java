@@ -0,0 +1,93 @@
+package jp.github.minamoto.m.reservationsystem.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.DateAvailabilityResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.DoctorAvailabilityResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.NextAvailableSlotResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.TimeSlot;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidAvailabilityQueryException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+@SpringBootTest
+@Transactional
+class AvailabilityServiceTest {
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void findAvailableInRange_department_groupedByDoctorAndDate() {
+        // Given: data.sql の外科（診療科ID=2）は医師2・医師10。医師2の本日最初の枠（ID=19）を閉じる
+        TimeSlot closed = timeSlotRepository.findById(19L).orElseThrow();
+        closed.setStatus(TimeSlotStatus.DOCTOR_UNAVAILABLE);
+        timeSlotRepository.flush();
+
+        // When: 本日〜翌日の空き枠をまとめて取得する
+        List<DoctorAvailabilityResponseDTO> result =
+                availabilityService.findAvailableInRange(2L, null, today, today.plusDays(1));
+
+        // Then: 医師ID順・日付順にまとまり、OPEN の枠だけが含まれる
+        assertThat(result).extracting(DoctorAvailabilityResponseDTO::getDoctorId).containsExactly(2L, 10L);
+        assertThat(result.get(0).getDates()).extracting(DateAvailabilityResponseDTO::getDate)
+                .containsExactly(today, today.plusDays(1));
+        DateAvailabilityResponseDTO firstDay = result.get(0).getDates().get(0);
+        assertThat(firstDay.getSlots()).hasSize(17);
+        assertThat(firstDay.getSlots().get(0).getStartTime()).isEqualTo("09:30");
+        assertThat(result.get(1).getDates().get(1).getSlots()).hasSize(18);
+    }
+
+    @Test
+    void findAvailableInRange_doctorIds_sameResultAsDepartment() {
+        List<DoctorAvailabilityResponseDTO> byDoctors =
+                availabilityService.findAvailableInRange(null, List.of(10L, 2L), today, today);
+        List<DoctorAvailabilityResponseDTO> byDepartment =
+                availabilityService.findAvailableInRange(2L, null, today, today);
+
+        assertThat(byDoctors).isEqualTo(byDepartment);
+    }
+
+    @Test
+    void findAvailableInRange_invalidOrTooLarge_throws() {
+        // 診療科と医師の両方・どちらもなし、期間の逆転
+        assertThrows(InvalidAvailabilityQueryException.class,
+                () -> availabilityService.findAvailableInRange(2L, List.of(2L), today, today));
+        assertThrows(InvalidAvailabilityQueryException.class,
+                () -> availabilityService.findAvailableInRange(null, List.of(), today, today));
+        assertThrows(InvalidAvailabilityQueryException.class,
+                () -> availabilityService.findAvailableInRange(2L, null, today, today.minusDays(1)));
+
+        // 期間の上限（31日）を超える
+        assertThrows(RequestLimitExceededException.class,
+                () -> availabilityService.findAvailableInRange(2L, null, today, today.plusDays(31)));
+    }
+
+    @Test
+    void findEarliest_department_returnsEarliestAcrossDoctors() {
+        // Given: 外科（医師2・医師10）の翌日9:00以降
+        // When: 先頭から3件取得する（インデックス無効のためDBを検索する）
+        List<NextAvailableSlotResponseDTO> result =
+                availabilityService.findEarliest(2L, today.plusDays(1).atTime(9, 0), 3);
+
+        // Then: 開始日時順（同時刻は予約枠ID順）に医師をまたいで返る
+        assertThat(result).extracting(NextAvailableSlotResponseDTO::getDoctorId).containsExactly(2L, 10L, 2L);
+        assertThat(result).extracting(NextAvailableSlotResponseDTO::getStartTime).containsExactly("09:00", "09:00", "09:30");
+        assertThat(result).allSatisfy(slot -> assertThat(slot.getDate()).isEqualTo(today.plusDays(1)));
+    }
+}
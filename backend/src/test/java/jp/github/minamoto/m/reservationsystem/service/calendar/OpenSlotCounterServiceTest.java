@@ -0,0 +1,158 @@
+package jp.github.minamoto.m.reservationsystem.service.calendar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.dto.CalendarDayResponseDTO;
+import jp.github.minamoto.m.reservationsystem.dto.OpenSlotCounterMismatchDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.service.ReservationService;
+import jp.github.minamoto.m.reservationsystem.service.TimeSlotService;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidAvailabilityQueryException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:calendardb;DB_CLOSE_DELAY=-1")
+class OpenSlotCounterServiceTest {
+
+    // data.sql の医師9（内科）・翌日の最初の2枠。内科は医師3・7・8・9で、各医師18枠/日
+    private static final Long DOCTOR_ID = 9L;
+    private static final Long FIRST_SLOT = 325L;
+    private static final Long SECOND_SLOT = 326L;
+    private static final Long INTERNAL_MEDICINE = 1L;
+
+    @Autowired
+    private OpenSlotCounterService openSlotCounterService;
+
+    @Autowired
+    private CalendarService calendarService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate today = LocalDate.now();
+    private final LocalDate tomorrow = today.plusDays(1);
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM reservation");
+            jdbcTemplate.update("UPDATE time_slot SET status = 'OPEN'");
+        });
+        openSlotCounterService.rebuild(today, tomorrow);
+    }
+
+    @Test
+    void counters_followStatusTransitions() {
+        // 起動時に作り直されている
+        assertThat(openSlots(DOCTOR_ID, tomorrow)).isEqualTo(18);
+
+        // 予約・閉鎖で減る
+        Long reservationId = reserve(FIRST_SLOT);
+        timeSlotService.close(SECOND_SLOT);
+        assertThat(openSlots(DOCTOR_ID, tomorrow)).isEqualTo(16);
+
+        // 閉じた枠をもう一度閉じても変わらない
+        timeSlotService.close(SECOND_SLOT);
+        assertThat(openSlots(DOCTOR_ID, tomorrow)).isEqualTo(16);
+
+        // キャンセル・再開で戻る
+        reservationService.cancel(reservationId);
+        timeSlotService.open(SECOND_SLOT);
+        assertThat(openSlots(DOCTOR_ID, tomorrow)).isEqualTo(18);
+
+        // ロールバックされた変更では変わらない
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            timeSlotService.close(SECOND_SLOT);
+            status.setRollbackOnly();
+        });
+        assertThat(openSlots(DOCTOR_ID, tomorrow)).isEqualTo(18);
+        assertThat(openSlotCounterService.verify(today, tomorrow)).isEmpty();
+    }
+
+    @Test
+    void findMonth_returnsEveryDayForDoctorOrDepartment() {
+        reserve(FIRST_SLOT);
+        YearMonth month = YearMonth.from(tomorrow);
+
+        assertThat(calendarService.findMonth(DOCTOR_ID, null, month))
+                .hasSize(month.lengthOfMonth())
+                .filteredOn(day -> day.getDate().equals(tomorrow))
+                .extracting(CalendarDayResponseDTO::getOpenSlots).containsExactly(17);
+
+        // 診療科は所属医師の合計。枠のない日は0件
+        assertThat(calendarService.findMonth(null, INTERNAL_MEDICINE, month))
+                .hasSize(month.lengthOfMonth())
+                .allSatisfy(day -> {
+                    int expected = day.getDate().equals(tomorrow) ? 71 : day.getDate().equals(today) ? 72 : 0;
+                    assertThat(day.getOpenSlots()).isEqualTo(expected);
+                });
+    }
+
+    @Test
+    void verify_detectsDrift_andRebuildRepairsIt() {
+        // Given: カウンタを経由しない変更と、失われたカウンタ
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE time_slot SET status = 'DOCTOR_UNAVAILABLE' WHERE id = ?", FIRST_SLOT);
+            jdbcTemplate.update("DELETE FROM doctor_day_counter WHERE doctor_id = 1 AND date = ?", today);
+        });
+
+        // When / Then
+        assertThat(openSlotCounterService.verify(today, tomorrow))
+                .extracting(OpenSlotCounterMismatchDTO::getDoctorId, OpenSlotCounterMismatchDTO::getDate,
+                        OpenSlotCounterMismatchDTO::getExpected, OpenSlotCounterMismatchDTO::getActual)
+                .containsExactly(
+                        tuple(1L, today, 18, null),
+                        tuple(DOCTOR_ID, tomorrow, 17, 18));
+
+        assertThat(openSlotCounterService.rebuild(today, tomorrow)).isEqualTo(20);
+        assertThat(openSlotCounterService.verify(today, tomorrow)).isEmpty();
+        assertThat(openSlots(DOCTOR_ID, tomorrow)).isEqualTo(17);
+    }
+
+    @Test
+    void invalidQuery_throws() {
+        assertThatThrownBy(() -> calendarService.findMonth(DOCTOR_ID, INTERNAL_MEDICINE, YearMonth.from(today)))
+                .isInstanceOf(InvalidAvailabilityQueryException.class);
+        assertThatThrownBy(() -> calendarService.findMonth(null, null, YearMonth.from(today)))
+                .isInstanceOf(InvalidAvailabilityQueryException.class);
+        assertThatThrownBy(() -> openSlotCounterService.verify(tomorrow, today))
+                .isInstanceOf(InvalidAvailabilityQueryException.class);
+        assertThatThrownBy(() -> openSlotCounterService.rebuild(today, today.plusYears(2)))
+                .isInstanceOf(RequestLimitExceededException.class);
+    }
+
+    private Long reserve(Long timeSlotId) {
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(timeSlotId);
+        dto.setName("カレンダー");
+        dto.setPhoneNumber("09000000000");
+        return reservationService.create(dto).getReservationId();
+    }
+
+    private int openSlots(Long doctorId, LocalDate date) {
+        return jdbcTemplate.queryForObject(
+                "SELECT open_slots FROM doctor_day_counter WHERE doctor_id = ? AND date = ?", Integer.class,
+                doctorId, date);
+    }
+}
@@ -0,0 +1,85 @@
+package jp.github.minamoto.m.reservationsystem.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.entity.Doctor;
+import jp.github.minamoto.m.reservationsystem.repository.DoctorRepository;
+import jp.github.minamoto.m.reservationsystem.service.DepartmentService;
+import jp.github.minamoto.m.reservationsystem.service.DoctorService;
+import jp.github.minamoto.m.reservationsystem.service.catalog.CatalogCache.CatalogBody;
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:catalogdb;DB_CLOSE_DELAY=-1")
+class CatalogCacheTest {
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void bodies_sameAsSerializedServiceResults() throws IOException {
+        assertBody(catalogCache.departments(), objectMapper.writeValueAsString(departmentService.findAll()));
+        assertBody(catalogCache.doctors(), objectMapper.writeValueAsString(doctorService.findAll()));
+        assertBody(catalogCache.doctors(1L), objectMapper.writeValueAsString(doctorService.findByDepartmentId(1L)));
+
+        // 医師がいない診療科は空の一覧
+        assertBody(catalogCache.doctors(999L), "[]");
+    }
+
+    @Test
+    void doctorSavedAndDeleted_reloadedAfterCommit() {
+        // Given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        String etagBefore = catalogCache.doctors().etag();
+
+        // When: 医師を追加する
+        Doctor doctor = new Doctor();
+        doctor.setName("追加 医師");
+        doctor.setDepartmentId(1L);
+        Long doctorId = tx.execute(status -> doctorRepository.save(doctor)).getId();
+
+        try {
+            // Then: コミット後の最初の参照で読み込み直される
+            assertThat(catalogCache.doctors().etag()).isNotEqualTo(etagBefore);
+            assertThat(new String(catalogCache.doctors(1L).json(), StandardCharsets.UTF_8)).contains("追加 医師");
+        } finally {
+            tx.executeWithoutResult(status -> doctorRepository.deleteById(doctorId));
+        }
+
+        // 内容が元に戻れば ETag も元に戻る
+        assertThat(catalogCache.doctors().etag()).isEqualTo(etagBefore);
+    }
+
+    private static void assertBody(CatalogBody body, String expectedJson) throws IOException {
+        assertThat(new String(body.json(), StandardCharsets.UTF_8)).isEqualTo(expectedJson);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(body.json());
+        }
+        assertThat(body.gzipEtag()).isNotEqualTo(body.etag());
+    }
+}
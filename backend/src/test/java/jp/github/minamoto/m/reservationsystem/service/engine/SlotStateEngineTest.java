@@ -0,0 +1,184 @@
+package jp.github.minamoto.m.reservationsystem.service.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotStateView;
+
+@ExtendWith(MockitoExtension.class)
+class SlotStateEngineTest {
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    private SlotStateEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new SlotStateEngine(timeSlotRepository, true, 7, "09:00", 30, 18);
+
+        // Given: 本日の 9:00（OPEN）、9:30（RESERVED）と、グリッド外の 8:00 の予約枠がある
+        LocalDate today = LocalDate.now();
+        when(timeSlotRepository.findStatesByDateRange(any(), any())).thenReturn(List.of(
+                view(10L, 1L, today, LocalTime.of(9, 0), TimeSlotStatus.OPEN),
+                view(11L, 1L, today, LocalTime.of(9, 30), TimeSlotStatus.RESERVED),
+                view(12L, 2L, today, LocalTime.of(8, 0), TimeSlotStatus.OPEN)));
+        engine.rebuild();
+    }
+
+    @Test
+    void claim_openSlot_appliedOnceThenConflict() {
+        // When & Then: 1回目は確保でき、2回目は競合になる
+        assertThat(engine.claim(10L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED))
+                .isEqualTo(SlotStateEngine.Transition.APPLIED);
+        assertThat(engine.claim(10L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED))
+                .isEqualTo(SlotStateEngine.Transition.CONFLICT);
+        assertThat(engine.status(10L)).isEqualTo(TimeSlotStatus.RESERVED);
+    }
+
+    @Test
+    void claim_reservedSlot_conflict() {
+        assertThat(engine.claim(11L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED))
+                .isEqualTo(SlotStateEngine.Transition.CONFLICT);
+    }
+
+    @Test
+    void claim_slotOutsideGrid_untracked() {
+        // When & Then: グリッド外・未登録の枠はDBでの判定に任せる
+        assertThat(engine.claim(12L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED))
+                .isEqualTo(SlotStateEngine.Transition.UNTRACKED);
+        assertThat(engine.claim(999L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED))
+                .isEqualTo(SlotStateEngine.Transition.UNTRACKED);
+    }
+
+    @Test
+    void claim_transactionRolledBack_revertsToExpected() {
+        // Given: トランザクション中に確保した
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            engine.claim(10L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED);
+
+            // When: ロールバックされる
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then: OPEN に戻っている
+        assertThat(engine.status(10L)).isEqualTo(TimeSlotStatus.OPEN);
+    }
+
+    @Test
+    void release_inTransaction_appliedOnlyAfterCommit() {
+        // Given: トランザクション中に OPEN へ戻す
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            engine.release(11L, TimeSlotStatus.OPEN);
+
+            // Then: コミット前は RESERVED のまま
+            assertThat(engine.status(11L)).isEqualTo(TimeSlotStatus.RESERVED);
+
+            // When: コミットされる
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then: OPEN になっている
+        assertThat(engine.status(11L)).isEqualTo(TimeSlotStatus.OPEN);
+    }
+
+    @Test
+    void forceAll_transactionRolledBack_revertsEachSlot() {
+        // Given: トランザクション中に2枠をまとめて閉じた（グリッド外の枠は無視される）
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            engine.forceAll(List.of(10L, 11L, 12L), TimeSlotStatus.DOCTOR_UNAVAILABLE);
+            assertThat(engine.status(10L)).isEqualTo(TimeSlotStatus.DOCTOR_UNAVAILABLE);
+            assertThat(engine.status(11L)).isEqualTo(TimeSlotStatus.DOCTOR_UNAVAILABLE);
+            assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+
+            // When: ロールバックされる
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then: それぞれ元のステータスに戻っている
+        assertThat(engine.status(10L)).isEqualTo(TimeSlotStatus.OPEN);
+        assertThat(engine.status(11L)).isEqualTo(TimeSlotStatus.RESERVED);
+    }
+
+    @Test
+    void rebuild_releaseCommittedWhileLoading_reapplied() {
+        // Given: 読み込み中に 9:30 の予約が取り消されてコミットされる（読み込み結果には含まれない）
+        LocalDate today = LocalDate.now();
+        when(timeSlotRepository.findStatesByDateRange(any(), any())).thenAnswer(invocation -> {
+            engine.release(11L, TimeSlotStatus.OPEN);
+            return List.of(
+                    view(10L, 1L, today, LocalTime.of(9, 0), TimeSlotStatus.OPEN),
+                    view(11L, 1L, today, LocalTime.of(9, 30), TimeSlotStatus.RESERVED));
+        });
+
+        // When
+        engine.rebuild();
+
+        // Then: 再構築後の配列にも反映され、予約できる
+        assertThat(engine.status(11L)).isEqualTo(TimeSlotStatus.OPEN);
+        assertThat(engine.claim(11L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED))
+                .isEqualTo(SlotStateEngine.Transition.APPLIED);
+    }
+
+    @Test
+    void rebuild_claimCommittedAfterSwap_appliedToNewGrid() {
+        // Given: トランザクション中に確保した後、コミット前に再構築される（読み込み結果は OPEN のまま）
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            engine.claim(10L, TimeSlotStatus.OPEN, TimeSlotStatus.RESERVED);
+            engine.rebuild();
+            assertThat(engine.status(10L)).isEqualTo(TimeSlotStatus.OPEN);
+
+            // When: コミットされる
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then: 新しい配列に反映されている
+        assertThat(engine.status(10L)).isEqualTo(TimeSlotStatus.RESERVED);
+    }
+
+    private static TimeSlotStateView view(Long id, Long doctorId, LocalDate date, LocalTime startTime,
+            TimeSlotStatus status) {
+        return new TimeSlotStateView() {
+            public Long getId() { return id; }
+            public Long getDoctorId() { return doctorId; }
+            public LocalDate getDate() { return date; }
+            public LocalTime getStartTime() { return startTime; }
+            public TimeSlotStatus getStatus() { return status; }
+        };
+    }
+}
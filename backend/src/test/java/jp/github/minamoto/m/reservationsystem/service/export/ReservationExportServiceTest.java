@@ -0,0 +1,172 @@
+package jp.github.minamoto.m.reservationsystem.service.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.domain.ReservationStatus;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationSearch;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidReservationQueryException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+// ドライバーから数行ずつ受け取っても全件が出力されることを確認するため、fetch size を小さくする
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:exportdb;DB_CLOSE_DELAY=-1",
+        "app.reservation.export.fetch-size=2" })
+class ReservationExportServiceTest {
+
+    // data.sql の予約枠と重ならない日付に、医師1（小児科）・医師3（内科）の予約を作る
+    private static final LocalDate DAY1 = LocalDate.of(2097, 5, 1);
+    private static final LocalDate DAY2 = LocalDate.of(2097, 5, 2);
+    // 数式として解釈される名前の予約（他のテストの期間外）
+    private static final LocalDate DAY3 = LocalDate.of(2097, 5, 3);
+
+    @Autowired
+    private ReservationExportService reservationExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_slot WHERE date = ?", Integer.class, DAY1) > 0) {
+                return;
+            }
+            insertReservation(DAY1, "09:00", 1L, "CONFIRMED", "山田 太郎");
+            insertReservation(DAY1, "09:30", 3L, "CONFIRMED", "\"引用\", 名前\n改行");
+            insertReservation(DAY2, "10:00", 3L, "CANCELED", null);
+        });
+    }
+
+    @Test
+    void export_csv_writesHeaderAndEscapedRows() throws IOException {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = reservationExportService.export(search(null, null, null), ExportFormat.CSV, out);
+
+        // Then: BOM・列名の後に予約ID順で1行ずつ。区切り文字・引用符・改行を含む名前は引用符で囲む
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(rows).isEqualTo(3);
+        assertThat(csv).startsWith("\uFEFFreservationId,timeSlotId,doctorId,date,startTime,endTime,status,name,createdAt\r\n");
+        String[] lines = csv.substring(1).split("\r\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[1]).matches("\\d+,\\d+,1,2097-05-01,09:00:00,09:30:00,CONFIRMED,山田 太郎,2097-04-30T12:00:00");
+        assertThat(lines[2]).contains(",3,2097-05-01,09:30:00,10:00:00,CONFIRMED,\"\"\"引用\"\", 名前\n改行\",");
+        assertThat(lines[3]).contains(",CANCELED,,");
+    }
+
+    @Test
+    void export_csv_formulaLikeName_prefixedAndQuoted() throws IOException {
+        // Given: 表計算ソフトで数式として実行される名前
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_slot WHERE date = ?", Integer.class, DAY3) > 0) {
+                return;
+            }
+            insertReservation(DAY3, "09:00", 1L, "CONFIRMED", "=HYPERLINK(\"http://example.com\")");
+            insertReservation(DAY3, "09:30", 1L, "CONFIRMED", "-1+2");
+            insertReservation(DAY3, "10:00", 1L, "CONFIRMED", "@SUM(A1)");
+        });
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reservationExportService.export(search(null, DAY3, DAY3), ExportFormat.CSV, out);
+
+        // Then: 先頭に ' を付けて引用符で囲む。NDJSON はそのまま
+        String[] lines = out.toString(StandardCharsets.UTF_8).substring(1).split("\r\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[1]).contains(",CONFIRMED,\"'=HYPERLINK(\"\"http://example.com\"\")\",");
+        assertThat(lines[2]).contains(",CONFIRMED,\"'-1+2\",");
+        assertThat(lines[3]).contains(",CONFIRMED,\"'@SUM(A1)\",");
+        out.reset();
+        reservationExportService.export(search(null, DAY3, DAY3), ExportFormat.NDJSON, out);
+        assertThat(objectMapper.readTree(out.toString(StandardCharsets.UTF_8).lines().findFirst().orElseThrow())
+                .get("name").asString()).isEqualTo("=HYPERLINK(\"http://example.com\")");
+    }
+
+    @Test
+    void export_ndjson_writesOneJsonObjectPerLineWithFilters() throws IOException {
+        // When: 内科（医師3）の予約済みのみ
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = reservationExportService.export(new ReservationSearch(ReservationStatus.CONFIRMED, DAY1, DAY2, null, 1L),
+                ExportFormat.NDJSON, out);
+
+        // Then
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(1);
+        assertThat(lines).hasSize(1);
+        JsonNode row = objectMapper.readTree(lines.get(0));
+        assertThat(row.get("doctorId").asLong()).isEqualTo(3L);
+        assertThat(row.get("date").asString()).isEqualTo("2097-05-01");
+        assertThat(row.get("startTime").asString()).isEqualTo("09:30:00");
+        assertThat(row.get("name").asString()).isEqualTo("\"引用\", 名前\n改行");
+
+        // 医師・期間
+        out.reset();
+        assertThat(reservationExportService.export(search(1L, DAY1, DAY1), ExportFormat.NDJSON, out)).isEqualTo(1);
+        assertThat(objectMapper.readTree(out.toString(StandardCharsets.UTF_8)).get("name").asString()).isEqualTo("山田 太郎");
+        out.reset();
+        assertThat(reservationExportService.export(search(null, DAY2, DAY2), ExportFormat.NDJSON, out)).isEqualTo(1);
+        assertThat(objectMapper.readTree(out.toString(StandardCharsets.UTF_8)).get("name").isNull()).isTrue();
+    }
+
+    @Test
+    void export_outputFails_stopsReadingAndThrows() {
+        // Given: 最初の書き出しで失敗する出力先（クライアントの切断）
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // Then: 書き出しの失敗がそのまま返る（バッファより小さいため flush の時点で失敗する）
+        assertThatThrownBy(() -> reservationExportService.export(search(null, null, null), ExportFormat.CSV, broken))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    @Test
+    void validateAndFormat_invalid_throws() {
+        assertThatThrownBy(() -> reservationExportService.validate(search(null, DAY2, DAY1)))
+                .isInstanceOf(InvalidReservationQueryException.class);
+        assertThatThrownBy(() -> ExportFormat.of("xml"))
+                .isInstanceOf(InvalidReservationQueryException.class);
+        assertThat(ExportFormat.of("ndjson")).isEqualTo(ExportFormat.NDJSON);
+    }
+
+    private static ReservationSearch search(Long doctorId, LocalDate from, LocalDate to) {
+        return new ReservationSearch(null, from != null ? from : DAY1, to != null ? to : DAY2, doctorId, null);
+    }
+
+    private void insertReservation(LocalDate date, String start, long doctorId, String status, String name) {
+        jdbcTemplate.update("INSERT INTO time_slot (date, start_time, end_time, doctor_id, status) "
+                + "VALUES (?, CAST(? AS TIME), DATEADD(MINUTE, 30, CAST(? AS TIME)), ?, ?)",
+                date, start, start, doctorId, "CONFIRMED".equals(status) ? "RESERVED" : "OPEN");
+        Long slotId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM time_slot", Long.class);
+        jdbcTemplate.update("INSERT INTO reservation (time_slot_id, active_time_slot_id, status, name, phone_number, created_at) "
+                + "VALUES (?, ?, ?, ?, '09000000000', TIMESTAMP '2097-04-30 12:00:00')",
+                slotId, "CONFIRMED".equals(status) ? slotId : null, status, name);
+    }
+}
@@ -0,0 +1,63 @@
+package jp.github.minamoto.m.reservationsystem.service.hold;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void advance_returnsOnlyDueIds() {
+        // Given: tick 100ms、バケット8個のホイールに期限の異なるIDを登録する
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, 0);
+        wheel.schedule(1L, 250);
+        wheel.schedule(2L, 300);
+        wheel.schedule(3L, 1000);
+
+        // When & Then: 期限より前には取り出されない
+        assertThat(wheel.advance(299)).isEmpty();
+
+        // 期限を過ぎたものだけが取り出される
+        assertThat(wheel.advance(300)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void advance_deadlineBeyondOneRotation_keptUntilDue() {
+        // Given: 1周（8 tick = 800ms）より先の期限
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, 0);
+        wheel.schedule(1L, 1700);
+
+        // When & Then: 同じバケットを通過しても期限前は残る
+        assertThat(wheel.advance(900)).isEmpty();
+        assertThat(wheel.advance(1700)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void schedule_pastDeadline_expiresOnNextAdvance() {
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, 0);
+        wheel.advance(500);
+
+        // When: 既に処理済みの時刻を期限として登録する
+        wheel.schedule(1L, 200);
+
+        // Then: 次の advance で取り出される
+        assertThat(wheel.advance(600)).containsExactly(1L);
+    }
+
+    @Test
+    void advance_manyHolds_releasedInBatch() {
+        // Given: 10万件の仮押さえが同じ期限で登録されている
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 512, 0);
+        for (long id = 0; id < 100_000; id++) {
+            wheel.schedule(id, 60_000 + (id % 10) * 100);
+        }
+
+        // When & Then: 期限が来た分がまとめて取り出される
+        assertThat(wheel.advance(59_999)).isEmpty();
+        assertThat(wheel.advance(60_400)).hasSize(50_000);
+        assertThat(wheel.advance(61_000)).hasSize(50_000);
+        assertThat(wheel.size()).isZero();
+    }
+}
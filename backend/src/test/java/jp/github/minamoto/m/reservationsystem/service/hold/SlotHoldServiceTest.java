@@ -0,0 +1,84 @@
+package jp.github.minamoto.m.reservationsystem.service.hold;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.SlotHoldResponseDTO;
+import jp.github.minamoto.m.reservationsystem.entity.SlotHold;
+import jp.github.minamoto.m.reservationsystem.repository.SlotHoldRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotAlreadyTakenException;
+
+@SpringBootTest
+@Transactional
+@RecordApplicationEvents
+class SlotHoldServiceTest {
+
+    @Autowired
+    private SlotHoldService slotHoldService;
+
+    @Autowired
+    private SlotHoldRepository slotHoldRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void hold_thenExpire_slotReopened() {
+        // Given: data.sql の予約枠ID=5 を仮押さえする
+        SlotHoldResponseDTO held = slotHoldService.hold(5L);
+        assertThat(statusOf(5L)).isEqualTo(TimeSlotStatus.HELD);
+
+        // 仮押さえ中は二重に仮押さえできない
+        assertThrows(TimeSlotAlreadyTakenException.class, () -> slotHoldService.hold(5L));
+
+        // When: 期限切れとしてまとめて解放する
+        SlotHold hold = slotHoldRepository.findByToken(held.getHoldToken()).orElseThrow();
+        slotHoldService.expire(List.of(hold.getId()));
+
+        // Then: 予約枠は OPEN に戻り、仮押さえは削除される
+        assertThat(statusOf(5L)).isEqualTo(TimeSlotStatus.OPEN);
+        assertThat(slotHoldRepository.findByToken(held.getHoldToken())).isEmpty();
+    }
+
+    @Test
+    void expire_slotNoLongerHeld_leftUntouchedAndNotNotified() {
+        // Given: 予約枠ID=6 を仮押さえした後、期限切れの解放より先に予約が確定した
+        SlotHoldResponseDTO held = slotHoldService.hold(6L);
+        timeSlotRepository.updateStatusIfMatches(6L, TimeSlotStatus.HELD, TimeSlotStatus.RESERVED);
+        SlotHold hold = slotHoldRepository.findByToken(held.getHoldToken()).orElseThrow();
+        entityManager.clear();
+
+        // When
+        slotHoldService.expire(List.of(hold.getId()));
+
+        // Then: 予約済みのまま、HELD → OPEN の通知も出ない
+        assertThat(statusOf(6L)).isEqualTo(TimeSlotStatus.RESERVED);
+        assertThat(events.stream(TimeSlotStatusChangedEvent.class))
+                .noneMatch(event -> event.status() == TimeSlotStatus.OPEN);
+    }
+
+    private TimeSlotStatus statusOf(Long timeSlotId) {
+        entityManager.flush();
+        entityManager.clear();
+        return timeSlotRepository.findById(timeSlotId).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,121 @@
+package jp.github.minamoto.m.reservationsystem.service.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.exception.IdempotencyKeyInProgressException;
+import jp.github.minamoto.m.reservationsystem.service.exception.IdempotencyKeyReusedException;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotAlreadyTakenException;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotNotFoundException;
+import jp.github.minamoto.m.reservationsystem.service.idempotency.IdempotencyService.IdempotentResult;
+import tools.jackson.databind.json.JsonMapper;
+
+class IdempotencyServiceTest {
+
+    private InMemoryIdempotencyStore store;
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryIdempotencyStore(100, Duration.ofMinutes(10));
+        idempotencyService = new IdempotencyService(store, JsonMapper.builder().build());
+    }
+
+    @Test
+    void execute_retryWithSameKey_replaysWithoutRunningAction() {
+        ReservationCreateRequestDTO request = request(1L);
+
+        // Given: 1回目のリクエストが成功している
+        IdempotentResult<ReservationResponseDTO> first = idempotencyService.execute("key-1", request, this::book);
+        assertThat(first.isReplayed()).isFalse();
+        assertThat(first.value().getReservationId()).isEqualTo(100L);
+
+        // When: 同じキーで再送する
+        IdempotentResult<ReservationResponseDTO> retry = idempotencyService.execute("key-1", request(1L), this::book);
+
+        // Then: 予約処理は1回しか実行されず、保存済みのレスポンスが返る
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(retry.isReplayed()).isTrue();
+        assertThat(retry.replay().status()).isEqualTo(200);
+        assertThat(retry.replay().body()).contains("\"reservationId\":100");
+    }
+
+    @Test
+    void execute_alreadyTaken_conflictIsStoredAndReplayed() {
+        // Given: 1回目が予約済みで失敗している
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", request(1L), () -> {
+            calls.incrementAndGet();
+            throw new TimeSlotAlreadyTakenException("この予約枠はすでに予約されています。");
+        })).isInstanceOf(TimeSlotAlreadyTakenException.class);
+
+        // When: 同じキーで再送する
+        IdempotentResult<ReservationResponseDTO> retry = idempotencyService.execute("key-1", request(1L), this::book);
+
+        // Then: 409 の結果が再生され、予約処理は再実行されない
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(retry.replay().status()).isEqualTo(409);
+        assertThat(retry.replay().body()).contains("TIME_SLOT_ALREADY_TAKEN");
+    }
+
+    @Test
+    void execute_otherFailure_keyReleasedForRetry() {
+        // Given: 1回目が保存対象外の例外で失敗している
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", request(1L), () -> {
+            throw new TimeSlotNotFoundException(1L);
+        })).isInstanceOf(TimeSlotNotFoundException.class);
+
+        // When: 同じキーで再送する
+        IdempotentResult<ReservationResponseDTO> retry = idempotencyService.execute("key-1", request(1L), this::book);
+
+        // Then: 改めて実行される
+        assertThat(retry.isReplayed()).isFalse();
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_sameKeyDifferentBody_throwsReused() {
+        idempotencyService.execute("key-1", request(1L), this::book);
+
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", request(2L), this::book))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_keyInProgress_throwsInProgress() {
+        // Given: 同じキーの処理が実行中
+        ReservationCreateRequestDTO request = request(1L);
+        store.tryReserve("key-1", idempotencyService.fingerprint(request));
+
+        // When & Then
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", request, this::book))
+                .isInstanceOf(IdempotencyKeyInProgressException.class);
+        assertThat(calls.get()).isZero();
+    }
+
+    private ReservationResponseDTO book() {
+        calls.incrementAndGet();
+        ReservationResponseDTO dto = new ReservationResponseDTO();
+        dto.setReservationId(100L);
+        dto.setTimeSlotId(1L);
+        dto.setStatus("CONFIRMED");
+        return dto;
+    }
+
+    private ReservationCreateRequestDTO request(Long timeSlotId) {
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(timeSlotId);
+        dto.setName("山田太郎");
+        dto.setPhoneNumber("090-0000-0000");
+        return dto;
+    }
+}
@@ -0,0 +1,71 @@
+package jp.github.minamoto.m.reservationsystem.service.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class InMemoryIdempotencyStoreTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void tryReserve_sameKey_onlyFirstSucceeds() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofMinutes(1), now::get);
+
+        assertThat(store.tryReserve("k1", "fp")).isTrue();
+        assertThat(store.tryReserve("k1", "fp")).isFalse();
+
+        // When: 結果を保存する
+        store.complete("k1", 200, "{\"reservationId\":1}");
+
+        // Then: 保存した結果を取得できる
+        IdempotencyRecord record = store.find("k1").orElseThrow();
+        assertThat(record.inProgress()).isFalse();
+        assertThat(record.status()).isEqualTo(200);
+        assertThat(record.body()).isEqualTo("{\"reservationId\":1}");
+    }
+
+    @Test
+    void find_afterTtl_expiredAndReservableAgain() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofSeconds(1), now::get);
+        store.tryReserve("k1", "fp");
+        store.complete("k1", 200, "{}");
+
+        // When: TTL を過ぎる
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // Then: 期限切れとして扱われ、同じキーを再度登録できる
+        assertThat(store.find("k1")).isEmpty();
+        assertThat(store.tryReserve("k1", "fp")).isTrue();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void tryReserve_overMaxEntries_evictsOldest() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, Duration.ofMinutes(1), now::get);
+
+        // When: 上限を超えて登録する
+        store.tryReserve("k1", "fp");
+        store.tryReserve("k2", "fp");
+        store.tryReserve("k3", "fp");
+
+        // Then: 最も古いキーが捨てられる
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.find("k1")).isEmpty();
+        assertThat(store.find("k3")).isPresent();
+    }
+
+    @Test
+    void release_removesInProgressKey() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofMinutes(1), now::get);
+        store.tryReserve("k1", "fp");
+
+        store.release("k1");
+
+        assertThat(store.find("k1")).isEmpty();
+        assertThat(store.tryReserve("k1", "fp")).isTrue();
+    }
+}
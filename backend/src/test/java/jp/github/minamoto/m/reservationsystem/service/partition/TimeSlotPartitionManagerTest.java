@@ -0,0 +1,43 @@
+package jp.github.minamoto.m.reservationsystem.service.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TimeSlotPartitionManagerTest {
+
+    private final LocalDate today = LocalDate.of(2026, 10, 18);
+
+    @Test
+    void reorganizeStatement_onlyMaxPartition_splitsFromCurrentMonth() {
+        String ddl = TimeSlotPartitionManager.reorganizeStatement(List.of("MAXVALUE"), today, 2);
+
+        assertThat(ddl).isEqualTo("ALTER TABLE time_slot REORGANIZE PARTITION p_max INTO ("
+                + "PARTITION p_202610 VALUES LESS THAN ('2026-11-01'), "
+                + "PARTITION p_202611 VALUES LESS THAN ('2026-12-01'), "
+                + "PARTITION p_202612 VALUES LESS THAN ('2027-01-01'), "
+                + "PARTITION p_max VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void reorganizeStatement_continuesAfterHighestBound() {
+        // Given: 11月分まで作成済み
+        List<String> bounds = List.of("'2026-11-01'", "'2026-12-01'", "MAXVALUE");
+
+        String ddl = TimeSlotPartitionManager.reorganizeStatement(bounds, today, 2);
+
+        assertThat(ddl).isEqualTo("ALTER TABLE time_slot REORGANIZE PARTITION p_max INTO ("
+                + "PARTITION p_202612 VALUES LESS THAN ('2027-01-01'), "
+                + "PARTITION p_max VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void reorganizeStatement_alreadyCovered_returnsNull() {
+        List<String> bounds = List.of("'2026-11-01'", "'2026-12-01'", "'2027-01-01'", "MAXVALUE");
+
+        assertThat(TimeSlotPartitionManager.reorganizeStatement(bounds, today, 2)).isNull();
+    }
+}
@@ -0,0 +1,168 @@
+package jp.github.minamoto.m.reservationsystem.service.pipeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.repository.ReservationRepository;
+import jp.github.minamoto.m.reservationsystem.repository.TimeSlotRepository;
+import jp.github.minamoto.m.reservationsystem.service.ReservationService;
+import jp.github.minamoto.m.reservationsystem.service.exception.TimeSlotAlreadyTakenException;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPipelineTest {
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    private final CountingTransactionOperations transactions = new CountingTransactionOperations();
+
+    private BookingPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void create_concurrentRequestsForSameDoctor_committedTogether() throws Exception {
+        // Given: 1シャード、最大50msまで待ってまとめるパイプライン。予約枠ID=2 だけが予約済み
+        pipeline = newPipeline(50);
+        pipeline.start();
+
+        when(timeSlotRepository.findDoctorIdById(any())).thenReturn(Optional.of(1L));
+        when(reservationService.applyCreate(any())).thenAnswer(invocation -> {
+            ReservationCreateRequestDTO dto = invocation.getArgument(0);
+            if (dto.getTimeSlotId() == 2L) {
+                throw new TimeSlotAlreadyTakenException("すでに予約が存在しています。");
+            }
+            ReservationResponseDTO response = new ReservationResponseDTO();
+            response.setTimeSlotId(dto.getTimeSlotId());
+            return response;
+        });
+
+        // When: 同じ医師の枠へ5件同時に予約する
+        List<CompletableFuture<ReservationResponseDTO>> futures = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+            dto.setTimeSlotId(id);
+            futures.add(CompletableFuture.supplyAsync(() -> pipeline.create(dto)));
+        }
+
+        // Then: 予約済みの1件だけが失敗し、他は成功する。トランザクション数は件数より少ない
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<ReservationResponseDTO> future = futures.get(i);
+            if (i == 1) {
+                ExecutionException e = assertThrows(ExecutionException.class, future::get);
+                assertThat(e.getCause()).isInstanceOf(TimeSlotAlreadyTakenException.class);
+            } else {
+                assertThat(future.get().getTimeSlotId()).isEqualTo(i + 1L);
+            }
+        }
+        assertThat(transactions.executed.get()).isLessThan(5);
+    }
+
+    @Test
+    void commit_batchFailsWithDataAccessException_retriesEachCommandAlone() {
+        // Given: 2件目がDBエラーになるバッチ
+        pipeline = newPipeline(0);
+        BookingPipeline.Command<String> ok = new BookingPipeline.Command<>(() -> "ok");
+        BookingPipeline.Command<String> broken = new BookingPipeline.Command<>(() -> {
+            throw new DataIntegrityViolationException("duplicate");
+        });
+        List<BookingPipeline.Command<?>> batch = new ArrayList<>(List.of(ok, broken));
+
+        // When: まとめてコミットする
+        pipeline.commit(batch);
+
+        // Then: バッチ1回 + 個別2回のトランザクションが実行され、失敗したコマンドだけが例外で完了する
+        assertThat(transactions.executed.get()).isEqualTo(3);
+        assertThat(ok.future).isCompletedWithValue("ok");
+        assertThat(broken.future).isCompletedExceptionally();
+    }
+
+    @Test
+    void commit_commandAbandonedBeforeRun_skipped() {
+        // Given: 呼び出し元がタイムアウトして破棄したコマンド
+        pipeline = newPipeline(0);
+        AtomicInteger runs = new AtomicInteger();
+        BookingPipeline.Command<String> abandoned = new BookingPipeline.Command<>(() -> {
+            runs.incrementAndGet();
+            return "late";
+        });
+        assertThat(abandoned.abandon()).isTrue();
+
+        // When: シャードが取り出してコミットする
+        pipeline.commit(new ArrayList<>(List.of(abandoned)));
+
+        // Then: 実行されない
+        assertThat(runs.get()).isZero();
+    }
+
+    @Test
+    void abandon_commandAlreadyStarted_refused() {
+        // Given: 実行が始まったコマンド
+        BookingPipeline.Command<String> started = new BookingPipeline.Command<>(() -> "ok");
+        started.runInBatch();
+
+        // When & Then: 破棄できない（呼び出し元はコミットを待つ）
+        assertThat(started.abandon()).isFalse();
+    }
+
+    private BookingPipeline newPipeline(long maxLingerMillis) {
+        return new BookingPipeline(reservationService, timeSlotRepository, reservationRepository,
+                transactions, new SimpleMeterRegistry(), true, 1, 8, maxLingerMillis, 16, 5000);
+    }
+
+    /**
+     * 実行したトランザクション数を数えるだけの TransactionOperations。
+     */
+    private static class CountingTransactionOperations implements TransactionOperations {
+        final AtomicInteger executed = new AtomicInteger();
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            executed.incrementAndGet();
+            return action.doInTransaction(new SimpleTransactionStatus());
+        }
+
+        @Override
+        public void executeWithoutResult(Consumer<TransactionStatus> action) {
+            execute(status -> {
+                action.accept(status);
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package jp.github.minamoto.m.reservationsystem.service.schedule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jp.github.minamoto.m.reservationsystem.dto.DoctorScheduleDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ScheduleExceptionDTO;
+import jp.github.minamoto.m.reservationsystem.dto.ScheduleRuleDTO;
+import jp.github.minamoto.m.reservationsystem.dto.SlotGenerationResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.ReservationService;
+import jp.github.minamoto.m.reservationsystem.service.calendar.OpenSlotCounterService;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidScheduleException;
+import jp.github.minamoto.m.reservationsystem.service.version.SlotVersionService;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:scheduledb;DB_CLOSE_DELAY=-1")
+class SlotGeneratorTest {
+
+    // data.sql の予約枠と重ならない週（月曜〜日曜）。テストごとに別の医師を使う
+    private static final LocalDate MONDAY = LocalDate.of(2099, 3, 2);
+    private static final LocalDate WEDNESDAY = MONDAY.plusDays(2);
+    private static final LocalDate THURSDAY = MONDAY.plusDays(3);
+    private static final LocalDate SATURDAY = MONDAY.plusDays(5);
+    private static final LocalDate SUNDAY = MONDAY.plusDays(6);
+
+    @Autowired
+    private SlotGenerator slotGenerator;
+
+    @Autowired
+    private DoctorScheduleService doctorScheduleService;
+
+    @Autowired
+    private OpenSlotCounterService openSlotCounterService;
+
+    @Autowired
+    private SlotVersionService slotVersionService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generate_materializesSchedule_andSkipsUnchangedDays() {
+        Long doctorId = 10L;
+        String etag = slotVersionService.etag(doctorId, MONDAY);
+        doctorScheduleService.replace(doctorId, weekSchedule());
+
+        // When
+        SlotGenerationResponseDTO result = slotGenerator.generate(doctorId, MONDAY, SUNDAY);
+
+        // Then: 平日 9:00〜12:00（30分）、水曜は 13:00〜15:00（60分）も。木曜は休診、土曜は例外の勤務時間
+        assertThat(result.getChangedDays()).isEqualTo(5);
+        assertThat(result.getInsertedSlots()).isEqualTo(29);
+        assertThat(slotsPerDay(doctorId)).containsExactly(6, 6, 8, 0, 6, 3, 0);
+        assertThat(jdbcTemplate.queryForList("SELECT start_time FROM time_slot WHERE doctor_id = ? AND date = ? ORDER BY start_time",
+                LocalTime.class, doctorId, SATURDAY))
+                .containsExactly(LocalTime.of(10, 0), LocalTime.of(10, 20), LocalTime.of(10, 40));
+        assertThat(openSlotCounterService.verify(MONDAY, SUNDAY)).isEmpty();
+        assertThat(slotVersionService.etag(doctorId, MONDAY)).isNotEqualTo(etag);
+
+        // 勤務時間が変わっていなければ何もしない
+        SlotGenerationResponseDTO again = slotGenerator.generate(doctorId, MONDAY, SUNDAY);
+        assertThat(again.getChangedDays()).isZero();
+        assertThat(again.getInsertedSlots()).isZero();
+        assertThat(slotsPerDay(doctorId)).containsExactly(6, 6, 8, 0, 6, 3, 0);
+    }
+
+    @Test
+    void generate_afterScheduleChange_touchesOnlyChangedDays() {
+        Long doctorId = 6L;
+        doctorScheduleService.replace(doctorId, weekSchedule());
+        slotGenerator.generate(doctorId, MONDAY, SUNDAY);
+        List<Long> mondayIds = slotIds(doctorId, MONDAY);
+
+        // When: 木曜の休診を取り消し、水曜の午後を 14:00 までに短くする
+        DoctorScheduleDTO schedule = weekSchedule();
+        schedule.getExceptions().removeIf(exception -> exception.getDate().equals(THURSDAY));
+        schedule.getRules().removeIf(rule -> rule.getStartTime().equals(LocalTime.of(13, 0)));
+        schedule.getRules().add(new ScheduleRuleDTO(DayOfWeek.WEDNESDAY, LocalTime.of(13, 0), LocalTime.of(14, 0), 60));
+        doctorScheduleService.replace(doctorId, schedule);
+        SlotGenerationResponseDTO result = slotGenerator.generate(doctorId, MONDAY, SUNDAY);
+
+        // Then: 変わった2日だけを作り直し、他の日の枠はそのまま
+        assertThat(result.getChangedDays()).isEqualTo(2);
+        assertThat(result.getInsertedSlots()).isEqualTo(6);
+        assertThat(result.getDeletedSlots()).isEqualTo(1);
+        assertThat(slotsPerDay(doctorId)).containsExactly(6, 6, 7, 6, 6, 3, 0);
+        assertThat(slotIds(doctorId, MONDAY)).isEqualTo(mondayIds);
+        assertThat(openSlotCounterService.verify(MONDAY, SUNDAY)).isEmpty();
+    }
+
+    @Test
+    void generate_keepsReservedSlotsOutsideSchedule() {
+        Long doctorId = 5L;
+        doctorScheduleService.replace(doctorId, weekSchedule());
+        slotGenerator.generate(doctorId, MONDAY, SUNDAY);
+        ReservationCreateRequestDTO dto = new ReservationCreateRequestDTO();
+        dto.setTimeSlotId(slotIds(doctorId, MONDAY).get(0));
+        dto.setName("勤務時間");
+        dto.setPhoneNumber("09000000000");
+        reservationService.create(dto);
+
+        // When: 月曜を休診にする
+        DoctorScheduleDTO schedule = weekSchedule();
+        schedule.getExceptions().add(new ScheduleExceptionDTO(MONDAY, null, null, null));
+        doctorScheduleService.replace(doctorId, schedule);
+        SlotGenerationResponseDTO result = slotGenerator.generate(doctorId, MONDAY, SUNDAY);
+
+        // Then: 予約のある枠は残し、その日は次回も作り直す
+        assertThat(result.getDeletedSlots()).isEqualTo(5);
+        assertThat(result.getKeptSlots()).isEqualTo(1);
+        assertThat(slotsPerDay(doctorId).get(0)).isEqualTo(1);
+        assertThat(slotGenerator.generate(doctorId, MONDAY, SUNDAY))
+                .satisfies(next -> {
+                    assertThat(next.getChangedDays()).isEqualTo(1);
+                    assertThat(next.getKeptSlots()).isEqualTo(1);
+                    assertThat(next.getDeletedSlots()).isZero();
+                });
+        assertThat(openSlotCounterService.verify(MONDAY, SUNDAY)).isEmpty();
+    }
+
+    @Test
+    void generate_concurrentlyForSameDoctor_insertsSlotsOnce() {
+        Long doctorId = 8L;
+        doctorScheduleService.replace(doctorId, weekSchedule());
+
+        // When: 手動の反映と定期実行が同時に走る
+        List<CompletableFuture<SlotGenerationResponseDTO>> runs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            runs.add(CompletableFuture.supplyAsync(() -> slotGenerator.generate(doctorId, MONDAY, SUNDAY)));
+        }
+
+        // Then: 枠は一度だけ追加され、二重にならない
+        assertThat(runs.stream().mapToInt(run -> run.join().getInsertedSlots()).sum()).isEqualTo(29);
+        assertThat(slotsPerDay(doctorId)).containsExactly(6, 6, 8, 0, 6, 3, 0);
+        assertThat(openSlotCounterService.verify(MONDAY, SUNDAY)).isEmpty();
+    }
+
+    @Test
+    void replace_invalidSchedule_throws() {
+        DoctorScheduleDTO overlapping = new DoctorScheduleDTO();
+        overlapping.getRules().add(new ScheduleRuleDTO(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(12, 0), 30));
+        overlapping.getRules().add(new ScheduleRuleDTO(DayOfWeek.MONDAY, LocalTime.of(11, 0), LocalTime.of(13, 0), 30));
+        assertThatThrownBy(() -> doctorScheduleService.replace(1L, overlapping))
+                .isInstanceOf(InvalidScheduleException.class);
+
+        DoctorScheduleDTO tooShort = new DoctorScheduleDTO();
+        tooShort.getRules().add(new ScheduleRuleDTO(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(9, 20), 30));
+        assertThatThrownBy(() -> doctorScheduleService.replace(1L, tooShort))
+                .isInstanceOf(InvalidScheduleException.class);
+
+        DoctorScheduleDTO dayOffWithHours = new DoctorScheduleDTO();
+        dayOffWithHours.getExceptions().add(new ScheduleExceptionDTO(MONDAY, null, null, null));
+        dayOffWithHours.getExceptions().add(new ScheduleExceptionDTO(MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 0), 30));
+        assertThatThrownBy(() -> doctorScheduleService.replace(1L, dayOffWithHours))
+                .isInstanceOf(InvalidScheduleException.class);
+
+        assertThatThrownBy(() -> slotGenerator.generate(1L, SUNDAY, MONDAY))
+                .isInstanceOf(InvalidScheduleException.class);
+    }
+
+    private static DoctorScheduleDTO weekSchedule() {
+        DoctorScheduleDTO schedule = new DoctorScheduleDTO();
+        for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY,
+                DayOfWeek.FRIDAY)) {
+            schedule.getRules().add(new ScheduleRuleDTO(day, LocalTime.of(9, 0), LocalTime.of(12, 0), 30));
+        }
+        schedule.getRules().add(new ScheduleRuleDTO(DayOfWeek.WEDNESDAY, LocalTime.of(13, 0), LocalTime.of(15, 0), 60));
+        schedule.getExceptions().add(new ScheduleExceptionDTO(THURSDAY, null, null, null));
+        schedule.getExceptions().add(new ScheduleExceptionDTO(SATURDAY, LocalTime.of(10, 0), LocalTime.of(11, 0), 20));
+        return schedule;
+    }
+
+    private List<Integer> slotsPerDay(Long doctorId) {
+        List<Integer> counts = new ArrayList<>();
+        for (LocalDate date = MONDAY; !date.isAfter(SUNDAY); date = date.plusDays(1)) {
+            counts.add(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_slot WHERE doctor_id = ? AND date = ?",
+                    Integer.class, doctorId, date));
+        }
+        return counts;
+    }
+
+    private List<Long> slotIds(Long doctorId, LocalDate date) {
+        return jdbcTemplate.queryForList("SELECT id FROM time_slot WHERE doctor_id = ? AND date = ? ORDER BY start_time",
+                Long.class, doctorId, date);
+    }
+}
@@ -0,0 +1,194 @@
+package jp.github.minamoto.m.reservationsystem.service.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.service.TimeSlotService;
+
+/**
+ * 多数の SSE 購読者を実際の TCP 接続で張り、待機中のコストと変更の配信・まとめ送りを確認する。
+ *
+ * <p>{@code ./mvnw test -Dtest=SlotChangeStreamSoakTest -Dsoak=true} で実行する（通常のテストでは実行しない）。
+ * 購読者数は {@code -Dsoak.subscribers=N} で指定する（デフォルト 500）。
+ * クライアントとサーバーが同じプロセスのため、1接続あたりファイルディスクリプタを2つ使う。</p>
+ */
+@EnabledIfSystemProperty(named = "soak", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:soakdb;DB_CLOSE_DELAY=-1",
+        "app.stream.flush-interval-ms=500"
+})
+class SlotChangeStreamSoakTest {
+    private static final Logger log = LoggerFactory.getLogger(SlotChangeStreamSoakTest.class);
+
+    private static final int SUBSCRIBERS = Integer.getInteger("soak.subscribers", 500);
+
+    // data.sql の医師9・翌日の2番目の枠
+    private static final Long DOCTOR_ID = 9L;
+    private static final Long TIME_SLOT_ID = 326L;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SlotChangeHub slotChangeHub;
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void manyIdleSubscribers_receiveCoalescedChanges() throws Exception {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long heapBefore = usedHeap();
+
+        List<Client> clients = new ArrayList<>(SUBSCRIBERS);
+        try (Selector selector = Selector.open()) {
+            // Given: 同じ医師×日を多数のクライアントが購読している
+            long connectStartedAt = System.nanoTime();
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                clients.add(Client.open(selector, port, DOCTOR_ID, tomorrow));
+                if (i % 200 == 199) {
+                    // 受信バッファが溢れないよう途中でも読む
+                    readAvailable(selector, 0);
+                }
+            }
+            awaitAll(selector, clients, c -> c.count("event:ready") >= 1, 60);
+            long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStartedAt);
+            assertThat(slotChangeHub.subscriberCount()).isEqualTo(SUBSCRIBERS);
+
+            int threadsIdle = ManagementFactory.getThreadMXBean().getThreadCount();
+            long heapIdle = usedHeap();
+
+            // When: 短時間に同じ枠を繰り返し閉じる・開く（最後は開いた状態）
+            int toggles = 10;
+            long changedAt = System.nanoTime();
+            for (int i = 0; i < toggles; i++) {
+                timeSlotService.close(TIME_SLOT_ID);
+                timeSlotService.open(TIME_SLOT_ID);
+            }
+
+            // Then: 全員に最終状態（OPEN）が届き、変更回数よりずっと少ないイベントにまとめられている
+            awaitAll(selector, clients, c -> c.lastSlotsEventContains("\"timeSlotId\":" + TIME_SLOT_ID)
+                    && c.lastSlotsEventContains("\"status\":\"OPEN\""), 60);
+            long deliverMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - changedAt);
+            int maxEvents = clients.stream().mapToInt(c -> c.count("event:slots")).max().orElse(0);
+
+            log.info("subscribers={} connect={}ms threads={}->{} heapPerSubscriber={}B "
+                    + "changes={} maxEventsPerSubscriber={} deliverAll={}ms",
+                    SUBSCRIBERS, connectMillis, threadsBefore, threadsIdle,
+                    Math.max(0, heapIdle - heapBefore) / SUBSCRIBERS, toggles * 2, maxEvents, deliverMillis);
+
+            assertThat(maxEvents).isLessThan(toggles * 2);
+            // 待機中の購読者はスレッドを持たない（Tomcat のワーカー数の範囲でしか増えない）
+            assertThat(threadsIdle - threadsBefore).isLessThan(250);
+        } finally {
+            for (Client client : clients) {
+                client.channel.close();
+            }
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    jdbcTemplate.update("UPDATE time_slot SET status = 'OPEN' WHERE id = ?", TIME_SLOT_ID));
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void awaitAll(Selector selector, List<Client> clients, Predicate<Client> done, int timeoutSeconds)
+            throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        while (!clients.stream().allMatch(done)) {
+            if (System.nanoTime() > deadline) {
+                long remaining = clients.stream().filter(done.negate()).count();
+                throw new AssertionError(remaining + " subscribers did not receive the expected event");
+            }
+            readAvailable(selector, 100);
+        }
+    }
+
+    private static void readAvailable(Selector selector, long timeoutMillis) throws IOException {
+        if (timeoutMillis == 0) {
+            selector.selectNow();
+        } else {
+            selector.select(timeoutMillis);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        for (SelectionKey key : selector.selectedKeys()) {
+            Client client = (Client) key.attachment();
+            buffer.clear();
+            int read = client.channel.read(buffer);
+            if (read > 0) {
+                client.received.append(new String(buffer.array(), 0, read, StandardCharsets.UTF_8));
+            }
+        }
+        selector.selectedKeys().clear();
+    }
+
+    /**
+     * 1本の SSE 接続。受信したテキストをそのまま溜める。
+     */
+    private static final class Client {
+        final SocketChannel channel;
+        final StringBuilder received = new StringBuilder();
+
+        private Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        static Client open(Selector selector, int port, Long doctorId, LocalDate date) throws IOException {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+            String request = "GET /v1/timeslots/stream?doctorId=" + doctorId + "&date=" + date + " HTTP/1.1\r\n"
+                    + "Host: localhost\r\nAccept: text/event-stream\r\n\r\n";
+            channel.write(ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII)));
+            channel.configureBlocking(false);
+            Client client = new Client(channel);
+            channel.register(selector, SelectionKey.OP_READ, client);
+            return client;
+        }
+
+        int count(String text) {
+            int count = 0;
+            for (int i = received.indexOf(text); i >= 0; i = received.indexOf(text, i + text.length())) {
+                count++;
+            }
+            return count;
+        }
+
+        boolean lastSlotsEventContains(String text) {
+            int start = received.lastIndexOf("event:slots");
+            return start >= 0 && received.indexOf(text, start) >= 0;
+        }
+    }
+}
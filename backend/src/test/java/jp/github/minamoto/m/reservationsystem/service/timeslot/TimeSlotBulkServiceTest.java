@@ -0,0 +1,108 @@
+package jp.github.minamoto.m.reservationsystem.service.timeslot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jp.github.minamoto.m.reservationsystem.dto.ReservationCreateRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotBulkStatusRequestDTO;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotBulkStatusResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.ReservationService;
+import jp.github.minamoto.m.reservationsystem.service.calendar.OpenSlotCounterService;
+import jp.github.minamoto.m.reservationsystem.service.exception.InvalidTimeSlotRangeException;
+import jp.github.minamoto.m.reservationsystem.service.exception.RequestLimitExceededException;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulkdb;DB_CLOSE_DELAY=-1")
+class TimeSlotBulkServiceTest {
+
+    @Autowired
+    private TimeSlotBulkService timeSlotBulkService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private OpenSlotCounterService openSlotCounterService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void close_timeRange_closesOnlySlotsInside() {
+        // Given: 医師3の翌日の枠（09:00〜18:00、30分ごと）
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        TimeSlotBulkStatusRequestDTO dto = new TimeSlotBulkStatusRequestDTO(3L, tomorrow, tomorrow,
+                LocalTime.of(9, 0), LocalTime.of(12, 0));
+
+        // When
+        TimeSlotBulkStatusResponseDTO result = timeSlotBulkService.close(dto);
+
+        // Then: 09:00〜12:00 に収まる6枠だけが閉じられ、カウンタも合っている
+        assertThat(result.getStatus()).isEqualTo("DOCTOR_UNAVAILABLE");
+        assertThat(result.getUpdated()).isEqualTo(6);
+        assertThat(result.getUpdatedTimeSlotIds()).isEqualTo(slotIds(3L, tomorrow, "DOCTOR_UNAVAILABLE"));
+        assertThat(slotIds(3L, tomorrow, "OPEN")).hasSize(12);
+        assertThat(openSlotCounterService.verify(tomorrow, tomorrow)).isEmpty();
+
+        // 既に閉じている枠は更新しない
+        assertThat(timeSlotBulkService.close(dto).getUpdated()).isZero();
+    }
+
+    @Test
+    void open_skipsSlotsWithReservations() {
+        // Given: 医師4の翌日の最初の枠に予約があり、その日の枠をすべて閉じた
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        Long reservedId = slotIds(4L, tomorrow, "OPEN").get(0);
+        ReservationCreateRequestDTO reservation = new ReservationCreateRequestDTO();
+        reservation.setTimeSlotId(reservedId);
+        reservation.setName("一括");
+        reservation.setPhoneNumber("09000000000");
+        reservationService.create(reservation);
+
+        TimeSlotBulkStatusRequestDTO dto = new TimeSlotBulkStatusRequestDTO(4L, tomorrow, tomorrow, null, null);
+        assertThat(timeSlotBulkService.close(dto).getUpdated()).isEqualTo(18);
+        assertThat(openSlotCounterService.verify(tomorrow, tomorrow)).isEmpty();
+
+        // When
+        TimeSlotBulkStatusResponseDTO result = timeSlotBulkService.open(dto);
+
+        // Then: 予約のある枠以外の17枠が開く
+        assertThat(result.getStatus()).isEqualTo("OPEN");
+        assertThat(result.getUpdated()).isEqualTo(17);
+        assertThat(result.getUpdatedTimeSlotIds()).doesNotContain(reservedId);
+        assertThat(result.getSkipped()).isEqualTo(1);
+        assertThat(result.getSkippedTimeSlotIds()).containsExactly(reservedId);
+        assertThat(slotIds(4L, tomorrow, "DOCTOR_UNAVAILABLE")).containsExactly(reservedId);
+        assertThat(openSlotCounterService.verify(tomorrow, tomorrow)).isEmpty();
+    }
+
+    @Test
+    void invalidRange_throws() {
+        LocalDate today = LocalDate.now();
+        assertThatThrownBy(() -> timeSlotBulkService.close(
+                new TimeSlotBulkStatusRequestDTO(null, today, today, null, null)))
+                .isInstanceOf(InvalidTimeSlotRangeException.class);
+        assertThatThrownBy(() -> timeSlotBulkService.open(
+                new TimeSlotBulkStatusRequestDTO(1L, today.plusDays(1), today, null, null)))
+                .isInstanceOf(InvalidTimeSlotRangeException.class);
+        assertThatThrownBy(() -> timeSlotBulkService.close(
+                new TimeSlotBulkStatusRequestDTO(1L, today, today, LocalTime.of(12, 0), null)))
+                .isInstanceOf(InvalidTimeSlotRangeException.class);
+        assertThatThrownBy(() -> timeSlotBulkService.close(
+                new TimeSlotBulkStatusRequestDTO(1L, today, today.plusYears(1), null, null)))
+                .isInstanceOf(RequestLimitExceededException.class);
+    }
+
+    private List<Long> slotIds(Long doctorId, LocalDate date, String status) {
+        return jdbcTemplate.queryForList("SELECT id FROM time_slot WHERE doctor_id = ? AND date = ? AND status = ? ORDER BY id",
+                Long.class, doctorId, date, status);
+    }
+}
@@ -0,0 +1,124 @@
+package jp.github.minamoto.m.reservationsystem.service.version;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.github.minamoto.m.reservationsystem.domain.TimeSlotStatus;
+import jp.github.minamoto.m.reservationsystem.dto.TimeSlotAvailableResponseDTO;
+import jp.github.minamoto.m.reservationsystem.service.TimeSlotService;
+import jp.github.minamoto.m.reservationsystem.service.event.TimeSlotStatusChangedEvent;
+
+@SpringBootTest
+class SlotVersionServiceTest {
+
+    // data.sql の医師9・翌日の最初の枠
+    private static final Long DOCTOR_ID = 9L;
+    private static final Long TIME_SLOT_ID = 325L;
+
+    @Autowired
+    private SlotVersionService slotVersionService;
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+    @Test
+    void etag_changesOnlyAfterCommittedStatusChange() {
+        String initial = slotVersionService.etag(DOCTOR_ID, tomorrow);
+        // 2回目はキャッシュから同じ値
+        assertThat(slotVersionService.etag(DOCTOR_ID, tomorrow)).isEqualTo(initial);
+
+        // ロールバックされた変更では変わらない
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            timeSlotService.close(TIME_SLOT_ID);
+            status.setRollbackOnly();
+        });
+        assertThat(slotVersionService.etag(DOCTOR_ID, tomorrow)).isEqualTo(initial);
+
+        try {
+            timeSlotService.close(TIME_SLOT_ID);
+            String closed = slotVersionService.etag(DOCTOR_ID, tomorrow);
+            assertThat(closed).isNotEqualTo(initial);
+
+            timeSlotService.open(TIME_SLOT_ID);
+            String reopened = slotVersionService.etag(DOCTOR_ID, tomorrow);
+            // 同じステータスに戻っても以前の ETag には戻らない
+            assertThat(reopened).isNotEqualTo(initial).isNotEqualTo(closed);
+        } finally {
+            tx.executeWithoutResult(status ->
+                    jdbcTemplate.update("UPDATE time_slot SET status = 'OPEN' WHERE id = ?", TIME_SLOT_ID));
+        }
+
+        // 他の医師・日には影響しない
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(version) FROM time_slot WHERE doctor_id = ? AND date <> ?", Long.class, DOCTOR_ID, tomorrow))
+                .isZero();
+    }
+
+    @Test
+    void findAvailableWithEtag_readFromDb_etagMatchesListVersion() {
+        // 一覧と同じトランザクションで読んだ ETag は、遅延のない構成ではプライマリの ETag と一致する
+        TimeSlotService.AvailableSlots available = timeSlotService.findAvailableWithEtag(tomorrow, DOCTOR_ID);
+        assertThat(available.etag()).isEqualTo(slotVersionService.etag(DOCTOR_ID, tomorrow));
+    }
+
+    @Test
+    void contentEtag_changesWithOpenSlots() {
+        List<TimeSlotAvailableResponseDTO> slots = List.of(
+                new TimeSlotAvailableResponseDTO(1L, "09:00"), new TimeSlotAvailableResponseDTO(2L, "09:30"));
+        String etag = slotVersionService.contentEtag(DOCTOR_ID, tomorrow, slots);
+
+        assertThat(slotVersionService.contentEtag(DOCTOR_ID, tomorrow, List.copyOf(slots))).isEqualTo(etag);
+        assertThat(slotVersionService.contentEtag(DOCTOR_ID, tomorrow, slots.subList(0, 1))).isNotEqualTo(etag);
+    }
+
+    @Test
+    void bump_recordsCommittedVersionInEvent() {
+        Long timeSlotId = TIME_SLOT_ID + 2;
+        long before = jdbcTemplate.queryForObject("SELECT version FROM time_slot WHERE id = ?", Long.class, timeSlotId);
+        TimeSlotStatusChangedEvent event = TimeSlotStatusChangedEvent.of(timeSlotId, TimeSlotStatus.OPEN,
+                TimeSlotStatus.OPEN);
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> eventPublisher.publishEvent(event));
+
+        // Then: コミット後のリスナーは進めた後の version を受け取る
+        assertThat(event.version(timeSlotId)).isEqualTo(before + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM time_slot WHERE id = ?", Long.class, timeSlotId))
+                .isEqualTo(before + 1);
+    }
+
+    @Test
+    void etag_withoutLocalCache_seesChangesFromOtherNodes() {
+        SlotVersionService otherNode = new SlotVersionService(jdbcTemplate, "none", 100, Duration.ofSeconds(1));
+        String before = otherNode.etag(DOCTOR_ID, tomorrow);
+
+        // 別ノードでの変更（このノードのキャッシュには通知されない）
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.update("UPDATE time_slot SET version = version + 1 WHERE id = ?", TIME_SLOT_ID + 1));
+
+        assertThat(otherNode.etag(DOCTOR_ID, tomorrow)).isNotEqualTo(before);
+    }
+}
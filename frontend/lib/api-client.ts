@@ -25,6 +25,17 @@ export function getApiUrl(): string {
     endpoint: string,
     options?: RequestInit
   ): Promise<T> {
+    const { data } = await fetchApiWithHeaders<T>(endpoint, options);
+    return data;
+  }
+
+  /**
+   * レスポンスヘッダーも返すfetch関数（X-Next-Cursor などを読む場合に使う）
+   */
+  export async function fetchApiWithHeaders<T>(
+    endpoint: string,
+    options?: RequestInit
+  ): Promise<{ data: T; headers: Headers }> {
     const baseUrl = getApiUrl();
     const url = `${baseUrl}${endpoint}`;
     
@@ -57,12 +68,12 @@ export function getApiUrl(): string {
   
     // 204 No Content の場合
     if (res.status === 204) {
-      return null as T;
+      return { data: null as T, headers: res.headers };
     }
 
     const text = await res.text();
     if (!text) {
-      return null as T;
+      return { data: null as T, headers: res.headers };
     }
-    return JSON.parse(text) as T;
+    return { data: JSON.parse(text) as T, headers: res.headers };
   }
\ No newline at end of file
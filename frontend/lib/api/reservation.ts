@@ -1,4 +1,4 @@
-import { fetchApi } from '@/lib/api-client';
+import { fetchApi, fetchApiWithHeaders } from '@/lib/api-client';
 
 export type ReservationCreateRequest = {
   timeSlotId: number;
@@ -32,9 +32,19 @@ export const reservationApi = {
 
   /**
    * 予約一覧を取得する（CONFIRMED のもの）
+   *
+   * API は1ページずつ返すため、X-Next-Cursor ヘッダーがなくなるまで次のページを取得してつなげる
    */
   list: async (): Promise<ReservationResponse[]> => {
-    return fetchApi<ReservationResponse[]>('/v1/reservations');
+    const reservations: ReservationResponse[] = [];
+    let cursor: string | null = null;
+    do {
+      const query: string = cursor ? `?cursor=${encodeURIComponent(cursor)}` : '';
+      const { data, headers } = await fetchApiWithHeaders<ReservationResponse[]>(`/v1/reservations${query}`);
+      reservations.push(...(data ?? []));
+      cursor = headers.get('X-Next-Cursor');
+    } while (cursor);
+    return reservations;
   },
 
   /**